@@ -22,6 +22,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 import java.sql.Connection;
@@ -33,6 +34,7 @@
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import javafx.animation.KeyValue;
 
@@ -47,12 +49,12 @@
 public abstract class AbstractSqlEamDb implements EamDb {
 
     private final static Logger LOGGER = Logger.getLogger(AbstractSqlEamDb.class.getName());
+    private static final int KNOWN_BAD_VALUES_FETCH_SIZE = 10000;
 
     protected final List<EamArtifact.Type> DEFAULT_CORRELATION_TYPES;
 
-    private int bulkArtifactsCount;
-    protected int bulkArtifactsThreshold;
-    private final Map<String, Collection<EamArtifact>> bulkArtifacts;
+    protected volatile int bulkArtifactsThreshold;
+    private final BulkArtifactBuffer bulkArtifacts;
     private final List<String> badTags;
 
     /**
@@ -62,13 +64,9 @@ public abstract class AbstractSqlEamDb implements EamDb {
      */
     protected AbstractSqlEamDb() throws EamDbException{
         badTags = new ArrayList<>();
-        bulkArtifactsCount = 0;
-        bulkArtifacts = new HashMap<>();
+        bulkArtifacts = new BulkArtifactBuffer(this, () -> bulkArtifactsThreshold);
 
         DEFAULT_CORRELATION_TYPES = EamArtifact.getDefaultCorrelationTypes();
-        DEFAULT_CORRELATION_TYPES.forEach((type) -> {
-            bulkArtifacts.put(type.getDbTableName(), new ArrayList<>());
-        });
     }
 
     /**
@@ -864,23 +862,17 @@ public Long getCountArtifactInstancesByCaseDataSource(String caseUUID, String da
     }
 
     /**
-     * Adds an eamArtifact to an internal list to be later added to DB. Artifact
-     * can have 1 or more Artifact Instances. Insert will be triggered by a
-     * threshold or a call to bulkInsertArtifacts().
+     * Adds an eamArtifact to an internal queue to be later added to DB.
+     * Artifact can have 1 or more Artifact Instances. Insert will be triggered
+     * on a background thread by a threshold, or on the calling thread by a
+     * call to bulkInsertArtifacts(). Blocks if too many artifacts are waiting
+     * to be inserted.
      *
      * @param eamArtifact The artifact to add
      */
     @Override
     public void prepareBulkArtifact(EamArtifact eamArtifact) throws EamDbException {
-
-        synchronized (bulkArtifacts) {
-            bulkArtifacts.get(eamArtifact.getCorrelationType().getDbTableName()).add(eamArtifact);
-            bulkArtifactsCount++;
-
-            if (bulkArtifactsCount >= bulkArtifactsThreshold) {
-                bulkInsertArtifacts();
-            }
-        }
+        bulkArtifacts.add(eamArtifact);
     }
 
     /**
@@ -890,67 +882,251 @@ public void prepareBulkArtifact(EamArtifact eamArtifact) throws EamDbException {
      */
     protected abstract String getConflictClause();
 
+    /**
+     * Get the number of rows to put in one multi-row INSERT statement when
+     * inserting bulk artifacts. With one row per statement, the statements
+     * are sent as a JDBC batch.
+     *
+     * @return The number of rows
+     */
+    protected int getBulkInsertRowsPerStatement() {
+        return 1;
+    }
+
     /**
      * Executes a bulk insert of the eamArtifacts added from the
      * prepareBulkArtifact() method
      */
     @Override
     public void bulkInsertArtifacts() throws EamDbException {
-        List<EamArtifact.Type> artifactTypes = getCorrelationTypes();
+        bulkArtifacts.flush();
+    }
 
-        Connection conn = connect();
-        PreparedStatement bulkPs = null;
+    /**
+     * Gets the number of artifacts added by prepareBulkArtifact() that are
+     * waiting to be inserted.
+     *
+     * @return The number of artifacts
+     */
+    public int getBulkArtifactsQueueDepth() {
+        return bulkArtifacts.getQueuedCount();
+    }
 
-        try {
-            synchronized (bulkArtifacts) {
-                if (bulkArtifactsCount == 0) {
-                    return;
-                }
+    /**
+     * Gets the average time taken to insert a batch of bulk artifacts.
+     *
+     * @return The average time in milliseconds
+     */
+    public long getBulkArtifactsAverageFlushMillis() {
+        return bulkArtifacts.getAverageFlushMillis();
+    }
+
+    /**
+     * Inserts a batch of artifacts of one correlation type in a single
+     * transaction. Called by the bulk artifact buffer. If the transaction
+     * fails, it is rolled back and the rows of the batch are inserted one at a
+     * time, so that one bad row does not cost the whole batch.
+     *
+     * @param type         The correlation type of the artifacts
+     * @param eamArtifacts The artifacts
+     *
+     * @throws EamDbException If the ids of the cases or data sources could
+     *                        not be looked up, or if any row could not be
+     *                        inserted on its own
+     */
+    void insertArtifactBatch(EamArtifact.Type type, List<EamArtifact> eamArtifacts) throws EamDbException {
+        // flatten to rows, looking each case and data source id up only once
+        List<Object[]> rows = new ArrayList<>();
+        Map<String, Integer> caseIds = new HashMap<>();
+        Map<String, Integer> dataSourceIds = new HashMap<>();
 
-                for (EamArtifact.Type type : artifactTypes) {
-
-                    String tableName = EamDbUtil.correlationTypeToInstanceTableName(type);
-                    StringBuilder sql = new StringBuilder();
-                    sql.append("INSERT INTO ");
-                    sql.append(tableName);
-                    sql.append(" (case_id, data_source_id, value, file_path, known_status, comment) ");
-                    sql.append("VALUES ((SELECT id FROM cases WHERE case_uid=? LIMIT 1), ");
-                    sql.append("(SELECT id FROM data_sources WHERE device_id=? LIMIT 1), ?, ?, ?, ?) ");
-                    sql.append(getConflictClause());
-
-                    bulkPs = conn.prepareStatement(sql.toString());
-
-                    Collection<EamArtifact> eamArtifacts = bulkArtifacts.get(type.getDbTableName());
-                    for (EamArtifact eamArtifact : eamArtifacts) {
-                        List<EamArtifactInstance> eamInstances = eamArtifact.getInstances();
-
-                        for (EamArtifactInstance eamInstance : eamInstances) {
-                            bulkPs.setString(1, eamInstance.getEamCase().getCaseUUID());
-                            bulkPs.setString(2, eamInstance.getEamDataSource().getDeviceID());
-                            bulkPs.setString(3, eamArtifact.getCorrelationValue());
-                            bulkPs.setString(4, eamInstance.getFilePath());
-                            bulkPs.setString(5, eamInstance.getKnownStatus().name());
-                            if ("".equals(eamInstance.getComment())) {
-                                bulkPs.setNull(6, Types.INTEGER);
-                            } else {
-                                bulkPs.setString(6, eamInstance.getComment());
-                            }
-                            bulkPs.addBatch();
+        Connection conn = connect();
+        try {
+            try {
+                for (EamArtifact eamArtifact : eamArtifacts) {
+                    for (EamArtifactInstance eamInstance : eamArtifact.getInstances()) {
+                        String caseUUID = eamInstance.getEamCase().getCaseUUID();
+                        if (!caseIds.containsKey(caseUUID)) {
+                            caseIds.put(caseUUID, queryId(conn, "SELECT id FROM cases WHERE case_uid=? LIMIT 1", caseUUID));
                         }
+                        String deviceId = eamInstance.getEamDataSource().getDeviceID();
+                        if (!dataSourceIds.containsKey(deviceId)) {
+                            dataSourceIds.put(deviceId, queryId(conn, "SELECT id FROM data_sources WHERE device_id=? LIMIT 1", deviceId));
+                        }
+                        rows.add(new Object[]{
+                            caseIds.get(caseUUID),
+                            dataSourceIds.get(deviceId),
+                            eamArtifact.getCorrelationValue(),
+                            eamInstance.getFilePath(),
+                            eamInstance.getKnownStatus().name(),
+                            "".equals(eamInstance.getComment()) ? null : eamInstance.getComment()});
                     }
+                }
+            } catch (SQLException ex) {
+                throw new EamDbException("Error looking up bulk artifact case and data source ids.", ex); // NON-NLS
+            }
 
-                    bulkPs.executeBatch();
-                    bulkArtifacts.get(type.getDbTableName()).clear();
+            String tableName = EamDbUtil.correlationTypeToInstanceTableName(type);
+            SQLException batchError = insertArtifactRowsInOneTransaction(conn, tableName, rows);
+            if (batchError != null) {
+                LOGGER.log(Level.WARNING, "Error inserting " + rows.size() + " bulk artifact rows into " + tableName + " in one transaction, inserting them one at a time", batchError); // NON-NLS
+                insertArtifactRowsOneAtATime(conn, tableName, rows);
+            }
+        } finally {
+            EamDbUtil.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Inserts bulk artifact rows in a single transaction, rolling it back if
+     * it fails.
+     *
+     * @param conn      The connection
+     * @param tableName The artifact instance table
+     * @param rows      The rows
+     *
+     * @return The error that made the transaction fail, or null if all of the
+     *         rows were inserted
+     */
+    private SQLException insertArtifactRowsInOneTransaction(Connection conn, String tableName, List<Object[]> rows) {
+        PreparedStatement bulkPs = null;
+        PreparedStatement tailPs = null;
+        boolean autoCommit = true;
+        try {
+            int rowsPerStatement = Integer.max(1, getBulkInsertRowsPerStatement());
+            int fullStatements = rows.size() / rowsPerStatement;
+            int tailRows = rows.size() % rowsPerStatement;
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            if (fullStatements > 0) {
+                bulkPs = conn.prepareStatement(getBulkInsertSql(tableName, rowsPerStatement));
+                for (int i = 0; i < fullStatements; i++) {
+                    setBulkInsertRows(bulkPs, rows.subList(i * rowsPerStatement, (i + 1) * rowsPerStatement));
+                    bulkPs.addBatch();
                 }
+                bulkPs.executeBatch();
+            }
+            if (tailRows > 0) {
+                tailPs = conn.prepareStatement(getBulkInsertSql(tableName, tailRows));
+                setBulkInsertRows(tailPs, rows.subList(fullStatements * rowsPerStatement, rows.size()));
+                tailPs.executeUpdate();
+            }
+            conn.commit();
+            return null;
+        } catch (SQLException ex) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackEx) {
+                LOGGER.log(Level.WARNING, "Error rolling back bulk artifact insert.", rollbackEx); // NON-NLS
+            }
+            return ex;
+        } finally {
+            EamDbUtil.closePreparedStatement(bulkPs);
+            EamDbUtil.closePreparedStatement(tailPs);
+            restoreAutoCommit(conn, autoCommit);
+        }
+    }
 
-                // Reset state
-                bulkArtifactsCount = 0;
+    /**
+     * Inserts bulk artifact rows one at a time, each in its own transaction,
+     * skipping the rows that fail.
+     *
+     * @param conn      The connection
+     * @param tableName The artifact instance table
+     * @param rows      The rows
+     *
+     * @throws EamDbException If any of the rows could not be inserted, after
+     *                        all of the other rows are inserted
+     */
+    private void insertArtifactRowsOneAtATime(Connection conn, String tableName, List<Object[]> rows) throws EamDbException {
+        PreparedStatement rowPs = null;
+        SQLException firstError = null;
+        int failedRows = 0;
+        boolean autoCommit = true;
+        try {
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(true);
+            rowPs = conn.prepareStatement(getBulkInsertSql(tableName, 1));
+            for (Object[] row : rows) {
+                try {
+                    setBulkInsertRows(rowPs, Collections.singletonList(row));
+                    rowPs.executeUpdate();
+                } catch (SQLException ex) {
+                    LOGGER.log(Level.WARNING, "Error inserting bulk artifact row with value " + row[2] + " into " + tableName, ex); // NON-NLS
+                    if (firstError == null) {
+                        firstError = ex;
+                    }
+                    failedRows++;
+                }
             }
         } catch (SQLException ex) {
             throw new EamDbException("Error inserting bulk artifacts.", ex); // NON-NLS
         } finally {
-            EamDbUtil.closePreparedStatement(bulkPs);
-            EamDbUtil.closeConnection(conn);
+            EamDbUtil.closePreparedStatement(rowPs);
+            restoreAutoCommit(conn, autoCommit);
+        }
+        if (failedRows > 0) {
+            throw new EamDbException("Error inserting " + failedRows + " of " + rows.size() + " bulk artifact rows.", firstError); // NON-NLS
+        }
+    }
+
+    /**
+     * Builds an INSERT statement for an artifact instance table with the
+     * given number of rows.
+     */
+    private String getBulkInsertSql(String tableName, int numRows) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("INSERT INTO ");
+        sql.append(tableName);
+        sql.append(" (case_id, data_source_id, value, file_path, known_status, comment) VALUES ");
+        for (int i = 0; i < numRows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+        sql.append(" ");
+        sql.append(getConflictClause());
+        return sql.toString();
+    }
+
+    /**
+     * Sets the parameters of a bulk artifact INSERT statement.
+     */
+    private static void setBulkInsertRows(PreparedStatement ps, List<Object[]> rows) throws SQLException {
+        int param = 1;
+        for (Object[] row : rows) {
+            for (int column = 0; column < 2; column++) {
+                if (row[column] == null) {
+                    ps.setNull(param++, Types.INTEGER);
+                } else {
+                    ps.setInt(param++, (Integer) row[column]);
+                }
+            }
+            for (int column = 2; column < row.length; column++) {
+                if (row[column] == null) {
+                    ps.setNull(param++, Types.INTEGER);
+                } else {
+                    ps.setString(param++, (String) row[column]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a query for a single id.
+     *
+     * @return The id, or null if there was no matching row
+     */
+    private static Integer queryId(Connection conn, String sql, String parameter) throws SQLException {
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        try {
+            preparedStatement = conn.prepareStatement(sql);
+            preparedStatement.setString(1, parameter);
+            resultSet = preparedStatement.executeQuery();
+            return resultSet.next() ? resultSet.getInt(1) : null;
+        } finally {
+            EamDbUtil.closePreparedStatement(preparedStatement);
+            EamDbUtil.closeResultSet(resultSet);
         }
     }
 
@@ -1289,6 +1465,112 @@ public boolean isArtifactlKnownBadByReference(EamArtifact.Type aType, String val
         return 0 < badInstances;
     }
 
+    /**
+     * Passes the values of the reference entries marked as bad, with ids
+     * greater than the given id, to a consumer.
+     *
+     * @param aType         EamArtifact.Type to search for
+     * @param afterId       Only entries with ids greater than this are
+     *                      processed. Use 0 to process all entries.
+     * @param valueConsumer Consumer for the values
+     *
+     * @return The highest id processed, or afterId if there were no entries
+     *
+     * @throws EamDbException
+     */
+    @Override
+    public long processKnownBadReferenceValues(EamArtifact.Type aType, long afterId, Consumer<String> valueConsumer) throws EamDbException {
+
+        // TEMP: Only support file correlation type
+        if (aType.getId() != EamArtifact.FILES_TYPE_ID) {
+            return afterId;
+        }
+
+        String sql = "SELECT id, value FROM %s WHERE id > ? AND known_status=?";
+        long maxId = afterId;
+        Connection conn = connect();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        boolean autoCommit = true;
+        try {
+            // PostgreSQL only streams a result set in fetch size batches
+            // inside a transaction.
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            preparedStatement = conn.prepareStatement(String.format(sql, EamDbUtil.correlationTypeToReferenceTableName(aType)));
+            preparedStatement.setFetchSize(KNOWN_BAD_VALUES_FETCH_SIZE);
+            preparedStatement.setLong(1, afterId);
+            preparedStatement.setString(2, TskData.FileKnown.BAD.name());
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                maxId = Long.max(maxId, resultSet.getLong("id"));
+                valueConsumer.accept(resultSet.getString("value"));
+            }
+            conn.commit();
+        } catch (SQLException ex) {
+            throw new EamDbException("Error getting known bad reference values.", ex); // NON-NLS
+        } finally {
+            EamDbUtil.closePreparedStatement(preparedStatement);
+            EamDbUtil.closeResultSet(resultSet);
+            restoreAutoCommit(conn, autoCommit);
+            EamDbUtil.closeConnection(conn);
+        }
+
+        return maxId;
+    }
+
+    /**
+     * Passes the distinct values of the artifact instances marked as bad to a
+     * consumer.
+     *
+     * @param aType         EamArtifact.Type to search for
+     * @param valueConsumer Consumer for the values
+     *
+     * @throws EamDbException
+     */
+    @Override
+    public void processKnownBadInstanceValues(EamArtifact.Type aType, Consumer<String> valueConsumer) throws EamDbException {
+        String sql = "SELECT DISTINCT value FROM %s WHERE known_status=?";
+        Connection conn = connect();
+        PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        boolean autoCommit = true;
+        try {
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            preparedStatement = conn.prepareStatement(String.format(sql, EamDbUtil.correlationTypeToInstanceTableName(aType)));
+            preparedStatement.setFetchSize(KNOWN_BAD_VALUES_FETCH_SIZE);
+            preparedStatement.setString(1, TskData.FileKnown.BAD.name());
+            resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                valueConsumer.accept(resultSet.getString("value"));
+            }
+            conn.commit();
+        } catch (SQLException ex) {
+            throw new EamDbException("Error getting known bad artifact instance values.", ex); // NON-NLS
+        } finally {
+            EamDbUtil.closePreparedStatement(preparedStatement);
+            EamDbUtil.closeResultSet(resultSet);
+            restoreAutoCommit(conn, autoCommit);
+            EamDbUtil.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Restores the auto commit mode of a connection before it goes back to
+     * the connection pool.
+     *
+     * @param conn       The connection
+     * @param autoCommit The auto commit mode to restore
+     */
+    private static void restoreAutoCommit(Connection conn, boolean autoCommit) {
+        try {
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Error restoring connection auto commit mode.", ex); // NON-NLS
+        }
+    }
+
     /**
      * Add a new organization
      *
@@ -0,0 +1,238 @@
+/*
+ * Central Repository
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.centralrepository.datamodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * Buffers artifacts for bulk insertion into the artifact instance tables.
+ * Ingest threads add artifacts to lock-free queues, one per correlation type,
+ * and a background thread inserts them in batches once the bulk threshold is
+ * reached, so ingest threads do not wait for the database. An ingest thread
+ * only blocks if the flusher has fallen so far behind that the number of
+ * queued artifacts reaches a multiple of the threshold.
+ */
+final class BulkArtifactBuffer {
+
+    private static final Logger LOGGER = Logger.getLogger(BulkArtifactBuffer.class.getName());
+    private static final int MAX_QUEUED_THRESHOLDS = 4;
+    private final AbstractSqlEamDb db;
+    private final IntSupplier threshold;
+    private final ConcurrentMap<String, TypeQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger queuedCount = new AtomicInteger(0);
+    private final Lock backPressureLock = new ReentrantLock();
+    private final Condition notFull = backPressureLock.newCondition();
+    private final Object insertLock = new Object(); // serializes inserts
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicReference<EamDbException> flushError = new AtomicReference<>();
+    private final ExecutorService flusher;
+    // metrics
+    private final AtomicLong flushCount = new AtomicLong(0);
+    private final AtomicLong totalFlushNanos = new AtomicLong(0);
+    private final AtomicLong maxFlushNanos = new AtomicLong(0);
+    private final AtomicInteger maxQueuedCount = new AtomicInteger(0);
+
+    /**
+     * Constructs a buffer and starts its flusher thread.
+     *
+     * @param db        The database to insert the artifacts into.
+     * @param threshold Supplies the bulk threshold, which is both the number
+     *                  of queued artifacts that starts a background flush and
+     *                  the maximum number of artifacts in one batch.
+     */
+    BulkArtifactBuffer(AbstractSqlEamDb db, IntSupplier threshold) {
+        this.db = db;
+        this.threshold = threshold;
+        this.flusher = Executors.newSingleThreadExecutor((Runnable r) -> {
+            Thread thread = new Thread(r, "central-repo-bulk-insert"); //NON-NLS
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues an artifact for insertion, blocking while the queue is full.
+     *
+     * @param eamArtifact The artifact.
+     *
+     * @throws EamDbException If interrupted while waiting for queue space.
+     */
+    void add(EamArtifact eamArtifact) throws EamDbException {
+        int batchSize = getBatchSize();
+        int maxQueued = batchSize * MAX_QUEUED_THRESHOLDS;
+        if (queuedCount.get() >= maxQueued) {
+            backPressureLock.lock();
+            try {
+                while (queuedCount.get() >= maxQueued) {
+                    scheduleFlush();
+                    notFull.await(1, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new EamDbException("Interrupted while waiting to queue artifact for bulk insert.", ex); // NON-NLS
+            } finally {
+                backPressureLock.unlock();
+            }
+        }
+
+        EamArtifact.Type type = eamArtifact.getCorrelationType();
+        queues.computeIfAbsent(type.getDbTableName(), (String tableName) -> new TypeQueue(type)).artifacts.add(eamArtifact);
+        int queued = queuedCount.incrementAndGet();
+        maxQueuedCount.accumulateAndGet(queued, Integer::max);
+        if (queued >= batchSize) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Inserts all queued artifacts on the calling thread, after any background
+     * insert that is running.
+     *
+     * @throws EamDbException If this or any background insert since the last
+     *                        call failed. A batch that fails as a whole is
+     *                        inserted again one row at a time; the rows that
+     *                        still fail are not retried.
+     */
+    void flush() throws EamDbException {
+        insertQueuedArtifacts();
+        logStatistics();
+        EamDbException error = flushError.getAndSet(null);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Gets the number of artifacts waiting to be inserted.
+     *
+     * @return The queue depth.
+     */
+    int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    /**
+     * Gets the average time taken to insert one batch.
+     *
+     * @return The average time in milliseconds.
+     */
+    long getAverageFlushMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalFlushNanos.get() / flushes);
+    }
+
+    private int getBatchSize() {
+        return Integer.max(1, threshold.getAsInt());
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                try {
+                    insertQueuedArtifacts();
+                } finally {
+                    flushScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Takes batches off of the queues and inserts them until the queues are
+     * empty. A failed batch is logged and recorded for the next flush() call,
+     * and insertion goes on with the next batch.
+     */
+    private void insertQueuedArtifacts() {
+        synchronized (insertLock) {
+            int batchSize = getBatchSize();
+            for (TypeQueue queue : queues.values()) {
+                List<EamArtifact> batch = new ArrayList<>(batchSize);
+                EamArtifact eamArtifact;
+                while ((eamArtifact = queue.artifacts.poll()) != null) {
+                    batch.add(eamArtifact);
+                    if (batch.size() >= batchSize) {
+                        insertBatch(queue.type, batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    insertBatch(queue.type, batch);
+                }
+            }
+        }
+    }
+
+    private void insertBatch(EamArtifact.Type type, List<EamArtifact> batch) {
+        long startNanos = System.nanoTime();
+        try {
+            db.insertArtifactBatch(type, batch);
+        } catch (EamDbException ex) {
+            LOGGER.log(Level.SEVERE, "Error inserting " + batch.size() + " bulk artifacts into " + EamDbUtil.correlationTypeToInstanceTableName(type), ex); // NON-NLS
+            flushError.compareAndSet(null, ex);
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            flushCount.incrementAndGet();
+            totalFlushNanos.addAndGet(elapsedNanos);
+            maxFlushNanos.accumulateAndGet(elapsedNanos, Long::max);
+            queuedCount.addAndGet(-batch.size());
+            backPressureLock.lock();
+            try {
+                notFull.signalAll();
+            } finally {
+                backPressureLock.unlock();
+            }
+        }
+    }
+
+    private void logStatistics() {
+        LOGGER.log(Level.INFO, "Bulk artifact inserts: {0} batches, {1} ms average, {2} ms max, {3} artifacts queued at most, {4} queued now", //NON-NLS
+                new Object[]{flushCount.get(), getAverageFlushMillis(), TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()),
+                    maxQueuedCount.get(), queuedCount.get()});
+    }
+
+    /**
+     * The queued artifacts of one correlation type.
+     */
+    private static final class TypeQueue {
+
+        private final EamArtifact.Type type;
+        private final ConcurrentLinkedQueue<EamArtifact> artifacts = new ConcurrentLinkedQueue<>();
+
+        private TypeQueue(EamArtifact.Type type) {
+            this.type = type;
+        }
+    }
+}
@@ -20,6 +20,7 @@
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Main interface for interacting with the database
@@ -359,6 +360,34 @@ static boolean isEnabled() {
      */
     boolean isArtifactlKnownBadByReference(EamArtifact.Type aType, String value) throws EamDbException;
 
+    /**
+     * Passes the values of the reference entries marked as bad, with ids
+     * greater than the given id, to a consumer. Reference entries are never
+     * updated once added, so a caller can fetch just the new entries by
+     * passing the highest id it has seen.
+     *
+     * @param aType         EamArtifact.Type to search for
+     * @param afterId       Only entries with ids greater than this are
+     *                      processed. Use 0 to process all entries.
+     * @param valueConsumer Consumer for the values
+     *
+     * @return The highest id processed, or afterId if there were no entries
+     *
+     * @throws EamDbException
+     */
+    long processKnownBadReferenceValues(EamArtifact.Type aType, long afterId, Consumer<String> valueConsumer) throws EamDbException;
+
+    /**
+     * Passes the distinct values of the artifact instances marked as bad to a
+     * consumer.
+     *
+     * @param aType         EamArtifact.Type to search for
+     * @param valueConsumer Consumer for the values
+     *
+     * @throws EamDbException
+     */
+    void processKnownBadInstanceValues(EamArtifact.Type aType, Consumer<String> valueConsumer) throws EamDbException;
+
     /**
      * Add a new organization
      *
@@ -35,6 +35,7 @@ public class PostgresEamDb extends AbstractSqlEamDb {
     private final static Logger LOGGER = Logger.getLogger(PostgresEamDb.class.getName());
 
     private final static String CONFLICT_CLAUSE = "ON CONFLICT DO NOTHING";
+    private static final int BULK_INSERT_ROWS_PER_STATEMENT = 500;
 
     private static PostgresEamDb instance;
 
@@ -185,6 +186,12 @@ protected String getConflictClause() {
         return CONFLICT_CLAUSE;
     }
 
+    @Override
+    protected int getBulkInsertRowsPerStatement() {
+        // 6 parameters per row, well under the PostgreSQL limit of 32767
+        return BULK_INSERT_ROWS_PER_STATEMENT;
+    }
+
     @Override
     public List<String> getBadTags() {
         return dbSettings.getBadTags();
@@ -64,6 +64,7 @@ class IngestModule implements FileIngestModule {
     private EamDataSource eamDataSource;
     private Blackboard blackboard;
     private EamArtifact.Type filesType;
+    private KnownBadCache knownBadCache;
 
     @Override
     public ProcessResult process(AbstractFile af) {
@@ -107,8 +108,12 @@ public ProcessResult process(AbstractFile af) {
             return ProcessResult.OK;
         }
 
+        // the cached known bad values answer most lookups without a query
+        boolean useKnownBadCache = (knownBadCache != null) && knownBadCache.refreshIfStale(dbManager);
+
         // If unknown to both the hash module and as a globally known artifact in the EAM DB, correlate to other cases
-        if (af.getKnown() == TskData.FileKnown.UNKNOWN) {
+        if (af.getKnown() == TskData.FileKnown.UNKNOWN
+                && (!useKnownBadCache || knownBadCache.hasKnownBadInstances(md5))) {
             // query db for artifact instances having this MD5 and knownStatus = "Bad".
             try {
                 // if af.getKnown() is "UNKNOWN" and this artifact instance was marked bad in a previous case, 
@@ -125,7 +130,10 @@ public ProcessResult process(AbstractFile af) {
 
         // Make a TSK_HASHSET_HIT blackboard artifact for global known bad files
         try {
-            if (dbManager.isArtifactlKnownBadByReference(filesType, md5)) {
+            boolean knownBadByReference = useKnownBadCache
+                    ? knownBadCache.isKnownBadByReference(md5)
+                    : dbManager.isArtifactlKnownBadByReference(filesType, md5);
+            if (knownBadByReference) {
                 postCorrelatedHashHitToBlackboard(af);
             }
         } catch (EamDbException ex) {
@@ -155,6 +163,11 @@ public ProcessResult process(AbstractFile af) {
 
     @Override
     public void shutDown() {
+        if (knownBadCache != null) {
+            KnownBadCache.release();
+            knownBadCache = null;
+        }
+
         if (EamDb.isEnabled() == false) {
             /*
              * Not signaling an error for now. This is a workaround for the way
@@ -279,6 +292,16 @@ public void startUp(IngestJobContext context) throws IngestModuleException {
                 throw new IngestModuleException("Error creating new case in ingest module start up.", ex); // NON-NLS
             }
         }
+
+        // load (or share) the known bad values, last so that shutDown() always releases them
+        if (KnownBadCache.isEnabled()) {
+            try {
+                knownBadCache = KnownBadCache.acquire(dbManager, filesType);
+            } catch (EamDbException ex) {
+                LOGGER.log(Level.WARNING, "Error loading known bad values, querying the Central Repository for each file instead.", ex); // NON-NLS
+                knownBadCache = null;
+            }
+        }
     }
 
     private void postCorrelatedBadFileToBlackboard(AbstractFile abstractFile, List<String> caseDisplayNames) {
@@ -0,0 +1,236 @@
+/*
+ * Central Repository
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.centralrepository.ingestmodule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.centralrepository.datamodel.EamArtifact;
+import org.sleuthkit.autopsy.centralrepository.datamodel.EamDb;
+import org.sleuthkit.autopsy.centralrepository.datamodel.EamDbException;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.coreutils.ModuleSettings;
+
+/**
+ * Client side copy of the values marked as bad in the Central Repository, used
+ * by the ingest module to avoid two database queries for every file that is
+ * not known bad.
+ *
+ * The values are loaded in bulk when the first ingest module instance starts
+ * and are shared by all running ingest jobs. A copy older than the configured
+ * maximum age is refreshed before it is used: new reference entries are
+ * fetched by id, and the (small) set of artifact instance values marked as bad
+ * is reloaded, since instances can be marked as bad after they are added.
+ */
+final class KnownBadCache {
+
+    private static final Logger LOGGER = Logger.getLogger(KnownBadCache.class.getName());
+    private static final String SETTINGS_MODULE = "CentralRepository"; //NON-NLS
+    private static final String ENABLED_KEY = "ingest.knownBadCache.enabled"; //NON-NLS
+    private static final String MAX_AGE_KEY = "ingest.knownBadCache.maxAgeSecs"; //NON-NLS
+    private static final long DEFAULT_MAX_AGE_SECS = 60;
+    private static KnownBadCache instance; // guarded by KnownBadCache.class
+    private static int moduleCount; // guarded by KnownBadCache.class
+
+    private final EamArtifact.Type filesType;
+    private final long maxAgeNanos;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Md5HashSet referenceValues = new Md5HashSet(); // guarded by lock
+    private Md5HashSet instanceValues = new Md5HashSet(); // guarded by lock
+    private long maxReferenceId = 0; // only changed by the refreshing thread
+    private volatile long lastRefreshNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final AtomicLong lookups = new AtomicLong(0);
+    private final AtomicLong bypasses = new AtomicLong(0);
+
+    /**
+     * Gets whether the ingest module should use the known bad cache.
+     *
+     * @return True or false.
+     */
+    static boolean isEnabled() {
+        String enabled = ModuleSettings.getConfigSetting(SETTINGS_MODULE, ENABLED_KEY);
+        return Boolean.parseBoolean(enabled);
+    }
+
+    /**
+     * Gets the maximum age of the cached values before they are refreshed.
+     *
+     * @return The maximum age in seconds.
+     */
+    static long getMaxAgeSecs() {
+        String maxAgeString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, MAX_AGE_KEY);
+        if (maxAgeString != null && !maxAgeString.isEmpty()) {
+            try {
+                long maxAge = Long.parseLong(maxAgeString);
+                if (maxAge >= 0) {
+                    return maxAge;
+                }
+            } catch (NumberFormatException ex) {
+                LOGGER.log(Level.WARNING, "Invalid known bad cache maximum age: " + maxAgeString, ex); // NON-NLS
+            }
+        }
+        return DEFAULT_MAX_AGE_SECS;
+    }
+
+    /**
+     * Gets the shared cache for an ingest module instance, loading it if this
+     * is the first instance to use it. Each call must be paired with a call to
+     * release().
+     *
+     * @param dbManager The Central Repository.
+     * @param filesType The files correlation type.
+     *
+     * @return The cache.
+     *
+     * @throws EamDbException If the cache could not be loaded.
+     */
+    static synchronized KnownBadCache acquire(EamDb dbManager, EamArtifact.Type filesType) throws EamDbException {
+        if (instance == null) {
+            KnownBadCache cache = new KnownBadCache(filesType, getMaxAgeSecs());
+            cache.refresh(dbManager, true);
+            instance = cache;
+        }
+        moduleCount++;
+        return instance;
+    }
+
+    /**
+     * Releases the shared cache for an ingest module instance. The cache is
+     * discarded once no instances are using it.
+     */
+    static synchronized void release() {
+        if (moduleCount > 0 && --moduleCount == 0 && instance != null) {
+            LOGGER.log(Level.INFO, "Known bad cache answered {0} lookups, {1} lookups went to the database", //NON-NLS
+                    new Object[]{instance.lookups.get(), instance.bypasses.get()});
+            instance = null;
+        }
+    }
+
+    private KnownBadCache(EamArtifact.Type filesType, long maxAgeSecs) {
+        this.filesType = filesType;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSecs);
+    }
+
+    /**
+     * Refreshes the cached values if they are older than the maximum age.
+     * While one thread refreshes, other threads keep using the old values.
+     *
+     * @param dbManager The Central Repository.
+     *
+     * @return True if the cached values can be used, false if they are stale
+     *         and could not be refreshed, in which case the database should be
+     *         queried.
+     */
+    boolean refreshIfStale(EamDb dbManager) {
+        if (System.nanoTime() - lastRefreshNanos < maxAgeNanos) {
+            lookups.incrementAndGet();
+            return true;
+        }
+        if (!refreshing.compareAndSet(false, true)) {
+            lookups.incrementAndGet();
+            return true;
+        }
+        try {
+            refresh(dbManager, false);
+            lookups.incrementAndGet();
+            return true;
+        } catch (EamDbException ex) {
+            LOGGER.log(Level.WARNING, "Error refreshing known bad cache, querying the Central Repository instead.", ex); // NON-NLS
+            bypasses.incrementAndGet();
+            return false;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Checks whether a value may have artifact instances marked as bad. A
+     * false result is definite; for a true result the database still has to
+     * be queried for the cases.
+     *
+     * @param value The value, e.g., an MD5 hash.
+     *
+     * @return True or false.
+     */
+    boolean hasKnownBadInstances(String value) {
+        lock.readLock().lock();
+        try {
+            return instanceValues.contains(value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a value is marked as bad by a reference entry.
+     *
+     * @param value The value, e.g., an MD5 hash.
+     *
+     * @return True or false.
+     */
+    boolean isKnownBadByReference(String value) {
+        lock.readLock().lock();
+        try {
+            return referenceValues.contains(value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Fetches the reference entries added since the last refresh and reloads
+     * the artifact instance values. Later refreshes query the database without
+     * holding the lock.
+     *
+     * @param dbManager   The Central Repository.
+     * @param initialLoad True if the cache is not yet shared, in which case
+     *                    the reference values are added straight to the set
+     *                    instead of being buffered on the heap first.
+     *
+     * @throws EamDbException
+     */
+    private void refresh(EamDb dbManager, boolean initialLoad) throws EamDbException {
+        long refreshStartNanos = System.nanoTime();
+        List<String> newReferenceValues = new ArrayList<>();
+        long newMaxReferenceId = dbManager.processKnownBadReferenceValues(filesType, maxReferenceId,
+                initialLoad ? referenceValues::add : newReferenceValues::add);
+        Md5HashSet newInstanceValues = new Md5HashSet();
+        dbManager.processKnownBadInstanceValues(filesType, newInstanceValues::add);
+
+        long referenceCount;
+        lock.writeLock().lock();
+        try {
+            newReferenceValues.forEach(referenceValues::add);
+            instanceValues = newInstanceValues;
+            referenceCount = referenceValues.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        maxReferenceId = newMaxReferenceId;
+        lastRefreshNanos = refreshStartNanos;
+        LOGGER.log(Level.FINE, "Known bad cache refreshed: {0} reference values, {1} instance values", //NON-NLS
+                new Object[]{referenceCount, newInstanceValues.size()});
+    }
+}
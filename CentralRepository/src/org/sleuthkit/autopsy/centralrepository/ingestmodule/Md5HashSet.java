@@ -0,0 +1,181 @@
+/*
+ * Central Repository
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.centralrepository.ingestmodule;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A compact set of MD5 hash strings. Lower case MD5 hashes are stored as 16
+ * byte keys in an open addressing hash table that lives in a direct byte
+ * buffer, off the Java heap. Any other string is kept as is in an ordinary
+ * set, so lookups match exactly like the database queries they stand in for.
+ *
+ * Not thread safe.
+ */
+final class Md5HashSet {
+
+    private static final int KEY_BYTES = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 26; // 1 GB of keys
+    private ByteBuffer table;
+    private int capacity; // number of slots, a power of two
+    private int size;
+    private boolean containsZeroKey; // the all zero key marks an empty slot
+    private final Set<String> otherValues = new HashSet<>();
+
+    Md5HashSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value.
+     */
+    void add(String value) {
+        if (!isLowerCaseMd5(value)) {
+            otherValues.add(value);
+            return;
+        }
+        long high = parseHex(value, 0);
+        long low = parseHex(value, 16);
+        if (high == 0 && low == 0) {
+            containsZeroKey = true;
+            return;
+        }
+        if ((size + 1) * 2L > capacity) {
+            if (capacity == MAX_CAPACITY) {
+                otherValues.add(value);
+                return;
+            }
+            rehash(capacity * 2);
+        }
+        if (insert(table, capacity, high, low)) {
+            size++;
+        }
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value The value.
+     *
+     * @return True or false.
+     */
+    boolean contains(String value) {
+        if (!isLowerCaseMd5(value)) {
+            return otherValues.contains(value);
+        }
+        long high = parseHex(value, 0);
+        long low = parseHex(value, 16);
+        if (high == 0 && low == 0) {
+            return containsZeroKey;
+        }
+        int mask = capacity - 1;
+        for (int slot = hash(high, low) & mask;; slot = (slot + 1) & mask) {
+            int offset = slot * KEY_BYTES;
+            long slotHigh = table.getLong(offset);
+            long slotLow = table.getLong(offset + 8);
+            if (slotHigh == 0 && slotLow == 0) {
+                return otherValues.contains(value);
+            }
+            if (slotHigh == high && slotLow == low) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of values in the set.
+     *
+     * @return The number of values.
+     */
+    long size() {
+        return size + otherValues.size() + (containsZeroKey ? 1 : 0);
+    }
+
+    private void allocate(int newCapacity) {
+        table = ByteBuffer.allocateDirect(newCapacity * KEY_BYTES);
+        capacity = newCapacity;
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer oldTable = table;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            long high = oldTable.getLong(slot * KEY_BYTES);
+            long low = oldTable.getLong(slot * KEY_BYTES + 8);
+            if (high != 0 || low != 0) {
+                insert(table, capacity, high, low);
+            }
+        }
+    }
+
+    /**
+     * Inserts a non-zero key into a table.
+     *
+     * @return True if the key was added, false if it was already there.
+     */
+    private static boolean insert(ByteBuffer table, int capacity, long high, long low) {
+        int mask = capacity - 1;
+        for (int slot = hash(high, low) & mask;; slot = (slot + 1) & mask) {
+            int offset = slot * KEY_BYTES;
+            long slotHigh = table.getLong(offset);
+            long slotLow = table.getLong(offset + 8);
+            if (slotHigh == 0 && slotLow == 0) {
+                table.putLong(offset, high);
+                table.putLong(offset + 8, low);
+                return true;
+            }
+            if (slotHigh == high && slotLow == low) {
+                return false;
+            }
+        }
+    }
+
+    private static int hash(long high, long low) {
+        // MD5 bits are already well distributed
+        long bits = high ^ low;
+        return (int) (bits ^ (bits >>> 32));
+    }
+
+    private static boolean isLowerCaseMd5(String value) {
+        if (value == null || value.length() != 2 * KEY_BYTES) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String value, int start) {
+        long bits = 0;
+        for (int i = start; i < start + 16; i++) {
+            bits = (bits << 4) | Character.digit(value.charAt(i), 16);
+        }
+        return bits;
+    }
+}
@@ -18,24 +18,38 @@
  */
 package org.sleuthkit.autopsy.coordinationservice;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.curator.RetryPolicy;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.CuratorWatcher;
+import org.apache.curator.framework.api.transaction.CuratorTransaction;
+import org.apache.curator.framework.api.transaction.CuratorTransactionFinal;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
 import org.apache.curator.framework.recipes.locks.InterProcessReadWriteLock;
+import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.NoNodeException;
 import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher.Event.KeeperState;
 import org.apache.zookeeper.ZooDefs;
 import org.apache.zookeeper.ZooKeeper;
 import org.openide.util.Lookup;
@@ -45,6 +59,13 @@
  * A coordination service for maintaining configuration information and
  * providing distributed synchronization using a shared hierarchical namespace
  * of nodes.
+ * <p>
+ * Node data that has been read is kept in memory and served from there until
+ * a ZooKeeper watch reports that the node has changed, or until this service
+ * writes to the node or acquires a lock on it. Reads done while holding a lock
+ * on a node therefore always see the latest data for the node. The number of
+ * nodes watched, and so the number of nodes whose data is cached, is capped;
+ * reads of other nodes always go to ZooKeeper.
  */
 @ThreadSafe
 public final class CoordinationService {
@@ -55,11 +76,25 @@ public final class CoordinationService {
     private static final int ZOOKEEPER_CONNECTION_TIMEOUT_MILLIS = 15000;
     private static final int PORT_OFFSET = 1000; // When run in Solr, ZooKeeper defaults to Solr port + 1000
     private static final String DEFAULT_NAMESPACE_ROOT = "autopsy";
+    private static final int MAX_OPERATIONS_PER_TRANSACTION = 100;
+    private static final int MAX_WATCHED_NODES = 10000;
     @GuardedBy("CoordinationService.class")
     private static CoordinationService instance;
     private final CuratorFramework curator;
     @GuardedBy("categoryNodeToPath")    
     private final Map<String, String> categoryNodeToPath;
+    private final LoadingCache<String, InterProcessReadWriteLock> readWriteLocks;
+    private final Object nodeDataCacheLock;
+    @GuardedBy("nodeDataCacheLock")
+    private final Map<String, byte[]> nodeDataCache;
+    @GuardedBy("nodeDataCacheLock")
+    private final Map<String, Boolean> watchedNodes;
+    @GuardedBy("nodeDataCacheLock")
+    private long nodeDataCacheInvalidations;
+    private final CuratorWatcher nodeDataWatcher;
+    private final Map<Operation, LongAdder> operationCounts;
+    private final Map<Operation, LongAdder> operationNanos;
+    private final LongAdder nodeDataCacheHits;
 
     /**
      * Determines if ZooKeeper is accessible with the current settings. Closes
@@ -135,6 +170,44 @@ private CoordinationService(String rootNodeName) throws InterruptedException, IO
             throw new CoordinationServiceException("Unable to access ZooKeeper");
         }
 
+        operationCounts = new EnumMap<>(Operation.class);
+        operationNanos = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            operationCounts.put(operation, new LongAdder());
+            operationNanos.put(operation, new LongAdder());
+        }
+        nodeDataCacheHits = new LongAdder();
+        nodeDataCacheLock = new Object();
+        nodeDataCache = new HashMap<>();
+        watchedNodes = new HashMap<>();
+
+        /*
+         * A watch is set on each node whose data is cached. Watches fire once,
+         * when the node changes or is deleted, so the cached data is dropped
+         * and the next read goes to ZooKeeper and sets a new watch. Watches can
+         * be lost while disconnected, so all cached data is dropped when the
+         * connection is interrupted, and the watches are forgotten when the
+         * session expires.
+         */
+        nodeDataWatcher = (WatchedEvent event) -> {
+            if (null != event.getPath()) {
+                unwatchNode(event.getPath());
+            } else if (KeeperState.SyncConnected != event.getState()) {
+                invalidateAllNodeData(KeeperState.Expired == event.getState());
+            }
+        };
+
+        /*
+         * The read/write lock objects for node paths are reused while they are
+         * in use, rather than constructed for every lock request.
+         */
+        readWriteLocks = CacheBuilder.newBuilder().weakValues().build(new CacheLoader<String, InterProcessReadWriteLock>() {
+            @Override
+            public InterProcessReadWriteLock load(String fullNodePath) {
+                return new InterProcessReadWriteLock(curator, fullNodePath);
+            }
+        });
+
         /*
          * Connect to ZooKeeper via Curator.
          */
@@ -142,6 +215,11 @@ private CoordinationService(String rootNodeName) throws InterruptedException, IO
         int zooKeeperServerPort = Integer.valueOf(UserPreferences.getIndexingServerPort()) + PORT_OFFSET;
         String connectString = UserPreferences.getIndexingServerHost() + ":" + zooKeeperServerPort;
         curator = CuratorFrameworkFactory.newClient(connectString, SESSION_TIMEOUT_MILLISECONDS, CONNECTION_TIMEOUT_MILLISECONDS, retryPolicy);
+        curator.getConnectionStateListenable().addListener((CuratorFramework client, ConnectionState newState) -> {
+            if (ConnectionState.CONNECTED != newState) {
+                invalidateAllNodeData(ConnectionState.LOST == newState);
+            }
+        });
         curator.start();
 
         /*
@@ -173,7 +251,7 @@ private CoordinationService(String rootNodeName) throws InterruptedException, IO
      * lock is obtained or the time out expires.
      *
      * IMPORTANT: The lock needs to be released in the same thread in which it
-     * is acquired.
+     * is acquired. The lock is reentrant for that thread.
      *
      * @param category The desired category in the namespace.
      * @param nodePath The node path to use as the basis for the lock.
@@ -189,9 +267,11 @@ private CoordinationService(String rootNodeName) throws InterruptedException, IO
      */
     public Lock tryGetExclusiveLock(CategoryNode category, String nodePath, int timeOut, TimeUnit timeUnit) throws CoordinationServiceException, InterruptedException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long startTime = System.nanoTime();
         try {
-            InterProcessReadWriteLock lock = new InterProcessReadWriteLock(curator, fullNodePath);
+            InterProcessReadWriteLock lock = readWriteLocks.getUnchecked(fullNodePath);
             if (lock.writeLock().acquire(timeOut, timeUnit)) {
+                invalidateNodeData(fullNodePath);
                 return new Lock(nodePath, lock.writeLock());
             } else {
                 return null;
@@ -202,6 +282,8 @@ public Lock tryGetExclusiveLock(CategoryNode category, String nodePath, int time
             } else {
                 throw new CoordinationServiceException(String.format("Failed to get exclusive lock for %s", fullNodePath), ex);
             }
+        } finally {
+            recordOperation(Operation.ACQUIRE_LOCK, startTime);
         }
     }
 
@@ -211,7 +293,7 @@ public Lock tryGetExclusiveLock(CategoryNode category, String nodePath, int time
      * immediately if the lock can not be acquired.
      *
      * IMPORTANT: The lock needs to be released in the same thread in which it
-     * is acquired.
+     * is acquired. The lock is reentrant for that thread.
      *
      * @param category The desired category in the namespace.
      * @param nodePath The node path to use as the basis for the lock.
@@ -223,14 +305,18 @@ public Lock tryGetExclusiveLock(CategoryNode category, String nodePath, int time
      */
     public Lock tryGetExclusiveLock(CategoryNode category, String nodePath) throws CoordinationServiceException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long startTime = System.nanoTime();
         try {
-            InterProcessReadWriteLock lock = new InterProcessReadWriteLock(curator, fullNodePath);
+            InterProcessReadWriteLock lock = readWriteLocks.getUnchecked(fullNodePath);
             if (!lock.writeLock().acquire(0, TimeUnit.SECONDS)) {
                 return null;
             }
+            invalidateNodeData(fullNodePath);
             return new Lock(nodePath, lock.writeLock());
         } catch (Exception ex) {
             throw new CoordinationServiceException(String.format("Failed to get exclusive lock for %s", fullNodePath), ex);
+        } finally {
+            recordOperation(Operation.ACQUIRE_LOCK, startTime);
         }
     }
 
@@ -240,7 +326,7 @@ public Lock tryGetExclusiveLock(CategoryNode category, String nodePath) throws C
      * is obtained or the time out expires.
      *
      * IMPORTANT: The lock needs to be released in the same thread in which it
-     * is acquired.
+     * is acquired. The lock is reentrant for that thread.
      *
      * @param category The desired category in the namespace.
      * @param nodePath The node path to use as the basis for the lock.
@@ -256,9 +342,11 @@ public Lock tryGetExclusiveLock(CategoryNode category, String nodePath) throws C
      */
     public Lock tryGetSharedLock(CategoryNode category, String nodePath, int timeOut, TimeUnit timeUnit) throws CoordinationServiceException, InterruptedException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long startTime = System.nanoTime();
         try {
-            InterProcessReadWriteLock lock = new InterProcessReadWriteLock(curator, fullNodePath);
+            InterProcessReadWriteLock lock = readWriteLocks.getUnchecked(fullNodePath);
             if (lock.readLock().acquire(timeOut, timeUnit)) {
+                invalidateNodeData(fullNodePath);
                 return new Lock(nodePath, lock.readLock());
             } else {
                 return null;
@@ -269,6 +357,8 @@ public Lock tryGetSharedLock(CategoryNode category, String nodePath, int timeOut
             } else {
                 throw new CoordinationServiceException(String.format("Failed to get shared lock for %s", fullNodePath), ex);
             }
+        } finally {
+            recordOperation(Operation.ACQUIRE_LOCK, startTime);
         }
     }
 
@@ -278,7 +368,7 @@ public Lock tryGetSharedLock(CategoryNode category, String nodePath, int timeOut
      * if the lock can not be acquired.
      *
      * IMPORTANT: The lock needs to be released in the same thread in which it
-     * is acquired.
+     * is acquired. The lock is reentrant for that thread.
      *
      * @param category The desired category in the namespace.
      * @param nodePath The node path to use as the basis for the lock.
@@ -290,19 +380,25 @@ public Lock tryGetSharedLock(CategoryNode category, String nodePath, int timeOut
      */
     public Lock tryGetSharedLock(CategoryNode category, String nodePath) throws CoordinationServiceException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long startTime = System.nanoTime();
         try {
-            InterProcessReadWriteLock lock = new InterProcessReadWriteLock(curator, fullNodePath);
+            InterProcessReadWriteLock lock = readWriteLocks.getUnchecked(fullNodePath);
             if (!lock.readLock().acquire(0, TimeUnit.SECONDS)) {
                 return null;
             }
+            invalidateNodeData(fullNodePath);
             return new Lock(nodePath, lock.readLock());
         } catch (Exception ex) {
             throw new CoordinationServiceException(String.format("Failed to get shared lock for %s", fullNodePath), ex);
+        } finally {
+            recordOperation(Operation.ACQUIRE_LOCK, startTime);
         }
     }
 
     /**
-     * Retrieve the data associated with the specified node.
+     * Retrieve the data associated with the specified node. The data is served
+     * from memory if it has been read before and the node has not changed
+     * since, unless the cap on the number of watched nodes has been reached.
      *
      * @param category The desired category in the namespace.
      * @param nodePath The node to retrieve the data for.
@@ -317,8 +413,53 @@ public Lock tryGetSharedLock(CategoryNode category, String nodePath) throws Coor
      */
     public byte[] getNodeData(CategoryNode category, String nodePath) throws CoordinationServiceException, InterruptedException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long invalidations;
+        boolean setWatch = false;
+        boolean cacheable;
+        synchronized (nodeDataCacheLock) {
+            byte[] data = nodeDataCache.get(fullNodePath);
+            if (null != data) {
+                nodeDataCacheHits.increment();
+                return data.clone();
+            }
+            invalidations = nodeDataCacheInvalidations;
+
+            /*
+             * The data can only be cached if a watch is known to be set on the
+             * node, or if this read sets one. A node with a watch that is still
+             * being set by another read is read without caching the data.
+             */
+            Boolean watchSet = watchedNodes.get(fullNodePath);
+            if (null == watchSet && watchedNodes.size() < MAX_WATCHED_NODES) {
+                watchedNodes.put(fullNodePath, false);
+                setWatch = true;
+            }
+            cacheable = setWatch || Boolean.TRUE.equals(watchSet);
+        }
+        long startTime = System.nanoTime();
+        boolean watchSet = false;
         try {
-            return curator.getData().forPath(fullNodePath);
+            byte[] data;
+            if (setWatch) {
+                data = curator.getData().usingWatcher(nodeDataWatcher).forPath(fullNodePath);
+                watchSet = true;
+            } else {
+                data = curator.getData().forPath(fullNodePath);
+            }
+            synchronized (nodeDataCacheLock) {
+                if (setWatch) {
+                    watchedNodes.replace(fullNodePath, false, true);
+                }
+
+                /*
+                 * Only cache the data if nothing was invalidated during the
+                 * read, otherwise the data may already be out of date.
+                 */
+                if (cacheable && null != data && invalidations == nodeDataCacheInvalidations) {
+                    nodeDataCache.put(fullNodePath, data.clone());
+                }
+            }
+            return data;
         } catch (NoNodeException ex) {
             return null;
         } catch (Exception ex) {
@@ -327,6 +468,13 @@ public byte[] getNodeData(CategoryNode category, String nodePath) throws Coordin
             } else {
                 throw new CoordinationServiceException(String.format("Failed to get data for %s", fullNodePath), ex);
             }
+        } finally {
+            if (setWatch && !watchSet) {
+                synchronized (nodeDataCacheLock) {
+                    watchedNodes.remove(fullNodePath, false);
+                }
+            }
+            recordOperation(Operation.GET_NODE_DATA, startTime);
         }
     }
 
@@ -344,6 +492,7 @@ public byte[] getNodeData(CategoryNode category, String nodePath) throws Coordin
      */
     public void setNodeData(CategoryNode category, String nodePath, byte[] data) throws CoordinationServiceException, InterruptedException {
         String fullNodePath = getFullyQualifiedNodePath(category, nodePath);
+        long startTime = System.nanoTime();
         try {
             curator.setData().forPath(fullNodePath, data);
         } catch (Exception ex) {
@@ -352,6 +501,129 @@ public void setNodeData(CategoryNode category, String nodePath, byte[] data) thr
             } else {
                 throw new CoordinationServiceException(String.format("Failed to set data for %s", fullNodePath), ex);
             }
+        } finally {
+            invalidateNodeData(fullNodePath);
+            recordOperation(Operation.SET_NODE_DATA, startTime);
+        }
+    }
+
+    /**
+     * Store the given data with the specified nodes, using as few ZooKeeper
+     * transactions as possible. Each transaction updates up to one hundred
+     * nodes atomically. If an exception is thrown, the nodes updated by
+     * earlier transactions keep their new data.
+     *
+     * @param category         The desired category in the namespace.
+     * @param nodePathsToData  The nodes to associate data with and the data to
+     *                         store with each node.
+     *
+     * @throws CoordinationServiceException If there is an error setting the
+     *                                      node data.
+     * @throws InterruptedException         If interrupted while blocked during
+     *                                      setting of node data.
+     */
+    public void setNodeData(CategoryNode category, Map<String, byte[]> nodePathsToData) throws CoordinationServiceException, InterruptedException {
+        if (nodePathsToData.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, byte[]>> entries = new ArrayList<>(nodePathsToData.entrySet());
+        for (int start = 0; start < entries.size(); start += MAX_OPERATIONS_PER_TRANSACTION) {
+            List<Map.Entry<String, byte[]>> batch = entries.subList(start, Math.min(start + MAX_OPERATIONS_PER_TRANSACTION, entries.size()));
+            List<String> fullNodePaths = new ArrayList<>();
+            long startTime = System.nanoTime();
+            try {
+                CuratorTransaction transaction = curator.inTransaction();
+                CuratorTransactionFinal transactionFinal = null;
+                for (Map.Entry<String, byte[]> entry : batch) {
+                    String fullNodePath = getFullyQualifiedNodePath(category, entry.getKey());
+                    fullNodePaths.add(fullNodePath);
+                    transactionFinal = transaction.setData().forPath(fullNodePath, entry.getValue()).and();
+                    transaction = transactionFinal;
+                }
+                transactionFinal.commit();
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    throw (InterruptedException) ex;
+                } else {
+                    throw new CoordinationServiceException(String.format("Failed to set data for %d nodes starting with %s", batch.size(), batch.get(0).getKey()), ex);
+                }
+            } finally {
+                for (String fullNodePath : fullNodePaths) {
+                    invalidateNodeData(fullNodePath);
+                }
+                recordOperation(Operation.SET_NODE_DATA_BATCH, startTime);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of ZooKeeper operations done by this coordination
+     * service, their latencies, and the number of node data reads served from
+     * memory, since the service was created.
+     *
+     * @return The operation statistics.
+     */
+    public OperationStatistics getOperationStatistics() {
+        Map<Operation, Long> counts = new EnumMap<>(Operation.class);
+        Map<Operation, Long> nanos = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            counts.put(operation, operationCounts.get(operation).sum());
+            nanos.put(operation, operationNanos.get(operation).sum());
+        }
+        return new OperationStatistics(counts, nanos, nodeDataCacheHits.sum());
+    }
+
+    /**
+     * Records the completion of a ZooKeeper operation.
+     *
+     * @param operation The operation.
+     * @param startTime The value of System.nanoTime() when the operation was
+     *                  started.
+     */
+    private void recordOperation(Operation operation, long startTime) {
+        operationCounts.get(operation).increment();
+        operationNanos.get(operation).add(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Drops the cached data of a node, if any.
+     *
+     * @param fullNodePath The fully qualified path of the node.
+     */
+    private void invalidateNodeData(String fullNodePath) {
+        synchronized (nodeDataCacheLock) {
+            nodeDataCache.remove(fullNodePath);
+            ++nodeDataCacheInvalidations;
+        }
+    }
+
+    /**
+     * Drops the cached data of a node whose watch has fired, and forgets the
+     * watch.
+     *
+     * @param fullNodePath The fully qualified path of the node.
+     */
+    private void unwatchNode(String fullNodePath) {
+        synchronized (nodeDataCacheLock) {
+            watchedNodes.remove(fullNodePath);
+            nodeDataCache.remove(fullNodePath);
+            ++nodeDataCacheInvalidations;
+        }
+    }
+
+    /**
+     * Drops the cached data of all nodes.
+     *
+     * @param watchesLost Whether the watches set on the nodes have been lost
+     *                    with the session, and so should be forgotten.
+     */
+    private void invalidateAllNodeData(boolean watchesLost) {
+        synchronized (nodeDataCacheLock) {
+            nodeDataCache.clear();
+            if (watchesLost) {
+                watchedNodes.clear();
+            }
+            ++nodeDataCacheInvalidations;
         }
     }
 
@@ -420,6 +692,90 @@ public void close() throws CoordinationServiceException {
         }
     }
 
+    /**
+     * The kinds of ZooKeeper operations done by a coordination service.
+     */
+    public enum Operation {
+
+        GET_NODE_DATA("get node data"),
+        SET_NODE_DATA("set node data"),
+        SET_NODE_DATA_BATCH("set node data batch"),
+        ACQUIRE_LOCK("acquire lock");
+
+        private final String displayName;
+
+        private Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * A snapshot of the ZooKeeper operation counts and latencies of a
+     * coordination service.
+     */
+    @Immutable
+    public static final class OperationStatistics {
+
+        private final Map<Operation, Long> counts;
+        private final Map<Operation, Long> nanos;
+        private final long nodeDataCacheHits;
+
+        private OperationStatistics(Map<Operation, Long> counts, Map<Operation, Long> nanos, long nodeDataCacheHits) {
+            this.counts = counts;
+            this.nanos = nanos;
+            this.nodeDataCacheHits = nodeDataCacheHits;
+        }
+
+        /**
+         * Gets the number of operations of a given kind.
+         *
+         * @param operation The kind of operation.
+         *
+         * @return The count.
+         */
+        public long getCount(Operation operation) {
+            return counts.get(operation);
+        }
+
+        /**
+         * Gets the average latency of the operations of a given kind. For lock
+         * acquisitions this includes any time spent waiting for the lock.
+         *
+         * @param operation The kind of operation.
+         *
+         * @return The average latency in milliseconds, zero if there were no
+         *         operations.
+         */
+        public double getAverageLatencyMillis(Operation operation) {
+            long count = counts.get(operation);
+            return (0 == count) ? 0 : nanos.get(operation) / 1000000.0 / count;
+        }
+
+        /**
+         * Gets the number of node data reads that were served from memory
+         * instead of ZooKeeper.
+         *
+         * @return The count.
+         */
+        public long getNodeDataCacheHits() {
+            return nodeDataCacheHits;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (Operation operation : Operation.values()) {
+                builder.append(String.format("%s: %d (%.2f ms avg), ", operation.getDisplayName(), getCount(operation), getAverageLatencyMillis(operation)));
+            }
+            builder.append(String.format("node data cache hits: %d", nodeDataCacheHits));
+            return builder.toString();
+        }
+    }
+
     /**
      * Category nodes are the immediate children of the root node of a shared
      * hierarchical namespace managed by a coordination service.
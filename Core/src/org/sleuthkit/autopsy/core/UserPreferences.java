@@ -47,6 +47,21 @@ public final class UserPreferences {
     public static final String HIDE_SLACK_FILES_IN_VIEWS_TREE = "HideSlackFilesInViewsTree"; //NON-NLS 
     public static final String DISPLAY_TIMES_IN_LOCAL_TIME = "DisplayTimesInLocalTime"; //NON-NLS
     public static final String NUMBER_OF_FILE_INGEST_THREADS = "NumberOfFileIngestThreads"; //NON-NLS
+    public static final String USE_WORK_STEALING_FILE_INGEST_SCHEDULER = "UseWorkStealingFileIngestScheduler"; //NON-NLS
+    public static final String PREFETCH_FILE_INGEST_TASKS = "PrefetchFileIngestTasks"; //NON-NLS
+    public static final String FILE_INGEST_TASKS_HIGH_WATERMARK = "FileIngestTasksHighWatermark"; //NON-NLS
+    public static final String FILE_INGEST_TASKS_LOW_WATERMARK = "FileIngestTasksLowWatermark"; //NON-NLS
+    private static final int DEFAULT_FILE_INGEST_TASKS_HIGH_WATERMARK = 2000;
+    private static final int DEFAULT_FILE_INGEST_TASKS_LOW_WATERMARK = 500;
+    public static final String CACHE_FILE_INGEST_CONTENT = "CacheFileIngestContent"; //NON-NLS
+    public static final String FILE_INGEST_CONTENT_CACHE_SIZE_MB = "FileIngestContentCacheSizeMB"; //NON-NLS
+    private static final int DEFAULT_FILE_INGEST_CONTENT_CACHE_SIZE_MB = 8;
+    public static final String FILE_INGEST_HASH_ALGORITHMS = "FileIngestHashAlgorithms"; //NON-NLS
+    private static final String DEFAULT_FILE_INGEST_HASH_ALGORITHMS = "MD5"; //NON-NLS
+    public static final String USE_HASH_DB_LOOKUP_FILTERS = "UseHashDbLookupFilters"; //NON-NLS
+    public static final String DATA_TREE_REFRESH_INTERVAL_MS = "DataTreeRefreshIntervalMillis"; //NON-NLS
+    private static final int DEFAULT_DATA_TREE_REFRESH_INTERVAL_MS = 2000;
+    public static final String SEND_LEGACY_REMOTE_EVENT_MESSAGES = "SendLegacyRemoteEventMessages"; //NON-NLS
     public static final String IS_MULTI_USER_MODE_ENABLED = "IsMultiUserModeEnabled"; //NON-NLS
     public static final String EXTERNAL_DATABASE_HOSTNAME_OR_IP = "ExternalDatabaseHostnameOrIp"; //NON-NLS
     public static final String EXTERNAL_DATABASE_PORTNUMBER = "ExternalDatabasePortNumber"; //NON-NLS
@@ -187,6 +202,247 @@ public static void setNumberOfFileIngestThreads(int value) {
         preferences.putInt(NUMBER_OF_FILE_INGEST_THREADS, value);
     }
 
+    /**
+     * Reads persisted setting of whether the file ingest threads should get
+     * their tasks from a work-stealing task queue instead of the default
+     * shared task queue. The setting takes effect on application restart.
+     *
+     * @return True if the work-stealing file ingest task scheduler is
+     *         enabled, false otherwise.
+     */
+    public static boolean useWorkStealingFileIngestScheduler() {
+        return preferences.getBoolean(USE_WORK_STEALING_FILE_INGEST_SCHEDULER, false);
+    }
+
+    /**
+     * Stores persisted setting of whether the file ingest threads should get
+     * their tasks from a work-stealing task queue instead of the default
+     * shared task queue.
+     *
+     * @param enabled True if the work-stealing file ingest task scheduler
+     *                should be enabled, false otherwise.
+     */
+    public static void setUseWorkStealingFileIngestScheduler(boolean enabled) {
+        preferences.putBoolean(USE_WORK_STEALING_FILE_INGEST_SCHEDULER, enabled);
+    }
+
+    /**
+     * Reads persisted setting of whether directories should be expanded into
+     * file ingest tasks by a background thread that runs ahead of the file
+     * ingest threads. The setting takes effect on application restart.
+     *
+     * @return True if file ingest tasks prefetching is enabled, false
+     *         otherwise.
+     */
+    public static boolean prefetchFileIngestTasks() {
+        return preferences.getBoolean(PREFETCH_FILE_INGEST_TASKS, false);
+    }
+
+    /**
+     * Stores persisted setting of whether directories should be expanded into
+     * file ingest tasks by a background thread that runs ahead of the file
+     * ingest threads.
+     *
+     * @param enabled True if file ingest tasks prefetching should be enabled,
+     *                false otherwise.
+     */
+    public static void setPrefetchFileIngestTasks(boolean enabled) {
+        preferences.putBoolean(PREFETCH_FILE_INGEST_TASKS, enabled);
+    }
+
+    /**
+     * Reads persisted number of ready file ingest tasks at which the
+     * background expansion of directories is paused.
+     *
+     * @return The high watermark.
+     */
+    public static int getFileIngestTasksHighWatermark() {
+        int watermark = preferences.getInt(FILE_INGEST_TASKS_HIGH_WATERMARK, DEFAULT_FILE_INGEST_TASKS_HIGH_WATERMARK);
+        if (watermark < 1) {
+            watermark = DEFAULT_FILE_INGEST_TASKS_HIGH_WATERMARK;
+        }
+        return watermark;
+    }
+
+    /**
+     * Stores persisted number of ready file ingest tasks at which the
+     * background expansion of directories is paused.
+     *
+     * @param value The high watermark.
+     */
+    public static void setFileIngestTasksHighWatermark(int value) {
+        preferences.putInt(FILE_INGEST_TASKS_HIGH_WATERMARK, value);
+    }
+
+    /**
+     * Reads persisted number of ready file ingest tasks at which the
+     * background expansion of directories is resumed after being paused. The
+     * value is always less than the high watermark.
+     *
+     * @return The low watermark.
+     */
+    public static int getFileIngestTasksLowWatermark() {
+        int highWatermark = getFileIngestTasksHighWatermark();
+        int watermark = preferences.getInt(FILE_INGEST_TASKS_LOW_WATERMARK, DEFAULT_FILE_INGEST_TASKS_LOW_WATERMARK);
+        if (watermark < 0 || watermark >= highWatermark) {
+            watermark = highWatermark / 4;
+        }
+        return watermark;
+    }
+
+    /**
+     * Stores persisted number of ready file ingest tasks at which the
+     * background expansion of directories is resumed after being paused.
+     *
+     * @param value The low watermark.
+     */
+    public static void setFileIngestTasksLowWatermark(int value) {
+        preferences.putInt(FILE_INGEST_TASKS_LOW_WATERMARK, value);
+    }
+
+    /**
+     * Reads persisted setting of whether the content of the file being
+     * processed by a file ingest pipeline should be cached so that it is read
+     * from the data source only once. The setting takes effect on application
+     * restart.
+     *
+     * @return True if file ingest content caching is enabled, false
+     *         otherwise.
+     */
+    public static boolean cacheFileIngestContent() {
+        return preferences.getBoolean(CACHE_FILE_INGEST_CONTENT, false);
+    }
+
+    /**
+     * Stores persisted setting of whether the content of the file being
+     * processed by a file ingest pipeline should be cached so that it is read
+     * from the data source only once.
+     *
+     * @param enabled True if file ingest content caching should be enabled,
+     *                false otherwise.
+     */
+    public static void setCacheFileIngestContent(boolean enabled) {
+        preferences.putBoolean(CACHE_FILE_INGEST_CONTENT, enabled);
+    }
+
+    /**
+     * Reads persisted size of the in-memory part of the file ingest content
+     * cache of each file ingest thread.
+     *
+     * @return The size in megabytes.
+     */
+    public static int getFileIngestContentCacheSizeMB() {
+        int size = preferences.getInt(FILE_INGEST_CONTENT_CACHE_SIZE_MB, DEFAULT_FILE_INGEST_CONTENT_CACHE_SIZE_MB);
+        if (size < 1) {
+            size = DEFAULT_FILE_INGEST_CONTENT_CACHE_SIZE_MB;
+        }
+        return size;
+    }
+
+    /**
+     * Stores persisted size of the in-memory part of the file ingest content
+     * cache of each file ingest thread.
+     *
+     * @param value The size in megabytes.
+     */
+    public static void setFileIngestContentCacheSizeMB(int value) {
+        preferences.putInt(FILE_INGEST_CONTENT_CACHE_SIZE_MB, value);
+    }
+
+    /**
+     * Reads persisted comma-separated list of the hash algorithms (e.g.,
+     * "MD5,SHA-1,SHA-256") to be calculated for files during ingest. The
+     * setting takes effect on application restart.
+     *
+     * @return The hash algorithm names.
+     */
+    public static String getFileIngestHashAlgorithms() {
+        return preferences.get(FILE_INGEST_HASH_ALGORITHMS, DEFAULT_FILE_INGEST_HASH_ALGORITHMS);
+    }
+
+    /**
+     * Stores persisted comma-separated list of the hash algorithms to be
+     * calculated for files during ingest.
+     *
+     * @param algorithms The hash algorithm names.
+     */
+    public static void setFileIngestHashAlgorithms(String algorithms) {
+        preferences.put(FILE_INGEST_HASH_ALGORITHMS, algorithms);
+    }
+
+    /**
+     * Reads persisted setting of whether in-memory filters of the hashes in
+     * the hash databases should be used to answer lookups of hashes that are
+     * not in the databases. The setting takes effect on application restart.
+     *
+     * @return True if hash database lookup filters are enabled, false
+     *         otherwise.
+     */
+    public static boolean useHashDbLookupFilters() {
+        return preferences.getBoolean(USE_HASH_DB_LOOKUP_FILTERS, false);
+    }
+
+    /**
+     * Stores persisted setting of whether in-memory filters of the hashes in
+     * the hash databases should be used to answer lookups of hashes that are
+     * not in the databases.
+     *
+     * @param enabled True if hash database lookup filters should be enabled,
+     *                false otherwise.
+     */
+    public static void setUseHashDbLookupFilters(boolean enabled) {
+        preferences.putBoolean(USE_HASH_DB_LOOKUP_FILTERS, enabled);
+    }
+
+    /**
+     * Reads persisted minimum interval between refreshes of a node of the data
+     * tree in response to ingest and case events. Events received within the
+     * interval are combined into one refresh. The setting takes effect for
+     * nodes created after it is changed.
+     *
+     * @return The interval in milliseconds.
+     */
+    public static int getDataTreeRefreshIntervalMillis() {
+        int interval = preferences.getInt(DATA_TREE_REFRESH_INTERVAL_MS, DEFAULT_DATA_TREE_REFRESH_INTERVAL_MS);
+        if (interval < 0) {
+            interval = DEFAULT_DATA_TREE_REFRESH_INTERVAL_MS;
+        }
+        return interval;
+    }
+
+    /**
+     * Stores persisted minimum interval between refreshes of a node of the data
+     * tree in response to ingest and case events.
+     *
+     * @param value The interval in milliseconds.
+     */
+    public static void setDataTreeRefreshIntervalMillis(int value) {
+        preferences.putInt(DATA_TREE_REFRESH_INTERVAL_MS, value);
+    }
+
+    /**
+     * Reads persisted setting of whether events should be sent to other
+     * Autopsy nodes one per message, in the format read by earlier versions,
+     * instead of in batches. This is needed while the nodes of a cluster are
+     * being upgraded. The setting takes effect when a case is opened.
+     *
+     * @return True if events should be sent one per message, false otherwise.
+     */
+    public static boolean sendLegacyRemoteEventMessages() {
+        return preferences.getBoolean(SEND_LEGACY_REMOTE_EVENT_MESSAGES, false);
+    }
+
+    /**
+     * Stores persisted setting of whether events should be sent to other
+     * Autopsy nodes one per message, in the format read by earlier versions.
+     *
+     * @param enabled True if events should be sent one per message, false
+     *                otherwise.
+     */
+    public static void setSendLegacyRemoteEventMessages(boolean enabled) {
+        preferences.putBoolean(SEND_LEGACY_REMOTE_EVENT_MESSAGES, enabled);
+    }
+
     /**
      * Reads persisted case database connection info.
      *
@@ -20,6 +20,8 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
 import java.util.logging.Level;
 import org.openide.filesystems.FileObject;
 import java.nio.file.Files;
@@ -197,6 +199,35 @@ public static boolean hasReadWriteAccess(Path dirPath) {
         }
     }
 
+    /**
+     * Unmaps a memory mapped buffer right away instead of when it is garbage
+     * collected. A file can not be truncated or deleted on Windows while a
+     * mapping of it exists. The buffer must not be used after it is unmapped,
+     * so the caller has to make sure that no other thread is using it.
+     *
+     * @param buffer The buffer to unmap.
+     *
+     * @return True if the buffer was unmapped, false if the JVM does not
+     *         support unmapping it, in which case it is unmapped when it is
+     *         garbage collected.
+     */
+    public static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner"); //NON-NLS
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean"); //NON-NLS
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            logger.log(Level.WARNING, "Unable to unmap memory mapped buffer", ex); //NON-NLS
+            return false;
+        }
+    }
+
     /**
      * Prevents instantiation of this utility class.
      */
@@ -71,7 +71,9 @@
 
 /**
  * Utilities for working with image files and creating thumbnails. Re-uses
- * thumbnails by storing them in the case's cache directory.
+ * thumbnails by storing them in the case's cache directory, either as one PNG
+ * file per thumbnail or, if enabled, packed into the segment files of a
+ * ThumbnailStore.
  */
 public class ImageUtils {
 
@@ -152,8 +154,11 @@ public class ImageUtils {
                 "application/x-123")); //TODO: is this correct? -jm //NON-NLS
         SUPPORTED_IMAGE_MIME_TYPES.removeIf("application/octet-stream"::equals); //NON-NLS
 
-        //Clear the file map when the case changes, so we don't accidentaly get images from the old case.
-        Case.addEventSubscriber(Case.Events.CURRENT_CASE.toString(), evt -> cacheFileMap.clear());
+        //Clear the file map and close the thumbnail store when the case changes, so we don't accidentaly get images from the old case.
+        Case.addEventSubscriber(Case.Events.CURRENT_CASE.toString(), evt -> {
+            cacheFileMap.clear();
+            closeThumbnailStore();
+        });
     }
 
     /**
@@ -168,6 +173,18 @@ public class ImageUtils {
             Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
                     .namingPattern("thumbnail-saver-%d").build()); //NON-NLS
 
+    private static final String SETTINGS_MODULE = "ImageUtils"; //NON-NLS
+    private static final String PACKED_THUMBNAILS_ENABLED_KEY = "packedThumbnails.enabled"; //NON-NLS
+    private static final String PACKED_THUMBNAILS_ENCODERS_KEY = "packedThumbnails.encoderThreads"; //NON-NLS
+
+    /**
+     * The packed thumbnail store of the current case, opened lazily. Null if
+     * packed thumbnails are not enabled, or the store is not open yet or could
+     * not be opened.
+     */
+    private static ThumbnailStore thumbnailStore; // guarded by ImageUtils.class
+    private static boolean thumbnailStoreFailed = false; // guarded by ImageUtils.class
+
     public static List<String> getSupportedImageExtensions() {
         return Collections.unmodifiableList(SUPPORTED_IMAGE_EXTENSIONS);
     }
@@ -341,6 +358,98 @@ public static BufferedImage getThumbnail(Content content, int iconSize) {
         return DEFAULT_THUMBNAIL;
     }
 
+    /**
+     * Generate and cache thumbnails of the given sizes for a file, ahead of
+     * them being asked for. Sizes that are already cached are skipped. The
+     * per-file PNG cache holds only one thumbnail per file, so unless the
+     * packed thumbnail store is enabled only the first size is cached.
+     *
+     * Unlike getThumbnail(Content, int) this runs on the calling thread,
+     * including the writing of the thumbnails.
+     *
+     * @param file      the file to generate thumbnails for
+     * @param iconSizes the sizes of the thumbnails
+     *
+     * @return the number of thumbnails generated
+     */
+    public static int cacheThumbnails(AbstractFile file, int... iconSizes) {
+        if (iconSizes.length == 0 || isGIF(file)) {
+            return 0; // GIFs are not cached, to preserve animation
+        }
+        ThumbnailStore store = getThumbnailStore();
+        File cacheFile = null;
+        List<Integer> sizes = new ArrayList<>();
+        if (store != null) {
+            for (int iconSize : iconSizes) {
+                if (store.contains(file.getId(), iconSize) == false) {
+                    sizes.add(iconSize);
+                }
+            }
+        } else {
+            cacheFile = getCachedThumbnailLocation(file.getId());
+            if (cacheFile == null || cacheFile.exists()) {
+                return 0;
+            }
+            sizes.add(iconSizes[0]);
+        }
+        if (sizes.isEmpty()) {
+            return 0;
+        }
+
+        BufferedImage source = null;
+        if (VideoUtils.isVideoThumbnailSupported(file)) {
+            if (OPEN_CV_LOADED) {
+                source = VideoUtils.generateVideoThumbnail(file, Collections.max(sizes));
+            }
+        } else {
+            try (InputStream inputStream = getBufferedReadContentStream(file)) {
+                source = ImageIO.read(inputStream);
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.FINE, "ImageIO could not read the content of " + getContentPathSafe(file), ex); //NON-NLS
+            }
+        }
+
+        int generated = 0;
+        for (int iconSize : sizes) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            BufferedImage thumbnail = null;
+            if (source != null) {
+                try {
+                    thumbnail = (source.getWidth() <= iconSize && source.getHeight() <= iconSize)
+                            ? source : ScalrWrapper.resizeFast(source, iconSize);
+                } catch (IllegalArgumentException | OutOfMemoryError ex) {
+                    LOGGER.log(Level.WARNING, "Could not scale " + getContentPathSafe(file), ex); //NON-NLS
+                }
+            }
+            if (thumbnail == null) {
+                if (VideoUtils.isVideoThumbnailSupported(file)) {
+                    break;
+                }
+                // fall back to the reading, cropping etc. of the thumbnail task, which also caches the thumbnail
+                Task<javafx.scene.image.Image> thumbnailTask = newGetThumbnailTask(file, iconSize, false);
+                thumbnailTask.run();
+                try {
+                    if (thumbnailTask.get() != null) {
+                        generated++;
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    LOGGER.log(Level.FINE, "Failed to generate thumbnail for " + getContentPathSafe(file), ex); //NON-NLS
+                    break;
+                }
+                continue;
+            }
+            if (store != null) {
+                store.put(file.getId(), iconSize, thumbnail);
+            } else {
+                saveThumbnailFile(file, cacheFile, thumbnail);
+            }
+            generated++;
+        }
+        return generated;
+    }
+
     /**
      * Get a BufferedInputStream wrapped around a ReadContentStream for the
      * given AbstractFile.
@@ -362,7 +471,9 @@ private static BufferedInputStream getBufferedReadContentStream(AbstractFile fil
      * @param iconSize the size (one side of a square) in pixels to generate
      *
      * @return File object for cached image. Is guaranteed to exist, as long as
-     *         there was not an error generating or saving the thumbnail.
+     *         there was not an error generating or saving the thumbnail, and
+     *         the packed thumbnail store is not enabled. Callers that want the
+     *         thumbnail itself should use getThumbnail(Content, int).
      */
     @Nullable
     public static File getCachedThumbnailFile(Content content, int iconSize) {
@@ -392,6 +503,69 @@ private static File getCachedThumbnailLocation(long fileID) {
         });
     }
 
+    /**
+     * Get whether thumbnails are cached in a packed thumbnail store rather than
+     * as one PNG file per thumbnail.
+     *
+     * @return true if the packed thumbnail store is enabled
+     */
+    private static boolean isPackedThumbnailStoreEnabled() {
+        return Boolean.parseBoolean(ModuleSettings.getConfigSetting(SETTINGS_MODULE, PACKED_THUMBNAILS_ENABLED_KEY));
+    }
+
+    /**
+     * Get the number of threads that encode thumbnails for the packed
+     * thumbnail store.
+     *
+     * @return the number of threads
+     */
+    private static int getThumbnailEncoderThreads() {
+        String threadsString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, PACKED_THUMBNAILS_ENCODERS_KEY);
+        if (threadsString != null && !threadsString.isEmpty()) {
+            try {
+                int threads = Integer.parseInt(threadsString);
+                if (threads > 0) {
+                    return threads;
+                }
+            } catch (NumberFormatException ex) {
+                LOGGER.log(Level.WARNING, "Invalid number of thumbnail encoder threads: " + threadsString, ex); //NON-NLS
+            }
+        }
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Get the packed thumbnail store of the current case, opening it if
+     * needed.
+     *
+     * @return the store, or null if packed thumbnails are not enabled, no case
+     *         is open, or the store could not be opened, in which case
+     *         thumbnails are cached as PNG files.
+     */
+    @Nullable
+    private static synchronized ThumbnailStore getThumbnailStore() {
+        if (thumbnailStore == null && thumbnailStoreFailed == false && isPackedThumbnailStoreEnabled()) {
+            try {
+                String cacheDirectory = Case.getCurrentCase().getCacheDirectory();
+                thumbnailStore = new ThumbnailStore(Paths.get(cacheDirectory, "thumbnails", "packed"), getThumbnailEncoderThreads()); //NON-NLS
+            } catch (IllegalStateException ex) {
+                LOGGER.log(Level.WARNING, "Could not open the thumbnail store.  No case is open."); //NON-NLS
+            } catch (IOException ex) {
+                LOGGER.log(Level.SEVERE, "Could not open the thumbnail store, thumbnails will be cached as PNG files.", ex); //NON-NLS
+                thumbnailStoreFailed = true;
+            }
+        }
+        return thumbnailStore;
+    }
+
+    private static synchronized void closeThumbnailStore() {
+        if (thumbnailStore != null) {
+            thumbnailStore.close();
+            thumbnailStore = null;
+        }
+        thumbnailStoreFailed = false;
+    }
+
     /**
      * Do a direct check to see if the given file has an image file header.
      * NOTE: Currently only jpeg and png are supported.
@@ -637,6 +811,7 @@ static private class GetThumbnailTask extends ReadImageTaskBase {
 
         private final int iconSize;
         private final File cacheFile;
+        private final ThumbnailStore store;
         private final boolean defaultOnFailure;
 
         @NbBundle.Messages({"# {0} - file name",
@@ -648,7 +823,8 @@ private GetThumbnailTask(AbstractFile file, int iconSize, boolean defaultOnFailu
             updateMessage(Bundle.GetOrGenerateThumbnailTask_loadingThumbnailFor(file.getName()));
             this.iconSize = iconSize;
             this.defaultOnFailure = defaultOnFailure;
-            this.cacheFile = getCachedThumbnailLocation(file.getId());
+            this.store = getThumbnailStore();
+            this.cacheFile = (store == null) ? getCachedThumbnailLocation(file.getId()) : null;
         }
 
         @Override
@@ -660,6 +836,17 @@ protected javafx.scene.image.Image call() throws Exception {
                 return readImage();
             }
 
+            // If a thumbnail is already in the packed store, just read that.
+            if (store != null) {
+                BufferedImage cachedThumbnail = store.get(file.getId(), iconSize);
+                if (isCancelled()) {
+                    return null;
+                }
+                if (nonNull(cachedThumbnail) && cachedThumbnail.getWidth() == iconSize) {
+                    return SwingFXUtils.toFXImage(cachedThumbnail, null);
+                }
+            }
+
             // If a thumbnail file is already saved locally, just read that.
             if (cacheFile != null) {
                 synchronized (cacheFile) {
@@ -753,34 +940,38 @@ protected javafx.scene.image.Image call() throws Exception {
             updateProgress(-1, 1);
 
             //if we got a valid thumbnail save it
-            if ((cacheFile != null) && thumbnail != null && DEFAULT_THUMBNAIL != thumbnail) {
-                saveThumbnail(thumbnail);
+            if (thumbnail != null && DEFAULT_THUMBNAIL != thumbnail) {
+                if (store != null) {
+                    store.put(file.getId(), iconSize, thumbnail);
+                } else if (cacheFile != null) {
+                    imageSaver.execute(() -> saveThumbnailFile(file, cacheFile, thumbnail));
+                }
             }
             if (isCancelled()) {
                 return null;
             }
             return SwingFXUtils.toFXImage(thumbnail, null);
         }
+    }
 
-        /**
-         * submit the thumbnail saving to another background thread.
-         *
-         * @param thumbnail
-         */
-        private void saveThumbnail(BufferedImage thumbnail) {
-            imageSaver.execute(() -> {
-                try {
-                    synchronized (cacheFile) {
-                        Files.createParentDirs(cacheFile);
-                        if (cacheFile.exists()) {
-                            cacheFile.delete();
-                        }
-                        ImageIO.write(thumbnail, FORMAT, cacheFile);
-                    }
-                } catch (Exception ex) {
-                    LOGGER.log(Level.WARNING, "Could not write thumbnail for {0}: " + ex.toString(), ImageUtils.getContentPathSafe(file)); //NON-NLS
+    /**
+     * Write a thumbnail to its PNG cache file, replacing any existing one.
+     *
+     * @param file      the file the thumbnail is of
+     * @param cacheFile the cache file
+     * @param thumbnail the thumbnail
+     */
+    private static void saveThumbnailFile(AbstractFile file, File cacheFile, BufferedImage thumbnail) {
+        try {
+            synchronized (cacheFile) {
+                Files.createParentDirs(cacheFile);
+                if (cacheFile.exists()) {
+                    cacheFile.delete();
                 }
-            });
+                ImageIO.write(thumbnail, FORMAT, cacheFile);
+            }
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Could not write thumbnail for {0}: " + ex.toString(), ImageUtils.getContentPathSafe(file)); //NON-NLS
         }
     }
 
@@ -55,6 +55,12 @@ public class StringExtract {
     private boolean enableUTF8;
     private boolean enableUTF16;
 
+    /**
+     * currently enabled scripts, indexed by SCRIPT ordinal, so that checking a
+     * decoded char does not search the list
+     */
+    private final boolean[] enabledScriptFlags = new boolean[SCRIPT.values().length];
+
     //stored and reused results
     private final StringExtractResult resUTF16En1 = new StringExtractResult();
     private final StringExtractResult resUTF16En2 = new StringExtractResult();
@@ -69,8 +75,16 @@ public class StringExtract {
                     SCRIPT.HIRAGANA, SCRIPT.KATAKANA, SCRIPT.HANGUL,
                     SCRIPT.ARMENIAN, SCRIPT.BENGALI, SCRIPT.KHMER, SCRIPT.ETHIOPIC,
                     SCRIPT.GEORGIAN, SCRIPT.HEBREW, SCRIPT.LAO, SCRIPT.MONGOLIAN, SCRIPT.THAI, SCRIPT.TIBETAN);
-    //current total string buffer, reuse for performance
-    private final StringBuilder curString = new StringBuilder();
+    private static final int INITIAL_TEXT_BUFFER_SIZE = 64 * 1024;
+    /**
+     * text extracted by the last call to extractChars(), reused and grown as
+     * needed so that extracting from a large buffer does not allocate
+     */
+    private char[] textBuffer = new char[INITIAL_TEXT_BUFFER_SIZE];
+    private int textLength = 0;
+    private int processedBytes = 0;
+    private int textStartOffset = 0;
+    private int firstUnprocessedOff = 0;
 
     /**
      * Initializes the StringExtract utility Sets enabled scripts to all
@@ -112,6 +126,7 @@ public void setEnableUTF16(boolean enableUTF16) {
      */
     public final void setEnabledScripts(List<SCRIPT> scripts) {
         this.enabledScripts = scripts;
+        updateEnabledScriptFlags();
     }
 
     /**
@@ -123,6 +138,18 @@ public final void setEnabledScript(SCRIPT script) {
 
         this.enabledScripts = new ArrayList<SCRIPT>();
         this.enabledScripts.add(script);
+        updateEnabledScriptFlags();
+    }
+
+    private void updateEnabledScriptFlags() {
+        Arrays.fill(enabledScriptFlags, false);
+        for (SCRIPT script : enabledScripts) {
+            enabledScriptFlags[script.ordinal()] = true;
+        }
+        //LATIN_2 (extended LATIN) includes LATIN_1
+        if (enabledScriptFlags[SCRIPT.LATIN_2.ordinal()]) {
+            enabledScriptFlags[SCRIPT.LATIN_1.ordinal()] = true;
+        }
     }
 
     /**
@@ -146,13 +173,7 @@ public static boolean isExtractionSupported(SCRIPT script) {
      * @return true if the the script extraction is enabled
      */
     public boolean isExtractionEnabled(SCRIPT script) {
-        if (script.equals(SCRIPT.LATIN_1)) {
-            return enabledScripts.contains(SCRIPT.LATIN_1)
-                    || enabledScripts.contains(SCRIPT.LATIN_2);
-        } else {
-            return enabledScripts.contains(script);
-        }
-
+        return enabledScriptFlags[script.ordinal()];
     }
 
     /**
@@ -188,39 +209,66 @@ public StringExtractResult extract(byte[] buff, int len, int offset) {
             return new StringExtractResult();
         }
 
-        final int buffLen = buff.length;
+        extractChars(buff, len, offset);
 
-        int processedBytes = 0;
-        int curOffset = offset;
-        int startOffset = offset;
-        int curStringLen = 0;
+        //build up the final result
+        StringExtractResult res = new StringExtractResult();
+        res.numBytes = processedBytes;
+        res.numChars = textLength;
+        res.offset = textStartOffset;
+        res.textString = new String(textBuffer, 0, textLength);
+        res.firstUnprocessedOff = firstUnprocessedOff; //save that of the last winning result
 
-        //reset curString buffer
-        curString.delete(0, curString.length());
+        return res;
+    }
 
-        //keep track of first byte offset that hasn't been processed
-        //(one byte past the last byte processed in by last extraction)
-        int firstUnprocessedOff = offset;
+    /**
+     * Runs the byte buffer through the string extractor, like extract(), but
+     * leaves the extracted strings, each followed by a new line, in the text
+     * buffer of this instance instead of building a String. Once the text
+     * buffer has grown to fit, no objects are allocated, so this is the method
+     * to use for large amounts of data.
+     *
+     * @param buff   the bytes to extract strings from
+     * @param len    the number of bytes in the buffer to use
+     * @param offset the offset in the buffer to start extracting from
+     *
+     * @return the number of chars extracted, which are at the start of the
+     *         array returned by getTextBuffer() until the next extraction
+     */
+    public int extractChars(byte[] buff, int len, int offset) {
+        textLength = 0;
+        processedBytes = 0;
+        textStartOffset = offset;
+        firstUnprocessedOff = offset;
+        if (this.enableUTF16 == false && this.enableUTF8 == false) {
+            return 0;
+        }
+
+        final int end = Math.min(len, buff.length);
+        int curOffset = offset;
+        boolean stringFound = false;
 
-        while (curOffset < buffLen) {
+        while (curOffset < end) {
             //shortcut, skip processing empty bytes
-            if (buff[curOffset] == 0 && curOffset + 1 < buffLen && buff[curOffset + 1] == 0) {
+            if (buff[curOffset] == 0 && curOffset + 1 < end && buff[curOffset + 1] == 0) {
                 curOffset += 2;
                 continue;
             }
 
-            //extract using all methods and see which one wins
+            //measure the string found by each method, without copying it,
+            //and see which one wins
             StringExtractResult resUTF16 = null;
             boolean runUTF16 = false;
             if (enableUTF16 && curOffset % 2 == 0) {
                 runUTF16 = true;
-                extractUTF16(buff, len, curOffset, true, resUTF16En1);
-                extractUTF16(buff, len, curOffset, false, resUTF16En2);
+                extractUTF16(buff, end, curOffset, true, resUTF16En1, null, 0);
+                extractUTF16(buff, end, curOffset, false, resUTF16En2, null, 0);
                 resUTF16 = resUTF16En1.numChars > resUTF16En2.numChars ? resUTF16En1 : resUTF16En2;
             }
 
             if (enableUTF8) {
-                extractUTF8(buff, len, curOffset, resUTF8);
+                extractUTF8(buff, end, curOffset, resUTF8, null, 0);
             }
 
             StringExtractResult resWin = null;
@@ -233,15 +281,20 @@ public StringExtractResult extract(byte[] buff, int len, int offset) {
             }
 
             if (resWin.numChars >= MIN_CHARS_STRING) {
-                //record string 
-                if (startOffset == offset) {
-                    //advance start offset where first string starts it hasn't been advanced
-                    startOffset = resWin.offset;
+                //record string
+                if (stringFound == false) {
+                    textStartOffset = resWin.offset;
+                    stringFound = true;
+                }
+                //decode the winner again, this time into the text buffer
+                ensureTextCapacity(textLength + resWin.numChars + 1);
+                if (resWin == resUTF8) {
+                    extractUTF8(buff, end, curOffset, resWin, textBuffer, textLength);
+                } else {
+                    extractUTF16(buff, end, curOffset, resWin == resUTF16En1, resWin, textBuffer, textLength);
                 }
-                curStringLen += resWin.numChars;
-                curString.append(resWin.textString);
-                curString.append("\n");
-                curStringLen += resWin.numChars + 1;
+                textLength += resWin.numChars;
+                textBuffer[textLength++] = '\n';
 
                 //advance
                 curOffset += resWin.numBytes;
@@ -257,117 +310,112 @@ public StringExtractResult extract(byte[] buff, int len, int offset) {
             }
         }
 
-        //build up the final result
-        StringExtractResult res = new StringExtractResult();
-        res.numBytes = processedBytes;
-        res.numChars = curStringLen;
-        res.offset = startOffset;
-        res.textString = curString.toString();
-        res.firstUnprocessedOff = firstUnprocessedOff; //save that of the last winning result
+        return textLength;
+    }
 
-        return res;
+    /**
+     * Get the text extracted by the last call to extractChars(). The array is
+     * reused, and may be replaced, by the next extraction.
+     *
+     * @return the text buffer, holding the extracted chars at its start
+     */
+    public char[] getTextBuffer() {
+        return textBuffer;
     }
 
-    private StringExtractResult extractUTF16(byte[] buff, int len, int offset, boolean endianSwap, final StringExtractResult res) {
-        res.reset();
+    private void ensureTextCapacity(int capacity) {
+        if (capacity > textBuffer.length) {
+            textBuffer = Arrays.copyOf(textBuffer, Math.max(capacity, textBuffer.length * 2));
+        }
+    }
 
-        int curOffset = offset;
+    /**
+     * Check if a decoded char continues the string being extracted: chars of
+     * the generic script always do, otherwise the char must be of the script
+     * the string is locked into, or lock the string into its script if it is
+     * the first non generic char and the script is enabled.
+     *
+     * @param scriptFound   the script of the char
+     * @param currentScript the script the string is locked into, or NONE
+     *
+     * @return the script the string is locked into after the char, or null if
+     *         the char ends the string
+     */
+    private SCRIPT continueString(SCRIPT scriptFound, SCRIPT currentScript) {
+        if (scriptFound == SCRIPT.NONE) {
+            return null;
+        }
+        if (StringExtractUnicodeTable.isGeneric(scriptFound) || scriptFound == currentScript) {
+            return currentScript;
+        }
+        if (currentScript == SCRIPT.NONE && enabledScriptFlags[scriptFound.ordinal()]) {
+            return scriptFound;
+        }
+        return null;
+    }
 
-        final StringBuilder tempString = new StringBuilder();
+    /**
+     * Extract a UTF-16 string starting at the offset.
+     *
+     * @param buff      the bytes to extract from
+     * @param len       the number of bytes in the buffer to use
+     * @param offset    the offset of the first char
+     * @param bigEndian true for UTF-16BE, false for UTF-16LE
+     * @param res       set to the offset, number of bytes and number of chars
+     *                  of the string found, if any
+     * @param out       the array to write the chars of the string to, or null
+     *                  to only measure the string
+     * @param outOffset the offset in the array to write the chars to
+     */
+    private void extractUTF16(byte[] buff, int len, int offset, boolean bigEndian, final StringExtractResult res, char[] out, int outOffset) {
+        res.reset();
+        res.offset = offset;
 
+        int curOffset = offset;
         SCRIPT currentScript = SCRIPT.NONE;
 
-        boolean inControl = false;
-
         //while we have 2 byte chunks
-        byte[] b = new byte[2];
         while (curOffset < len - 1) {
-            b[0] = buff[curOffset++];
-            b[1] = buff[curOffset++];
-
-            if (endianSwap) {
-                byte temp = b[0];
-                b[0] = b[1];
-                b[1] = temp;
-            }
+            final int first = buff[curOffset] & 0xFF;
+            final int second = buff[curOffset + 1] & 0xFF;
+            final char ch = (char) (bigEndian ? (first << 8) | second : (second << 8) | first);
 
-            //convert the byte sequence to 2 byte char
-            //ByteBuffer bb = ByteBuffer.wrap(b);
-            //int byteVal = bb.getInt();
-            char byteVal = (char) b[1];
-            byteVal = (char) (byteVal << 8);
-            byteVal += b[0];
-
-            //skip if beyond range
-            if (byteVal > StringExtractUnicodeTable.UNICODE_TABLE_SIZE - 1) {
+            //lookup the char in the unicode table
+            currentScript = continueString(unicodeTable.getScript(ch), currentScript);
+            if (currentScript == null) {
                 break;
             }
 
-            //lookup byteVal in the unicode table
-            SCRIPT scriptFound = unicodeTable.getScript(byteVal);
-
-            if (scriptFound == SCRIPT.NONE) {
-                break;
-            }
-
-            /*
-             * else if (scriptFound == SCRIPT.CONTROL) { //update bytes
-             * processed res.numBytes += 2; continue; } else if (inControl) {
-             * break;
-             }
-             */
-            final boolean isGeneric = StringExtractUnicodeTable.isGeneric(scriptFound);
-            //allow generic and one of enabled scripts we locked in to
-            if (isGeneric
-                    || isExtractionEnabled(scriptFound)) {
-
-                if (currentScript == SCRIPT.NONE
-                        && !isGeneric) {
-                    //handle case when this is the first char in the string
-                    //lock into the script
-                    currentScript = scriptFound;
-                }
-                //check if we are within the same script we are locked on to, or COMMON
-                if (currentScript == scriptFound
-                        || isGeneric) {
-                    if (res.numChars == 0) {
-                        //set the start offset of the string
-                        res.offset = curOffset;
-                    }
-                    //update bytes processed
-                    res.numBytes += 2;
-                    //append the char
-                    ++res.numChars;
-                    tempString.append(byteVal);
-                } else {
-                    //bail out
-                    break;
-                }
-            } else {
-                //bail out 
-                break;
+            if (out != null) {
+                out[outOffset + res.numChars] = ch;
             }
-
+            ++res.numChars;
+            res.numBytes += 2;
+            curOffset += 2;
         } //no more data
-
-        res.textString = tempString.toString();
-
-        return res;
     }
 
-    private StringExtractResult extractUTF8(byte[] buff, int len, int offset, final StringExtractResult res) {
+    /**
+     * Extract a UTF-8 string starting at the offset.
+     *
+     * @param buff      the bytes to extract from
+     * @param len       the number of bytes in the buffer to use
+     * @param offset    the offset of the first char
+     * @param res       set to the offset, number of bytes and number of chars
+     *                  of the string found, if any
+     * @param out       the array to write the chars of the string to, or null
+     *                  to only measure the string
+     * @param outOffset the offset in the array to write the chars to
+     */
+    private void extractUTF8(byte[] buff, int len, int offset, final StringExtractResult res, char[] out, int outOffset) {
         res.reset();
+        res.offset = offset;
 
         int curOffset = offset;
-        int ch = 0; //character being extracted
-        int chBytes; //num bytes consumed by current char (1 - 4)
-
-        final StringBuilder tempString = new StringBuilder();
-
+        int ch; //character being extracted
+        int chBytes; //num bytes consumed by current char (1 - 3, 4 byte chars are beyond the unicode table)
         SCRIPT currentScript = SCRIPT.NONE;
 
-        boolean inControl = false;
-
         //decode and extract a character
         while (curOffset < len) {
             // based on "valid UTF-8 byte sequences" in the Unicode 5.0 book
@@ -388,150 +436,41 @@ private StringExtractResult extractUTF8(byte[] buff, int len, int offset, final
                 } else {
                     break;
                 }
-            } else if (curByte == 0xE0) {
-                if (len - curOffset < 3) {
-                    break;
-                }
-                final int curByte_1 = buff[curOffset + 1] & 0xFF;
-                final int curByte_2 = buff[curOffset + 2] & 0xFF;
-
-                if (curByte_1 >= 0xA0 && curByte_1 <= 0xBF
-                        && curByte_2 >= 0x80 && curByte_2 <= 0xBF) {
-                    chBytes = 3;
-                    ch = (((curByte & 0x0f) << 12) + ((curByte_1 & 0x3f) << 6) + (curByte_2 & 0x3f));
-                } else {
-                    break;
-                }
-            } else if (curByte <= 0xEC) {
-                if (len - curOffset < 3) {
-                    break;
-                }
-                final int curByte_1 = buff[curOffset + 1] & 0xFF;
-                final int curByte_2 = buff[curOffset + 2] & 0xFF;
-                if (curByte_1 >= 0x80 && curByte_1 <= 0xBF
-                        && curByte_2 >= 0x80 && curByte_2 <= 0xBF) {
-                    chBytes = 3;
-                    ch = (((curByte & 0x0f) << 12) + ((curByte_1 & 0x3f) << 6) + (curByte_2 & 0x3f));
-                } else {
-                    break;
-                }
-            } else if (curByte == 0xED) {
-                if (len - curOffset < 3) {
-                    break;
-                }
-                final int curByte_1 = buff[curOffset + 1] & 0xFF;
-                final int curByte_2 = buff[curOffset + 2] & 0xFF;
-                if (curByte_1 >= 0x80 && curByte_1 <= 0x9F
-                        && curByte_2 >= 0x80 && curByte_2 <= 0xBF) {
-                    chBytes = 3;
-                    ch = (((curByte & 0x0f) << 12) + ((curByte_1 & 0x3f) << 6) + (curByte_2 & 0x3f));
-                } else {
-                    break;
-                }
             } else if (curByte <= 0xEF) {
                 if (len - curOffset < 3) {
                     break;
                 }
                 final int curByte_1 = buff[curOffset + 1] & 0xFF;
                 final int curByte_2 = buff[curOffset + 2] & 0xFF;
-                if (curByte_1 >= 0x80 && curByte_1 <= 0xBF
+                //the second byte range excludes overlong forms (after 0xE0)
+                //and surrogates (after 0xED)
+                final int minByte_1 = curByte == 0xE0 ? 0xA0 : 0x80;
+                final int maxByte_1 = curByte == 0xED ? 0x9F : 0xBF;
+                if (curByte_1 >= minByte_1 && curByte_1 <= maxByte_1
                         && curByte_2 >= 0x80 && curByte_2 <= 0xBF) {
                     chBytes = 3;
                     ch = (((curByte & 0x0f) << 12) + ((curByte_1 & 0x3f) << 6) + (curByte_2 & 0x3f));
                 } else {
                     break;
                 }
-            } else if (curByte == 0xF0) {
-                if (len - curOffset < 4) {
-                    break;
-                }
-                final int curByte_1 = buff[curOffset + 1] & 0xFF;
-                final int curByte_2 = buff[curOffset + 2] & 0xFF;
-                final int curByte_3 = buff[curOffset + 3] & 0xFF;
-                if (curByte_1 >= 0x90 && curByte_1 <= 0xBF
-                        && curByte_2 >= 0x80 && curByte_2 <= 0xBF
-                        && curByte_3 >= 0x80 && curByte_3 <= 0xBF) {
-                    chBytes = 4;
-                    ch = (((curByte & 0x07) << 18) + ((curByte_1 & 0x3f) << 12) + ((curByte_2 & 0x3f) << 6) + (curByte_3 & 0x3f));
-                } else {
-                    break;
-                }
-            } else if (curByte <= 0xF3) {
-                if (len - curOffset < 4) {
-                    break;
-                }
-                final int curByte_1 = buff[curOffset + 1] & 0xFF;
-                final int curByte_2 = buff[curOffset + 2] & 0xFF;
-                final int curByte_3 = buff[curOffset + 3] & 0xFF;
-                if (curByte_1 >= 0x80 && curByte_1 <= 0xBF
-                        && curByte_2 >= 0x80 && curByte_2 <= 0xBF
-                        && curByte_3 >= 0x80 && curByte_3 <= 0xBF) {
-                    chBytes = 4;
-                    ch = (((curByte & 0x07) << 18) + ((curByte_1 & 0x3f) << 12) + ((curByte_2 & 0x3f) << 6) + (curByte_3 & 0x3f));
-                } else {
-                    break;
-                }
             } else {
+                //4 byte chars are all beyond the range of the unicode table
                 break;
             }
 
-            curOffset += chBytes;
-
-            //skip if beyond range
-            if (ch > StringExtractUnicodeTable.UNICODE_TABLE_SIZE - 1) {
+            //lookup the char in the unicode table
+            currentScript = continueString(unicodeTable.getScript(ch), currentScript);
+            if (currentScript == null) {
                 break;
             }
 
-            //lookup byteVal in the unicode table
-            SCRIPT scriptFound = unicodeTable.getScript(ch);
-
-            if (scriptFound == SCRIPT.NONE) {
-                break;
-            }
-
-            /*
-             * else if (scriptFound == SCRIPT.CONTROL) { //update bytes
-             * processed res.numBytes += chBytes; continue; } else if
-             * (inControl) { break;
-             }
-             */
-            final boolean isGeneric = StringExtractUnicodeTable.isGeneric(scriptFound);
-            //allow generic and one of enabled scripts we locked in to
-            if (isGeneric
-                    || isExtractionEnabled(scriptFound)) {
-
-                if (currentScript == SCRIPT.NONE
-                        && !isGeneric) {
-                    //handle case when this is the first char in the string
-                    //lock into the script
-                    currentScript = scriptFound;
-                }
-                //check if we are within the same script we are locked on to, or COMMON
-                if (currentScript == scriptFound
-                        || isGeneric) {
-                    if (res.numChars == 0) {
-                        //set the start byte offset of the string
-                        res.offset = curOffset;
-                    }
-                    //update bytes processed
-                    res.numBytes += chBytes;
-                    //append the char
-                    ++res.numChars;
-                    tempString.append((char) ch);
-                } else {
-                    //bail out
-                    break;
-                }
-            } else {
-                //bail out 
-                break;
+            if (out != null) {
+                out[outOffset + res.numChars] = (char) ch;
             }
-
+            ++res.numChars;
+            res.numBytes += chBytes;
+            curOffset += chBytes;
         } //no more data
-
-        res.textString = tempString.toString();
-
-        return res;
     }
 
     /*
@@ -0,0 +1,475 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.coreutils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import javax.imageio.ImageIO;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+/**
+ * A thumbnail cache that packs the thumbnails of a case into a few large
+ * segment files instead of writing one small file per thumbnail, which is slow
+ * to create, back up and open when there are millions of thumbnails on a
+ * network share.
+ *
+ * Each segment is a sequence of self describing records (object id, thumbnail
+ * size, length of the encoded image, PNG bytes), only ever appended to. The
+ * index from object id and size to the location of the newest record is kept
+ * in memory and rebuilt by scanning the record headers when the store is
+ * opened, so a record torn by a crash is simply ignored. Segments are read
+ * through memory mapped buffers. Thumbnails are PNG encoded by a pool of
+ * encoder threads, and then appended to the current segment one at a time.
+ */
+final class ThumbnailStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ThumbnailStore.class.getName());
+
+    private static final String SEGMENT_PREFIX = "thumbnails-"; //NON-NLS
+    private static final String SEGMENT_EXTENSION = ".seg"; //NON-NLS
+    private static final String FORMAT = "png"; //NON-NLS
+    private static final int RECORD_MAGIC = 0x54484d42; // "THMB"
+    /**
+     * magic, object id, size, length
+     */
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final long MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
+    /**
+     * the number of bits of a packed location that hold the offset in the
+     * segment, the rest hold the segment number
+     */
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    private final Path directory;
+    private final ConcurrentHashMap<Key, Long> index = new ConcurrentHashMap<>();
+    /**
+     * thumbnails that were submitted but are not written yet, so they can be
+     * served before they are in a segment
+     */
+    private final ConcurrentHashMap<Key, BufferedImage> pending = new ConcurrentHashMap<>();
+    private final List<Segment> segments = new ArrayList<>(); // guarded by this
+    private final ExecutorService encoders;
+    private volatile boolean closed = false;
+    private boolean segmentsClosed = false; // guarded by this
+    // metrics
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong writes = new AtomicLong(0);
+    private final AtomicLong writtenBytes = new AtomicLong(0);
+    private final AtomicInteger maxPending = new AtomicInteger(0);
+
+    /**
+     * Open the store in the given directory, creating the directory if needed,
+     * and index the records of any existing segments.
+     *
+     * @param directory      the directory of the segment files
+     * @param encoderThreads the number of threads that encode thumbnails
+     *
+     * @throws IOException if the directory or a segment could not be opened
+     */
+    ThumbnailStore(Path directory, int encoderThreads) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<Path> segmentPaths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) { //NON-NLS
+            stream.forEach(segmentPaths::add);
+        }
+        segmentPaths.sort(null);
+        try {
+            for (Path segmentPath : segmentPaths) {
+                if (getSegmentNumber(segmentPath) != segments.size()) {
+                    LOGGER.log(Level.WARNING, "Ignoring thumbnail segment {0}, it is out of sequence", segmentPath); //NON-NLS
+                    continue;
+                }
+                Segment segment = new Segment(segments.size(), segmentPath);
+                segments.add(segment);
+                indexRecords(segment);
+            }
+        } catch (IOException ex) {
+            closeSegments();
+            throw ex;
+        }
+        encoders = Executors.newFixedThreadPool(Math.max(1, encoderThreads), new BasicThreadFactory.Builder()
+                .namingPattern("thumbnail-encoder-%d").daemon(true).build()); //NON-NLS
+        LOGGER.log(Level.INFO, "Opened thumbnail store in {0}: {1} segments, {2} thumbnails", //NON-NLS
+                new Object[]{directory, segments.size(), index.size()});
+    }
+
+    /**
+     * Get a stored thumbnail.
+     *
+     * @param objId    the object id of the file the thumbnail is of
+     * @param iconSize the size of the thumbnail
+     *
+     * @return the thumbnail, or null if there is no thumbnail of the given
+     *         size for the file, or it could not be read
+     */
+    BufferedImage get(long objId, int iconSize) {
+        Key key = new Key(objId, iconSize);
+        BufferedImage pendingThumbnail = pending.get(key);
+        if (pendingThumbnail != null) {
+            hits.incrementAndGet();
+            return pendingThumbnail;
+        }
+        Long location = index.get(key);
+        if (location == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            byte[] encoded = getSegment((int) (location >>> OFFSET_BITS)).read(location & OFFSET_MASK, key);
+            BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(encoded));
+            if (thumbnail != null) {
+                hits.incrementAndGet();
+                return thumbnail;
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not read stored thumbnail for object " + objId, ex); //NON-NLS
+        }
+        // forget the unreadable record, the thumbnail will be made and stored again
+        index.remove(key, location);
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Check whether a thumbnail is stored, without reading it.
+     *
+     * @param objId    the object id of the file the thumbnail is of
+     * @param iconSize the size of the thumbnail
+     *
+     * @return true if a thumbnail of the given size is stored for the file
+     */
+    boolean contains(long objId, int iconSize) {
+        Key key = new Key(objId, iconSize);
+        return pending.containsKey(key) || index.containsKey(key);
+    }
+
+    /**
+     * Store a thumbnail in the background, replacing any stored thumbnail of
+     * the same size for the file.
+     *
+     * @param objId     the object id of the file the thumbnail is of
+     * @param iconSize  the size of the thumbnail
+     * @param thumbnail the thumbnail
+     */
+    void put(long objId, int iconSize, BufferedImage thumbnail) {
+        if (closed) {
+            return;
+        }
+        Key key = new Key(objId, iconSize);
+        pending.put(key, thumbnail);
+        maxPending.accumulateAndGet(pending.size(), Integer::max);
+        encoders.execute(() -> {
+            try {
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                if (ImageIO.write(thumbnail, FORMAT, encoded) == false) {
+                    LOGGER.log(Level.WARNING, "No writer to encode thumbnail for object {0}", objId); //NON-NLS
+                    return;
+                }
+                append(key, encoded.toByteArray());
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Could not store thumbnail for object " + objId, ex); //NON-NLS
+            } finally {
+                pending.remove(key, thumbnail);
+            }
+        });
+    }
+
+    /**
+     * Finish writing the submitted thumbnails and close the segments. The
+     * store can not be used after it is closed.
+     */
+    void close() {
+        closed = true;
+        encoders.shutdown();
+        try {
+            if (encoders.awaitTermination(30, TimeUnit.SECONDS) == false) {
+                LOGGER.log(Level.WARNING, "Timed out waiting for thumbnails to be written to {0}", directory); //NON-NLS
+                encoders.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            encoders.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        closeSegments();
+        LOGGER.log(Level.INFO, "Closed thumbnail store in {0}: {1} hits, {2} misses, {3} thumbnails written ({4} bytes), at most {5} waiting to be written", //NON-NLS
+                new Object[]{directory, hits.get(), misses.get(), writes.get(), writtenBytes.get(), maxPending.get()});
+    }
+
+    private synchronized void closeSegments() {
+        for (Segment segment : segments) {
+            segment.releaseMapping(true);
+            try {
+                segment.channel.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Could not close thumbnail segment " + segment.path, ex); //NON-NLS
+            }
+        }
+        segments.clear();
+        segmentsClosed = true;
+        index.clear();
+        pending.clear();
+    }
+
+    private synchronized Segment getSegment(int number) throws IOException {
+        if (number >= segments.size()) {
+            throw new IOException("No thumbnail segment " + number + " in " + directory); //NON-NLS
+        }
+        return segments.get(number);
+    }
+
+    /**
+     * Append an encoded thumbnail to the current segment, starting a new
+     * segment if the current one is full, and point the index at it.
+     */
+    private synchronized void append(Key key, byte[] encoded) throws IOException {
+        if (segmentsClosed) {
+            return;
+        }
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.size + HEADER_BYTES + encoded.length > MAX_SEGMENT_BYTES) {
+            int number = segments.size();
+            Path segmentPath = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_EXTENSION)); //NON-NLS
+            segment = new Segment(number, segmentPath);
+            segments.add(segment);
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + encoded.length);
+        record.putInt(RECORD_MAGIC).putLong(key.objId).putInt(key.iconSize).putInt(encoded.length).put(encoded);
+        record.flip();
+        long offset = segment.size;
+        while (record.hasRemaining()) {
+            segment.channel.write(record, segment.size + record.position());
+        }
+        segment.size += record.limit();
+        index.put(key, ((long) segment.number << OFFSET_BITS) | offset);
+        writes.incrementAndGet();
+        writtenBytes.addAndGet(record.limit());
+    }
+
+    /**
+     * Add the records of the given segment to the index, and cut off a torn
+     * record at the end of the segment. The mapping used to scan the records
+     * is released before the segment is cut, since a mapped file can not be
+     * truncated on Windows.
+     */
+    private void indexRecords(Segment segment) throws IOException {
+        MappedByteBuffer buffer = segment.map();
+        long offset = 0;
+        while (offset + HEADER_BYTES <= buffer.limit()) {
+            int position = (int) offset;
+            int length = buffer.getInt(position + Integer.BYTES + Long.BYTES + Integer.BYTES);
+            if (buffer.getInt(position) != RECORD_MAGIC || length < 0 || offset + HEADER_BYTES + length > buffer.limit()) {
+                break;
+            }
+            Key key = new Key(buffer.getLong(position + Integer.BYTES), buffer.getInt(position + Integer.BYTES + Long.BYTES));
+            index.put(key, ((long) segment.number << OFFSET_BITS) | offset);
+            offset += HEADER_BYTES + length;
+        }
+        if (offset < segment.size) {
+            LOGGER.log(Level.WARNING, "Truncating thumbnail segment {0} from {1} to {2} bytes", new Object[]{segment.path, segment.size, offset}); //NON-NLS
+            segment.releaseMapping(false);
+            segment.channel.truncate(offset);
+            segment.size = offset;
+        }
+    }
+
+    private static int getSegmentNumber(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * One segment file, with a read only mapping of (a prefix of) it that is
+     * remapped when a record beyond the mapping is read. Records are read
+     * under the read lock of the mapping, and the mapping is only replaced or
+     * unmapped under the write lock, so a mapping is never unmapped while it
+     * is being read.
+     */
+    private static final class Segment {
+
+        private final int number;
+        private final Path path;
+        private final FileChannel channel;
+        private long size; // guarded by the store
+        private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();
+        private MappedByteBuffer mapped; // guarded by mappingLock
+        private boolean released = false; // guarded by mappingLock
+
+        private Segment(int number, Path path) throws IOException {
+            this.number = number;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        /**
+         * Map the whole segment, unmapping the previous mapping.
+         */
+        private MappedByteBuffer map() throws IOException {
+            mappingLock.writeLock().lock();
+            try {
+                return remap();
+            } finally {
+                mappingLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Unmap the current mapping of the segment.
+         *
+         * @param close true if the segment is being closed and must not be
+         *              mapped again
+         */
+        private void releaseMapping(boolean close) {
+            mappingLock.writeLock().lock();
+            try {
+                released |= close;
+                if (mapped != null) {
+                    FileUtil.unmap(mapped);
+                    mapped = null;
+                }
+            } finally {
+                mappingLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * read the encoded image of the record at the given offset
+         */
+        private byte[] read(long offset, Key key) throws IOException {
+            mappingLock.readLock().lock();
+            try {
+                int position = (int) offset;
+                ByteBuffer view = getMapping(offset + HEADER_BYTES).duplicate();
+                if (view.getInt(position) != RECORD_MAGIC
+                        || view.getLong(position + Integer.BYTES) != key.objId
+                        || view.getInt(position + Integer.BYTES + Long.BYTES) != key.iconSize) {
+                    throw new IOException("Corrupt thumbnail record at " + offset + " in " + path); //NON-NLS
+                }
+                int length = view.getInt(position + Integer.BYTES + Long.BYTES + Integer.BYTES);
+                if (offset + HEADER_BYTES + length > view.limit()) {
+                    view = getMapping(offset + HEADER_BYTES + length).duplicate();
+                }
+                byte[] encoded = new byte[length];
+                view.position(position + HEADER_BYTES);
+                view.get(encoded);
+                return encoded;
+            } finally {
+                mappingLock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Get a mapping that covers the segment up to the given offset,
+         * remapping the segment if the current mapping is too short. Must be
+         * called holding the read lock, which is given up while the segment is
+         * remapped. Mappings previously returned must not be used after this
+         * is called.
+         */
+        private MappedByteBuffer getMapping(long end) throws IOException {
+            if (released) {
+                throw new IOException("Thumbnail segment " + path + " is closed"); //NON-NLS
+            }
+            if (mapped != null && end <= mapped.limit()) {
+                return mapped;
+            }
+            mappingLock.readLock().unlock();
+            mappingLock.writeLock().lock();
+            try {
+                if (released) {
+                    throw new IOException("Thumbnail segment " + path + " is closed"); //NON-NLS
+                }
+                if (mapped == null || end > mapped.limit()) {
+                    remap();
+                }
+                return mapped;
+            } finally {
+                // downgrade to the read lock, so the mapping can not be unmapped until the caller is done with it
+                mappingLock.readLock().lock();
+                mappingLock.writeLock().unlock();
+            }
+        }
+
+        private MappedByteBuffer remap() throws IOException {
+            if (mapped != null) {
+                FileUtil.unmap(mapped);
+                mapped = null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapped;
+        }
+    }
+
+    /**
+     * The object id and size that identify a thumbnail.
+     */
+    private static final class Key {
+
+        private final long objId;
+        private final int iconSize;
+
+        private Key(long objId, int iconSize) {
+            this.objId = objId;
+            this.iconSize = iconSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(objId, iconSize);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return objId == other.objId && iconSize == other.iconSize;
+        }
+    }
+}
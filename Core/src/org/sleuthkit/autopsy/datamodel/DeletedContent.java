@@ -171,6 +171,8 @@ public DeletedContentsChildren(SleuthkitCase skCase) {
          */
         private final class DeletedContentsChildrenObservable extends Observable {
 
+            private final TreeEventDispatcher.Subscription refreshSubscription = TreeEventDispatcher.subscribe(events -> update());
+
             DeletedContentsChildrenObservable() {
                 IngestManager.getInstance().addIngestJobEventListener(pcl);
                 IngestManager.getInstance().addIngestModuleEventListener(pcl);
@@ -178,6 +180,7 @@ private final class DeletedContentsChildrenObservable extends Observable {
             }
 
             private void removeListeners() {
+                refreshSubscription.cancel();
                 deleteObservers();
                 IngestManager.getInstance().removeIngestJobEventListener(pcl);
                 IngestManager.getInstance().removeIngestModuleEventListener(pcl);
@@ -201,7 +204,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                             Case.getCurrentCase();
                             // new file was added                            		
                             // @@@ COULD CHECK If the new file is deleted before notifying...		
-                            update();
+                            refreshSubscription.post(evt);
                         } catch (IllegalStateException notUsed) {
                             /**
                              * Case is closed, do nothing.
@@ -218,7 +221,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                          */
                         try {
                             Case.getCurrentCase();
-                            update();
+                            refreshSubscription.post(evt);
                         } catch (IllegalStateException notUsed) {
                             /**
                              * Case is closed, do nothing.
@@ -169,6 +169,8 @@ public FileSizeRootChildren(SleuthkitCase skCase) {
          */
         private final class FileSizeRootChildrenObservable extends Observable {
 
+            private final TreeEventDispatcher.Subscription refreshSubscription = TreeEventDispatcher.subscribe(events -> update());
+
             FileSizeRootChildrenObservable() {
                 IngestManager.getInstance().addIngestJobEventListener(pcl);
                 IngestManager.getInstance().addIngestModuleEventListener(pcl);
@@ -176,6 +178,7 @@ private final class FileSizeRootChildrenObservable extends Observable {
             }
 
             private void removeListeners() {
+                refreshSubscription.cancel();
                 deleteObservers();
                 IngestManager.getInstance().removeIngestJobEventListener(pcl);
                 IngestManager.getInstance().removeIngestModuleEventListener(pcl);
@@ -198,7 +201,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                             // new file was added
                             // @@@ could check the size here and only fire off updates if we know the file meets the min size criteria
                             Case.getCurrentCase();
-                            update();
+                            refreshSubscription.post(evt);
                         } catch (IllegalStateException notUsed) {
                             /**
                              * Case is closed, do nothing.
@@ -215,7 +218,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                          */
                         try {
                             Case.getCurrentCase();
-                            update();
+                            refreshSubscription.post(evt);
                         } catch (IllegalStateException notUsed) {
                             /**
                              * Case is closed, do nothing.
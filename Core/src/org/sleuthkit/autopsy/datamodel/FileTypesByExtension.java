@@ -70,9 +70,11 @@ public <T> T accept(AutopsyItemVisitor<T> v) {
     private class FileTypesByExtObservable extends Observable {
 
         private final PropertyChangeListener pcl;
+        private final TreeEventDispatcher.Subscription refreshSubscription;
 
         private FileTypesByExtObservable() {
             super();
+            this.refreshSubscription = TreeEventDispatcher.subscribe(events -> update());
             this.pcl = (PropertyChangeEvent evt) -> {
                 String eventType = evt.getPropertyName();
                 if (eventType.equals(IngestManager.IngestModuleEvent.CONTENT_CHANGED.toString())
@@ -88,7 +90,7 @@ private FileTypesByExtObservable() {
                     try {
                         Case.getCurrentCase();
                         typesRoot.shouldShowCounts();
-                        update();
+                        refreshSubscription.post(evt);
                     } catch (IllegalStateException notUsed) {
                         /**
                          * Case is closed, do nothing.
@@ -109,6 +111,7 @@ private FileTypesByExtObservable() {
         }
 
         private void removeListeners() {
+            refreshSubscription.cancel();
             deleteObservers();
             IngestManager.getInstance().removeIngestJobEventListener(pcl);
             IngestManager.getInstance().removeIngestModuleEventListener(pcl);
@@ -33,6 +33,7 @@
 import java.util.Observer;
 import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import org.openide.nodes.ChildFactory;
 import org.openide.nodes.Children;
 import org.openide.nodes.Node;
@@ -101,7 +102,6 @@ Set<Long> getArtifactIds(String hashSetName) {
             }
         }
 
-        @SuppressWarnings("deprecation")
         final void update() {
             synchronized (hashSetHitsMap) {
                 hashSetHitsMap.clear();
@@ -111,32 +111,74 @@ final void update() {
                 return;
             }
 
+            Map<String, Set<Long>> hits = readHashsetHits("");
+            synchronized (hashSetHitsMap) {
+                hashSetHitsMap.putAll(hits);
+            }
+
+            setChanged();
+            notifyObservers();
+        }
+
+        /**
+         * Adds the given hash set hit artifacts to the results, without
+         * reading the hash set hits already in the results again. The sets of
+         * artifact ids already handed out to the nodes are not modified, the
+         * sets that change are replaced by updated copies instead.
+         *
+         * @param newArtifactIds The artifact ids of the hash set hits.
+         */
+        void addArtifacts(Set<Long> newArtifactIds) {
+            if (skCase == null || newArtifactIds.isEmpty()) {
+                return;
+            }
+
+            Map<String, Set<Long>> hits = readHashsetHits(" AND blackboard_attributes.artifact_id IN (" //NON-NLS
+                    + newArtifactIds.stream().map(String::valueOf).collect(Collectors.joining(",")) //NON-NLS
+                    + ")"); //NON-NLS
+            synchronized (hashSetHitsMap) {
+                hits.forEach((setName, artifactIds) -> {
+                    Set<Long> updatedArtifactIds = new HashSet<>(hashSetHitsMap.getOrDefault(setName, Collections.emptySet()));
+                    updatedArtifactIds.addAll(artifactIds);
+                    hashSetHitsMap.put(setName, updatedArtifactIds);
+                });
+            }
+
+            setChanged();
+            notifyObservers();
+        }
+
+        /**
+         * Reads the hash set names of hash set hit artifacts.
+         *
+         * @param condition An additional condition for the query that selects
+         *                  the artifacts, may be empty.
+         *
+         * @return Maps hash set names to the artifact ids of the hits.
+         */
+        @SuppressWarnings("deprecation")
+        private Map<String, Set<Long>> readHashsetHits(String condition) {
+            Map<String, Set<Long>> hits = new LinkedHashMap<>();
             int setNameId = ATTRIBUTE_TYPE.TSK_SET_NAME.getTypeID();
             int artId = ARTIFACT_TYPE.TSK_HASHSET_HIT.getTypeID();
             String query = "SELECT value_text,blackboard_attributes.artifact_id,attribute_type_id " //NON-NLS
                     + "FROM blackboard_attributes,blackboard_artifacts WHERE " //NON-NLS
                     + "attribute_type_id=" + setNameId //NON-NLS
                     + " AND blackboard_attributes.artifact_id=blackboard_artifacts.artifact_id" //NON-NLS
-                    + " AND blackboard_artifacts.artifact_type_id=" + artId; //NON-NLS
+                    + " AND blackboard_artifacts.artifact_type_id=" + artId //NON-NLS
+                    + condition;
 
             try (CaseDbQuery dbQuery = skCase.executeQuery(query)) {
                 ResultSet resultSet = dbQuery.getResultSet();
-                synchronized (hashSetHitsMap) {
-                    while (resultSet.next()) {
-                        String setName = resultSet.getString("value_text"); //NON-NLS
-                        long artifactId = resultSet.getLong("artifact_id"); //NON-NLS
-                        if (!hashSetHitsMap.containsKey(setName)) {
-                            hashSetHitsMap.put(setName, new HashSet<Long>());
-                        }
-                        hashSetHitsMap.get(setName).add(artifactId);
-                    }
+                while (resultSet.next()) {
+                    String setName = resultSet.getString("value_text"); //NON-NLS
+                    long artifactId = resultSet.getLong("artifact_id"); //NON-NLS
+                    hits.computeIfAbsent(setName, name -> new HashSet<>()).add(artifactId);
                 }
             } catch (TskCoreException | SQLException ex) {
                 logger.log(Level.WARNING, "SQL Exception occurred: ", ex); //NON-NLS
             }
-
-            setChanged();
-            notifyObservers();
+            return hits;
         }
     }
 
@@ -190,6 +232,8 @@ public String getItemType() {
      */
     private class HashsetNameFactory extends ChildFactory.Detachable<String> implements Observer {
 
+        private volatile TreeEventDispatcher.Subscription refreshSubscription;
+
         /*
          * This should probably be in the HashsetHits class, but the factory has
          * nice methods for its startup and shutdown, so it seemed like a
@@ -215,7 +259,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                          */
                         ModuleDataEvent eventData = (ModuleDataEvent) evt.getOldValue();
                         if (null != eventData && eventData.getBlackboardArtifactType().getTypeID() == ARTIFACT_TYPE.TSK_HASHSET_HIT.getTypeID()) {
-                            hashsetResults.update();
+                            refreshSubscription.post(evt);
                         }
                     } catch (IllegalStateException notUsed) {
                         /**
@@ -232,7 +276,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                      */
                     try {
                         Case.getCurrentCase();
-                        hashsetResults.update();
+                        refreshSubscription.post(evt);
                     } catch (IllegalStateException notUsed) {
                         /**
                          * Case is closed, do nothing.
@@ -248,8 +292,25 @@ public void propertyChange(PropertyChangeEvent evt) {
             }
         };
 
+        /**
+         * Updates the hash set results for a batch of events delivered by the
+         * tree event dispatcher, incrementally if the events are all for new
+         * hash set hits.
+         *
+         * @param events The events.
+         */
+        private void handleEvents(List<PropertyChangeEvent> events) {
+            Set<Long> addedArtifactIds = TreeEventDispatcher.getAddedArtifactIds(events, ARTIFACT_TYPE.TSK_HASHSET_HIT);
+            if (null == addedArtifactIds) {
+                hashsetResults.update();
+            } else {
+                hashsetResults.addArtifacts(addedArtifactIds);
+            }
+        }
+
         @Override
         protected void addNotify() {
+            refreshSubscription = TreeEventDispatcher.subscribe(this::handleEvents);
             IngestManager.getInstance().addIngestJobEventListener(pcl);
             IngestManager.getInstance().addIngestModuleEventListener(pcl);
             Case.addPropertyChangeListener(pcl);
@@ -262,6 +323,7 @@ protected void removeNotify() {
             IngestManager.getInstance().removeIngestJobEventListener(pcl);
             IngestManager.getInstance().removeIngestModuleEventListener(pcl);
             Case.removePropertyChangeListener(pcl);
+            refreshSubscription.cancel();
             hashsetResults.deleteObserver(this);
         }
 
@@ -33,6 +33,7 @@
 import java.util.Observer;
 import java.util.Set;
 import java.util.logging.Level;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.openide.nodes.ChildFactory;
 import org.openide.nodes.Children;
@@ -222,80 +223,153 @@ void addNonRegExpMatchToList(Map<String, Map<String, Set<Long>>> listMap, String
          *                    attribute values
          */
         void populateTreeMaps(Map<Long, Map<Long, String>> artifactIds) {
+            // map of list name to keword to artifact IDs
+            Map<String, Map<String, Map<String, Set<Long>>>> newTopLevelMap = new LinkedHashMap<>();
+
+            // top-level nodes
+            newTopLevelMap.put(SIMPLE_LITERAL_SEARCH, new LinkedHashMap<>());
+            newTopLevelMap.put(SIMPLE_REGEX_SEARCH, new LinkedHashMap<>());
+
+            addToTreeMaps(newTopLevelMap, artifactIds);
             synchronized (topLevelMap) {
                 topLevelMap.clear();
+                topLevelMap.putAll(newTopLevelMap);
+            }
 
-                // map of list name to keword to artifact IDs
-                Map<String, Map<String, Map<String, Set<Long>>>> listsMap = new LinkedHashMap<>();
-
-                // Map from from literal keyword to instances (which will be empty) to artifact IDs
-                Map<String, Map<String, Set<Long>>> literalMap = new LinkedHashMap<>();
-
-                // Map from regex keyword artifact to instances to artifact IDs
-                Map<String, Map<String, Set<Long>>> regexMap = new LinkedHashMap<>();
-
-                // top-level nodes
-                topLevelMap.put(SIMPLE_LITERAL_SEARCH, literalMap);
-                topLevelMap.put(SIMPLE_REGEX_SEARCH, regexMap);
-
-                for (Map.Entry<Long, Map<Long, String>> art : artifactIds.entrySet()) {
-                    long id = art.getKey();
-                    Map<Long, String> attributes = art.getValue();
-
-                    // I think we can use attributes.remove(...) here? - why should bwe use remove?
-                    String listName = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_SET_NAME.getTypeID()));
-                    String word = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD.getTypeID()));
-                    String reg = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD_REGEXP.getTypeID()));
-                    String kwType = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD_SEARCH_TYPE.getTypeID()));
-
-                    if (listName != null) {     // part of a list
-                        // get or create list entry
-                        Map<String, Map<String, Set<Long>>> listMap = listsMap.computeIfAbsent(listName, ln -> new LinkedHashMap<>());
-
-                        if ("1".equals(kwType) || reg == null) {  //literal, substring or exact
-                            /*
-                             * Substring, treated same as exact match. "1" is
-                             * the ordinal value for substring as defined in
-                             * KeywordSearch.java. The original term should be
-                             * stored in reg
-                             */
-                            word = (reg != null) ? reg : word; //use original term if it there.
-                            addNonRegExpMatchToList(listMap, word, id);
-                        } else {
-                            addRegExpToList(listMap, reg, word, id);
-                        }
-                    } else {//single term
-
-                        if ("1".equals(kwType) || reg == null) {  //literal, substring or exact
-                            /*
-                             * Substring, treated same as exact match. "1" is
-                             * the ordinal value for substring as defined in
-                             * KeywordSearch.java. The original term should be
-                             * stored in reg
-                             */
-                            word = (reg != null) ? reg : word; //use original term if it there.
-                            addNonRegExpMatchToList(literalMap, word, id);
-                        } else {
-                            addRegExpToList(regexMap, reg, word, id);
-                        }
-                    }
-                }
-                topLevelMap.putAll(listsMap);
+            setChanged();
+            notifyObservers();
+        }
+
+        /**
+         * Adds keyword hit artifacts to the data structure for the tree. The
+         * maps and sets already handed out to the nodes are not modified, the
+         * affected parts of the data structure are replaced by updated copies
+         * instead.
+         *
+         * @param artifactIds Maps Artifact ID to map of attribute types to
+         *                    attribute values
+         */
+        void addToTreeMaps(Map<Long, Map<Long, String>> artifactIds) {
+            synchronized (topLevelMap) {
+                Map<String, Map<String, Map<String, Set<Long>>>> newTopLevelMap = new LinkedHashMap<>();
+                topLevelMap.forEach((listName, listMap) -> {
+                    Map<String, Map<String, Set<Long>>> newListMap = new LinkedHashMap<>();
+                    listMap.forEach((keyword, instanceMap) -> {
+                        Map<String, Set<Long>> newInstanceMap = new LinkedHashMap<>();
+                        instanceMap.forEach((instance, ids) -> newInstanceMap.put(instance, new HashSet<>(ids)));
+                        newListMap.put(keyword, newInstanceMap);
+                    });
+                    newTopLevelMap.put(listName, newListMap);
+                });
+                addToTreeMaps(newTopLevelMap, artifactIds);
+                topLevelMap.clear();
+                topLevelMap.putAll(newTopLevelMap);
             }
 
             setChanged();
             notifyObservers();
         }
 
+        /**
+         * Adds keyword hit artifacts to a data structure for the tree.
+         *
+         * @param treeMaps    The data structure, which must contain the
+         *                    top-level nodes.
+         * @param artifactIds Maps Artifact ID to map of attribute types to
+         *                    attribute values
+         */
+        private void addToTreeMaps(Map<String, Map<String, Map<String, Set<Long>>>> treeMaps, Map<Long, Map<Long, String>> artifactIds) {
+            // Map from from literal keyword to instances (which will be empty) to artifact IDs
+            Map<String, Map<String, Set<Long>>> literalMap = treeMaps.get(SIMPLE_LITERAL_SEARCH);
+
+            // Map from regex keyword artifact to instances to artifact IDs
+            Map<String, Map<String, Set<Long>>> regexMap = treeMaps.get(SIMPLE_REGEX_SEARCH);
+
+            for (Map.Entry<Long, Map<Long, String>> art : artifactIds.entrySet()) {
+                long id = art.getKey();
+                Map<Long, String> attributes = art.getValue();
+
+                // I think we can use attributes.remove(...) here? - why should bwe use remove?
+                String listName = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_SET_NAME.getTypeID()));
+                String word = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD.getTypeID()));
+                String reg = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD_REGEXP.getTypeID()));
+                String kwType = attributes.get(Long.valueOf(BlackboardAttribute.ATTRIBUTE_TYPE.TSK_KEYWORD_SEARCH_TYPE.getTypeID()));
+
+                if (listName != null) {     // part of a list
+                    // get or create list entry
+                    Map<String, Map<String, Set<Long>>> listMap = treeMaps.computeIfAbsent(listName, ln -> new LinkedHashMap<>());
+
+                    if ("1".equals(kwType) || reg == null) {  //literal, substring or exact
+                        /*
+                         * Substring, treated same as exact match. "1" is the
+                         * ordinal value for substring as defined in
+                         * KeywordSearch.java. The original term should be
+                         * stored in reg
+                         */
+                        word = (reg != null) ? reg : word; //use original term if it there.
+                        addNonRegExpMatchToList(listMap, word, id);
+                    } else {
+                        addRegExpToList(listMap, reg, word, id);
+                    }
+                } else {//single term
+
+                    if ("1".equals(kwType) || reg == null) {  //literal, substring or exact
+                        /*
+                         * Substring, treated same as exact match. "1" is the
+                         * ordinal value for substring as defined in
+                         * KeywordSearch.java. The original term should be
+                         * stored in reg
+                         */
+                        word = (reg != null) ? reg : word; //use original term if it there.
+                        addNonRegExpMatchToList(literalMap, word, id);
+                    } else {
+                        addRegExpToList(regexMap, reg, word, id);
+                    }
+                }
+            }
+        }
+
         public void update() {
+            if (skCase == null) {
+                return;
+            }
+            populateTreeMaps(readKeywordHitAttributes(KEYWORD_HIT_ATTRIBUTES_QUERY));
+        }
+
+        /**
+         * Adds the given keyword hit artifacts to the results, without reading
+         * the attributes of the keyword hits already in the results again.
+         *
+         * @param newArtifactIds The artifact IDs of the keyword hits.
+         */
+        void addArtifacts(Set<Long> newArtifactIds) {
+            if (skCase == null || newArtifactIds.isEmpty()) {
+                return;
+            }
+            String query = KEYWORD_HIT_ATTRIBUTES_QUERY
+                    + " AND blackboard_attributes.artifact_id IN (" //NON-NLS
+                    + newArtifactIds.stream().map(String::valueOf).collect(Collectors.joining(",")) //NON-NLS
+                    + ")"; //NON-NLS
+            addToTreeMaps(readKeywordHitAttributes(query));
+        }
+
+        /**
+         * Reads the attributes of keyword hit artifacts used for the tree.
+         *
+         * @param query A query for the attributes.
+         *
+         * @return Maps Artifact ID to map of attribute types to attribute
+         *         values
+         */
+        private Map<Long, Map<Long, String>> readKeywordHitAttributes(String query) {
             // maps Artifact ID to map of attribute types to attribute values
             Map<Long, Map<Long, String>> artifactIds = new LinkedHashMap<>();
 
             if (skCase == null) {
-                return;
+                return artifactIds;
             }
 
-            try (CaseDbQuery dbQuery = skCase.executeQuery(KEYWORD_HIT_ATTRIBUTES_QUERY)) {
+            try (CaseDbQuery dbQuery = skCase.executeQuery(query)) {
                 ResultSet resultSet = dbQuery.getResultSet();
                 while (resultSet.next()) {
                     long artifactId = resultSet.getLong("artifact_id"); //NON-NLS
@@ -315,8 +389,7 @@ public void update() {
             } catch (TskCoreException | SQLException ex) {
                 logger.log(Level.WARNING, "SQL Exception occurred: ", ex); //NON-NLS
             }
-
-            populateTreeMaps(artifactIds);
+            return artifactIds;
         }
     }
 
@@ -395,6 +468,8 @@ public void update(Observable o, Object arg) {
      */
     private class ListFactory extends DetachableObserverChildFactory<String> {
 
+        private volatile TreeEventDispatcher.Subscription refreshSubscription;
+
         private final PropertyChangeListener pcl = new PropertyChangeListener() {
             @Override
             public void propertyChange(PropertyChangeEvent evt) {
@@ -416,7 +491,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                          */
                         ModuleDataEvent eventData = (ModuleDataEvent) evt.getOldValue();
                         if (null != eventData && eventData.getBlackboardArtifactType().getTypeID() == BlackboardArtifact.ARTIFACT_TYPE.TSK_KEYWORD_HIT.getTypeID()) {
-                            keywordResults.update();
+                            refreshSubscription.post(evt);
                         }
                     } catch (IllegalStateException notUsed) {
                         // Case is closed, do nothing.
@@ -431,7 +506,7 @@ public void propertyChange(PropertyChangeEvent evt) {
                      */
                     try {
                         Case.getCurrentCase();
-                        keywordResults.update();
+                        refreshSubscription.post(evt);
                     } catch (IllegalStateException notUsed) {
                         // Case is closed, do nothing.
                     }
@@ -448,8 +523,25 @@ public void propertyChange(PropertyChangeEvent evt) {
             }
         };
 
+        /**
+         * Updates the keyword results for a batch of events delivered by the
+         * tree event dispatcher, incrementally if the events are all for new
+         * keyword hits.
+         *
+         * @param events The events.
+         */
+        private void handleEvents(List<PropertyChangeEvent> events) {
+            Set<Long> addedArtifactIds = TreeEventDispatcher.getAddedArtifactIds(events, BlackboardArtifact.ARTIFACT_TYPE.TSK_KEYWORD_HIT);
+            if (null == addedArtifactIds) {
+                keywordResults.update();
+            } else {
+                keywordResults.addArtifacts(addedArtifactIds);
+            }
+        }
+
         @Override
         protected void addNotify() {
+            refreshSubscription = TreeEventDispatcher.subscribe(this::handleEvents);
             IngestManager.getInstance().addIngestJobEventListener(pcl);
             IngestManager.getInstance().addIngestModuleEventListener(pcl);
             Case.addPropertyChangeListener(pcl);
@@ -462,6 +554,7 @@ protected void removeNotify() {
             IngestManager.getInstance().removeIngestJobEventListener(pcl);
             IngestManager.getInstance().removeIngestModuleEventListener(pcl);
             Case.removePropertyChangeListener(pcl);
+            refreshSubscription.cancel();
             super.removeNotify();
         }
 
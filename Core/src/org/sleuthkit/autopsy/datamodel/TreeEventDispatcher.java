@@ -0,0 +1,195 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.datamodel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import org.sleuthkit.autopsy.core.UserPreferences;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.ingest.IngestManager;
+import org.sleuthkit.autopsy.ingest.ModuleDataEvent;
+import org.sleuthkit.datamodel.BlackboardArtifact;
+
+/**
+ * Delivers the ingest and case events that call for a refresh of a node of the
+ * data tree to the node, combining the events that arrive within the data tree
+ * refresh interval into a single delivery. This limits the rate at which the
+ * nodes re-query the case database while ingest is running, no matter how many
+ * events the ingest modules publish.
+ *
+ * Events are delivered on a single thread shared by all of the nodes.
+ */
+@ThreadSafe
+final class TreeEventDispatcher {
+
+    private static final Logger logger = Logger.getLogger(TreeEventDispatcher.class.getName());
+    private static final ScheduledThreadPoolExecutor deliveryExecutor = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("data-tree-event-dispatcher-%d").setDaemon(true).build()); //NON-NLS
+
+    /**
+     * Creates a subscription for delivery of coalesced events.
+     *
+     * @param handler The handler for the events. It is passed all of the
+     *                events posted to the subscription since the last
+     *                delivery, in the order in which they were posted.
+     *
+     * @return The subscription.
+     */
+    static Subscription subscribe(Consumer<List<PropertyChangeEvent>> handler) {
+        return new Subscription(handler, UserPreferences.getDataTreeRefreshIntervalMillis());
+    }
+
+    /**
+     * Gets the ids of the artifacts of a given type reported as added by a
+     * batch of delivered events, allowing a subscriber to update its results
+     * incrementally.
+     *
+     * @param events       The events.
+     * @param artifactType The artifact type.
+     *
+     * @return The artifact ids, or null if the events call for the results to
+     *         be rebuilt from scratch, i.e., if they include events other than
+     *         data added events or data added events that do not identify the
+     *         added artifacts.
+     */
+    static Set<Long> getAddedArtifactIds(List<PropertyChangeEvent> events, BlackboardArtifact.ARTIFACT_TYPE artifactType) {
+        Set<Long> artifactIds = new HashSet<>();
+        for (PropertyChangeEvent event : events) {
+            if (!event.getPropertyName().equals(IngestManager.IngestModuleEvent.DATA_ADDED.toString())) {
+                return null;
+            }
+            ModuleDataEvent eventData = (ModuleDataEvent) event.getOldValue();
+            if (null == eventData || eventData.getBlackboardArtifactType().getTypeID() != artifactType.getTypeID()) {
+                continue;
+            }
+            Collection<BlackboardArtifact> artifacts = eventData.getArtifacts();
+            if (null == artifacts || artifacts.isEmpty()) {
+                return null;
+            }
+            for (BlackboardArtifact artifact : artifacts) {
+                artifactIds.add(artifact.getArtifactID());
+            }
+        }
+        return artifactIds;
+    }
+
+    /**
+     * A subscription for delivery of coalesced events. The first event posted
+     * after a quiet period is delivered right away. The events posted after
+     * that are held until the refresh interval has passed since the previous
+     * delivery.
+     */
+    @ThreadSafe
+    static final class Subscription {
+
+        private final Consumer<List<PropertyChangeEvent>> handler;
+        private final long refreshIntervalMillis;
+        private final Object lock = new Object();
+        @GuardedBy("lock")
+        private List<PropertyChangeEvent> pendingEvents = new ArrayList<>();
+        @GuardedBy("lock")
+        private boolean deliveryScheduled;
+        @GuardedBy("lock")
+        private long lastDeliveryTime;
+        @GuardedBy("lock")
+        private boolean cancelled;
+
+        private Subscription(Consumer<List<PropertyChangeEvent>> handler, long refreshIntervalMillis) {
+            this.handler = handler;
+            this.refreshIntervalMillis = refreshIntervalMillis;
+            this.lastDeliveryTime = currentTimeMillis() - refreshIntervalMillis;
+        }
+
+        /**
+         * Posts an event for delivery to the handler of this subscription.
+         *
+         * @param event The event.
+         */
+        void post(PropertyChangeEvent event) {
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+                pendingEvents.add(event);
+                if (!deliveryScheduled) {
+                    deliveryScheduled = true;
+                    long delay = Math.max(0, lastDeliveryTime + refreshIntervalMillis - currentTimeMillis());
+                    deliveryExecutor.schedule(this::deliver, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        /**
+         * Cancels this subscription, discarding any events that have not been
+         * delivered.
+         */
+        void cancel() {
+            synchronized (lock) {
+                cancelled = true;
+                pendingEvents = new ArrayList<>();
+            }
+        }
+
+        /**
+         * Delivers the pending events to the handler.
+         */
+        private void deliver() {
+            List<PropertyChangeEvent> events;
+            synchronized (lock) {
+                deliveryScheduled = false;
+                if (cancelled || pendingEvents.isEmpty()) {
+                    return;
+                }
+                events = pendingEvents;
+                pendingEvents = new ArrayList<>();
+                lastDeliveryTime = currentTimeMillis();
+            }
+            try {
+                handler.accept(events);
+            } catch (RuntimeException ex) {
+                /*
+                 * Catch all runtime exceptions so that the delivery thread
+                 * survives to deliver events to other subscriptions.
+                 */
+                logger.log(Level.SEVERE, "Error handling data tree events", ex); //NON-NLS
+            }
+        }
+
+        private static long currentTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private TreeEventDispatcher() {
+    }
+}
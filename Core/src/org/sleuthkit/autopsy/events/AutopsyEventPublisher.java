@@ -20,6 +20,8 @@
 
 import java.beans.PropertyChangeListener;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Set;
 import java.util.logging.Level;
 import javax.annotation.concurrent.GuardedBy;
@@ -41,11 +43,14 @@ public final class AutopsyEventPublisher {
 
     private static final Logger logger = Logger.getLogger(AutopsyEventPublisher.class.getName());
     private static final int MAX_REMOTE_EVENT_PUBLISH_TRIES = 1;
+    private static final int MAX_PENDING_REMOTE_EVENTS = 10000;
     private final LocalEventPublisher localPublisher; // LocalEventPublisher is thread-safe
     @GuardedBy("this)")
     private RemoteEventPublisher remotePublisher;
     @GuardedBy("this)")
     private String currentChannelName;
+    @GuardedBy("this)")
+    private final Deque<AutopsyEvent> pendingRemoteEvents = new ArrayDeque<>();
 
     /**
      * Constructs an object for publishing events to registered subscribers on
@@ -89,6 +94,10 @@ public synchronized void openRemoteEventChannel(String channelName) throws Autop
      */
     public synchronized void closeRemoteEventChannel() {
         stopRemotePublisher();
+        if (!pendingRemoteEvents.isEmpty()) {
+            logger.log(Level.WARNING, String.format("Discarded %d events not published using channel %s", pendingRemoteEvents.size(), currentChannelName)); //NON-NLS
+            pendingRemoteEvents.clear();
+        }
         currentChannelName = null;
     }
 
@@ -152,7 +161,10 @@ public void publishLocally(AutopsyEvent event) {
     }
 
     /**
-     * Publishes an event to other Autopsy nodes only.
+     * Publishes an event to other Autopsy nodes only. If the event cannot be
+     * published, it is held, along with any events a failed remote event
+     * publisher did not send, and published ahead of the next event published
+     * using a new remote event publisher.
      *
      * @param event The event to publish.
      */
@@ -166,6 +178,7 @@ public synchronized void publishRemotely(AutopsyEvent event) {
                     if (null == remotePublisher) {
                         openRemoteEventChannel(currentChannelName);
                     }
+                    publishPendingRemoteEvents();
                     remotePublisher.publish(event);
                     published = true;
                 } catch (AutopsyEventException | JMSException ex) {
@@ -174,12 +187,49 @@ public synchronized void publishRemotely(AutopsyEvent event) {
                     ++tryCount;
                 }
             }
+            if (!published) {
+                addPendingRemoteEvent(event);
+            }
         }
     }
 
+    /**
+     * Publishes the events held from earlier failures to publish events using
+     * the current remote event publisher, in the order in which they were
+     * originally published.
+     *
+     * @throws JMSException If an event cannot be published. The events that
+     *                      were not published are still held.
+     */
+    private synchronized void publishPendingRemoteEvents() throws JMSException {
+        if (!pendingRemoteEvents.isEmpty()) {
+            logger.log(Level.INFO, String.format("Publishing %d held events using channel %s", pendingRemoteEvents.size(), currentChannelName)); //NON-NLS
+            while (!pendingRemoteEvents.isEmpty()) {
+                remotePublisher.publish(pendingRemoteEvents.peekFirst());
+                pendingRemoteEvents.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Holds an event that could not be published remotely for publication
+     * using a new remote event publisher. If too many events are held, the
+     * oldest are discarded.
+     *
+     * @param event The event.
+     */
+    private synchronized void addPendingRemoteEvent(AutopsyEvent event) {
+        if (pendingRemoteEvents.size() >= MAX_PENDING_REMOTE_EVENTS) {
+            logger.log(Level.WARNING, String.format("Too many events held for channel %s, discarded %s event", currentChannelName, pendingRemoteEvents.peekFirst().getPropertyName())); //NON-NLS
+            pendingRemoteEvents.removeFirst();
+        }
+        pendingRemoteEvents.addLast(event);
+    }
+
     /**
      * Stops the remote event publisher, but does not reset the current channel
-     * name.
+     * name. Events the publisher did not send are held for publication using a
+     * new remote event publisher.
      */
     private synchronized void stopRemotePublisher() {
         if (null != remotePublisher) {
@@ -188,6 +238,9 @@ private synchronized void stopRemotePublisher() {
             } catch (JMSException ex) {
                 logger.log(Level.SEVERE, String.format("Error closing remote event publisher for channel %s", currentChannelName), ex); //NON-NLS
             }
+            for (AutopsyEvent event : remotePublisher.getUnsentEvents()) {
+                addPendingRemoteEvent(event);
+            }
             remotePublisher = null;
         }
     }
@@ -0,0 +1,184 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.openide.util.Lookup;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * Encodes batches of events for publication to other Autopsy nodes as the body
+ * of a single message, and decodes them on receipt.
+ *
+ * The body starts with a format version byte, followed by the deflated entries
+ * of the batch. Each entry is an event serialized on its own, preceded by its
+ * length, so that an event that cannot be decoded on the receiving node, e.g.,
+ * because its class is not available there, only costs that event. The class
+ * descriptions that the serialized events of a batch have in common are
+ * compressed away by the deflater, so batches of similar events, e.g., the
+ * content changed events published during ingest, encode to a small fraction
+ * of the size of the equivalent individually serialized events.
+ */
+final class RemoteEventCodec {
+
+    private static final Logger logger = Logger.getLogger(RemoteEventCodec.class.getName());
+    static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Encodes a batch of events. Events that cannot be serialized are logged
+     * and left out.
+     *
+     * @param events The events.
+     *
+     * @return The encoded events.
+     *
+     * @throws IOException If there is an error writing the encoded events.
+     */
+    static byte[] encode(List<AutopsyEvent> events) throws IOException {
+        List<byte[]> entries = new ArrayList<>(events.size());
+        for (AutopsyEvent event : events) {
+            try {
+                entries.add(serialize(event));
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, String.format("Failed to serialize %s event for publication", event.getPropertyName()), ex); //NON-NLS
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(FORMAT_VERSION);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+                out.writeInt(entries.size());
+                for (byte[] entry : entries) {
+                    out.writeInt(entry.length);
+                    out.write(entry);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a batch of events. Entries that cannot be decoded are logged and
+     * skipped. If the batch is truncated or otherwise corrupt, the events
+     * decoded before the corruption are returned.
+     *
+     * @param bytes The encoded events.
+     *
+     * @return The events, in the order in which they were encoded.
+     *
+     * @throws IOException If the encoded events use an unknown format.
+     */
+    static List<AutopsyEvent> decode(byte[] bytes) throws IOException {
+        if (0 == bytes.length || FORMAT_VERSION != bytes[0]) {
+            throw new IOException(String.format("Unknown remote event encoding format %d", (0 == bytes.length) ? -1 : bytes[0])); //NON-NLS
+        }
+        List<AutopsyEvent> events = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; ++i) {
+                int length = in.readInt();
+                if (length < 0) {
+                    throw new IOException(String.format("Invalid entry length %d", length)); //NON-NLS
+                }
+                byte[] entry = new byte[length];
+                in.readFully(entry);
+                try (ObjectInputStream entryIn = new ModuleObjectInputStream(new ByteArrayInputStream(entry))) {
+                    Object object = entryIn.readObject();
+                    if (object instanceof AutopsyEvent) {
+                        events.add((AutopsyEvent) object);
+                    }
+                } catch (IOException | ClassNotFoundException ex) {
+                    logger.log(Level.WARNING, String.format("Skipped event %d of %d that could not be decoded", i + 1, count), ex); //NON-NLS
+                }
+            }
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, String.format("Corrupt event batch, %d events decoded", events.size()), ex); //NON-NLS
+        }
+        return events;
+    }
+
+    /**
+     * Serializes a single event.
+     *
+     * @param event The event.
+     *
+     * @return The serialized event.
+     *
+     * @throws IOException If the event cannot be serialized.
+     */
+    private static byte[] serialize(AutopsyEvent event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * An object input stream that resolves classes using the NetBeans system
+     * class loader, so that events defined in any Autopsy module can be
+     * decoded, not just those visible from this module.
+     */
+    private static final class ModuleObjectInputStream extends ObjectInputStream {
+
+        ModuleObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            ClassLoader classLoader = Lookup.getDefault().lookup(ClassLoader.class);
+            if (null != classLoader) {
+                try {
+                    return Class.forName(description.getName(), false, classLoader);
+                } catch (ClassNotFoundException ignored) {
+                    /*
+                     * Fall back to the default resolution below, which also
+                     * handles primitive types.
+                     */
+                }
+            }
+            return super.resolveClass(description);
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private RemoteEventCodec() {
+    }
+}
@@ -18,10 +18,21 @@
  */
 package org.sleuthkit.autopsy.events;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
@@ -33,6 +44,7 @@
 import javax.jms.Session;
 import javax.jms.Topic;
 import org.apache.activemq.ActiveMQConnectionFactory;
+import org.sleuthkit.autopsy.core.UserPreferences;
 import org.sleuthkit.autopsy.coreutils.Logger;
 
 /**
@@ -41,22 +53,51 @@
  * Subscribers on this node are constrained to be PropertyChangeListeners to
  * integrate with the legacy use of JavaBeans PropertyChangeEvents and
  * PropertyChangeListeners as an application event system.
+ *
+ * Events are sent by a dedicated sender thread. Events published within a
+ * short window of each other are sent, in the order in which they were
+ * published, as a single message encoded by the RemoteEventCodec. Every
+ * message carries the version of the encoding format. Until all nodes have
+ * been upgraded, events are sent one per message, as object messages that
+ * nodes running earlier versions can read. This happens if the user
+ * preference for it is set, or as soon as a message without a format version
+ * is received.
  */
 @ThreadSafe
 final class RemoteEventPublisher {
 
     private static final Logger logger = Logger.getLogger(RemoteEventPublisher.class.getName());
     private static final String ALL_MESSAGE_SELECTOR = "All"; //NON-NLS
+    private static final long BATCH_WINDOW_MILLISECONDS = 100;
+    private static final int MAX_EVENTS_PER_BATCH = 500;
+    private static final long SENDER_SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static final long STATISTICS_LOGGING_INTERVAL_MILLISECONDS = 60000;
+    private static final int MAX_SEND_ATTEMPTS = 3;
+    private static final long SEND_RETRY_DELAY_MILLISECONDS = 1000;
+    private static final String FORMAT_VERSION_PROPERTY = "eventsFormat"; //NON-NLS
+    private static final AutopsyEvent END_OF_EVENTS = new AutopsyEvent("", null, null);
     private final LocalEventPublisher localPublisher; // LocalEventPublisher is thread-safe
+    private final String eventChannelName;
     @GuardedBy("this")
     private final Connection connection;
     @GuardedBy("this")
     private final Session session;
-    @GuardedBy("this")
-    private final MessageProducer producer;
+    private final Session producerSession; // Confined to the sender thread after construction
+    private final MessageProducer producer; // Confined to the sender thread after construction
     @GuardedBy("this")
     private final MessageConsumer consumer;
     private final MessageReceiver receiver;
+    private final BlockingQueue<AutopsyEvent> outgoingEvents;
+    private final ExecutorService sender;
+    private volatile JMSException sendFailure;
+    private volatile boolean legacyMessagesRequired;
+    private final List<AutopsyEvent> unsentEvents; // Written by the sender thread, read after it terminates
+    private final LongAdder eventsSent;
+    private final LongAdder messagesSent;
+    private final LongAdder bytesSent;
+    private final LongAdder eventsReceived;
+    private final LongAdder bytesReceived;
+    private final long startTime;
 
     /**
      * Constructs an object for publishing events to registered subscribers on
@@ -74,22 +115,43 @@ final class RemoteEventPublisher {
      *                            cannot be made.
      */
     RemoteEventPublisher(String eventChannelName, LocalEventPublisher localPublisher, MessageServiceConnectionInfo info) throws URISyntaxException, JMSException {
+        this.localPublisher = localPublisher;
+        this.eventChannelName = eventChannelName;
+        outgoingEvents = new LinkedBlockingQueue<>();
+        unsentEvents = new ArrayList<>();
+        legacyMessagesRequired = UserPreferences.sendLegacyRemoteEventMessages();
+        eventsSent = new LongAdder();
+        messagesSent = new LongAdder();
+        bytesSent = new LongAdder();
+        eventsReceived = new LongAdder();
+        bytesReceived = new LongAdder();
+        startTime = System.currentTimeMillis();
+        Connection newConnection = null;
+        Session newSession = null;
+        Session newProducerSession = null;
+        MessageProducer newProducer = null;
+        MessageConsumer newConsumer = null;
         try {
-            this.localPublisher = localPublisher;
             ActiveMQConnectionFactory connectionFactory = new ActiveMQConnectionFactory(info.getUserName(), info.getPassword(), info.getURI());
-            connection = connectionFactory.createConnection();
-            connection.start();
-            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
-            Topic topic = session.createTopic(eventChannelName);
-            producer = session.createProducer(topic);
-            producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
-            consumer = session.createConsumer(topic, "events = '" + ALL_MESSAGE_SELECTOR + "'", true); //NON-NLS
+            newConnection = connectionFactory.createConnection();
+            newConnection.start();
+            newSession = newConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Topic topic = newSession.createTopic(eventChannelName);
+            /*
+             * The producer has its own session, since a JMS session may only
+             * be used by one thread at a time and the consumer session is
+             * used by the JMS thread that delivers messages to the receiver.
+             */
+            newProducerSession = newConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            newProducer = newProducerSession.createProducer(topic);
+            newProducer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+            newConsumer = newSession.createConsumer(topic, "events = '" + ALL_MESSAGE_SELECTOR + "'", true); //NON-NLS
             receiver = new MessageReceiver();
-            consumer.setMessageListener(receiver);
+            newConsumer.setMessageListener(receiver);
         } catch (URISyntaxException | JMSException ex) {
             logger.log(Level.SEVERE, "Failed to connect to event channel", ex); //NON-NLS
             try {
-                stop();
+                close(newProducer, newConsumer, newProducerSession, newSession, newConnection);
             } catch (JMSException ignored) {
                 /**
                  * It is not surprising if there is some error here, but it was
@@ -98,21 +160,115 @@ final class RemoteEventPublisher {
             }
             throw ex;
         }
+        connection = newConnection;
+        session = newSession;
+        producerSession = newProducerSession;
+        producer = newProducer;
+        consumer = newConsumer;
+        sender = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("remote-event-sender-%d").build()); //NON-NLS
+        sender.submit(new EventSender());
     }
 
     /**
      * Stops this publisher, causing it to disconnect from the message service.
+     * Events that have been published but not yet sent are sent first, unless
+     * sending has failed or takes too long, in which case they can be
+     * retrieved with getUnsentEvents().
      *
      * @throws JMSException if there is a problem closing the session or the
      *                      connection.
      */
     synchronized void stop() throws JMSException {
+        outgoingEvents.add(END_OF_EVENTS);
+        sender.shutdown();
+        try {
+            if (!sender.awaitTermination(SENDER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.log(Level.WARNING, "Timed out sending remaining events for event channel {0}", eventChannelName); //NON-NLS
+                sender.shutdownNow();
+                /*
+                 * Wait for the interrupted sender to put the batch it was
+                 * working on with the unsent events.
+                 */
+                sender.awaitTermination(SENDER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            sender.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        logStatistics();
+        close(producer, consumer, producerSession, session, connection);
+    }
+
+    /**
+     * Gets the events that were published but not sent, in the order in which
+     * they were published, so that they can be handed to a replacement
+     * publisher. Only valid after stop() has been called.
+     *
+     * @return The unsent events.
+     */
+    synchronized List<AutopsyEvent> getUnsentEvents() {
+        List<AutopsyEvent> events = new ArrayList<>(unsentEvents);
+        outgoingEvents.drainTo(events);
+        events.remove(END_OF_EVENTS);
+        return events;
+    }
+
+    /**
+     * Queues an event to be sent to the message service by the sender thread.
+     *
+     * @param event The event to publish.
+     *
+     * @throws JMSException If an earlier send failed, in which case this
+     *                      publisher should be stopped and replaced.
+     */
+    void publish(AutopsyEvent event) throws JMSException {
+        JMSException failure = sendFailure;
+        if (null != failure) {
+            throw failure;
+        }
+        outgoingEvents.add(event);
+    }
+
+    /**
+     * Logs the numbers of events and bytes sent and received so far.
+     */
+    private void logStatistics() {
+        double elapsedSeconds = Math.max(System.currentTimeMillis() - startTime, 1) / 1000.0;
+        long sent = eventsSent.sum();
+        long received = eventsReceived.sum();
+        logger.log(Level.INFO, String.format("Event channel %s: sent %d events in %d messages (%.1f events/sec, %.1f bytes/event), received %d events (%.1f events/sec, %.1f bytes/event)", //NON-NLS
+                eventChannelName,
+                sent,
+                messagesSent.sum(),
+                sent / elapsedSeconds,
+                (0 == sent) ? 0.0 : (double) bytesSent.sum() / sent,
+                received,
+                received / elapsedSeconds,
+                (0 == received) ? 0.0 : (double) bytesReceived.sum() / received));
+    }
+
+    /**
+     * Closes the given message service resources, skipping any that are null.
+     *
+     * @param producer        The message producer.
+     * @param consumer        The message consumer.
+     * @param producerSession The session of the message producer.
+     * @param session         The session of the message consumer.
+     * @param connection      The connection.
+     *
+     * @throws JMSException if there is a problem closing the session or the
+     *                      connection.
+     */
+    private static void close(MessageProducer producer, MessageConsumer consumer, Session producerSession, Session session, Connection connection) throws JMSException {
         if (null != producer) {
             producer.close();
         }
         if (null != consumer) {
             consumer.close();
         }
+        if (null != producerSession) {
+            producerSession.close();
+        }
         if (null != session) {
             session.close();
         }
@@ -122,15 +278,131 @@ synchronized void stop() throws JMSException {
     }
 
     /**
-     * Sends an event message to the message service.
-     *
-     * @param event The event to publish.
+     * Takes published events from the outgoing events queue and sends them to
+     * the message service in batches, until the end of events marker is
+     * reached.
      */
-    synchronized void publish(AutopsyEvent event) throws JMSException {
-        ObjectMessage message = session.createObjectMessage();
-        message.setStringProperty("events", ALL_MESSAGE_SELECTOR); //NON-NLS
-        message.setObject(event);
-        producer.send(message);
+    private final class EventSender implements Runnable {
+
+        private long lastStatisticsLoggingTime = System.currentTimeMillis();
+
+        /**
+         * Sends batches of events until the end of events marker is reached,
+         * the thread is interrupted, or a batch cannot be sent. Events that
+         * were taken from the queue but not sent are kept as unsent events.
+         */
+        @Override
+        public void run() {
+            List<AutopsyEvent> batch = new ArrayList<>();
+            try {
+                boolean endOfEvents = false;
+                while (!endOfEvents) {
+                    AutopsyEvent event = outgoingEvents.take();
+                    long batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_WINDOW_MILLISECONDS);
+                    while (null != event) {
+                        if (END_OF_EVENTS == event) {
+                            endOfEvents = true;
+                            break;
+                        }
+                        batch.add(event);
+                        if (batch.size() >= MAX_EVENTS_PER_BATCH) {
+                            break;
+                        }
+                        event = outgoingEvents.poll(batchDeadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    }
+                    if (!batch.isEmpty()) {
+                        send(batch);
+                        batch.clear();
+                    }
+                    if (System.currentTimeMillis() - lastStatisticsLoggingTime >= STATISTICS_LOGGING_INTERVAL_MILLISECONDS) {
+                        logStatistics();
+                        lastStatisticsLoggingTime = System.currentTimeMillis();
+                    }
+                }
+            } catch (JMSException ex) {
+                logger.log(Level.SEVERE, String.format("Failed to send %d events starting with %s using event channel %s, giving up", batch.size(), batch.get(0).getPropertyName(), eventChannelName), ex); //NON-NLS
+                sendFailure = ex;
+            } catch (InterruptedException ex) {
+                logger.log(Level.WARNING, "Event sender for event channel {0} interrupted", eventChannelName); //NON-NLS
+            }
+            unsentEvents.addAll(batch);
+        }
+
+        /**
+         * Sends a batch of events to the message service, retrying a few
+         * times if sending fails.
+         *
+         * @param batch The events.
+         *
+         * @throws JMSException         If the events could not be sent.
+         * @throws InterruptedException If interrupted while waiting to retry.
+         */
+        private void send(List<AutopsyEvent> batch) throws JMSException, InterruptedException {
+            for (int attempt = 1;; ++attempt) {
+                try {
+                    if (legacyMessagesRequired) {
+                        sendAsObjectMessages(batch);
+                    } else {
+                        sendAsBatchMessage(batch);
+                    }
+                    return;
+                } catch (JMSException ex) {
+                    if (attempt >= MAX_SEND_ATTEMPTS) {
+                        throw ex;
+                    }
+                    logger.log(Level.WARNING, String.format("Failed to send %d events using event channel %s (attempt %d), retrying", batch.size(), eventChannelName, attempt), ex); //NON-NLS
+                    Thread.sleep(SEND_RETRY_DELAY_MILLISECONDS);
+                }
+            }
+        }
+
+        /**
+         * Sends a batch of events to the message service as a single message.
+         *
+         * @param batch The events.
+         *
+         * @throws JMSException If the message could not be sent.
+         */
+        private void sendAsBatchMessage(List<AutopsyEvent> batch) throws JMSException {
+            byte[] bytes;
+            try {
+                bytes = RemoteEventCodec.encode(batch);
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, String.format("Failed to encode %d events starting with %s for event channel %s", batch.size(), batch.get(0).getPropertyName(), eventChannelName), ex); //NON-NLS
+                return;
+            }
+            BytesMessage message = producerSession.createBytesMessage();
+            message.setStringProperty("events", ALL_MESSAGE_SELECTOR); //NON-NLS
+            message.setIntProperty(FORMAT_VERSION_PROPERTY, RemoteEventCodec.FORMAT_VERSION);
+            message.writeBytes(bytes);
+            producer.send(message);
+            eventsSent.add(batch.size());
+            messagesSent.increment();
+            bytesSent.add(bytes.length);
+        }
+
+        /**
+         * Sends a batch of events to the message service as one object
+         * message per event, the format understood by earlier versions. The
+         * events that were sent are removed from the batch, so that a retry
+         * does not send them again.
+         *
+         * @param batch The events.
+         *
+         * @throws JMSException If an event could not be sent.
+         */
+        private void sendAsObjectMessages(List<AutopsyEvent> batch) throws JMSException {
+            while (!batch.isEmpty()) {
+                ObjectMessage message = producerSession.createObjectMessage();
+                message.setStringProperty("events", ALL_MESSAGE_SELECTOR); //NON-NLS
+                message.setIntProperty(FORMAT_VERSION_PROPERTY, RemoteEventCodec.FORMAT_VERSION);
+                message.setObject(batch.get(0));
+                producer.send(message);
+                batch.remove(0);
+                eventsSent.increment();
+                messagesSent.increment();
+            }
+        }
     }
 
     /**
@@ -140,25 +412,43 @@ synchronized void publish(AutopsyEvent event) throws JMSException {
     private final class MessageReceiver implements MessageListener {
 
         /**
-         * Receives an event message from the message service and publishes it
-         * locally. Called by a JMS thread.
+         * Receives an event message from the message service and publishes the
+         * events it contains locally. Called by a JMS thread.
          *
          * @param message The message.
          */
         @Override
         public void onMessage(Message message) {
             try {
-                if (message instanceof ObjectMessage) {
+                if (message instanceof BytesMessage) {
+                    BytesMessage bytesMessage = (BytesMessage) message;
+                    byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+                    bytesMessage.readBytes(bytes);
+                    List<AutopsyEvent> events = RemoteEventCodec.decode(bytes);
+                    eventsReceived.add(events.size());
+                    bytesReceived.add(bytes.length);
+                    for (AutopsyEvent event : events) {
+                        event.setSourceType(AutopsyEvent.SourceType.REMOTE);
+                        localPublisher.publish(event);
+                    }
+                } else if (message instanceof ObjectMessage) {
+                    if (!legacyMessagesRequired && !message.propertyExists(FORMAT_VERSION_PROPERTY)) {
+                        logger.log(Level.WARNING, "Received a message from a node running an earlier version on event channel {0}, sending events one per message from now on", eventChannelName); //NON-NLS
+                        legacyMessagesRequired = true;
+                    }
                     ObjectMessage objectMessage = (ObjectMessage) message;
                     Object object = objectMessage.getObject();
                     if (object instanceof AutopsyEvent) {
                         AutopsyEvent event = (AutopsyEvent) object;
+                        eventsReceived.increment();
                         event.setSourceType(AutopsyEvent.SourceType.REMOTE);
                         localPublisher.publish(event);
                     }
                 }
             } catch (JMSException ex) {
                 logger.log(Level.SEVERE, "Error receiving message", ex); //NON-NLS
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Error decoding events in message", ex); //NON-NLS
             } catch (Throwable ex) {
                 // Exception firewall.
                 logger.log(Level.SEVERE, "Unexpected error receiving message", ex); //NON-NLS                
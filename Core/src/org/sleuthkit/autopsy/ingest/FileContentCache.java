@@ -0,0 +1,539 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.casemodule.Case;
+import org.sleuthkit.autopsy.core.UserPreferences;
+import org.sleuthkit.autopsy.coreutils.FileUtil;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.datamodel.AbstractFile;
+import org.sleuthkit.datamodel.ReadContentInputStream;
+import org.sleuthkit.datamodel.TskCoreException;
+
+/**
+ * A read-once cache of the content of the file that is being run through a
+ * file ingest pipeline by the current ingest thread, so that the ingest modules
+ * in the pipeline do not each read the same bytes from the data source.
+ *
+ * The first part of the content of the file is cached in a buffer taken from a
+ * pool of buffers shared by the ingest threads. Content beyond the end of the
+ * buffer is spilled to a temporary file in the case temp directory, which is
+ * read using memory-mapped I/O, but only when it is read sequentially, e.g., by
+ * a module streaming the whole file; reads that jump ahead of the cached
+ * content go straight to the data source.
+ *
+ * Ingest modules read file content through the static methods of this class,
+ * which fall back to reading the file directly if the file is not the file
+ * currently being processed by the calling ingest thread or if the cache is
+ * disabled.
+ */
+public final class FileContentCache {
+
+    private static final Logger logger = Logger.getLogger(FileContentCache.class.getName());
+    private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    private static final int SPILL_CHUNK_SIZE = 8 * BYTES_PER_MEGABYTE;
+    private static final long MAX_SPILL_SIZE = 1024L * BYTES_PER_MEGABYTE;
+    private static final boolean cacheEnabled = UserPreferences.cacheFileIngestContent();
+    private static final int bufferSize = UserPreferences.getFileIngestContentCacheSizeMB() * BYTES_PER_MEGABYTE;
+    private static final ConcurrentLinkedQueue<byte[]> bufferPool = new ConcurrentLinkedQueue<>();
+    /*
+     * Read buffers for the ingest threads only. Other threads reading through
+     * a cache, e.g., parser threads with a time out, get a buffer sized to the
+     * read instead, so that they do not each hold on to a spill chunk sized
+     * buffer for as long as they live.
+     */
+    private static final ThreadLocal<byte[]> ingestThreadReadBuffers = ThreadLocal.withInitial(() -> new byte[SPILL_CHUNK_SIZE]);
+    private static final ThreadLocal<FileContentCache> currentCache = new ThreadLocal<>();
+    private static final AtomicLong bytesReadFromDataSources = new AtomicLong(0L);
+    private static final AtomicLong bytesServedFromCache = new AtomicLong(0L);
+    private final AbstractFile file;
+    private final long fileSize;
+    private final Thread ingestThread;
+    private byte[] buffer;
+    private int bufferedLength;
+    private Path spillFilePath;
+    private FileChannel spillFile;
+    private long spilledLength;
+    private MappedByteBuffer spillFileMap;
+    private boolean spillFailed;
+    private boolean released;
+
+    /**
+     * Starts caching the content of a file for the current ingest thread. Must
+     * be paired with a call to endFile() by the same thread.
+     *
+     * @param file The file that is about to be run through a file ingest
+     *             pipeline.
+     */
+    static void beginFile(AbstractFile file) {
+        if (cacheEnabled) {
+            currentCache.set(new FileContentCache(file));
+        }
+    }
+
+    /**
+     * Stops caching the content of the file being processed by the current
+     * ingest thread and releases the cache resources.
+     */
+    static void endFile() {
+        FileContentCache cache = currentCache.get();
+        if (null != cache) {
+            currentCache.remove();
+            cache.release();
+        }
+    }
+
+    /**
+     * Reads content from a file, using the cache if the file is the file being
+     * processed by the current ingest thread. This method has the same
+     * semantics as AbstractFile.read().
+     *
+     * @param file   The file.
+     * @param buf    The buffer into which to read the content.
+     * @param offset The offset in the file at which to start reading.
+     * @param len    The number of bytes to read.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    public static int read(AbstractFile file, byte[] buf, long offset, long len) throws TskCoreException {
+        FileContentCache cache = getCacheForFile(file);
+        if (null != cache) {
+            return cache.read(buf, 0, offset, (int) Math.min(len, buf.length));
+        }
+        return file.read(buf, offset, len);
+    }
+
+    /**
+     * Gets an input stream for the content of a file, backed by the cache if
+     * the file is the file being processed by the current ingest thread. The
+     * stream may be read by other threads, e.g., a parser thread with a time
+     * out.
+     *
+     * @param file The file.
+     *
+     * @return The input stream.
+     */
+    public static InputStream getInputStream(AbstractFile file) {
+        FileContentCache cache = getCacheForFile(file);
+        if (null != cache) {
+            return cache.new CachedContentInputStream();
+        }
+        return new ReadContentInputStream(file);
+    }
+
+    /**
+     * Gets the total number of bytes read from data sources by the caches.
+     *
+     * @return The byte count.
+     */
+    static long getBytesReadFromDataSources() {
+        return bytesReadFromDataSources.get();
+    }
+
+    /**
+     * Gets the total number of bytes the caches have served to ingest modules
+     * without reading them from the data sources.
+     *
+     * @return The byte count.
+     */
+    static long getBytesServedFromCache() {
+        return bytesServedFromCache.get();
+    }
+
+    /**
+     * Queries whether or not file content caching is enabled.
+     *
+     * @return True or false.
+     */
+    static boolean isEnabled() {
+        return cacheEnabled;
+    }
+
+    /**
+     * Gets the cache of the current ingest thread if it is caching the content
+     * of a given file.
+     *
+     * @param file The file.
+     *
+     * @return The cache or null.
+     */
+    private static FileContentCache getCacheForFile(AbstractFile file) {
+        FileContentCache cache = currentCache.get();
+        if (null != cache && cache.file.getId() == file.getId()) {
+            return cache;
+        }
+        return null;
+    }
+
+    /**
+     * Constructs a read-once cache of the content of a file.
+     *
+     * @param file The file.
+     */
+    private FileContentCache(AbstractFile file) {
+        this.file = file;
+        this.fileSize = file.getSize();
+        this.ingestThread = Thread.currentThread();
+    }
+
+    /**
+     * Reads content from the file through this cache.
+     *
+     * @param buf       The buffer into which to read the content.
+     * @param bufOffset The offset in the buffer at which to start writing.
+     * @param offset    The offset in the file at which to start reading.
+     * @param len       The number of bytes to read.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private synchronized int read(byte[] buf, int bufOffset, long offset, int len) throws TskCoreException {
+        if (released || offset < 0 || offset >= fileSize || len <= 0) {
+            return readUncached(buf, bufOffset, offset, len);
+        }
+        final long end = Math.min(offset + len, fileSize);
+        long position = offset;
+
+        /*
+         * Serve what can be served from the buffer.
+         */
+        if (position < bufferSize) {
+            long bufferEnd = Math.min(end, bufferSize);
+            countServedFromCache(position, bufferEnd, bufferedLength);
+            fillBuffer(bufferEnd);
+            int count = (int) Math.max(0, Math.min(bufferEnd, bufferedLength) - position);
+            System.arraycopy(buffer, (int) position, buf, bufOffset, count);
+            position += count;
+            if (position < bufferEnd) {
+                return (int) (position - offset);
+            }
+        }
+
+        /*
+         * Serve the rest from the spill file, if the read continues from the
+         * cached content, or from the data source otherwise.
+         */
+        if (position < end) {
+            long cachedEnd = bufferSize + spilledLength;
+            if (!spillFailed && position <= cachedEnd && end - bufferSize <= MAX_SPILL_SIZE) {
+                countServedFromCache(position, end, cachedEnd);
+                fillSpillFile(end);
+            }
+            cachedEnd = bufferSize + spilledLength;
+            if (!spillFailed && end <= cachedEnd) {
+                mapSpillFile();
+                ByteBuffer view = spillFileMap.duplicate();
+                view.position((int) (position - bufferSize));
+                view.get(buf, bufOffset + (int) (position - offset), (int) (end - position));
+                position = end;
+            } else {
+                int count = readUncached(buf, bufOffset + (int) (position - offset), position, (int) (end - position));
+                if (count > 0) {
+                    position += count;
+                }
+            }
+        }
+        return (int) (position - offset);
+    }
+
+    /**
+     * Fills the buffer of this cache, taking it from the pool if necessary,
+     * until it holds the content of the file up to a given offset. The buffer
+     * is filled in chunks, so it may end up holding more than was asked for.
+     *
+     * @param targetEnd The offset in the file up to which the buffer should be
+     *                  filled.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private void fillBuffer(long targetEnd) throws TskCoreException {
+        if (bufferedLength >= targetEnd) {
+            return;
+        }
+        if (null == buffer) {
+            buffer = bufferPool.poll();
+            if (null == buffer) {
+                buffer = new byte[bufferSize];
+            }
+        }
+        long fillEnd = Math.min(roundUp(targetEnd, READ_CHUNK_SIZE), Math.min(fileSize, bufferSize));
+        byte[] chunk = getReadBuffer(fillEnd - bufferedLength);
+        while (bufferedLength < fillEnd) {
+            int count = file.read(chunk, bufferedLength, Math.min(chunk.length, fillEnd - bufferedLength));
+            if (count <= 0) {
+                break;
+            }
+            bytesReadFromDataSources.addAndGet(count);
+            System.arraycopy(chunk, 0, buffer, bufferedLength, count);
+            bufferedLength += count;
+        }
+    }
+
+    /**
+     * Extends the spill file of this cache, creating it if necessary, until it
+     * holds the content of the file up to a given offset. The spill file is
+     * extended in large chunks, since it is only extended for sequential reads.
+     *
+     * @param targetEnd The offset in the file up to which the spill file
+     *                  should be extended.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private void fillSpillFile(long targetEnd) throws TskCoreException {
+        long spillEnd = Math.min(roundUp(targetEnd - bufferSize, SPILL_CHUNK_SIZE), Math.min(fileSize - bufferSize, MAX_SPILL_SIZE));
+        if (spilledLength >= spillEnd) {
+            return;
+        }
+        try {
+            if (null == spillFile) {
+                spillFilePath = Files.createTempFile(Paths.get(Case.getCurrentCase().getTempDirectory()), "ingest-content-", ".tmp"); //NON-NLS
+                spillFile = FileChannel.open(spillFilePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            byte[] chunk = getReadBuffer(spillEnd - spilledLength);
+            while (spilledLength < spillEnd) {
+                int count = file.read(chunk, bufferSize + spilledLength, Math.min(chunk.length, spillEnd - spilledLength));
+                if (count <= 0) {
+                    break;
+                }
+                bytesReadFromDataSources.addAndGet(count);
+                ByteBuffer source = ByteBuffer.wrap(chunk, 0, count);
+                while (source.hasRemaining()) {
+                    spillFile.write(source, spilledLength + source.position());
+                }
+                spilledLength += count;
+            }
+        } catch (IOException | IllegalStateException ex) {
+            logger.log(Level.WARNING, String.format("Error spilling content of %s (objId=%d) to temp file, reading directly from data source", file.getName(), file.getId()), ex); //NON-NLS
+            spillFailed = true;
+        }
+    }
+
+    /**
+     * Gets a buffer for reading content from the data source.
+     *
+     * @param length The number of bytes that are about to be read.
+     *
+     * @return The buffer of the ingest thread if called by the ingest thread
+     *         that created this cache, otherwise a new buffer that is no
+     *         larger than it needs to be.
+     */
+    private byte[] getReadBuffer(long length) {
+        if (Thread.currentThread() == ingestThread) {
+            return ingestThreadReadBuffers.get();
+        }
+        return new byte[(int) Math.min(SPILL_CHUNK_SIZE, roundUp(length, READ_CHUNK_SIZE))];
+    }
+
+    /**
+     * Maps the spilled content into memory, if the current mapping does not
+     * cover all of it. The previous mapping is unmapped, which is safe since
+     * mappings are only used while holding the lock of this cache.
+     *
+     * @throws TskCoreException if there is an error mapping the spill file.
+     */
+    private void mapSpillFile() throws TskCoreException {
+        if (null == spillFileMap || spillFileMap.capacity() < spilledLength) {
+            unmapSpillFile();
+            try {
+                spillFileMap = spillFile.map(FileChannel.MapMode.READ_ONLY, 0, spilledLength);
+            } catch (IOException ex) {
+                throw new TskCoreException(String.format("Error mapping spilled content of %s (objId=%d)", file.getName(), file.getId()), ex); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * Unmaps the spilled content, if it is mapped.
+     */
+    private void unmapSpillFile() {
+        if (null != spillFileMap) {
+            FileUtil.unmap(spillFileMap);
+            spillFileMap = null;
+        }
+    }
+
+    /**
+     * Reads content from the file without caching it.
+     *
+     * @param buf       The buffer into which to read the content.
+     * @param bufOffset The offset in the buffer at which to start writing.
+     * @param offset    The offset in the file at which to start reading.
+     * @param len       The number of bytes to read.
+     *
+     * @return The number of bytes read.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private int readUncached(byte[] buf, int bufOffset, long offset, int len) throws TskCoreException {
+        int count;
+        if (0 == bufOffset) {
+            count = file.read(buf, offset, len);
+        } else {
+            byte[] chunk = new byte[len];
+            count = file.read(chunk, offset, len);
+            if (count > 0) {
+                System.arraycopy(chunk, 0, buf, bufOffset, count);
+            }
+        }
+        if (count > 0) {
+            bytesReadFromDataSources.addAndGet(count);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the bytes of a read that were already cached before the read.
+     *
+     * @param start     The start of the read.
+     * @param end       The end of the read.
+     * @param cachedEnd The end of the cached content.
+     */
+    private static void countServedFromCache(long start, long end, long cachedEnd) {
+        long count = Math.min(end, cachedEnd) - start;
+        if (count > 0) {
+            bytesServedFromCache.addAndGet(count);
+        }
+    }
+
+    /**
+     * Rounds a value up to a multiple of a chunk size.
+     *
+     * @param value     The value.
+     * @param chunkSize The chunk size.
+     *
+     * @return The rounded value.
+     */
+    private static long roundUp(long value, long chunkSize) {
+        return ((value + chunkSize - 1) / chunkSize) * chunkSize;
+    }
+
+    /**
+     * Releases the buffer and spill file of this cache. Any further reads
+     * through this cache, e.g., by a parser thread that is still running, go
+     * directly to the data source.
+     */
+    private synchronized void release() {
+        released = true;
+        if (null != buffer) {
+            bufferPool.offer(buffer);
+            buffer = null;
+        }
+        unmapSpillFile();
+        if (null != spillFile) {
+            try {
+                spillFile.close();
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, String.format("Error closing spill file %s", spillFilePath), ex); //NON-NLS
+            }
+            try {
+                Files.deleteIfExists(spillFilePath);
+            } catch (IOException ex) {
+                /*
+                 * On Windows, the file cannot be deleted while it is mapped,
+                 * so this happens if the JVM could not unmap it. The case temp
+                 * directory is cleaned up when the case is closed, so just
+                 * make a note.
+                 */
+                logger.log(Level.FINE, String.format("Could not delete spill file %s", spillFilePath), ex); //NON-NLS
+                spillFilePath.toFile().deleteOnExit();
+            }
+            spillFile = null;
+        }
+    }
+
+    /**
+     * An input stream over the content of the file cached by this cache.
+     */
+    private final class CachedContentInputStream extends InputStream {
+
+        private long position;
+        private long mark;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int count = read(single, 0, 1);
+            return (count == 1) ? (single[0] & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= fileSize) {
+                return -1;
+            }
+            try {
+                int count = FileContentCache.this.read(buf, off, position, (int) Math.min(len, fileSize - position));
+                if (count <= 0) {
+                    return -1;
+                }
+                position += count;
+                return count;
+            } catch (TskCoreException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, fileSize - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, fileSize - position);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            mark = position;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+    }
+
+}
@@ -0,0 +1,328 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.ingest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import javax.xml.bind.DatatypeConverter;
+import org.sleuthkit.autopsy.core.UserPreferences;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.datamodel.AbstractFile;
+import org.sleuthkit.datamodel.TskCoreException;
+
+/**
+ * Calculates several hashes of a file in a single streaming pass over its
+ * content. The hashes calculated for the file being run through a file ingest
+ * pipeline by the current ingest thread are remembered until the pipeline is
+ * done with the file, so that other ingest modules in the pipeline that ask
+ * for the same hashes do not cause the file to be hashed again.
+ *
+ * The content is read through the file ingest content cache using large read
+ * buffers that are reused by each ingest thread. For large files, reading the
+ * next chunk of content is overlapped with updating the digests for the
+ * previous chunk, with the digests updated in parallel by a small pool of
+ * threads shared by all of the file ingest threads.
+ */
+public final class FileHashCalculator {
+
+    /**
+     * The hash types that can be calculated.
+     */
+    public enum HashType {
+
+        MD5("MD5"), //NON-NLS
+        SHA1("SHA-1"), //NON-NLS
+        SHA256("SHA-256"); //NON-NLS
+
+        private final String algorithmName;
+
+        private HashType(String algorithmName) {
+            this.algorithmName = algorithmName;
+        }
+
+        /**
+         * Gets the standard Java name of the hash algorithm.
+         *
+         * @return The algorithm name.
+         */
+        public String getAlgorithmName() {
+            return algorithmName;
+        }
+
+        /**
+         * Gets the hash type for a hash algorithm name, ignoring case and
+         * dashes, e.g., "sha1" and "SHA-1" are both SHA1.
+         *
+         * @param name The algorithm name.
+         *
+         * @return The hash type, or null if the algorithm is not supported.
+         */
+        public static HashType fromAlgorithmName(String name) {
+            String normalizedName = name.trim().replace("-", "");
+            for (HashType type : values()) {
+                if (type.name().equalsIgnoreCase(normalizedName)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Logger logger = Logger.getLogger(FileHashCalculator.class.getName());
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final long PARALLEL_HASHING_MIN_FILE_SIZE = 32L * READ_BUFFER_SIZE;
+    private static final Set<HashType> configuredHashTypes = readConfiguredHashTypes();
+    private static final ThreadLocal<byte[][]> readBuffers = ThreadLocal.withInitial(() -> new byte[2][READ_BUFFER_SIZE]);
+    private static final ThreadLocal<CurrentFileHashes> currentFileHashes = new ThreadLocal<>();
+    private static final ExecutorService digestUpdateExecutor = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            new ThreadFactoryBuilder().setNameFormat("file-hashing-%d").setDaemon(true).build()); //NON-NLS
+
+    /**
+     * Starts recording the hashes calculated for a file by the current ingest
+     * thread. Must be paired with a call to endFile() by the same thread.
+     *
+     * @param file The file that is about to be run through a file ingest
+     *             pipeline.
+     */
+    static void beginFile(AbstractFile file) {
+        currentFileHashes.set(new CurrentFileHashes(file.getId()));
+    }
+
+    /**
+     * Discards the hashes recorded for the file being processed by the current
+     * ingest thread.
+     */
+    static void endFile() {
+        currentFileHashes.remove();
+    }
+
+    /**
+     * Gets the hash types that are to be calculated for files during ingest.
+     *
+     * @return The hash types, always including MD5.
+     */
+    public static Set<HashType> getConfiguredHashTypes() {
+        return Collections.unmodifiableSet(configuredHashTypes);
+    }
+
+    /**
+     * Calculates hashes of a file in a single pass over its content. Hashes
+     * that have already been calculated for the file by the current ingest
+     * thread are not calculated again.
+     *
+     * @param file  The file.
+     * @param types The hash types.
+     *
+     * @return A mapping of the requested hash types to the hashes, as lower
+     *         case hex strings.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    public static Map<HashType, String> calculateHashes(AbstractFile file, Set<HashType> types) throws TskCoreException {
+        Map<HashType, String> results = new EnumMap<>(HashType.class);
+        Set<HashType> typesToCalculate = EnumSet.noneOf(HashType.class);
+        CurrentFileHashes hashes = currentFileHashes.get();
+        if (null != hashes && hashes.fileId != file.getId()) {
+            hashes = null;
+        }
+        for (HashType type : types) {
+            String hash = (null != hashes) ? hashes.hashes.get(type) : null;
+            if (null == hash && HashType.MD5 == type && null != file.getMd5Hash() && !file.getMd5Hash().isEmpty()) {
+                hash = file.getMd5Hash();
+            }
+            if (null != hash) {
+                results.put(type, hash);
+            } else {
+                typesToCalculate.add(type);
+            }
+        }
+        if (typesToCalculate.isEmpty()) {
+            return results;
+        }
+
+        List<MessageDigest> digests = new ArrayList<>();
+        for (HashType type : typesToCalculate) {
+            try {
+                digests.add(MessageDigest.getInstance(type.getAlgorithmName()));
+            } catch (NoSuchAlgorithmException ex) {
+                throw new TskCoreException(String.format("%s algorithm not available", type.getAlgorithmName()), ex); //NON-NLS
+            }
+        }
+        if (file.getSize() >= PARALLEL_HASHING_MIN_FILE_SIZE && digests.size() > 1) {
+            updateDigestsInParallel(file, digests);
+        } else {
+            updateDigests(file, digests);
+        }
+
+        int i = 0;
+        for (HashType type : typesToCalculate) {
+            String hash = DatatypeConverter.printHexBinary(digests.get(i++).digest()).toLowerCase();
+            results.put(type, hash);
+            if (null != hashes) {
+                hashes.hashes.put(type, hash);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reads the content of a file and updates the digests on the calling
+     * thread.
+     *
+     * @param file    The file.
+     * @param digests The digests.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private static void updateDigests(AbstractFile file, List<MessageDigest> digests) throws TskCoreException {
+        byte[] buffer = readBuffers.get()[0];
+        long offset = 0;
+        long size = file.getSize();
+        while (offset < size) {
+            int count = FileContentCache.read(file, buffer, offset, buffer.length);
+            if (count <= 0) {
+                break;
+            }
+            for (MessageDigest digest : digests) {
+                digest.update(buffer, 0, count);
+            }
+            offset += count;
+        }
+    }
+
+    /**
+     * Reads the content of a file into alternating buffers, updating the
+     * digests for one buffer on the digest update threads while the next
+     * buffer is read on the calling thread.
+     *
+     * @param file    The file.
+     * @param digests The digests.
+     *
+     * @throws TskCoreException if there is an error reading the file.
+     */
+    private static void updateDigestsInParallel(AbstractFile file, List<MessageDigest> digests) throws TskCoreException {
+        byte[][] buffers = readBuffers.get();
+        List<Future<?>> pendingUpdates = new ArrayList<>();
+        int currentBuffer = 0;
+        long offset = 0;
+        long size = file.getSize();
+        try {
+            while (offset < size) {
+                byte[] buffer = buffers[currentBuffer];
+                int count = FileContentCache.read(file, buffer, offset, buffer.length);
+                if (count <= 0) {
+                    break;
+                }
+
+                /*
+                 * Wait for the updates for the other buffer to finish, so that
+                 * each digest sees the chunks in order and the other buffer can
+                 * be reused for the next read.
+                 */
+                waitForUpdates(pendingUpdates);
+                for (MessageDigest digest : digests) {
+                    pendingUpdates.add(digestUpdateExecutor.submit(() -> digest.update(buffer, 0, count)));
+                }
+                currentBuffer ^= 1;
+                offset += count;
+            }
+            waitForUpdates(pendingUpdates);
+        } finally {
+            for (Future<?> update : pendingUpdates) {
+                update.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Waits for a set of digest updates to finish.
+     *
+     * @param pendingUpdates The updates, cleared on return.
+     *
+     * @throws TskCoreException if an update fails or the calling thread is
+     *                          interrupted.
+     */
+    private static void waitForUpdates(List<Future<?>> pendingUpdates) throws TskCoreException {
+        try {
+            for (Future<?> update : pendingUpdates) {
+                update.get();
+            }
+            pendingUpdates.clear();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TskCoreException("Interrupted while calculating hashes", ex); //NON-NLS
+        } catch (ExecutionException ex) {
+            throw new TskCoreException("Error calculating hashes", ex.getCause()); //NON-NLS
+        }
+    }
+
+    /**
+     * Parses the hash algorithms setting.
+     *
+     * @return The configured hash types, always including MD5.
+     */
+    private static Set<HashType> readConfiguredHashTypes() {
+        Set<HashType> types = EnumSet.of(HashType.MD5);
+        for (String name : UserPreferences.getFileIngestHashAlgorithms().split(",")) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            HashType type = HashType.fromAlgorithmName(name);
+            if (null != type) {
+                types.add(type);
+            } else {
+                logger.log(Level.WARNING, "Ignoring unsupported file ingest hash algorithm {0}", name); //NON-NLS
+            }
+        }
+        return types;
+    }
+
+    /**
+     * The hashes calculated for the file being processed by an ingest thread.
+     */
+    private static final class CurrentFileHashes {
+
+        private final long fileId;
+        private final Map<HashType, String> hashes = new EnumMap<>(HashType.class);
+
+        private CurrentFileHashes(long fileId) {
+            this.fileId = fileId;
+        }
+    }
+
+    /**
+     * Prevents instantiation of this utility class.
+     */
+    private FileHashCalculator() {
+    }
+}
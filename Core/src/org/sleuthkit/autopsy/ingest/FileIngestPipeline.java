@@ -118,23 +118,33 @@ synchronized List<IngestModuleError> process(FileIngestTask task) {
         List<IngestModuleError> errors = new ArrayList<>();
         if (!this.job.isCancelled()) {
             AbstractFile file = task.getFile();
-            for (PipelineModule module : this.modules) {
+            FileContentCache.beginFile(file);
+            try {
+                FileHashCalculator.beginFile(file);
                 try {
-                    FileIngestPipeline.ingestManager.setIngestTaskProgress(task, module.getDisplayName());
-                    this.job.setCurrentFileIngestModule(module.getDisplayName(), task.getFile().getName());
-                    module.process(file);
-                } catch (Throwable ex) { // Catch-all exception firewall
-                    errors.add(new IngestModuleError(module.getDisplayName(), ex));
-                    String msg = ex.getMessage();
-                    // Jython run-time errors don't seem to have a message, but have details in toString.
-                    if (msg == null) {
-                        msg = ex.toString();
+                    for (PipelineModule module : this.modules) {
+                        try {
+                            FileIngestPipeline.ingestManager.setIngestTaskProgress(task, module.getDisplayName());
+                            this.job.setCurrentFileIngestModule(module.getDisplayName(), task.getFile().getName());
+                            module.process(file);
+                        } catch (Throwable ex) { // Catch-all exception firewall
+                            errors.add(new IngestModuleError(module.getDisplayName(), ex));
+                            String msg = ex.getMessage();
+                            // Jython run-time errors don't seem to have a message, but have details in toString.
+                            if (msg == null) {
+                                msg = ex.toString();
+                            }
+                            MessageNotifyUtil.Notify.error(NbBundle.getMessage(this.getClass(), "FileIngestPipeline.moduleError.title.text", module.getDisplayName()), msg);
+                        }
+                        if (this.job.isCancelled()) {
+                            break;
+                        }
                     }
-                    MessageNotifyUtil.Notify.error(NbBundle.getMessage(this.getClass(), "FileIngestPipeline.moduleError.title.text", module.getDisplayName()), msg);
-                }
-                if (this.job.isCancelled()) {
-                    break;
+                } finally {
+                    FileHashCalculator.endFile();
                 }
+            } finally {
+                FileContentCache.endFile();
             }
             file.close();
             if (!this.job.isCancelled()) {
@@ -26,11 +26,13 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Level;
 import org.openide.util.NbBundle;
 import org.openide.util.io.NbObjectInputStream;
@@ -41,6 +43,7 @@
 import org.sleuthkit.autopsy.coreutils.PlatformUtil;
 import org.sleuthkit.autopsy.modules.interestingitems.FilesSet;
 import org.sleuthkit.autopsy.modules.interestingitems.FilesSetsManager;
+import org.sleuthkit.autopsy.modules.thumbnailgenerator.ThumbnailGeneratorModuleFactory;
 
 /**
  * Encapsulates the ingest job settings for a particular execution context.
@@ -57,6 +60,12 @@ public class IngestJobSettings {
     private static final String MODULE_SETTINGS_FOLDER_PATH = Paths.get(PlatformUtil.getUserConfigDirectory(), IngestJobSettings.MODULE_SETTINGS_FOLDER).toAbsolutePath().toString();
     private static final String MODULE_SETTINGS_FILE_EXT = ".settings"; //NON-NLS
     private static final Logger LOGGER = Logger.getLogger(IngestJobSettings.class.getName());
+    /*
+     * The core ingest modules that are disabled until the user enables them,
+     * identified by the canonical names of their factories.
+     */
+    private static final Set<String> DISABLED_BY_DEFAULT_MODULE_FACTORIES = new HashSet<>(Arrays.asList(
+            ThumbnailGeneratorModuleFactory.class.getCanonicalName()));
     private FilesSet fileIngestFilter;
     private String executionContext;
     private final IngestType ingestType;
@@ -309,16 +318,23 @@ private void load() {
             }
         }
 
+        HashSet<String> disabledByDefaultModuleNames = new HashSet<>();
         for (IngestModuleFactory moduleFactory : moduleFactories) {
             loadedModuleNames.add(moduleFactory.getModuleDisplayName());
+            if (DISABLED_BY_DEFAULT_MODULE_FACTORIES.contains(moduleFactory.getClass().getCanonicalName())) {
+                disabledByDefaultModuleNames.add(moduleFactory.getModuleDisplayName());
+            }
         }
 
         /**
          * Get the enabled/disabled ingest modules settings for this context. By
-         * default, all loaded modules are enabled.
+         * default, all loaded modules are enabled, except for the modules that
+         * are disabled by default.
          */
-        HashSet<String> enabledModuleNames = getModulesNamesFromSetting(executionContext, IngestJobSettings.ENABLED_MODULES_KEY, makeCommaSeparatedValuesList(loadedModuleNames));
-        HashSet<String> disabledModuleNames = getModulesNamesFromSetting(executionContext, IngestJobSettings.DISABLED_MODULES_KEY, ""); //NON-NLS
+        HashSet<String> enabledByDefaultModuleNames = new HashSet<>(loadedModuleNames);
+        enabledByDefaultModuleNames.removeAll(disabledByDefaultModuleNames);
+        HashSet<String> enabledModuleNames = getModulesNamesFromSetting(executionContext, IngestJobSettings.ENABLED_MODULES_KEY, makeCommaSeparatedValuesList(enabledByDefaultModuleNames));
+        HashSet<String> disabledModuleNames = getModulesNamesFromSetting(executionContext, IngestJobSettings.DISABLED_MODULES_KEY, makeCommaSeparatedValuesList(disabledByDefaultModuleNames));
 
         /**
          * Check for missing modules and create warnings if any are found.
@@ -353,6 +369,12 @@ private void load() {
                 moduleTemplate.setEnabled(true);
             } else if (disabledModuleNames.contains(moduleName)) {
                 moduleTemplate.setEnabled(false);
+            } else if (disabledByDefaultModuleNames.contains(moduleName)) {
+                // The module factory was loaded, but the module name does not
+                // appear in the enabled/disabled module settings. Treat the
+                // module as a new module that is disabled by default.
+                moduleTemplate.setEnabled(false);
+                disabledModuleNames.add(moduleName);
             } else {
                 // The module factory was loaded, but the module name does not
                 // appear in the enabled/disabled module settings. Treat the
@@ -32,6 +32,7 @@
 import org.sleuthkit.autopsy.casemodule.Case;
 import org.sleuthkit.autopsy.coreutils.PlatformUtil;
 import org.sleuthkit.autopsy.events.AutopsyEvent;
+import org.sleuthkit.autopsy.modules.hashdatabase.HashDbManager;
 
 /**
  * Monitors disk space and memory and cancels ingest if disk space runs low.
@@ -191,6 +192,8 @@ public void actionPerformed(ActionEvent e) {
             }
 
             logMemoryUsage();
+            logFileContentCacheUsage();
+            logHashDbLookupFilterUsage();
 
             if (!enoughDiskSpace()) {
                 /*
@@ -213,6 +216,28 @@ private void logMemoryUsage() {
             MONITOR_LOGGER.log(Level.INFO, PlatformUtil.getAllMemUsageInfo());
         }
 
+        /**
+         * Writes the file ingest content cache statistics to the memory usage
+         * log, if the cache is enabled.
+         */
+        private void logFileContentCacheUsage() {
+            if (FileContentCache.isEnabled()) {
+                MONITOR_LOGGER.log(Level.INFO, "File content cache: {0} bytes read from data sources, {1} bytes served from cache", //NON-NLS
+                        new Object[]{FileContentCache.getBytesReadFromDataSources(), FileContentCache.getBytesServedFromCache()});
+            }
+        }
+
+        /**
+         * Writes the hash database lookup filter statistics to the memory
+         * usage log, if the filters are enabled.
+         */
+        private void logHashDbLookupFilterUsage() {
+            if (HashDbManager.isUsingLookupFilters()) {
+                MONITOR_LOGGER.log(Level.INFO, "Hash database lookup filters: {0} misses answered in memory, {1} hits, {2} false positives", //NON-NLS
+                        new Object[]{HashDbManager.getLookupFilterMissCount(), HashDbManager.getLookupFilterHitCount(), HashDbManager.getLookupFilterFalsePositiveCount()});
+            }
+        }
+
         /**
          * Determines whether there is enough disk space to continue running
          * ingest.
@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.autopsy.ingest;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -27,11 +28,14 @@
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.sleuthkit.autopsy.core.UserPreferences;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.datamodel.AbstractFile;
 import org.sleuthkit.datamodel.Content;
@@ -86,6 +90,32 @@ final class IngestTasksScheduler {
     private final BlockingDeque<FileIngestTask> pendingFileTasks;
     private final FileIngestTaskQueue fileTasksDispenser;
 
+    /**
+     * Optionally, the "shuffling" of directory tasks into file tasks can be
+     * done by a background thread that runs ahead of the ingest threads,
+     * instead of by the ingest threads themselves whenever the pending file
+     * tasks queue runs dry. The children of a directory are enumerated and
+     * filtered without holding the lock of this scheduler, and the background
+     * thread pauses when the pending file tasks queue reaches a high watermark
+     * and resumes when the ingest threads have drained it to a low watermark.
+     */
+    private final boolean prefetchFileTasks;
+    private final int pendingFileTasksHighWatermark;
+    private final int pendingFileTasksLowWatermark;
+    private final ExecutorService directoryExpansionExecutor;
+    private volatile boolean directoryExpansionPaused;
+
+    /**
+     * Alternatively, scheduling of file ingest tasks can be done by a
+     * work-stealing "dispenser" that gives each ingest thread its own deque of
+     * tasks and lets the ingest threads expand directories without holding the
+     * lock of this scheduler. The work-stealing dispenser tracks the file
+     * ingest tasks in progress itself, so when it is used, only data source
+     * ingest tasks are added to the tasks in progress list below.
+     */
+    private final boolean useWorkStealingFileTasksDispenser;
+    private final WorkStealingFileIngestTaskQueue workStealingFileTasksDispenser;
+
     /**
      * The ingest tasks scheduler allows ingest jobs to query it to see if there
      * are any tasks in progress for the job. To make this possible, the ingest
@@ -105,6 +135,7 @@ final class IngestTasksScheduler {
     synchronized static IngestTasksScheduler getInstance() {
         if (IngestTasksScheduler.instance == null) {
             IngestTasksScheduler.instance = new IngestTasksScheduler();
+            IngestTasksScheduler.instance.startDirectoryExpansion();
         }
         return IngestTasksScheduler.instance;
     }
@@ -119,9 +150,25 @@ private IngestTasksScheduler() {
         this.directoryTasks = new ArrayList<>();
         this.pendingFileTasks = new LinkedBlockingDeque<>();
         this.fileTasksDispenser = new FileIngestTaskQueue();
+        this.useWorkStealingFileTasksDispenser = UserPreferences.useWorkStealingFileIngestScheduler();
+        this.workStealingFileTasksDispenser = new WorkStealingFileIngestTaskQueue(new RootDirectoryTaskComparator());
+        this.prefetchFileTasks = !this.useWorkStealingFileTasksDispenser && UserPreferences.prefetchFileIngestTasks();
+        this.pendingFileTasksHighWatermark = UserPreferences.getFileIngestTasksHighWatermark();
+        this.pendingFileTasksLowWatermark = UserPreferences.getFileIngestTasksLowWatermark();
+        this.directoryExpansionExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("ITS-directory-expansion-%d").build()); //NON-NLS
         this.tasksInProgress = new HashSet<>();
     }
 
+    /**
+     * Starts the background expansion of directory tasks into file tasks, if
+     * file tasks prefetching is enabled.
+     */
+    private void startDirectoryExpansion() {
+        if (this.prefetchFileTasks) {
+            this.directoryExpansionExecutor.submit(new ExpandDirectoryTasksTask());
+        }
+    }
+
     /**
      * Gets this ingest task scheduler's implementation of the IngestTaskQueue
      * interface for data source ingest tasks.
@@ -139,6 +186,9 @@ IngestTaskQueue getDataSourceIngestTaskQueue() {
      * @return The file ingest tasks queue.
      */
     IngestTaskQueue getFileIngestTaskQueue() {
+        if (this.useWorkStealingFileTasksDispenser) {
+            return this.workStealingFileTasksDispenser;
+        }
         return this.fileTasksDispenser;
     }
 
@@ -198,11 +248,17 @@ synchronized void scheduleFileIngestTasks(DataSourceIngestJob job) {
             for (AbstractFile firstLevelFile : topLevelFiles) {
                 FileIngestTask task = new FileIngestTask(job, firstLevelFile);
                 if (IngestTasksScheduler.shouldEnqueueFileTask(task)) {
-                    this.tasksInProgress.add(task);
-                    this.rootDirectoryTasks.add(task);
+                    if (this.useWorkStealingFileTasksDispenser) {
+                        this.workStealingFileTasksDispenser.addRootDirectoryTask(task);
+                    } else {
+                        this.tasksInProgress.add(task);
+                        this.rootDirectoryTasks.add(task);
+                    }
                 }
             }
-            shuffleFileTaskQueues();
+            if (!this.useWorkStealingFileTasksDispenser) {
+                shuffleFileTaskQueues();
+            }
         }
     }
 
@@ -212,12 +268,18 @@ synchronized void scheduleFileIngestTasks(DataSourceIngestJob job) {
      * @param job  The job for which the tasks are to be scheduled.
      * @param file The file to be associated with the task.
      */
-    synchronized void scheduleFileIngestTask(DataSourceIngestJob job, AbstractFile file) {
+    void scheduleFileIngestTask(DataSourceIngestJob job, AbstractFile file) {
         if (!job.isCancelled()) {
             FileIngestTask task = new FileIngestTask(job, file);
             if (IngestTasksScheduler.shouldEnqueueFileTask(task)) {
-                this.tasksInProgress.add(task);
-                addToPendingFileTasksQueue(task);
+                if (this.useWorkStealingFileTasksDispenser) {
+                    this.workStealingFileTasksDispenser.addFileTask(task);
+                } else {
+                    synchronized (this) {
+                        this.tasksInProgress.add(task);
+                        addToPendingFileTasksQueue(task);
+                    }
+                }
             }
         }
     }
@@ -228,8 +290,14 @@ synchronized void scheduleFileIngestTask(DataSourceIngestJob job, AbstractFile f
      *
      * @param task The completed task.
      */
-    synchronized void notifyTaskCompleted(IngestTask task) {
-        tasksInProgress.remove(task);
+    void notifyTaskCompleted(IngestTask task) {
+        if (this.useWorkStealingFileTasksDispenser && task instanceof FileIngestTask) {
+            this.workStealingFileTasksDispenser.notifyTaskCompleted((FileIngestTask) task);
+        } else {
+            synchronized (this) {
+                tasksInProgress.remove(task);
+            }
+        }
     }
 
     /**
@@ -240,13 +308,21 @@ synchronized void notifyTaskCompleted(IngestTask task) {
      *
      * @return True or false.
      */
-    synchronized boolean tasksForJobAreCompleted(DataSourceIngestJob job) {
-        for (IngestTask task : tasksInProgress) {
-            if (task.getIngestJob().getId() == job.getId()) {
-                return false;
+    boolean tasksForJobAreCompleted(DataSourceIngestJob job) {
+        /*
+         * The tasks in progress list must be checked before the work-stealing
+         * file tasks dispenser. A data source ingest task can add file tasks
+         * before it completes, so checking in the other order could miss file
+         * tasks added between the two checks.
+         */
+        synchronized (this) {
+            for (IngestTask task : tasksInProgress) {
+                if (task.getIngestJob().getId() == job.getId()) {
+                    return false;
+                }
             }
         }
-        return true;
+        return !this.useWorkStealingFileTasksDispenser || this.workStealingFileTasksDispenser.tasksForJobAreCompleted(job.getId());
     }
 
     /**
@@ -267,6 +343,11 @@ synchronized void cancelPendingTasksForIngestJob(DataSourceIngestJob job) {
          * that this code could have a different view of the queues than the
          * ingest threads. It does clean out the directory level tasks before
          * they are exploded into file tasks.
+         *
+         * When the work-stealing file tasks dispenser is in use, directory
+         * tasks for a cancelled job are not expanded when they are taken by an
+         * ingest thread, so the tasks for the job drain out of the ingest
+         * threads' deques the same way cancelled file tasks do.
          */
         long jobId = job.getId();
         this.removeTasksForJob(this.rootDirectoryTasks, jobId);
@@ -324,6 +405,12 @@ synchronized private void shuffleFileTaskQueues() {
         // This is synchronized because it is called both by synchronized 
         // methods of this ingest scheduler and an unsynchronized method of its
         // file tasks "dispenser".
+        if (this.prefetchFileTasks) {
+            // The directory expansion thread does the shuffling. Wake it up
+            // in case it is waiting for directory tasks.
+            notifyAll();
+            return;
+        }
         while (true) {
             // Loop until either the pending file tasks queue is NOT empty
             // or the upstream queues that feed into it ARE empty.
@@ -357,6 +444,7 @@ synchronized private void shuffleFileTaskQueues() {
             // If the directory contains subdirectories or files, try to 
             // enqueue tasks for them as well. 
             final AbstractFile directory = directoryTask.getFile();
+            final SiblingFilesInfo siblings = new SiblingFilesInfo(directory);
             try {
                 for (Content child : directory.getChildren()) {
                     if (child instanceof AbstractFile) {
@@ -370,7 +458,7 @@ synchronized private void shuffleFileTaskQueues() {
                             // first appearance of this task in the queues.
                             this.tasksInProgress.add(childTask);
                             this.directoryTasks.add(childTask);
-                        } else if (shouldEnqueueFileTask(childTask)) {
+                        } else if (shouldEnqueueFileTask(childTask, siblings)) {
                             // Found a file, put the task directly into the
                             // pending file tasks queue. 
                             this.tasksInProgress.add(childTask);
@@ -394,7 +482,23 @@ synchronized private void shuffleFileTaskQueues() {
      *
      * @return True or false.
      */
-    private static boolean shouldEnqueueFileTask(final FileIngestTask task) {
+    static boolean shouldEnqueueFileTask(final FileIngestTask task) {
+        return shouldEnqueueFileTask(task, null);
+    }
+
+    /**
+     * Examines the file associated with a file ingest task to determine whether
+     * or not the file should be processed and therefore whether or not the task
+     * should be enqueued, using cached information about the directory that
+     * contains the file, if available.
+     *
+     * @param task     The task to be scrutinized.
+     * @param siblings Information shared by the file and the other children of
+     *                 its parent directory, may be null.
+     *
+     * @return True or false.
+     */
+    private static boolean shouldEnqueueFileTask(final FileIngestTask task, SiblingFilesInfo siblings) {
         final AbstractFile file = task.getFile();
 
         // Skip the task if the file is actually the pseudo-file for the parent
@@ -420,15 +524,7 @@ private static boolean shouldEnqueueFileTask(final FileIngestTask task) {
             final org.sleuthkit.datamodel.File f = (org.sleuthkit.datamodel.File) file;
 
             // Get the type of the file system, if any, that owns the file.
-            TskData.TSK_FS_TYPE_ENUM fsType = TskData.TSK_FS_TYPE_ENUM.TSK_FS_TYPE_UNSUPP;
-            try {
-                FileSystem fs = f.getFileSystem();
-                if (fs != null) {
-                    fsType = fs.getFsType();
-                }
-            } catch (TskCoreException ex) {
-                logger.log(Level.SEVERE, "Error querying file system for " + f, ex); //NON-NLS
-            }
+            TskData.TSK_FS_TYPE_ENUM fsType = (null != siblings) ? siblings.getFileSystemType(f) : getFileSystemType(f);
 
             // If the file system is not NTFS or FAT, don't skip the file.
             if ((fsType.getValue() & FAT_NTFS_FLAGS) == 0) {
@@ -436,13 +532,7 @@ private static boolean shouldEnqueueFileTask(final FileIngestTask task) {
             }
 
             // Find out whether the file is in a root directory. 
-            boolean isInRootDir = false;
-            try {
-                AbstractFile parent = f.getParentDirectory();
-                isInRootDir = parent.isRoot();
-            } catch (TskCoreException ex) {
-                logger.log(Level.WARNING, "Error querying parent directory for" + f.getName(), ex); //NON-NLS
-            }
+            boolean isInRootDir = (null != siblings) ? siblings.isInRootDirectory() : isInRootDirectory(f);
 
             // If the file is in the root directory of an NTFS or FAT file 
             // system, check its meta-address and check its name for the '$'
@@ -458,6 +548,158 @@ private static boolean shouldEnqueueFileTask(final FileIngestTask task) {
         return true;
     }
 
+    /**
+     * Gets the type of the file system, if any, that owns a file.
+     *
+     * @param file The file.
+     *
+     * @return The file system type.
+     */
+    private static TskData.TSK_FS_TYPE_ENUM getFileSystemType(org.sleuthkit.datamodel.File file) {
+        TskData.TSK_FS_TYPE_ENUM fsType = TskData.TSK_FS_TYPE_ENUM.TSK_FS_TYPE_UNSUPP;
+        try {
+            FileSystem fs = file.getFileSystem();
+            if (fs != null) {
+                fsType = fs.getFsType();
+            }
+        } catch (TskCoreException ex) {
+            logger.log(Level.SEVERE, "Error querying file system for " + file, ex); //NON-NLS
+        }
+        return fsType;
+    }
+
+    /**
+     * Determines whether or not a file is in the root directory of its file
+     * system.
+     *
+     * @param file The file.
+     *
+     * @return True or false.
+     */
+    private static boolean isInRootDirectory(org.sleuthkit.datamodel.File file) {
+        boolean isInRootDir = false;
+        try {
+            AbstractFile parent = file.getParentDirectory();
+            isInRootDir = parent.isRoot();
+        } catch (TskCoreException ex) {
+            logger.log(Level.WARNING, "Error querying parent directory for" + file.getName(), ex); //NON-NLS
+        }
+        return isInRootDir;
+    }
+
+    /**
+     * Takes the next directory task to be expanded by the directory expansion
+     * thread, blocking while there are no directory tasks or while directory
+     * expansion is paused because the pending file tasks queue has reached its
+     * high watermark.
+     *
+     * @return The directory task.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while
+     *                              blocked.
+     */
+    synchronized private FileIngestTask takeNextDirectoryTask() throws InterruptedException {
+        while (true) {
+            if (this.pendingFileTasks.size() >= this.pendingFileTasksHighWatermark) {
+                this.directoryExpansionPaused = true;
+            }
+            if (!this.directoryExpansionPaused && !(this.directoryTasks.isEmpty() && this.rootDirectoryTasks.isEmpty())) {
+                break;
+            }
+            wait();
+        }
+        if (this.directoryTasks.isEmpty()) {
+            // Move the next root directory task into the directories queue.
+            // Note that the task was already added to the tasks in progress
+            // list when the task was created in scheduleFileIngestTasks().
+            this.directoryTasks.add(this.rootDirectoryTasks.pollFirst());
+        }
+        return this.directoryTasks.remove(this.directoryTasks.size() - 1);
+    }
+
+    /**
+     * Resumes the expansion of directory tasks by the directory expansion
+     * thread after it has been paused.
+     */
+    synchronized private void resumeDirectoryExpansion() {
+        this.directoryExpansionPaused = false;
+        notifyAll();
+    }
+
+    /**
+     * Expands a directory task taken by the directory expansion thread. The
+     * children of the directory are enumerated and filtered without holding
+     * the lock of this scheduler, then the resulting tasks are added to the
+     * scheduling queues all at once.
+     *
+     * Note that the directory task remains in the tasks in progress list while
+     * it is being expanded, so the job cannot appear to be completed in the
+     * meantime. If the job is cancelled in the meantime, the directory task is
+     * put in the pending file tasks queue anyway, so that it is flushed out by
+     * an ingest thread with a task completed notification.
+     *
+     * @param directoryTask The directory task.
+     */
+    private void expandDirectoryTask(FileIngestTask directoryTask) {
+        final DataSourceIngestJob job = directoryTask.getIngestJob();
+        final boolean enqueueDirectoryTask = shouldEnqueueFileTask(directoryTask);
+        final List<FileIngestTask> subdirectoryTasks = new ArrayList<>();
+        final List<FileIngestTask> fileTasks = new ArrayList<>();
+        if (!job.isCancelled()) {
+            final AbstractFile directory = directoryTask.getFile();
+            final SiblingFilesInfo siblings = new SiblingFilesInfo(directory);
+            try {
+                for (Content child : directory.getChildren()) {
+                    if (child instanceof AbstractFile) {
+                        AbstractFile file = (AbstractFile) child;
+                        FileIngestTask childTask = new FileIngestTask(job, file);
+                        if (file.hasChildren()) {
+                            subdirectoryTasks.add(childTask);
+                        } else if (shouldEnqueueFileTask(childTask, siblings)) {
+                            fileTasks.add(childTask);
+                        }
+                    }
+                }
+            } catch (TskCoreException ex) {
+                String errorMessage = String.format("An error occurred getting the children of %s", directory.getName()); //NON-NLS
+                logger.log(Level.SEVERE, errorMessage, ex);
+            }
+        }
+
+        synchronized (this) {
+            if (enqueueDirectoryTask || job.isCancelled()) {
+                addToPendingFileTasksQueue(directoryTask);
+            } else {
+                this.tasksInProgress.remove(directoryTask);
+            }
+            if (!job.isCancelled()) {
+                for (FileIngestTask task : subdirectoryTasks) {
+                    this.tasksInProgress.add(task);
+                    this.directoryTasks.add(task);
+                }
+                for (FileIngestTask task : fileTasks) {
+                    this.tasksInProgress.add(task);
+                    addToPendingFileTasksQueue(task);
+                }
+            }
+        }
+    }
+
+    /**
+     * Abandons the expansion of a directory task that failed unexpectedly. The
+     * children of the directory are not scheduled, but if the directory task
+     * is still in progress and has not been queued, it is put in the pending
+     * file tasks queue, so that it is flushed out by an ingest thread with a
+     * task completed notification and the job can finish.
+     *
+     * @param directoryTask The directory task.
+     */
+    synchronized private void abandonDirectoryTask(FileIngestTask directoryTask) {
+        if (this.tasksInProgress.contains(directoryTask) && !this.pendingFileTasks.contains(directoryTask)) {
+            addToPendingFileTasksQueue(directoryTask);
+        }
+    }
+
     /**
      * Adds a file ingest task to the blocking pending tasks queue.
      *
@@ -658,12 +900,96 @@ private final class FileIngestTaskQueue implements IngestTaskQueue {
         @Override
         public IngestTask getNextTask() throws InterruptedException {
             FileIngestTask task = IngestTasksScheduler.this.pendingFileTasks.takeFirst();
-            shuffleFileTaskQueues();
+            if (IngestTasksScheduler.this.prefetchFileTasks) {
+                if (IngestTasksScheduler.this.directoryExpansionPaused
+                        && IngestTasksScheduler.this.pendingFileTasks.size() <= IngestTasksScheduler.this.pendingFileTasksLowWatermark) {
+                    resumeDirectoryExpansion();
+                }
+            } else {
+                shuffleFileTaskQueues();
+            }
             return task;
         }
 
     }
 
+    /**
+     * Expands directory tasks into file tasks in the background, running ahead
+     * of the ingest threads. An unexpected error expanding a directory task is
+     * logged and the task is abandoned, rather than ending the thread, since
+     * all of the running ingest jobs depend on it.
+     */
+    private final class ExpandDirectoryTasksTask implements Runnable {
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                FileIngestTask directoryTask = null;
+                try {
+                    directoryTask = takeNextDirectoryTask();
+                    expandDirectoryTask(directoryTask);
+                } catch (InterruptedException ex) {
+                    break;
+                } catch (RuntimeException ex) {
+                    logger.log(Level.SEVERE, String.format("Unexpected error expanding directory task for %s", directoryTask != null ? directoryTask.getFile().getName() : "unknown directory"), ex); //NON-NLS
+                    if (directoryTask != null) {
+                        abandonDirectoryTask(directoryTask);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Information shared by the children of a directory that is needed to
+     * decide whether or not to enqueue file tasks for them. The information is
+     * queried once, when it is first needed, instead of once per child.
+     */
+    private static final class SiblingFilesInfo {
+
+        private final AbstractFile parent;
+        private TskData.TSK_FS_TYPE_ENUM fsType;
+        private Boolean parentIsRoot;
+
+        /**
+         * Constructs an object for the information shared by the children of a
+         * directory.
+         *
+         * @param parent The directory.
+         */
+        SiblingFilesInfo(AbstractFile parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Gets the type of the file system, if any, that owns the children of
+         * the directory.
+         *
+         * @param file One of the children of the directory.
+         *
+         * @return The file system type.
+         */
+        TskData.TSK_FS_TYPE_ENUM getFileSystemType(org.sleuthkit.datamodel.File file) {
+            if (null == fsType) {
+                fsType = IngestTasksScheduler.getFileSystemType(file);
+            }
+            return fsType;
+        }
+
+        /**
+         * Determines whether or not the children of the directory are in the
+         * root directory of a file system.
+         *
+         * @return True or false.
+         */
+        boolean isInRootDirectory() {
+            if (null == parentIsRoot) {
+                parentIsRoot = parent.isRoot();
+            }
+            return parentIsRoot;
+        }
+    }
+
     /**
      * A snapshot of ingest tasks data for an ingest job.
      */
@@ -683,11 +1009,19 @@ class IngestJobTasksSnapshot {
          */
         IngestJobTasksSnapshot(long jobId) {
             this.jobId = jobId;
-            this.rootQueueSize = countTasksForJob(IngestTasksScheduler.this.rootDirectoryTasks, jobId);
-            this.dirQueueSize = countTasksForJob(IngestTasksScheduler.this.directoryTasks, jobId);
-            this.fileQueueSize = countTasksForJob(IngestTasksScheduler.this.pendingFileTasks, jobId);
             this.dsQueueSize = countTasksForJob(IngestTasksScheduler.this.pendingDataSourceTasks, jobId);
-            this.runningListSize = countTasksForJob(IngestTasksScheduler.this.tasksInProgress, jobId);
+            if (IngestTasksScheduler.this.useWorkStealingFileTasksDispenser) {
+                WorkStealingFileIngestTaskQueue fileTasks = IngestTasksScheduler.this.workStealingFileTasksDispenser;
+                this.rootQueueSize = fileTasks.countRootDirectoryTasksForJob(jobId);
+                this.dirQueueSize = fileTasks.countDirectoryTasksForJob(jobId);
+                this.fileQueueSize = fileTasks.countFileTasksForJob(jobId);
+                this.runningListSize = countTasksForJob(IngestTasksScheduler.this.tasksInProgress, jobId) + fileTasks.countTasksInProgressForJob(jobId);
+            } else {
+                this.rootQueueSize = countTasksForJob(IngestTasksScheduler.this.rootDirectoryTasks, jobId);
+                this.dirQueueSize = countTasksForJob(IngestTasksScheduler.this.directoryTasks, jobId);
+                this.fileQueueSize = countTasksForJob(IngestTasksScheduler.this.pendingFileTasks, jobId);
+                this.runningListSize = countTasksForJob(IngestTasksScheduler.this.tasksInProgress, jobId);
+            }
         }
 
         /**
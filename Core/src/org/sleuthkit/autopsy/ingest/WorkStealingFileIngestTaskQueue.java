@@ -0,0 +1,435 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.ingest;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.datamodel.AbstractFile;
+import org.sleuthkit.datamodel.Content;
+import org.sleuthkit.datamodel.TskCoreException;
+
+/**
+ * A work-stealing implementation of the IngestTaskQueue interface for file
+ * ingest tasks.
+ *
+ * Each ingest thread that consumes tasks from this queue owns a deque of
+ * tasks. When an ingest thread takes a directory task, it enumerates the
+ * children of the directory itself, without holding any global lock, and
+ * pushes the resulting tasks onto the front of its own deque. An ingest thread
+ * takes tasks from the front of its own deque first, so each thread works
+ * depth first through the subtree it is expanding. An idle ingest thread
+ * steals tasks from the back of the deques of the other ingest threads, where
+ * the oldest, i.e., closest to the root, directory tasks are found.
+ *
+ * Tasks scheduled by threads that are not consumers of this queue (e.g., the
+ * data source level ingest thread adding carved files) go into a shared deque.
+ * Root directory tasks are kept in a priority queue and are only taken when
+ * there is no other work available.
+ *
+ * The tasks that have been queued or handed out but not yet completed are
+ * tracked using a count per ingest job, so that the ingest tasks scheduler can
+ * determine whether or not the file ingest tasks for a job are completed
+ * without locking.
+ */
+final class WorkStealingFileIngestTaskQueue implements IngestTaskQueue {
+
+    private static final Logger logger = Logger.getLogger(WorkStealingFileIngestTaskQueue.class.getName());
+    private final PriorityBlockingQueue<FileIngestTask> rootDirectoryTasks;
+    private final ConcurrentLinkedDeque<QueuedTask> sharedTasks;
+    private final List<ConcurrentLinkedDeque<QueuedTask>> ownedTasks;
+    private final ThreadLocal<ConcurrentLinkedDeque<QueuedTask>> currentThreadTasks;
+    private final Semaphore queuedTasksCount;
+    private final ConcurrentHashMap<Long, Long> tasksInProgressCounts;
+
+    /**
+     * Constructs a work-stealing implementation of the IngestTaskQueue
+     * interface for file ingest tasks.
+     *
+     * @param rootDirectoryTaskComparator The comparator used to prioritize the
+     *                                    root directory tasks.
+     */
+    WorkStealingFileIngestTaskQueue(Comparator<FileIngestTask> rootDirectoryTaskComparator) {
+        this.rootDirectoryTasks = new PriorityBlockingQueue<>(11, rootDirectoryTaskComparator);
+        this.sharedTasks = new ConcurrentLinkedDeque<>();
+        this.ownedTasks = new CopyOnWriteArrayList<>();
+        this.currentThreadTasks = new ThreadLocal<>();
+        this.queuedTasksCount = new Semaphore(0);
+        this.tasksInProgressCounts = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a root directory task, i.e., a task for a file system root
+     * directory, layout file or virtual directory, to this queue. The file
+     * associated with the task will be processed and its children, if any,
+     * will be enumerated by the ingest thread that takes the task.
+     *
+     * @param task The task.
+     */
+    void addRootDirectoryTask(FileIngestTask task) {
+        taskStarted(task);
+        rootDirectoryTasks.add(task);
+        queuedTasksCount.release();
+    }
+
+    /**
+     * Adds a task for a file that will not be expanded to this queue. If the
+     * calling thread is a consumer of this queue, the task goes onto the front
+     * of its own deque, so that files added by an ingest module (e.g., files
+     * extracted from an archive) are processed before the expansion of the
+     * next directory.
+     *
+     * @param task The task.
+     */
+    void addFileTask(FileIngestTask task) {
+        taskStarted(task);
+        push(new QueuedTask(task, false));
+    }
+
+    /**
+     * Records the completion of a task taken from this queue.
+     *
+     * @param task The completed task.
+     */
+    void notifyTaskCompleted(FileIngestTask task) {
+        tasksInProgressCounts.computeIfPresent(task.getIngestJob().getId(), (jobId, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Determines whether or not all of the tasks added to this queue for an
+     * ingest job are completed.
+     *
+     * @param jobId The identifier of the ingest job.
+     *
+     * @return True or false.
+     */
+    boolean tasksForJobAreCompleted(long jobId) {
+        return !tasksInProgressCounts.containsKey(jobId);
+    }
+
+    /**
+     * Gets the number of tasks added to this queue for an ingest job that are
+     * not yet completed.
+     *
+     * @param jobId The identifier of the ingest job.
+     *
+     * @return The tasks count.
+     */
+    long countTasksInProgressForJob(long jobId) {
+        return tasksInProgressCounts.getOrDefault(jobId, 0L);
+    }
+
+    /**
+     * Gets the number of root directory tasks for an ingest job that have not
+     * been taken by an ingest thread.
+     *
+     * @param jobId The identifier of the ingest job.
+     *
+     * @return The tasks count.
+     */
+    long countRootDirectoryTasksForJob(long jobId) {
+        long count = 0;
+        for (FileIngestTask task : rootDirectoryTasks) {
+            if (task.getIngestJob().getId() == jobId) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of queued directory tasks for an ingest job, i.e., tasks
+     * whose children have not yet been enumerated.
+     *
+     * @param jobId The identifier of the ingest job.
+     *
+     * @return The tasks count.
+     */
+    long countDirectoryTasksForJob(long jobId) {
+        return countQueuedTasksForJob(jobId, true);
+    }
+
+    /**
+     * Gets the number of queued file tasks for an ingest job, i.e., tasks that
+     * are ready to be processed without enumerating any children.
+     *
+     * @param jobId The identifier of the ingest job.
+     *
+     * @return The tasks count.
+     */
+    long countFileTasksForJob(long jobId) {
+        return countQueuedTasksForJob(jobId, false);
+    }
+
+    @Override
+    public IngestTask getNextTask() throws InterruptedException {
+        ConcurrentLinkedDeque<QueuedTask> ownTasks = getCurrentThreadTasks();
+        while (true) {
+            /*
+             * There is one permit for every queued task, and a task is only
+             * removed from the queues by a thread holding a permit, so once a
+             * permit is acquired there is guaranteed to be a task for this
+             * thread somewhere in the queues.
+             */
+            queuedTasksCount.acquire();
+            QueuedTask queuedTask = takeQueuedTask(ownTasks);
+            FileIngestTask task = queuedTask.getTask();
+            if (!queuedTask.isDirectory() || expandDirectory(task, ownTasks)) {
+                return task;
+            }
+        }
+    }
+
+    /**
+     * Gets the deque of tasks owned by the current thread, creating it if this
+     * is the first time the thread has asked this queue for a task.
+     *
+     * @return The deque.
+     */
+    private ConcurrentLinkedDeque<QueuedTask> getCurrentThreadTasks() {
+        ConcurrentLinkedDeque<QueuedTask> tasks = currentThreadTasks.get();
+        if (null == tasks) {
+            tasks = new ConcurrentLinkedDeque<>();
+            currentThreadTasks.set(tasks);
+            ownedTasks.add(tasks);
+        }
+        return tasks;
+    }
+
+    /**
+     * Takes a queued task, looking first in the deque of the current thread,
+     * then in the shared deque, then in the deques of the other threads, and
+     * finally in the root directory tasks queue. Must only be called by a
+     * thread holding a queued task permit.
+     *
+     * @param ownTasks The deque of tasks owned by the current thread.
+     *
+     * @return The task.
+     */
+    private QueuedTask takeQueuedTask(ConcurrentLinkedDeque<QueuedTask> ownTasks) {
+        while (true) {
+            QueuedTask task = ownTasks.pollFirst();
+            if (null != task) {
+                return task;
+            }
+            task = sharedTasks.pollFirst();
+            if (null != task) {
+                return task;
+            }
+            task = steal(ownTasks);
+            if (null != task) {
+                return task;
+            }
+            FileIngestTask rootDirectoryTask = rootDirectoryTasks.poll();
+            if (null != rootDirectoryTask) {
+                return new QueuedTask(rootDirectoryTask, true);
+            }
+
+            /*
+             * The task this thread holds a permit for has been taken by
+             * another thread holding a permit, so the task it is entitled to
+             * has not been pushed yet. Try again.
+             */
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Steals the oldest task from the deque of another thread, starting with
+     * a randomly chosen deque so that the stealing threads do not all contend
+     * for the same victim.
+     *
+     * @param ownTasks The deque of tasks owned by the current thread.
+     *
+     * @return The task or null if there were no tasks to steal.
+     */
+    private QueuedTask steal(ConcurrentLinkedDeque<QueuedTask> ownTasks) {
+        Object[] victims = ownedTasks.toArray();
+        if (victims.length == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(victims.length);
+        for (int i = 0; i < victims.length; ++i) {
+            @SuppressWarnings("unchecked")
+            ConcurrentLinkedDeque<QueuedTask> victim = (ConcurrentLinkedDeque<QueuedTask>) victims[(start + i) % victims.length];
+            if (victim != ownTasks) {
+                QueuedTask task = victim.pollLast();
+                if (null != task) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Enumerates the children of the file associated with a directory task and
+     * pushes tasks for them onto the deque of the current thread. Tasks for
+     * ingest jobs that have been cancelled are not expanded, they are simply
+     * handed to an ingest thread so that they are flushed out the way
+     * cancelled file tasks are.
+     *
+     * @param directoryTask The directory task.
+     * @param ownTasks      The deque of tasks owned by the current thread.
+     *
+     * @return True if the directory task itself should be processed, false if
+     *         it has been completed by this method.
+     */
+    private boolean expandDirectory(FileIngestTask directoryTask, ConcurrentLinkedDeque<QueuedTask> ownTasks) {
+        DataSourceIngestJob job = directoryTask.getIngestJob();
+        if (job.isCancelled()) {
+            return true;
+        }
+
+        final AbstractFile directory = directoryTask.getFile();
+        try {
+            for (Content child : directory.getChildren()) {
+                if (child instanceof AbstractFile) {
+                    AbstractFile file = (AbstractFile) child;
+                    FileIngestTask childTask = new FileIngestTask(job, file);
+                    if (file.hasChildren()) {
+                        taskStarted(childTask);
+                        pushOwned(new QueuedTask(childTask, true), ownTasks);
+                    } else if (IngestTasksScheduler.shouldEnqueueFileTask(childTask)) {
+                        taskStarted(childTask);
+                        pushOwned(new QueuedTask(childTask, false), ownTasks);
+                    }
+                }
+            }
+        } catch (TskCoreException ex) {
+            String errorMessage = String.format("An error occurred getting the children of %s", directory.getName()); //NON-NLS
+            logger.log(Level.SEVERE, errorMessage, ex);
+        }
+
+        /*
+         * The tasks for the children are counted as in progress before the
+         * directory task is completed, so that the job never appears to have
+         * no tasks in progress while the subtree is being expanded.
+         */
+        if (IngestTasksScheduler.shouldEnqueueFileTask(directoryTask)) {
+            return true;
+        }
+        notifyTaskCompleted(directoryTask);
+        return false;
+    }
+
+    /**
+     * Pushes a task onto the front of the deque of the current thread if it is
+     * a consumer of this queue, or onto the front of the shared deque
+     * otherwise.
+     *
+     * @param task The task.
+     */
+    private void push(QueuedTask task) {
+        ConcurrentLinkedDeque<QueuedTask> ownTasks = currentThreadTasks.get();
+        if (null != ownTasks) {
+            pushOwned(task, ownTasks);
+        } else {
+            sharedTasks.offerFirst(task);
+            queuedTasksCount.release();
+        }
+    }
+
+    /**
+     * Pushes a task onto the front of a deque owned by the current thread.
+     *
+     * @param task     The task.
+     * @param ownTasks The deque of tasks owned by the current thread.
+     */
+    private void pushOwned(QueuedTask task, ConcurrentLinkedDeque<QueuedTask> ownTasks) {
+        ownTasks.offerFirst(task);
+        queuedTasksCount.release();
+    }
+
+    /**
+     * Counts a task as in progress for its ingest job.
+     *
+     * @param task The task.
+     */
+    private void taskStarted(FileIngestTask task) {
+        tasksInProgressCounts.merge(task.getIngestJob().getId(), 1L, Long::sum);
+    }
+
+    /**
+     * Counts the queued directory or file tasks for an ingest job.
+     *
+     * @param jobId       The identifier of the ingest job.
+     * @param directories Whether to count directory tasks or file tasks.
+     *
+     * @return The count.
+     */
+    private long countQueuedTasksForJob(long jobId, boolean directories) {
+        long count = countQueuedTasksForJob(sharedTasks, jobId, directories);
+        for (ConcurrentLinkedDeque<QueuedTask> tasks : ownedTasks) {
+            count += countQueuedTasksForJob(tasks, jobId, directories);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the directory or file tasks for an ingest job in a deque.
+     *
+     * @param tasks       The deque.
+     * @param jobId       The identifier of the ingest job.
+     * @param directories Whether to count directory tasks or file tasks.
+     *
+     * @return The count.
+     */
+    private static long countQueuedTasksForJob(Collection<QueuedTask> tasks, long jobId, boolean directories) {
+        long count = 0;
+        for (QueuedTask task : tasks) {
+            if (task.isDirectory() == directories && task.getTask().getIngestJob().getId() == jobId) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A file ingest task in one of the deques, flagged to indicate whether or
+     * not the children of its file need to be enumerated when it is taken.
+     */
+    private static final class QueuedTask {
+
+        private final FileIngestTask task;
+        private final boolean isDirectory;
+
+        QueuedTask(FileIngestTask task, boolean isDirectory) {
+            this.task = task;
+            this.isDirectory = isDirectory;
+        }
+
+        FileIngestTask getTask() {
+            return task;
+        }
+
+        boolean isDirectory() {
+            return isDirectory;
+        }
+    }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.autopsy.modules.embeddedfileextractor;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -27,12 +28,23 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import net.sf.sevenzipjbinding.ArchiveFormat;
 import static net.sf.sevenzipjbinding.ArchiveFormat.RAR;
+import net.sf.sevenzipjbinding.ExtractAskMode;
+import net.sf.sevenzipjbinding.ExtractOperationResult;
+import net.sf.sevenzipjbinding.IArchiveExtractCallback;
 import net.sf.sevenzipjbinding.ISequentialOutStream;
 import net.sf.sevenzipjbinding.ISevenZipInArchive;
+import net.sf.sevenzipjbinding.PropID;
 import net.sf.sevenzipjbinding.SevenZip;
 import net.sf.sevenzipjbinding.SevenZipException;
 import net.sf.sevenzipjbinding.SevenZipNativeInitializationException;
@@ -47,6 +59,7 @@
 import org.sleuthkit.autopsy.coreutils.FileUtil;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.coreutils.MessageNotifyUtil;
+import org.sleuthkit.autopsy.coreutils.ModuleSettings;
 import org.sleuthkit.autopsy.ingest.IngestJobContext;
 import org.sleuthkit.autopsy.ingest.IngestMessage;
 import org.sleuthkit.autopsy.ingest.IngestMonitor;
@@ -80,6 +93,18 @@ class SevenZipExtractor {
     private static final int MAX_COMPRESSION_RATIO = 600;
     private static final long MIN_COMPRESSION_RATIO_SIZE = 500 * 1000000L;
     private static final long MIN_FREE_DISK_SPACE = 1 * 1000 * 1000000L; //1GB
+    //parallel extraction
+    private static final String SETTINGS_MODULE = "EmbeddedFileExtractor"; //NON-NLS
+    private static final String EXTRACTION_THREADS_KEY = "extractionThreads"; //NON-NLS
+    private static final int MIN_ITEMS_PER_THREAD = 128;
+    private static final int EXTRACTION_THREADS = getExtractionThreadCount();
+    /**
+     * Extracts parts of archives for all the ingest threads. The ingest thread
+     * that is unpacking an archive always extracts one part itself, so
+     * unpacking goes on even when the pool is busy with other archives.
+     */
+    private static final ExecutorService extractionPool = Executors.newFixedThreadPool(Math.max(1, EXTRACTION_THREADS - 1),
+            new ThreadFactoryBuilder().setNameFormat("seven-zip-extractor-%d").setDaemon(true).build()); //NON-NLS
     //counts archive depth
     private ArchiveDepthCountTree archiveDepthCountTree;
 
@@ -92,6 +117,27 @@ private String getLocalRootAbsPath(String uniqueArchiveFileName) {
         return moduleDirAbsolute + File.separator + uniqueArchiveFileName;
     }
 
+    /**
+     * Gets the most threads that extract the items of one archive, including
+     * the ingest thread.
+     *
+     * @return The number of threads.
+     */
+    private static int getExtractionThreadCount() {
+        String threadsString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, EXTRACTION_THREADS_KEY);
+        if (threadsString != null && !threadsString.isEmpty()) {
+            try {
+                int threads = Integer.parseInt(threadsString);
+                if (threads > 0) {
+                    return threads;
+                }
+            } catch (NumberFormatException ex) {
+                logger.log(Level.WARNING, "Invalid number of archive extraction threads: " + threadsString, ex); // NON-NLS
+            }
+        }
+        return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
     /**
      * Enum of mimetypes which support archive extraction
      */
@@ -315,8 +361,6 @@ void unpack(AbstractFile archiveFile) {
         SevenZipContentReadStream stream = null;
 
         final ProgressHandle progress = ProgressHandle.createHandle(Bundle.EmbeddedFileExtractorIngestModule_ArchiveExtractor_moduleName());
-        int processedItems = 0;
-
         boolean progressStarted = false;
         try {
             stream = new SevenZipContentReadStream(new ReadContentInputStream(archiveFile));
@@ -351,9 +395,12 @@ void unpack(AbstractFile archiveFile) {
             //initialize tree hierarchy to keep track of unpacked file structure
             SevenZipExtractor.UnpackedTree unpackedTree = new SevenZipExtractor.UnpackedTree(moduleDirRelative + "/" + uniqueArchiveFileName, archiveFile);
 
-            long freeDiskSpace = services.getFreeDiskSpace();
+            final DiskSpaceBudget diskSpace = new DiskSpaceBudget(services.getFreeDiskSpace());
+            //the files to extract, once all the items have been looked at
+            final List<ItemToExtract> itemsToExtract = new ArrayList<>();
+            final AtomicInteger processedItems = new AtomicInteger(0);
 
-            //unpack and process every item in archive
+            //look at every item in archive
             int itemNumber = 0;
             for (ISimpleInArchiveItem item : simpleInArchive.getArchiveItems()) {
                 String pathInArchive = item.getPath();
@@ -414,7 +461,7 @@ void unpack(AbstractFile archiveFile) {
                 String fileName = unpackedNode.getFileName();
 
                 //update progress bar
-                progress.progress(archiveFile.getName() + ": " + fileName, processedItems);
+                progress.progress(archiveFile.getName() + ": " + fileName, processedItems.get());
 
                 final boolean isEncrypted = item.isEncrypted();
                 final boolean isDir = item.isFolder();
@@ -433,9 +480,9 @@ void unpack(AbstractFile archiveFile) {
 
                 //check if unpacking this file will result in out of disk space
                 //this is additional to zip bomb prevention mechanism
-                if (freeDiskSpace != IngestMonitor.DISK_FREE_SPACE_UNKNOWN && size != null && size > 0) { //if free space is known and file is not empty.
-                    long newDiskSpace = freeDiskSpace - size;
-                    if (newDiskSpace < MIN_FREE_DISK_SPACE) {
+                if (size != null && size > 0) { //if file is not empty.
+                    //reserve the space now, so the items extracted in parallel can not overrun it together
+                    if (diskSpace.reserve(size) == false) {
                         String msg = NbBundle.getMessage(SevenZipExtractor.class,
                                 "EmbeddedFileExtractorIngestModule.ArchiveExtractor.unpack.notEnoughDiskSpace.msg",
                                 archiveFilePath, fileName);
@@ -444,11 +491,8 @@ void unpack(AbstractFile archiveFile) {
                         //MessageNotifyUtil.Notify.error(msg, details);
                         services.postMessage(IngestMessage.createErrorMessage(EmbeddedFileExtractorModuleFactory.getModuleName(), msg, details));
                         logger.log(Level.INFO, "Skipping archive item due to insufficient disk space: {0}, {1}", new Object[]{archiveFilePath, fileName}); //NON-NLS
-                        logger.log(Level.INFO, "Available disk space: {0}", new Object[]{freeDiskSpace}); //NON-NLS
+                        logger.log(Level.INFO, "Available disk space: {0}", new Object[]{diskSpace.getFreeDiskSpace()}); //NON-NLS
                         continue; //skip this file
-                    } else {
-                        //update est. disk space during this archive, so we don't need to poll for every file extracted
-                        freeDiskSpace = newDiskSpace;
                     }
                 }
 
@@ -491,36 +535,20 @@ void unpack(AbstractFile archiveFile) {
                 final long modtime = writeTime == null ? 0L : writeTime.getTime() / 1000;
                 final long accesstime = accessTime == null ? 0L : accessTime.getTime() / 1000;
 
-                //unpack locally if a file
-                SevenZipExtractor.UnpackStream unpackStream = null;
+                //unpack locally if a file, once all the items have been looked at
                 if (!isDir) {
-                    try {
-                        if (size != null) {
-                            unpackStream = new SevenZipExtractor.KnownSizeUnpackStream(localAbsPath, size);
-                        } else {
-                            unpackStream = new SevenZipExtractor.UnknownSizeUnpackStream(localAbsPath, freeDiskSpace);
-                        }
-                        item.extractSlow(unpackStream);
-                    } catch (Exception e) {
-                        //could be something unexpected with this file, move on
-                        logger.log(Level.WARNING, "Could not extract file from archive: " + localAbsPath, e); //NON-NLS
-                    } finally {
-                        if (unpackStream != null) {
-                            //record derived data in unode, to be traversed later after unpacking the archive
-                            unpackedNode.addDerivedInfo(unpackStream.getSize(), !isDir,
-                                    0L, createtime, accesstime, modtime, localRelPath);
-                            unpackStream.close();
-                        }
-                    }
+                    itemsToExtract.add(new ItemToExtract(item.getItemIndex(), unpackedNode, size,
+                            createtime, accesstime, modtime, localRelPath, localAbsPath));
                 } else { // this is a directory, size is always 0
                     unpackedNode.addDerivedInfo(0, !isDir,
                             0L, createtime, accesstime, modtime, localRelPath);
+                    //update units for progress bar
+                    progress.progress(processedItems.incrementAndGet());
                 }
-
-                //update units for progress bar
-                ++processedItems;
             }
 
+            extractItems(archiveFile, options, inArchive, itemsToExtract, diskSpace, progress, processedItems);
+
             // add them to the DB. We wait until the end so that we have the metadata on all of the
             // intermediate nodes since the order is not guaranteed
             try {
@@ -611,6 +639,375 @@ void unpack(AbstractFile archiveFile) {
         }
     }
 
+    /**
+     * Can the items of the archive be extracted by several threads, each with
+     * its own instance of the archive, without each of them having to
+     * decompress the archive from the start? True for zip files, and for 7z
+     * and rar files that are not solid.
+     *
+     * @param inArchive The open archive.
+     *
+     * @return True if the items can be extracted in parallel.
+     */
+    private static boolean isParallelExtractionSupported(ISevenZipInArchive inArchive) {
+        ArchiveFormat format = inArchive.getArchiveFormat();
+        if (format == ArchiveFormat.ZIP) {
+            return true;
+        }
+        if (format == ArchiveFormat.SEVEN_ZIP || format == ArchiveFormat.RAR) {
+            try {
+                return Boolean.FALSE.equals(inArchive.getArchiveProperty(PropID.SOLID));
+            } catch (SevenZipException ex) {
+                logger.log(Level.WARNING, "Error checking if archive is solid", ex); //NON-NLS
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extract the given items of an archive to their local files and record
+     * their derived file info in their unpacked nodes.
+     *
+     * The items are extracted by the archive's extract() callback, which
+     * decompresses items in archive order in one pass rather than seeking to
+     * each item on its own. When the format allows it and there are enough
+     * items, they are split into ranges and the ranges after the first are
+     * extracted by the extraction pool, each from its own instance of the
+     * archive, while the calling thread extracts the first range. Items that
+     * a range could not extract, e.g., because the pool thread could not open
+     * the archive, are then extracted one at a time by the calling thread.
+     *
+     * @param archiveFile    The archive file.
+     * @param options        The format to open the archive with, or null to
+     *                       detect it.
+     * @param inArchive      The archive, already opened by the calling thread.
+     * @param items          The items to extract, in archive order.
+     * @param diskSpace      The disk space left for this archive.
+     * @param progress       The progress bar for this archive.
+     * @param processedItems The count of items done, for the progress bar.
+     */
+    private void extractItems(AbstractFile archiveFile, ArchiveFormat options, ISevenZipInArchive inArchive, List<ItemToExtract> items,
+            DiskSpaceBudget diskSpace, ProgressHandle progress, AtomicInteger processedItems) {
+        if (items.isEmpty()) {
+            return;
+        }
+        int threads = 1;
+        if (EXTRACTION_THREADS > 1 && isParallelExtractionSupported(inArchive)) {
+            threads = Math.min(EXTRACTION_THREADS, items.size() / MIN_ITEMS_PER_THREAD);
+        }
+        final long startTime = System.currentTimeMillis();
+        final int itemsPerThread = (items.size() + Math.max(1, threads) - 1) / Math.max(1, threads);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int start = itemsPerThread; start < items.size(); start += itemsPerThread) {
+            final List<ItemToExtract> range = items.subList(start, Math.min(start + itemsPerThread, items.size()));
+            final long archiveId = archiveFile.getId();
+            futures.add(extractionPool.submit(() -> {
+                SevenZipContentReadStream rangeStream = null;
+                ISevenZipInArchive rangeArchive = null;
+                try {
+                    //use an AbstractFile of our own, since the file handle can't be shared between threads
+                    AbstractFile rangeArchiveFile = Case.getCurrentCase().getSleuthkitCase().getAbstractFileById(archiveId);
+                    rangeStream = new SevenZipContentReadStream(new ReadContentInputStream(rangeArchiveFile));
+                    rangeArchive = SevenZip.openInArchive(options, rangeStream);
+                    extractRange(rangeArchive, range, diskSpace, progress, processedItems);
+                } catch (TskCoreException | SevenZipException ex) {
+                    //the calling thread extracts the range instead, see below
+                    logger.log(Level.WARNING, "Error opening archive " + archiveFile.getName() + " to extract items in parallel", ex); //NON-NLS
+                } finally {
+                    closeQuietly(archiveFile, rangeArchive, rangeStream);
+                }
+            }));
+        }
+        extractRange(inArchive, items.subList(0, Math.min(itemsPerThread, items.size())), diskSpace, progress, processedItems);
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                logger.log(Level.WARNING, "Error extracting items in parallel from archive: " + archiveFile.getName(), ex); //NON-NLS
+            } catch (InterruptedException ex) {
+                logger.log(Level.WARNING, "Interrupted while waiting for items to be extracted from archive: " + archiveFile.getName(), ex); //NON-NLS
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        //all of the ranges are finished, extract anything they left behind
+        for (ItemToExtract item : items) {
+            if (item.done == false) {
+                extractItem(inArchive, item, diskSpace, progress, processedItems);
+            }
+        }
+        logger.log(Level.INFO, "Extracted {0} items from {1} in {2} ms on {3} threads", //NON-NLS
+                new Object[]{items.size(), archiveFile.getName(), System.currentTimeMillis() - startTime, futures.size() + 1});
+    }
+
+    /**
+     * Extract a range of items from an archive in one pass. If the pass stops
+     * early, or fails for some items, those items are extracted one at a
+     * time, as they would have been before.
+     *
+     * @param inArchive The archive to extract from.
+     * @param items     The items to extract.
+     */
+    private static void extractRange(ISevenZipInArchive inArchive, List<ItemToExtract> items,
+            DiskSpaceBudget diskSpace, ProgressHandle progress, AtomicInteger processedItems) {
+        ExtractCallback callback = new ExtractCallback(items, diskSpace, progress, processedItems);
+        int[] indices = new int[items.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = items.get(i).itemIndex;
+        }
+        try {
+            inArchive.extract(indices, false, callback);
+        } catch (Exception ex) {
+            //could be something unexpected with a file, the rest of the range is extracted below
+            logger.log(Level.WARNING, "Could not extract files from archive", ex); //NON-NLS
+        }
+        callback.abandonCurrentItem();
+        for (ItemToExtract item : items) {
+            if (item.done == false) {
+                extractItem(inArchive, item, diskSpace, progress, processedItems);
+            }
+        }
+    }
+
+    /**
+     * Extract a single item from an archive. An item that can't be extracted
+     * is recorded with a size of zero.
+     *
+     * @param inArchive The archive to extract from.
+     * @param item      The item to extract.
+     */
+    private static void extractItem(ISevenZipInArchive inArchive, ItemToExtract item,
+            DiskSpaceBudget diskSpace, ProgressHandle progress, AtomicInteger processedItems) {
+        UnpackStream unpackStream = null;
+        long extractedSize = 0;
+        try {
+            if (item.size != null) {
+                unpackStream = new KnownSizeUnpackStream(item.localAbsPath, item.size);
+            } else {
+                unpackStream = new UnknownSizeUnpackStream(item.localAbsPath, diskSpace);
+            }
+            ExtractOperationResult result = inArchive.getSimpleInterface().getArchiveItem(item.itemIndex).extractSlow(unpackStream);
+            if (result == ExtractOperationResult.OK) {
+                extractedSize = unpackStream.getSize();
+            } else {
+                logger.log(Level.WARNING, "Could not extract file from archive: {0}, result: {1}", new Object[]{item.localAbsPath, result}); //NON-NLS
+            }
+        } catch (Exception ex) {
+            //could be something unexpected with this file, move on
+            logger.log(Level.WARNING, "Could not extract file from archive: " + item.localAbsPath, ex); //NON-NLS
+        } finally {
+            if (unpackStream != null) {
+                unpackStream.close();
+            }
+            item.finish(extractedSize);
+            //update units for progress bar
+            progress.progress(processedItems.incrementAndGet());
+        }
+    }
+
+    private static void closeQuietly(AbstractFile archiveFile, ISevenZipInArchive inArchive, SevenZipContentReadStream stream) {
+        if (inArchive != null) {
+            try {
+                inArchive.close();
+            } catch (SevenZipException e) {
+                logger.log(Level.SEVERE, "Error closing archive: " + archiveFile, e); //NON-NLS
+            }
+        }
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Error closing stream after unpacking archive: " + archiveFile, ex); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * A file in the archive waiting to be extracted to its local file.
+     */
+    private static class ItemToExtract {
+
+        private final int itemIndex;
+        private final UnpackedTree.UnpackedNode unpackedNode;
+        private final Long size;
+        private final long createtime;
+        private final long accesstime;
+        private final long modtime;
+        private final String localRelPath;
+        private final String localAbsPath;
+        private boolean done = false;
+
+        ItemToExtract(int itemIndex, UnpackedTree.UnpackedNode unpackedNode, Long size,
+                long createtime, long accesstime, long modtime, String localRelPath, String localAbsPath) {
+            this.itemIndex = itemIndex;
+            this.unpackedNode = unpackedNode;
+            this.size = size;
+            this.createtime = createtime;
+            this.accesstime = accesstime;
+            this.modtime = modtime;
+            this.localRelPath = localRelPath;
+            this.localAbsPath = localAbsPath;
+        }
+
+        /**
+         * record derived data in unode, to be traversed later after unpacking
+         * the archive
+         */
+        void finish(long extractedSize) {
+            unpackedNode.addDerivedInfo(extractedSize, true,
+                    0L, createtime, accesstime, modtime, localRelPath);
+            done = true;
+        }
+    }
+
+    /**
+     * Callback for ISevenZipInArchive.extract() that writes each item of a
+     * range to its local file. Used by one thread at a time.
+     */
+    private static class ExtractCallback implements IArchiveExtractCallback {
+
+        private final Map<Integer, ItemToExtract> itemsByIndex = new HashMap<>();
+        private final DiskSpaceBudget diskSpace;
+        private final ProgressHandle progress;
+        private final AtomicInteger processedItems;
+        private ItemToExtract currentItem;
+        private UnpackStream currentStream;
+
+        ExtractCallback(List<ItemToExtract> items, DiskSpaceBudget diskSpace, ProgressHandle progress, AtomicInteger processedItems) {
+            this.diskSpace = diskSpace;
+            this.progress = progress;
+            this.processedItems = processedItems;
+            for (ItemToExtract item : items) {
+                itemsByIndex.put(item.itemIndex, item);
+            }
+        }
+
+        @Override
+        public ISequentialOutStream getStream(int index, ExtractAskMode extractAskMode) throws SevenZipException {
+            finishCurrentItem();
+            if (extractAskMode != ExtractAskMode.EXTRACT) {
+                return null;
+            }
+            currentItem = itemsByIndex.get(index);
+            if (currentItem == null) {
+                return null;
+            }
+            if (currentItem.size != null) {
+                currentStream = new KnownSizeUnpackStream(currentItem.localAbsPath, currentItem.size);
+            } else {
+                currentStream = new UnknownSizeUnpackStream(currentItem.localAbsPath, diskSpace);
+            }
+            return currentStream;
+        }
+
+        @Override
+        public void prepareOperation(ExtractAskMode extractAskMode) throws SevenZipException {
+        }
+
+        @Override
+        public void setOperationResult(ExtractOperationResult extractOperationResult) throws SevenZipException {
+            if (currentItem != null && extractOperationResult != ExtractOperationResult.OK) {
+                //could be something unexpected with this file, it is retried on its own afterwards
+                logger.log(Level.WARNING, "Could not extract file from archive: {0}, result: {1}", new Object[]{currentItem.localAbsPath, extractOperationResult}); //NON-NLS
+                abandonCurrentItem();
+            } else {
+                finishCurrentItem();
+            }
+        }
+
+        @Override
+        public void setTotal(long total) throws SevenZipException {
+        }
+
+        @Override
+        public void setCompleted(long completeValue) throws SevenZipException {
+        }
+
+        private void finishCurrentItem() {
+            if (currentItem != null) {
+                currentItem.finish(currentStream.getSize());
+                currentStream.close();
+                currentItem = null;
+                currentStream = null;
+                //update units for progress bar
+                progress.progress(processedItems.incrementAndGet());
+            }
+        }
+
+        /**
+         * close the local file of an item that was not extracted completely,
+         * leaving the item to be extracted on its own
+         */
+        void abandonCurrentItem() {
+            if (currentItem != null) {
+                currentStream.close();
+                currentItem = null;
+                currentStream = null;
+            }
+        }
+    }
+
+    /**
+     * The disk space that is left for unpacking an archive, shared by the
+     * threads extracting it. Space for items of known size is reserved before
+     * any are extracted, items of unknown size take space as they are written.
+     */
+    private static class DiskSpaceBudget {
+
+        private long freeDiskSpace;
+
+        DiskSpaceBudget(long freeDiskSpace) {
+            this.freeDiskSpace = freeDiskSpace;
+        }
+
+        synchronized long getFreeDiskSpace() {
+            return freeDiskSpace;
+        }
+
+        /**
+         * Reserve space for an item of known size.
+         *
+         * @param bytes The size of the item.
+         *
+         * @return False if unpacking the item would leave less than
+         *         MIN_FREE_DISK_SPACE free.
+         */
+        synchronized boolean reserve(long bytes) {
+            if (freeDiskSpace == IngestMonitor.DISK_FREE_SPACE_UNKNOWN) {
+                return true;
+            }
+            if (freeDiskSpace - bytes < MIN_FREE_DISK_SPACE) {
+                return false;
+            }
+            //update est. disk space during this archive, so we don't need to poll for every file extracted
+            freeDiskSpace -= bytes;
+            return true;
+        }
+
+        /**
+         * Take space for a block of an item of unknown size. If the content
+         * size is unknown, cautiously write to disk: write only if the block
+         * is less than 80% of the current free disk space.
+         *
+         * @param bytes The size of the block.
+         *
+         * @return False if the block should not be written.
+         */
+        synchronized boolean take(long bytes) {
+            if (freeDiskSpace == IngestMonitor.DISK_FREE_SPACE_UNKNOWN) {
+                return true;
+            }
+            if (bytes >= 0.8 * freeDiskSpace) {
+                return false;
+            }
+            freeDiskSpace -= bytes;
+            return true;
+        }
+    }
+
     /**
      * Stream used to unpack the archive to local file
      */
@@ -656,13 +1053,13 @@ public void close() {
      */
     private static class UnknownSizeUnpackStream extends UnpackStream {
 
-        private long freeDiskSpace;
+        private final DiskSpaceBudget diskSpace;
         private boolean outOfSpace = false;
         private long bytesWritten = 0;
 
-        UnknownSizeUnpackStream(String localAbsPath, long freeDiskSpace) {
+        UnknownSizeUnpackStream(String localAbsPath, DiskSpaceBudget diskSpace) {
             super(localAbsPath);
-            this.freeDiskSpace = freeDiskSpace;
+            this.diskSpace = diskSpace;
         }
 
         @Override
@@ -676,13 +1073,12 @@ public int write(byte[] bytes) throws SevenZipException {
                 // If the content size is unknown, cautiously write to disk.
                 // Write only if byte array is less than 80% of the current
                 // free disk space.
-                if (freeDiskSpace == IngestMonitor.DISK_FREE_SPACE_UNKNOWN || bytes.length < 0.8 * freeDiskSpace) {
+                if (diskSpace.take(bytes.length)) {
                     getOutput().write(bytes);
                     // NOTE: this method is called multiple times for a
-                    // single extractSlow() call. Update bytesWritten and
-                    // freeDiskSpace after every write operation.
+                    // single item. Update bytesWritten after every write
+                    // operation.
                     this.bytesWritten += bytes.length;
-                    this.freeDiskSpace -= bytes.length;
                 } else {
                     this.outOfSpace = true;
                     logger.log(Level.INFO, NbBundle.getMessage(
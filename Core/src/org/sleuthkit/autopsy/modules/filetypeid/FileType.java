@@ -30,6 +30,7 @@
 import javax.swing.JOptionPane;
 import javax.xml.bind.DatatypeConverter;
 import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.ingest.FileContentCache;
 import org.sleuthkit.datamodel.AbstractFile;
 import org.sleuthkit.datamodel.TskCoreException;
 
@@ -339,7 +340,7 @@ boolean containedIn(final AbstractFile file) {
             }
             try {
                 byte[] buffer = new byte[signatureBytes.length];
-                int bytesRead = file.read(buffer, actualOffset, signatureBytes.length);
+                int bytesRead = FileContentCache.read(file, buffer, actualOffset, signatureBytes.length);
                 return ((bytesRead == signatureBytes.length) && (Arrays.equals(buffer, signatureBytes)));
             } catch (TskCoreException ex) {
                 /**
@@ -32,6 +32,7 @@
 import org.sleuthkit.autopsy.casemodule.services.Blackboard;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.coreutils.MessageNotifyUtil;
+import org.sleuthkit.autopsy.ingest.FileContentCache;
 import org.sleuthkit.datamodel.AbstractFile;
 import org.sleuthkit.datamodel.BlackboardArtifact;
 import org.sleuthkit.datamodel.BlackboardAttribute;
@@ -271,7 +272,7 @@ private String detect(AbstractFile file, boolean addToCaseDb) throws TskCoreExce
         if (null == mimeType) {
             try {
                 byte buf[];
-                int len = file.read(buffer, 0, BUFFER_SIZE);
+                int len = FileContentCache.read(file, buffer, 0, BUFFER_SIZE);
                 if (len < BUFFER_SIZE) {
                     buf = new byte[len];
                     System.arraycopy(buffer, 0, buf, 0, len);
@@ -21,8 +21,10 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import org.openide.util.NbBundle;
@@ -31,6 +33,8 @@
 import org.sleuthkit.autopsy.casemodule.services.Blackboard;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.coreutils.MessageNotifyUtil;
+import org.sleuthkit.autopsy.ingest.FileHashCalculator;
+import org.sleuthkit.autopsy.ingest.FileHashCalculator.HashType;
 import org.sleuthkit.autopsy.ingest.FileIngestModule;
 import org.sleuthkit.autopsy.ingest.IngestMessage;
 import org.sleuthkit.autopsy.ingest.IngestModuleReferenceCounter;
@@ -53,7 +57,9 @@
     "HashDbIngestModule.noKnownBadHashDbSetMsg=No known bad hash database set.",
     "HashDbIngestModule.knownBadFileSearchWillNotExecuteWarn=Known bad file search will not be executed.",
     "HashDbIngestModule.noKnownHashDbSetMsg=No known hash database set.",
-    "HashDbIngestModule.knownFileSearchWillNotExecuteWarn=Known file search will not be executed."
+    "HashDbIngestModule.knownFileSearchWillNotExecuteWarn=Known file search will not be executed.",
+    "# {0} - fileName",
+    "HashDbIngestModule.calcAdditionalHashValuesErr=Error encountered while calculating the additional hash values for {0}."
 })
 public class HashDbIngestModule implements FileIngestModule {
 
@@ -193,9 +199,35 @@ public ProcessResult process(AbstractFile file) {
             }
         }
 
+        /*
+         * Calculate any other configured hashes together in one pass. The MD5
+         * hash is not part of this pass because HashUtility.calculateMd5() is
+         * the only way to store it in the case database. A failure here does
+         * not prevent the hash set lookups, which only need the MD5 hash.
+         */
+        ProcessResult ret = ProcessResult.OK;
+        Set<HashType> otherHashTypes = EnumSet.copyOf(FileHashCalculator.getConfiguredHashTypes());
+        otherHashTypes.remove(HashType.MD5);
+        if (!otherHashTypes.isEmpty()) {
+            try {
+                long calcstart = System.currentTimeMillis();
+                FileHashCalculator.calculateHashes(file, otherHashTypes);
+                long delta = (System.currentTimeMillis() - calcstart);
+                totals.totalCalctime.addAndGet(delta);
+            } catch (TskCoreException ex) {
+                logger.log(Level.WARNING, "Error calculating " + otherHashTypes + " hashes of file " + name + ", continuing with MD5 hash lookups", ex); //NON-NLS
+                services.postMessage(IngestMessage.createErrorMessage(
+                        HashLookupModuleFactory.getModuleName(),
+                        NbBundle.getMessage(this.getClass(),
+                                "HashDbIngestModule.fileReadErrorMsg",
+                                name),
+                        Bundle.HashDbIngestModule_calcAdditionalHashValuesErr(name)));
+                ret = ProcessResult.ERROR;
+            }
+        }
+
         // look up in known bad first
         boolean foundBad = false;
-        ProcessResult ret = ProcessResult.OK;
         for (HashDb db : knownBadHashSets) {
             try {
                 long lookupstart = System.currentTimeMillis();
@@ -0,0 +1,293 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.modules.hashdatabase;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * An in-memory Bloom filter of the MD5 hashes in a hash database, used to
+ * answer lookups of hashes that are definitely not in the database without
+ * going to the native lookup index. The filter is built from the lookup index
+ * of the database, which is either a text index file or a SQLite database, and
+ * is saved to a file next to the index so that it only has to be rebuilt when
+ * the index changes.
+ */
+final class HashDbLookupFilter {
+
+    private static final Logger logger = Logger.getLogger(HashDbLookupFilter.class.getName());
+    private static final String FILTER_FILE_EXTENSION = ".bloom"; //NON-NLS
+    private static final int FILTER_FILE_MAGIC = 0x48444246;
+    private static final int FILTER_FILE_VERSION = 1;
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final int MIN_EXPECTED_HASHES = 1000;
+    private static final int MD5_HEX_LENGTH = 32;
+    private static final int MD5_BYTE_LENGTH = 16;
+    private final BloomFilter<byte[]> filter;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Gets the lookup filter for a hash database lookup index, reading it from
+     * the saved filter file if that file is up to date, otherwise building it
+     * from the index and saving it.
+     *
+     * @param indexPath The path of the lookup index, i.e., a text index file
+     *                  or a SQLite hash database.
+     *
+     * @return The filter, or null if filters are not supported for the type of
+     *         lookup index.
+     *
+     * @throws IOException If there is an error reading the index.
+     */
+    static HashDbLookupFilter loadOrBuild(String indexPath) throws IOException {
+        File indexFile = new File(indexPath);
+        boolean isTextIndex = indexPath.toLowerCase().endsWith(".idx"); //NON-NLS
+        boolean isSQLiteDatabase = indexPath.toLowerCase().endsWith("." + HashDbManager.getHashDatabaseFileExtension()); //NON-NLS
+        if (!indexFile.isFile() || (!isTextIndex && !isSQLiteDatabase)) {
+            return null;
+        }
+
+        File filterFile = new File(indexPath + FILTER_FILE_EXTENSION);
+        BloomFilter<byte[]> filter = readFilterFile(filterFile, indexFile);
+        if (null == filter) {
+            filter = isTextIndex ? buildFromTextIndex(indexFile) : buildFromSQLiteDatabase(indexFile);
+            writeFilterFile(filterFile, indexFile, filter);
+        }
+        return new HashDbLookupFilter(filter);
+    }
+
+    private HashDbLookupFilter(BloomFilter<byte[]> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Indicates whether an MD5 hash might be in the hash database.
+     *
+     * @param md5Hash The hash as a hex string.
+     *
+     * @return False if the hash is definitely not in the database, true
+     *         otherwise.
+     */
+    boolean mightContain(String md5Hash) {
+        byte[] hash = md5HexToBytes(md5Hash);
+        if (null == hash) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return filter.mightContain(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an MD5 hash that has been added to the hash database to the filter.
+     * The saved filter file is out of date after this, and is rebuilt the next
+     * time the filter is loaded.
+     *
+     * @param md5Hash The hash as a hex string.
+     */
+    void put(String md5Hash) {
+        byte[] hash = md5HexToBytes(md5Hash);
+        if (null != hash) {
+            lock.writeLock().lock();
+            try {
+                filter.put(hash);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Builds a filter from a SleuthKit text index file, in which each line
+     * after the header line is an upper case hex MD5 hash followed by a pipe
+     * separator and the offset of the hash in the database.
+     *
+     * @param indexFile The index file.
+     *
+     * @return The filter.
+     *
+     * @throws IOException If there is an error reading the index file.
+     */
+    private static BloomFilter<byte[]> buildFromTextIndex(File indexFile) throws IOException {
+        long lineCount;
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.US_ASCII)) {
+            lineCount = reader.lines().count();
+        }
+        BloomFilter<byte[]> filter = createFilter(lineCount);
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > MD5_HEX_LENGTH && line.charAt(MD5_HEX_LENGTH) == '|') {
+                    byte[] hash = md5HexToBytes(line);
+                    if (null != hash) {
+                        filter.put(hash);
+                    }
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Builds a filter from a SleuthKit SQLite hash database, which stores the
+     * MD5 hashes as 16 byte binary values in the hashes table.
+     *
+     * @param databaseFile The database file.
+     *
+     * @return The filter.
+     *
+     * @throws IOException If there is an error reading the database.
+     */
+    private static BloomFilter<byte[]> buildFromSQLiteDatabase(File databaseFile) throws IOException {
+        try {
+            Class.forName("org.sqlite.JDBC"); //NON-NLS
+        } catch (ClassNotFoundException ex) {
+            throw new IOException("SQLite JDBC driver not available", ex); //NON-NLS
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath()); //NON-NLS
+                Statement statement = connection.createStatement()) {
+            long hashCount;
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM hashes")) { //NON-NLS
+                hashCount = resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+            BloomFilter<byte[]> filter = createFilter(hashCount);
+            try (ResultSet resultSet = statement.executeQuery("SELECT md5 FROM hashes")) { //NON-NLS
+                while (resultSet.next()) {
+                    byte[] hash = resultSet.getBytes(1);
+                    if (null != hash && hash.length == MD5_BYTE_LENGTH) {
+                        filter.put(hash);
+                    }
+                }
+            }
+            return filter;
+        } catch (SQLException ex) {
+            throw new IOException("Error reading hashes from " + databaseFile.getPath(), ex); //NON-NLS
+        }
+    }
+
+    /**
+     * Creates an empty filter sized for a given number of hashes, leaving room
+     * for hashes added to updateable databases.
+     *
+     * @param expectedHashes The number of hashes in the database.
+     *
+     * @return The filter.
+     */
+    private static BloomFilter<byte[]> createFilter(long expectedHashes) {
+        long expectedInsertions = Math.max(MIN_EXPECTED_HASHES, expectedHashes + expectedHashes / 10);
+        return BloomFilter.create(Funnels.byteArrayFunnel(), expectedInsertions, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /**
+     * Reads a saved filter file, if it exists and was built from the current
+     * version of the lookup index.
+     *
+     * @param filterFile The filter file.
+     * @param indexFile  The lookup index file.
+     *
+     * @return The filter, or null if there is no up to date filter file.
+     */
+    private static BloomFilter<byte[]> readFilterFile(File filterFile, File indexFile) {
+        if (!filterFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filterFile)))) {
+            if (in.readInt() != FILTER_FILE_MAGIC || in.readInt() != FILTER_FILE_VERSION
+                    || in.readLong() != indexFile.length() || in.readLong() != indexFile.lastModified()) {
+                return null;
+            }
+            return BloomFilter.readFrom(in, Funnels.byteArrayFunnel());
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Error reading hash database lookup filter " + filterFile.getPath(), ex); //NON-NLS
+            return null;
+        }
+    }
+
+    /**
+     * Saves a filter to a file, with a header identifying the version of the
+     * lookup index it was built from. A failure to save the filter, e.g.,
+     * because the index is in a read-only directory, is logged and otherwise
+     * ignored.
+     *
+     * @param filterFile The filter file.
+     * @param indexFile  The lookup index file.
+     * @param filter     The filter.
+     */
+    private static void writeFilterFile(File filterFile, File indexFile, BloomFilter<byte[]> filter) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filterFile)))) {
+            out.writeInt(FILTER_FILE_MAGIC);
+            out.writeInt(FILTER_FILE_VERSION);
+            out.writeLong(indexFile.length());
+            out.writeLong(indexFile.lastModified());
+            filter.writeTo(out);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Error saving hash database lookup filter " + filterFile.getPath(), ex); //NON-NLS
+            if (filterFile.exists() && !filterFile.delete()) {
+                logger.log(Level.WARNING, "Could not delete partially written hash database lookup filter {0}", filterFile.getPath()); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * Converts a hex MD5 hash, in either case, to bytes.
+     *
+     * @param hex A string that starts with the hash.
+     *
+     * @return The 16 bytes of the hash, or null if the string does not start
+     *         with a valid hex MD5 hash.
+     */
+    private static byte[] md5HexToBytes(String hex) {
+        if (null == hex || hex.length() < MD5_HEX_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[MD5_BYTE_LENGTH];
+        for (int i = 0; i < MD5_BYTE_LENGTH; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
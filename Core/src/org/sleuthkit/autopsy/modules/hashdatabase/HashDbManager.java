@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.autopsy.modules.hashdatabase;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -29,7 +30,11 @@
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
+import javax.annotation.concurrent.GuardedBy;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.SwingWorker;
@@ -39,6 +44,7 @@
 import org.openide.util.NbBundle;
 import org.openide.util.NbBundle.Messages;
 import org.sleuthkit.autopsy.core.RuntimeProperties;
+import org.sleuthkit.autopsy.core.UserPreferences;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.coreutils.MessageNotifyUtil;
 import org.sleuthkit.autopsy.ingest.IngestManager;
@@ -65,6 +71,12 @@ public class HashDbManager implements PropertyChangeListener {
     PropertyChangeSupport changeSupport = new PropertyChangeSupport(HashDbManager.class);
     private static final Logger logger = Logger.getLogger(HashDbManager.class.getName());
     private boolean allDatabasesLoadedCorrectly = false;
+    private static final boolean useLookupFilters = UserPreferences.useHashDbLookupFilters();
+    private static final ExecutorService lookupFilterLoader = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("hash-db-lookup-filter-%d").setDaemon(true).build()); //NON-NLS
+    private static final AtomicLong lookupFilterMisses = new AtomicLong(0L);
+    private static final AtomicLong lookupFilterHits = new AtomicLong(0L);
+    private static final AtomicLong lookupFilterFalsePositives = new AtomicLong(0L);
 
     /**
      * Property change event support In events: For both of these enums, the old
@@ -104,6 +116,94 @@ private HashDbManager() {
         loadHashsetsConfiguration();
     }
 
+    /**
+     * Gets the number of hash lookups that were answered as misses by the
+     * in-memory lookup filters without going to the hash databases.
+     *
+     * @return The count.
+     */
+    public static long getLookupFilterMissCount() {
+        return lookupFilterMisses.get();
+    }
+
+    /**
+     * Gets the number of hash lookups that passed the in-memory lookup filters
+     * and were found in the hash databases.
+     *
+     * @return The count.
+     */
+    public static long getLookupFilterHitCount() {
+        return lookupFilterHits.get();
+    }
+
+    /**
+     * Gets the number of hash lookups that passed the in-memory lookup filters
+     * but were not found in the hash databases.
+     *
+     * @return The count.
+     */
+    public static long getLookupFilterFalsePositiveCount() {
+        return lookupFilterFalsePositives.get();
+    }
+
+    /**
+     * Indicates whether in-memory lookup filters are used for the hash
+     * databases.
+     *
+     * @return True or false.
+     */
+    public static boolean isUsingLookupFilters() {
+        return useLookupFilters;
+    }
+
+    /**
+     * Loads or builds the in-memory lookup filter for a hash database in the
+     * background. Until the filter is ready, lookups go to the database.
+     *
+     * @param hashDb The hash database.
+     */
+    private static void loadLookupFilter(HashDb hashDb) {
+        if (!useLookupFilters) {
+            return;
+        }
+        int modificationCount;
+        synchronized (hashDb.lookupFilterLock) {
+            hashDb.lookupFilter = null;
+            modificationCount = hashDb.modificationCount;
+        }
+        lookupFilterLoader.submit(() -> {
+            try {
+                String indexPath = hashDb.getIndexPath();
+                if (indexPath.equals("None")) { //NON-NLS
+                    indexPath = hashDb.getDatabasePath();
+                }
+                HashDbLookupFilter filter = HashDbLookupFilter.loadOrBuild(indexPath);
+                /*
+                 * The check and the publication of the filter are done
+                 * holding the same lock as additions of hashes, so that every
+                 * hash added is either in the database before the filter was
+                 * built, or put in the published filter.
+                 */
+                boolean published = false;
+                synchronized (hashDb.lookupFilterLock) {
+                    if (hashDb.modificationCount == modificationCount) {
+                        hashDb.lookupFilter = filter;
+                        published = true;
+                    }
+                }
+                if (!published) {
+                    /*
+                     * Hashes were added while the filter was being built, so
+                     * it may be missing some of them.
+                     */
+                    loadLookupFilter(hashDb);
+                }
+            } catch (TskCoreException | IOException ex) {
+                logger.log(Level.WARNING, "Error loading lookup filter for " + hashDb.getHashSetName() + " hash database", ex); //NON-NLS
+            }
+        });
+    }
+
     /**
      * Gets the extension, without the dot separator, that the SleuthKit
      * requires for the hash database files that combine a database and an index
@@ -256,6 +356,7 @@ private HashDb addHashDatabase(int handle, String hashSetName, boolean searchDur
         } else {
             knownBadHashSets.add(hashDb);
         }
+        loadLookupFilter(hashDb);
 
         // Let any external listeners know that there's a new set   
         try {
@@ -589,6 +690,10 @@ public enum Event {
         private boolean sendIngestMessages;
         private final KnownFilesType knownFilesType;
         private boolean indexing;
+        private final Object lookupFilterLock = new Object();
+        private volatile HashDbLookupFilter lookupFilter;
+        @GuardedBy("lookupFilterLock")
+        private int modificationCount;
         private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
         private HashDb(int handle, String hashSetName, boolean useForIngest, boolean sendHitMessages, KnownFilesType knownFilesType) {
@@ -689,7 +794,14 @@ public void addHashes(Content content, String comment) throws TskCoreException {
             if (content instanceof AbstractFile) {
                 AbstractFile file = (AbstractFile) content;
                 if (null != file.getMd5Hash()) {
-                    SleuthkitJNI.addToHashDatabase(null, file.getMd5Hash(), null, null, comment, handle);
+                    synchronized (lookupFilterLock) {
+                        ++modificationCount;
+                        HashDbLookupFilter filter = lookupFilter;
+                        if (null != filter) {
+                            filter.put(file.getMd5Hash());
+                        }
+                        SleuthkitJNI.addToHashDatabase(null, file.getMd5Hash(), null, null, comment, handle);
+                    }
                 }
             }
         }
@@ -702,7 +814,16 @@ public void addHashes(Content content, String comment) throws TskCoreException {
          * @throws TskCoreException
          */
         public void addHashes(List<HashEntry> hashes) throws TskCoreException {
-            SleuthkitJNI.addToHashDatabase(hashes, handle);
+            synchronized (lookupFilterLock) {
+                ++modificationCount;
+                HashDbLookupFilter filter = lookupFilter;
+                if (null != filter) {
+                    for (HashEntry hash : hashes) {
+                        filter.put(hash.getMd5Hash());
+                    }
+                }
+                SleuthkitJNI.addToHashDatabase(hashes, handle);
+            }
         }
 
         /**
@@ -719,8 +840,9 @@ public boolean lookupMD5Quick(Content content) throws TskCoreException {
             assert content instanceof AbstractFile;
             if (content instanceof AbstractFile) {
                 AbstractFile file = (AbstractFile) content;
-                if (null != file.getMd5Hash()) {
+                if (null != file.getMd5Hash() && mightContain(file.getMd5Hash())) {
                     result = SleuthkitJNI.lookupInHashDatabase(file.getMd5Hash(), handle);
+                    recordFilteredLookup(result);
                 }
             }
             return result;
@@ -741,13 +863,47 @@ public HashHitInfo lookupMD5(Content content) throws TskCoreException {
             assert content instanceof AbstractFile;
             if (content instanceof AbstractFile) {
                 AbstractFile file = (AbstractFile) content;
-                if (null != file.getMd5Hash()) {
+                if (null != file.getMd5Hash() && mightContain(file.getMd5Hash())) {
                     result = SleuthkitJNI.lookupInHashDatabaseVerbose(file.getMd5Hash(), handle);
+                    recordFilteredLookup(null != result);
                 }
             }
             return result;
         }
 
+        /**
+         * Checks the in-memory lookup filter, if it is loaded, for a hash.
+         *
+         * @param md5Hash The hash.
+         *
+         * @return False if the hash is definitely not in the database, true
+         *         otherwise.
+         */
+        private boolean mightContain(String md5Hash) {
+            HashDbLookupFilter filter = lookupFilter;
+            if (null != filter && !filter.mightContain(md5Hash)) {
+                lookupFilterMisses.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Updates the lookup filter statistics with the result of a lookup
+         * that passed the filter.
+         *
+         * @param found Whether the hash was found in the database.
+         */
+        private void recordFilteredLookup(boolean found) {
+            if (null != lookupFilter) {
+                if (found) {
+                    lookupFilterHits.incrementAndGet();
+                } else {
+                    lookupFilterFalsePositives.incrementAndGet();
+                }
+            }
+        }
+
         boolean hasIndex() throws TskCoreException {
             return SleuthkitJNI.hashDatabaseHasLookupIndex(handle);
         }
@@ -842,6 +998,7 @@ protected Object doInBackground() {
         protected void done() {
             hashDb.indexing = false;
             progress.finish();
+            loadLookupFilter(hashDb);
 
             // see if we got any errors
             try {
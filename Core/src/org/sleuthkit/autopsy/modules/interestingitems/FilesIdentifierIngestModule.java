@@ -54,7 +54,7 @@ final class FilesIdentifierIngestModule implements FileIngestModule {
     private static final Object sharedResourcesLock = new Object();
     private static final Logger logger = Logger.getLogger(FilesIdentifierIngestModule.class.getName());
     private static final IngestModuleReferenceCounter refCounter = new IngestModuleReferenceCounter();
-    private static final Map<Long, List<FilesSet>> interestingFileSetsByJob = new ConcurrentHashMap<>();
+    private static final Map<Long, FilesSetsMatcher> interestingFileSetsByJob = new ConcurrentHashMap<>();
     private final FilesIdentifierIngestJobSettings settings;
     private final IngestServices services = IngestServices.getInstance();
     private IngestJobContext context;
@@ -83,6 +83,8 @@ public void startUp(IngestJobContext context) throws IngestModuleException {
                 // for the job. Note that getting this snapshot atomically via a 
                 // synchronized definitions manager method eliminates the need 
                 // to disable the interesting files set definition UI during ingest.
+                // The enabled sets are compiled into one matcher, so each file
+                // is tested against all of them in one pass.
                 List<FilesSet> filesSets = new ArrayList<>();
                 try {
                     for (FilesSet set : FilesSetsManager.getInstance().getInterestingFilesSets().values()) {
@@ -93,7 +95,7 @@ public void startUp(IngestJobContext context) throws IngestModuleException {
                 } catch (FilesSetsManager.FilesSetsManagerException ex) {
                     throw new IngestModuleException(Bundle.FilesIdentifierIngestModule_getFilesError(), ex);
                 }
-                FilesIdentifierIngestModule.interestingFileSetsByJob.put(context.getJobId(), filesSets);
+                FilesIdentifierIngestModule.interestingFileSetsByJob.put(context.getJobId(), new FilesSetsMatcher(filesSets));
             }
         }
     }
@@ -112,9 +114,10 @@ public ProcessResult process(AbstractFile file) {
         }
 
         // See if the file belongs to any defined interesting files set.
-        List<FilesSet> filesSets = FilesIdentifierIngestModule.interestingFileSetsByJob.get(this.context.getJobId());
-        for (FilesSet filesSet : filesSets) {
-            String ruleSatisfied = filesSet.fileIsMemberOf(file);
+        FilesSetsMatcher filesSetsMatcher = FilesIdentifierIngestModule.interestingFileSetsByJob.get(this.context.getJobId());
+        for (Map.Entry<FilesSet, String> match : filesSetsMatcher.getMatches(file).entrySet()) {
+            FilesSet filesSet = match.getKey();
+            String ruleSatisfied = match.getValue();
             if (ruleSatisfied != null) {
                 try {
                     // Post an interesting files set hit artifact to the 
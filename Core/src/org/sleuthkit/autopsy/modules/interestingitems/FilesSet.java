@@ -20,6 +20,8 @@
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +46,7 @@ public final class FilesSet implements Serializable {
     private final boolean ignoreKnownFiles;
     private final boolean ignoreUnallocatedSpace;
     private final Map<String, Rule> rules = new HashMap<>();
+    private transient volatile FilesSetsMatcher matcher; // compiled on first use
 
     /**
      * Constructs an interesting files set.
@@ -120,6 +123,16 @@ Map<String, Rule> getRules() {
         return new HashMap<>(this.rules);
     }
 
+    /**
+     * Gets the set membership rules of this interesting files set, in the
+     * order they are tested for set membership.
+     *
+     * @return The rules, possibly empty.
+     */
+    Collection<Rule> getRulesInOrder() {
+        return Collections.unmodifiableCollection(this.rules.values());
+    }
+
     /**
      * Determines whether a file is a member of this interesting files set.
      *
@@ -129,23 +142,14 @@ Map<String, Rule> getRules() {
      *         will be null if the file does not belong to the set.
      */
     public String fileIsMemberOf(AbstractFile file) {
-        if ((this.ignoreKnownFiles) && (file.getKnown() == TskData.FileKnown.KNOWN)) {
-            return null;
-        }
-
-        if ((this.ignoreUnallocatedSpace)
-                && (file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNALLOC_BLOCKS)
-                || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.SLACK)
-                || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNUSED_BLOCKS))) {
-            return null;
-        }
-
-        for (Rule rule : rules.values()) {
-            if (rule.isSatisfied(file)) {
-                return rule.getName();
-            }
+        FilesSetsMatcher setMatcher = this.matcher;
+        if (setMatcher == null) {
+            // the set is immutable, so compiling it more than once in a race
+            // is harmless
+            setMatcher = new FilesSetsMatcher(Collections.singletonList(this));
+            this.matcher = setMatcher;
         }
-        return null;
+        return setMatcher.getMatches(file).get(this);
     }
 
     @Override
@@ -0,0 +1,553 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.modules.interestingitems;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.ExtensionCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.FileNameCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.FileSizeCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.MetaTypeCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.MimeTypeCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.ParentPathCondition;
+import org.sleuthkit.autopsy.modules.interestingitems.FilesSet.Rule.TextCondition;
+import org.sleuthkit.datamodel.AbstractFile;
+import org.sleuthkit.datamodel.TskData;
+
+/**
+ * The rules of a group of interesting files sets, compiled so that a file can
+ * be tested against all of them in one pass, rather than rule by rule and
+ * condition by condition.
+ *
+ * Each rule is indexed by its most selective condition that can be looked up:
+ * exact file names, extensions and MIME types are looked up in hash maps, and
+ * all the path substrings are found with a single Aho-Corasick automaton. Only
+ * the rules found that way, and the rules with no such condition, are then
+ * checked, and a regular expression shared by several rules is run at most
+ * once per file.
+ *
+ * The result for each set is the same as FilesSet.fileIsMemberOf(): the first
+ * satisfied rule, in the order of the set's rules. A matcher is immutable, so
+ * it may be safely published to multiple threads.
+ */
+final class FilesSetsMatcher {
+
+    private static final int[] NO_RULES = new int[0];
+
+    private final List<FilesSet> sets;
+    private final boolean[] setIgnoresKnownFiles;
+    private final boolean[] setIgnoresUnallocatedSpace;
+    private final CompiledRule[] rules;
+    /*
+     * The indexes, from a lookup key to the rules indexed by it, as ascending
+     * rule numbers.
+     */
+    private final Map<String, int[]> rulesByName;
+    private final Map<String, int[]> rulesByExtension;
+    private final Map<String, int[]> rulesByMimeType;
+    private final int[][] rulesByPathSubstring;
+    private final int[] unindexedRules;
+    private final SubstringAutomaton pathAutomaton;
+    /*
+     * One condition for each distinct regular expression, and what it is
+     * matched against.
+     */
+    private final TextCondition[] regexConditions;
+
+    /**
+     * Compiles the rules of interesting files sets.
+     *
+     * @param filesSets The sets, in the order their matches are to be
+     *                  returned.
+     */
+    FilesSetsMatcher(Collection<FilesSet> filesSets) {
+        this.sets = new ArrayList<>(filesSets);
+        this.setIgnoresKnownFiles = new boolean[sets.size()];
+        this.setIgnoresUnallocatedSpace = new boolean[sets.size()];
+
+        Map<String, List<Integer>> nameIndex = new HashMap<>();
+        Map<String, List<Integer>> extensionIndex = new HashMap<>();
+        Map<String, List<Integer>> mimeTypeIndex = new HashMap<>();
+        Map<String, Integer> pathSubstringIDs = new LinkedHashMap<>();
+        List<List<Integer>> pathSubstringIndex = new ArrayList<>();
+        List<Integer> unindexed = new ArrayList<>();
+        Map<String, Integer> regexIDs = new HashMap<>();
+        List<TextCondition> regexes = new ArrayList<>();
+        List<CompiledRule> compiledRules = new ArrayList<>();
+
+        for (int setIndex = 0; setIndex < sets.size(); setIndex++) {
+            FilesSet set = sets.get(setIndex);
+            setIgnoresKnownFiles[setIndex] = set.ignoresKnownFiles();
+            setIgnoresUnallocatedSpace[setIndex] = set.ingoresUnallocatedSpace();
+            for (Rule rule : set.getRulesInOrder()) {
+                final int ruleNumber = compiledRules.size();
+                CompiledRule compiled = new CompiledRule(setIndex, rule);
+                compiledRules.add(compiled);
+
+                FileNameCondition nameCondition = rule.getFileNameCondition();
+                if (nameCondition != null) {
+                    if (nameCondition.isRegex()) {
+                        compiled.nameRegexID = getRegexID(nameCondition, regexIDs, regexes);
+                    } else {
+                        compiled.nameKey = caseInsensitiveKey(nameCondition.getTextToMatch());
+                    }
+                }
+                ParentPathCondition pathCondition = rule.getPathCondition();
+                if (pathCondition != null) {
+                    if (pathCondition.isRegex()) {
+                        compiled.pathRegexID = getRegexID(pathCondition, regexIDs, regexes);
+                    } else {
+                        String substring = pathCondition.getTextToMatch();
+                        Integer substringID = pathSubstringIDs.get(substring);
+                        if (substringID == null) {
+                            substringID = pathSubstringIDs.size();
+                            pathSubstringIDs.put(substring, substringID);
+                            pathSubstringIndex.add(new ArrayList<>());
+                        }
+                        compiled.pathSubstringID = substringID;
+                    }
+                }
+
+                // index the rule by its most selective condition
+                if (compiled.nameKey != null && compiled.isExtension == false) {
+                    nameIndex.computeIfAbsent(compiled.nameKey, key -> new ArrayList<>()).add(ruleNumber);
+                } else if (compiled.nameKey != null) {
+                    extensionIndex.computeIfAbsent(compiled.nameKey, key -> new ArrayList<>()).add(ruleNumber);
+                } else if (compiled.pathSubstringID >= 0) {
+                    pathSubstringIndex.get(compiled.pathSubstringID).add(ruleNumber);
+                } else if (compiled.mimeType != null) {
+                    mimeTypeIndex.computeIfAbsent(compiled.mimeType, key -> new ArrayList<>()).add(ruleNumber);
+                } else {
+                    unindexed.add(ruleNumber);
+                }
+            }
+        }
+
+        this.rules = compiledRules.toArray(new CompiledRule[compiledRules.size()]);
+        this.rulesByName = toArrays(nameIndex);
+        this.rulesByExtension = toArrays(extensionIndex);
+        this.rulesByMimeType = toArrays(mimeTypeIndex);
+        this.rulesByPathSubstring = new int[pathSubstringIndex.size()][];
+        for (int i = 0; i < rulesByPathSubstring.length; i++) {
+            rulesByPathSubstring[i] = toArray(pathSubstringIndex.get(i));
+        }
+        this.unindexedRules = toArray(unindexed);
+        this.pathAutomaton = new SubstringAutomaton(new ArrayList<>(pathSubstringIDs.keySet()));
+        this.regexConditions = regexes.toArray(new TextCondition[regexes.size()]);
+    }
+
+    /**
+     * Finds the interesting files sets a file is a member of.
+     *
+     * @param file A file to test for set membership.
+     *
+     * @return A map of the sets the file is a member of, in the order the sets
+     *         were given, to the name of the first set membership rule
+     *         satisfied by the file. Empty if the file belongs to no set.
+     */
+    Map<FilesSet, String> getMatches(AbstractFile file) {
+        if (rules.length == 0) {
+            return Collections.emptyMap();
+        }
+        FileState state = new FileState(file);
+
+        // gather the rules that may be satisfied from the indexes, in order
+        int[] candidates = NO_RULES;
+        if (rulesByName.isEmpty() == false) {
+            candidates = merge(candidates, rulesByName.getOrDefault(state.nameKey(), NO_RULES));
+        }
+        if (rulesByExtension.isEmpty() == false) {
+            candidates = merge(candidates, rulesByExtension.getOrDefault(state.extensionKey(), NO_RULES));
+        }
+        if (rulesByPathSubstring.length > 0) {
+            BitSet substrings = state.pathSubstrings();
+            for (int id = substrings.nextSetBit(0); id >= 0; id = substrings.nextSetBit(id + 1)) {
+                candidates = merge(candidates, rulesByPathSubstring[id]);
+            }
+        }
+        if (rulesByMimeType.isEmpty() == false && file.getMIMEType() != null) {
+            candidates = merge(candidates, rulesByMimeType.getOrDefault(file.getMIMEType(), NO_RULES));
+        }
+        candidates = merge(candidates, unindexedRules);
+
+        // the first satisfied rule of each set wins
+        String[] ruleSatisfied = new String[sets.size()];
+        boolean[] setDone = new boolean[sets.size()];
+        for (int ruleNumber : candidates) {
+            CompiledRule rule = rules[ruleNumber];
+            if (setDone[rule.setIndex] || state.setApplies(rule.setIndex) == false) {
+                continue;
+            }
+            if (rule.isSatisfied(state)) {
+                setDone[rule.setIndex] = true;
+                ruleSatisfied[rule.setIndex] = rule.name;
+            }
+        }
+
+        Map<FilesSet, String> matches = new LinkedHashMap<>();
+        for (int setIndex = 0; setIndex < setDone.length; setIndex++) {
+            if (setDone[setIndex]) {
+                matches.put(sets.get(setIndex), ruleSatisfied[setIndex]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets a key for the case-insensitive lookup of a string. Two strings
+     * have the same key if, and only if, String.equalsIgnoreCase() is true for
+     * them.
+     *
+     * @param text The string.
+     *
+     * @return The key.
+     */
+    private static String caseInsensitiveKey(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static int getRegexID(TextCondition condition, Map<String, Integer> regexIDs, List<TextCondition> regexes) {
+        // the rule regexes are all compiled without flags, so the pattern
+        // string and what it is matched against identify the regex
+        String key = condition.getClass().getSimpleName() + ":" + condition.getTextToMatch(); //NON-NLS
+        Integer id = regexIDs.get(key);
+        if (id == null) {
+            id = regexes.size();
+            regexIDs.put(key, id);
+            regexes.add(condition);
+        }
+        return id;
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> index) {
+        Map<String, int[]> arrays = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            arrays.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return arrays;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Merges two ascending arrays of distinct rule numbers. Each rule is in
+     * exactly one index, so the arrays have no rule numbers in common.
+     */
+    private static int[] merge(int[] first, int[] second) {
+        if (second.length == 0) {
+            return first;
+        }
+        if (first.length == 0) {
+            return second;
+        }
+        int[] merged = new int[first.length + second.length];
+        int i = 0, j = 0, k = 0;
+        while (i < first.length && j < second.length) {
+            merged[k++] = first[i] < second[j] ? first[i++] : second[j++];
+        }
+        while (i < first.length) {
+            merged[k++] = first[i++];
+        }
+        while (j < second.length) {
+            merged[k++] = second[j++];
+        }
+        return merged;
+    }
+
+    /**
+     * A set membership rule, with its text conditions replaced by lookup keys
+     * and references to the shared substrings and regular expressions.
+     */
+    private static final class CompiledRule {
+
+        private final int setIndex;
+        private final String name;
+        private final MetaTypeCondition metaTypeCondition;
+        private final FileSizeCondition fileSizeCondition;
+        private final String mimeType;
+        private final boolean isExtension;
+        private String nameKey; // exact name or extension, null if none or a regex
+        private int nameRegexID = -1;
+        private int pathSubstringID = -1;
+        private int pathRegexID = -1;
+
+        CompiledRule(int setIndex, Rule rule) {
+            this.setIndex = setIndex;
+            this.name = rule.getName();
+            this.metaTypeCondition = rule.getMetaTypeCondition();
+            this.fileSizeCondition = rule.getFileSizeCondition();
+            MimeTypeCondition mimeTypeCondition = rule.getMimeTypeCondition();
+            this.mimeType = mimeTypeCondition != null ? mimeTypeCondition.getMimeType() : null;
+            this.isExtension = rule.getFileNameCondition() instanceof ExtensionCondition;
+        }
+
+        boolean isSatisfied(FileState state) {
+            // the cheapest conditions first, as in Rule.isSatisfied()
+            if (metaTypeCondition.passes(state.file) == false) {
+                return false;
+            }
+            if (fileSizeCondition != null && fileSizeCondition.passes(state.file) == false) {
+                return false;
+            }
+            if (nameKey != null && nameKey.equals(isExtension ? state.extensionKey() : state.nameKey()) == false) {
+                return false;
+            }
+            if (mimeType != null && mimeType.equals(state.file.getMIMEType()) == false) {
+                return false;
+            }
+            if (pathSubstringID >= 0 && state.pathSubstrings().get(pathSubstringID) == false) {
+                return false;
+            }
+            if (nameRegexID >= 0 && state.regexMatches(nameRegexID) == false) {
+                return false;
+            }
+            return pathRegexID < 0 || state.regexMatches(pathRegexID);
+        }
+    }
+
+    /**
+     * What has been worked out about the file being matched, each part only
+     * when it is first needed.
+     */
+    private final class FileState {
+
+        private final AbstractFile file;
+        private String nameKey;
+        private String extensionKey;
+        private BitSet pathSubstrings;
+        private byte[] regexResults; // 0 if not run yet, 1 if matched, 2 if not
+        private Boolean isKnown;
+        private Boolean isUnallocatedSpace;
+
+        FileState(AbstractFile file) {
+            this.file = file;
+        }
+
+        String nameKey() {
+            if (nameKey == null) {
+                nameKey = caseInsensitiveKey(file.getName());
+            }
+            return nameKey;
+        }
+
+        String extensionKey() {
+            if (extensionKey == null) {
+                extensionKey = caseInsensitiveKey(file.getNameExtension());
+            }
+            return extensionKey;
+        }
+
+        BitSet pathSubstrings() {
+            if (pathSubstrings == null) {
+                pathSubstrings = pathAutomaton.find(file.getParentPath() + "/");
+            }
+            return pathSubstrings;
+        }
+
+        boolean regexMatches(int regexID) {
+            if (regexResults == null) {
+                regexResults = new byte[regexConditions.length];
+            }
+            if (regexResults[regexID] == 0) {
+                regexResults[regexID] = regexConditions[regexID].passes(file) ? (byte) 1 : (byte) 2;
+            }
+            return regexResults[regexID] == 1;
+        }
+
+        boolean setApplies(int setIndex) {
+            if (setIgnoresKnownFiles[setIndex]) {
+                if (isKnown == null) {
+                    isKnown = file.getKnown() == TskData.FileKnown.KNOWN;
+                }
+                if (isKnown) {
+                    return false;
+                }
+            }
+            if (setIgnoresUnallocatedSpace[setIndex]) {
+                if (isUnallocatedSpace == null) {
+                    isUnallocatedSpace = file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNALLOC_BLOCKS)
+                            || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.SLACK)
+                            || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNUSED_BLOCKS);
+                }
+                if (isUnallocatedSpace) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * An Aho-Corasick automaton that finds which of a list of substrings occur
+     * in a string, in one pass over the string. Like the case-insensitive
+     * Pattern.quote() regexes it replaces, case is ignored for US-ASCII
+     * letters only.
+     */
+    private static final class SubstringAutomaton {
+
+        private static final int ROOT = 0;
+        private final char[][] edgeChars; // sorted, for each state
+        private final int[][] edgeTargets;
+        private final int[] failures;
+        private final int[][] outputs; // the substrings found on reaching each state
+        private final int substringCount;
+
+        SubstringAutomaton(List<String> substrings) {
+            this.substringCount = substrings.size();
+
+            // build the trie
+            List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+            List<List<Integer>> trieOutputs = new ArrayList<>();
+            trie.add(new TreeMap<>());
+            trieOutputs.add(new ArrayList<>());
+            for (int id = 0; id < substrings.size(); id++) {
+                int state = ROOT;
+                for (char c : substrings.get(id).toCharArray()) {
+                    Integer next = trie.get(state).get(fold(c));
+                    if (next == null) {
+                        next = trie.size();
+                        trie.add(new TreeMap<>());
+                        trieOutputs.add(new ArrayList<>());
+                        trie.get(state).put(fold(c), next);
+                    }
+                    state = next;
+                }
+                trieOutputs.get(state).add(id);
+            }
+
+            int stateCount = trie.size();
+            edgeChars = new char[stateCount][];
+            edgeTargets = new int[stateCount][];
+            for (int state = 0; state < stateCount; state++) {
+                TreeMap<Character, Integer> edges = trie.get(state);
+                edgeChars[state] = new char[edges.size()];
+                edgeTargets[state] = new int[edges.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                    edgeChars[state][i] = edge.getKey();
+                    edgeTargets[state][i] = edge.getValue();
+                    i++;
+                }
+            }
+
+            // add the failure links breadth first, so the outputs of the
+            // state a link leads to are complete when they are added
+            failures = new int[stateCount];
+            outputs = new int[stateCount][];
+            outputs[ROOT] = toArray(trieOutputs.get(ROOT));
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int child : edgeTargets[ROOT]) {
+                failures[child] = ROOT;
+                outputs[child] = merge(toArray(trieOutputs.get(child)), outputs[ROOT]);
+                queue.add(child);
+            }
+            while (queue.isEmpty() == false) {
+                int state = queue.poll();
+                for (int i = 0; i < edgeChars[state].length; i++) {
+                    char c = edgeChars[state][i];
+                    int child = edgeTargets[state][i];
+                    int failure = failures[state];
+                    while (failure != ROOT && next(failure, c) < 0) {
+                        failure = failures[failure];
+                    }
+                    int target = next(failure, c);
+                    failures[child] = target < 0 ? ROOT : target;
+                    outputs[child] = mergeDistinct(toArray(trieOutputs.get(child)), outputs[failures[child]]);
+                    queue.add(child);
+                }
+            }
+        }
+
+        /**
+         * Finds the substrings that occur in a string.
+         *
+         * @param text The string to search.
+         *
+         * @return The IDs, i.e. the positions in the list given when the
+         *         automaton was built, of the substrings found.
+         */
+        BitSet find(String text) {
+            BitSet found = new BitSet(substringCount);
+            if (substringCount == 0) {
+                return found;
+            }
+            for (int id : outputs[ROOT]) {
+                found.set(id);
+            }
+            int state = ROOT;
+            for (int i = 0; i < text.length(); i++) {
+                char c = fold(text.charAt(i));
+                int target = next(state, c);
+                while (target < 0 && state != ROOT) {
+                    state = failures[state];
+                    target = next(state, c);
+                }
+                state = target < 0 ? ROOT : target;
+                for (int id : outputs[state]) {
+                    found.set(id);
+                }
+            }
+            return found;
+        }
+
+        private int next(int state, char c) {
+            int i = Arrays.binarySearch(edgeChars[state], c);
+            return i < 0 ? -1 : edgeTargets[state][i];
+        }
+
+        private static char fold(char c) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+
+        /**
+         * Merges two ascending arrays of substring IDs, which may have IDs in
+         * common.
+         */
+        private static int[] mergeDistinct(int[] first, int[] second) {
+            int[] merged = merge(first, second);
+            int count = 0;
+            for (int i = 0; i < merged.length; i++) {
+                if (count == 0 || merged[count - 1] != merged[i]) {
+                    merged[count++] = merged[i];
+                }
+            }
+            return count == merged.length ? merged : Arrays.copyOf(merged, count);
+        }
+    }
+}
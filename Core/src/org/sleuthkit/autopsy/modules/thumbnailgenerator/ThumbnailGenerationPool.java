@@ -0,0 +1,223 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.modules.thumbnailgenerator;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.coreutils.ModuleSettings;
+
+/**
+ * The worker threads that generate thumbnails for the thumbnail generator
+ * ingest modules, shared by all running ingest jobs.
+ *
+ * The pool is kept apart from the ingest threads and is bounded in two ways,
+ * so that thumbnail generation can not starve ingest: the number of threads
+ * is a configured share of the processors, and the number of files queued or
+ * in progress is capped. A file offered while the pool is full is skipped; its
+ * thumbnails are generated when they are first asked for, as before.
+ */
+final class ThumbnailGenerationPool {
+
+    private static final Logger logger = Logger.getLogger(ThumbnailGenerationPool.class.getName());
+    private static final String SETTINGS_MODULE = "ThumbnailGenerator"; //NON-NLS
+    private static final String CPU_SHARE_KEY = "cpuShare"; //NON-NLS
+    private static final String MAX_QUEUED_KEY = "maxQueuedFiles"; //NON-NLS
+    private static final double DEFAULT_CPU_SHARE = 0.25;
+    private static final int DEFAULT_MAX_QUEUED = 64;
+    private static final long SHUT_DOWN_TIMEOUT_SECONDS = 30;
+    private static ThumbnailGenerationPool instance; // guarded by ThumbnailGenerationPool.class
+    private static int moduleCount; // guarded by ThumbnailGenerationPool.class
+
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    private final int threadCount;
+    // metrics
+    private final AtomicLong filesSubmitted = new AtomicLong(0);
+    private final AtomicLong filesSkipped = new AtomicLong(0);
+    private final AtomicLong thumbnailsGenerated = new AtomicLong(0);
+    private final AtomicLong busyNanos = new AtomicLong(0);
+
+    /**
+     * Gets the shared pool for an ingest module instance, starting it if this
+     * is the first instance to use it. Each call must be paired with a call to
+     * release().
+     *
+     * @return The pool.
+     */
+    static synchronized ThumbnailGenerationPool acquire() {
+        if (instance == null) {
+            instance = new ThumbnailGenerationPool(getThreadCount(), getMaxQueued());
+        }
+        moduleCount++;
+        return instance;
+    }
+
+    /**
+     * Releases the shared pool for an ingest module instance. When no
+     * instances are using it, the pool finishes the queued files and stops.
+     * Files that are not finished within a time limit are dropped, their
+     * thumbnails are generated when they are first asked for. The wait is
+     * done outside of the class lock, so that a new job can start a new pool
+     * in the meantime.
+     */
+    static void release() {
+        ThumbnailGenerationPool stopped = null;
+        synchronized (ThumbnailGenerationPool.class) {
+            if (moduleCount > 0 && --moduleCount == 0 && instance != null) {
+                stopped = instance;
+                instance = null;
+            }
+        }
+        if (stopped != null) {
+            stopped.shutDown();
+        }
+    }
+
+    /**
+     * Gets the number of worker threads: the configured share of the
+     * processors, but at least one.
+     *
+     * @return The number of threads.
+     */
+    private static int getThreadCount() {
+        double cpuShare = DEFAULT_CPU_SHARE;
+        String cpuShareString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, CPU_SHARE_KEY);
+        if (cpuShareString != null && !cpuShareString.isEmpty()) {
+            try {
+                double share = Double.parseDouble(cpuShareString);
+                if (share > 0 && share <= 1) {
+                    cpuShare = share;
+                }
+            } catch (NumberFormatException ex) {
+                logger.log(Level.WARNING, "Invalid thumbnail generator CPU share: " + cpuShareString, ex); // NON-NLS
+            }
+        }
+        return Math.max(1, (int) (Runtime.getRuntime().availableProcessors() * cpuShare));
+    }
+
+    /**
+     * Gets the maximum number of files waiting for a worker thread.
+     *
+     * @return The maximum number of queued files.
+     */
+    private static int getMaxQueued() {
+        String maxQueuedString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, MAX_QUEUED_KEY);
+        if (maxQueuedString != null && !maxQueuedString.isEmpty()) {
+            try {
+                int maxQueued = Integer.parseInt(maxQueuedString);
+                if (maxQueued >= 0) {
+                    return maxQueued;
+                }
+            } catch (NumberFormatException ex) {
+                logger.log(Level.WARNING, "Invalid thumbnail generator queue size: " + maxQueuedString, ex); // NON-NLS
+            }
+        }
+        return DEFAULT_MAX_QUEUED;
+    }
+
+    private ThumbnailGenerationPool(int threadCount, int maxQueued) {
+        this.threadCount = threadCount;
+        this.slots = new Semaphore(threadCount + maxQueued);
+        this.workers = Executors.newFixedThreadPool(threadCount, new ThreadFactoryBuilder()
+                .setNameFormat("thumbnail-generator-%d") //NON-NLS
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .build());
+        logger.log(Level.INFO, "Started thumbnail generator with {0} threads and room for {1} queued files", new Object[]{threadCount, maxQueued}); //NON-NLS
+    }
+
+    /**
+     * Reserves room in the pool for a file. A reservation must be followed by
+     * a call to submit() or cancelReservation().
+     *
+     * @return True if there was room, false if the file should be skipped.
+     */
+    boolean tryReserve() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        filesSkipped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Gives back an unused reservation.
+     */
+    void cancelReservation() {
+        slots.release();
+    }
+
+    /**
+     * Runs a reserved thumbnail generation task on a worker thread.
+     *
+     * @param task A task that generates the thumbnails of a file and returns
+     *             how many it generated.
+     */
+    void submit(ThumbnailTask task) {
+        filesSubmitted.incrementAndGet();
+        workers.execute(() -> {
+            long startNanos = System.nanoTime();
+            try {
+                thumbnailsGenerated.addAndGet(task.generate());
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Unexpected error generating thumbnails", ex); //NON-NLS
+            } finally {
+                busyNanos.addAndGet(System.nanoTime() - startNanos);
+                slots.release();
+            }
+        });
+    }
+
+    private void shutDown() {
+        workers.shutdown();
+        try {
+            if (workers.awaitTermination(SHUT_DOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS) == false) {
+                int dropped = workers.shutdownNow().size();
+                logger.log(Level.WARNING, "Timed out waiting for thumbnail generator to finish, dropped {0} queued files", dropped); //NON-NLS
+            }
+        } catch (InterruptedException ex) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        long files = filesSubmitted.get();
+        logger.log(Level.INFO, "Thumbnail generator: {0} files, {1} thumbnails generated, {2} files skipped because the pool was full, {3} ms average per file on {4} threads", //NON-NLS
+                new Object[]{files, thumbnailsGenerated.get(), filesSkipped.get(),
+                    files == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(busyNanos.get() / files), threadCount});
+    }
+
+    /**
+     * The work of generating the thumbnails of one file.
+     */
+    @FunctionalInterface
+    interface ThumbnailTask {
+
+        /**
+         * Generates the thumbnails.
+         *
+         * @return The number of thumbnails generated.
+         */
+        int generate();
+    }
+}
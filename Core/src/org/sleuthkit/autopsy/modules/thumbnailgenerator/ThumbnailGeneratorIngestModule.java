@@ -0,0 +1,113 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.modules.thumbnailgenerator;
+
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.casemodule.Case;
+import org.sleuthkit.autopsy.coreutils.ImageUtils;
+import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.ingest.FileIngestModule;
+import org.sleuthkit.autopsy.ingest.IngestJobContext;
+import org.sleuthkit.datamodel.AbstractFile;
+import org.sleuthkit.datamodel.TskCoreException;
+import org.sleuthkit.datamodel.TskData;
+
+/**
+ * File ingest module that generates the thumbnails of images and videos during
+ * ingest, so they do not have to be generated when an examiner first opens a
+ * folder in the thumbnail viewer or the image gallery.
+ *
+ * Only the id of the file is queued; the reading, decoding, scaling and
+ * saving is done by the shared ThumbnailGenerationPool, so the memory held by
+ * the queue does not depend on the size of the queued files. Video frames are
+ * extracted by VideoUtils on the pool threads. The pool threads read the file
+ * through an AbstractFile of their own, since the file handle of the one
+ * passed to the module is in use by the ingest pipeline.
+ *
+ * The module is disabled by default, since it adds work to every ingest job
+ * that only pays off if the thumbnails are viewed.
+ */
+final class ThumbnailGeneratorIngestModule implements FileIngestModule {
+
+    private static final Logger logger = Logger.getLogger(ThumbnailGeneratorIngestModule.class.getName());
+
+    /**
+     * the sizes to generate, the size used by the thumbnail viewer by default
+     * first, since the per-file thumbnail cache only holds the first
+     */
+    private static final int[] ICON_SIZES = {ImageUtils.ICON_SIZE_MEDIUM, ImageUtils.ICON_SIZE_LARGE, ImageUtils.ICON_SIZE_SMALL};
+
+    private IngestJobContext context;
+    private ThumbnailGenerationPool pool;
+
+    @Override
+    public void startUp(IngestJobContext context) throws IngestModuleException {
+        this.context = context;
+        this.pool = ThumbnailGenerationPool.acquire();
+    }
+
+    @Override
+    public ProcessResult process(AbstractFile file) {
+        if (file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNALLOC_BLOCKS)
+                || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.UNUSED_BLOCKS)
+                || file.getType().equals(TskData.TSK_DB_FILES_TYPE_ENUM.SLACK)
+                || file.isFile() == false
+                || file.getSize() == 0
+                || file.getKnown().equals(TskData.FileKnown.KNOWN)) {
+            return ProcessResult.OK;
+        }
+        if (ImageUtils.thumbnailSupported(file) == false || ImageUtils.isGIF(file)) {
+            return ProcessResult.OK;
+        }
+        if (pool.tryReserve() == false) {
+            return ProcessResult.OK;
+        }
+        final long fileId = file.getId();
+        pool.submit(() -> {
+            if (context.fileIngestIsCancelled()) {
+                return 0;
+            }
+            AbstractFile poolFile;
+            try {
+                //use an AbstractFile of our own, since the file handle can't be shared between threads
+                poolFile = Case.getCurrentCase().getSleuthkitCase().getAbstractFileById(fileId);
+            } catch (TskCoreException ex) {
+                logger.log(Level.WARNING, "Error getting file with id " + fileId + " to generate thumbnails", ex); //NON-NLS
+                return 0;
+            }
+            if (poolFile == null) {
+                return 0;
+            }
+            try {
+                return ImageUtils.cacheThumbnails(poolFile, ICON_SIZES);
+            } finally {
+                poolFile.close();
+            }
+        });
+        return ProcessResult.OK;
+    }
+
+    @Override
+    public void shutDown() {
+        if (pool != null) {
+            pool = null;
+            ThumbnailGenerationPool.release();
+        }
+    }
+}
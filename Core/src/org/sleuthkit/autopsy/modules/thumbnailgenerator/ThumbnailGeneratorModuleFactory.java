@@ -0,0 +1,64 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.modules.thumbnailgenerator;
+
+import org.openide.util.NbBundle;
+import org.openide.util.lookup.ServiceProvider;
+import org.sleuthkit.autopsy.coreutils.Version;
+import org.sleuthkit.autopsy.ingest.FileIngestModule;
+import org.sleuthkit.autopsy.ingest.IngestModuleFactory;
+import org.sleuthkit.autopsy.ingest.IngestModuleFactoryAdapter;
+import org.sleuthkit.autopsy.ingest.IngestModuleIngestJobSettings;
+
+/**
+ * A factory that creates file ingest modules that generate the thumbnails of
+ * images and videos ahead of them being viewed.
+ */
+@ServiceProvider(service = IngestModuleFactory.class)
+@NbBundle.Messages({
+    "ThumbnailGeneratorModuleFactory.moduleName=Thumbnail Generator",
+    "ThumbnailGeneratorModuleFactory.moduleDescription=Generates thumbnails of images and videos during ingest, so they display quickly in the thumbnail viewer and the image gallery."
+})
+public class ThumbnailGeneratorModuleFactory extends IngestModuleFactoryAdapter {
+
+    @Override
+    public String getModuleDisplayName() {
+        return Bundle.ThumbnailGeneratorModuleFactory_moduleName();
+    }
+
+    @Override
+    public String getModuleDescription() {
+        return Bundle.ThumbnailGeneratorModuleFactory_moduleDescription();
+    }
+
+    @Override
+    public String getModuleVersionNumber() {
+        return Version.getVersion();
+    }
+
+    @Override
+    public boolean isFileIngestModuleFactory() {
+        return true;
+    }
+
+    @Override
+    public FileIngestModule createFileIngestModule(IngestModuleIngestJobSettings settings) {
+        return new ThumbnailGeneratorIngestModule();
+    }
+}
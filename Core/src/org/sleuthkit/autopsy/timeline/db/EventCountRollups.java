@@ -0,0 +1,248 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.timeline.db;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pre-aggregated event counts, so that counting the events in a time range
+ * does not have to scan the events table. The event_counts table holds the
+ * number of events per bucket of time, event type, data source, known state,
+ * hash hit and tagged flag, at two resolutions: hours and (UTC) days. A time
+ * range whose ends fall on the hour is counted by summing the day buckets that
+ * lie completely inside it and the hour buckets at either end, which works for
+ * any time zone with a whole hour offset.
+ *
+ * The counts are kept up to date by accumulating changes in an instance of
+ * this class, and applying them in the same transaction as the change to the
+ * events table. The changes made by inserting events are accumulated for the
+ * whole transaction and applied once, on commit.
+ *
+ * Not thread safe, must be used from inside a DBLock.lock/unlock pair.
+ */
+final class EventCountRollups {
+
+    private static final long HOUR_SECONDS = 3600;
+    private static final long DAY_SECONDS = 24 * HOUR_SECONDS;
+    private static final long[] BUCKET_SIZES = {HOUR_SECONDS, DAY_SECONDS};
+
+    static final String CREATE_TABLE_SQL = "CREATE TABLE if not exists event_counts " // NON-NLS
+            + " (bucket_size INTEGER NOT NULL, " // NON-NLS
+            + " bucket_start INTEGER NOT NULL, " // NON-NLS
+            + " sub_type INTEGER NOT NULL, " // NON-NLS
+            + " base_type INTEGER NOT NULL, " // NON-NLS
+            + " datasource_id INTEGER NOT NULL, " // NON-NLS
+            + " known_state INTEGER NOT NULL, " // NON-NLS
+            + " hash_hit INTEGER NOT NULL, " // NON-NLS
+            + " tagged INTEGER NOT NULL, " // NON-NLS
+            + " count INTEGER NOT NULL, " // NON-NLS
+            + " PRIMARY KEY (bucket_size, bucket_start, sub_type, base_type, datasource_id, known_state, hash_hit, tagged))"; // NON-NLS
+
+    static final String INSERT_SQL = "INSERT OR IGNORE INTO event_counts " // NON-NLS
+            + "(bucket_size, bucket_start, sub_type, base_type, datasource_id, known_state, hash_hit, tagged, count) " // NON-NLS
+            + "VALUES (?,?,?,?,?,?,?,?,0)"; // NON-NLS
+
+    static final String UPDATE_SQL = "UPDATE event_counts SET count = count + ? " // NON-NLS
+            + "WHERE bucket_size = ? AND bucket_start = ? AND sub_type = ? AND base_type = ? " // NON-NLS
+            + "AND datasource_id = ? AND known_state = ? AND hash_hit = ? AND tagged = ?"; // NON-NLS
+
+    /**
+     * get the statements that fill the event_counts table from the events
+     * table, for a database created before the table existed
+     *
+     * @return the insert statements, one per bucket size
+     */
+    static List<String> getPopulateFromEventsSQL() {
+        List<String> statements = new ArrayList<>();
+        for (long bucketSize : BUCKET_SIZES) {
+            statements.add("INSERT OR IGNORE INTO event_counts " // NON-NLS
+                    + "(bucket_size, bucket_start, sub_type, base_type, datasource_id, known_state, hash_hit, tagged, count) " // NON-NLS
+                    + "SELECT " + bucketSize + ", (time / " + bucketSize + ") * " + bucketSize + " AS bucket, sub_type, base_type, " // NON-NLS
+                    + "IFNULL(datasource_id, 0) AS ds, IFNULL(known_state, 0) AS known, IFNULL(hash_hit, 0) AS hh, IFNULL(tagged, 0) AS tg, count(*) " // NON-NLS
+                    + "FROM events WHERE sub_type IS NOT NULL AND time >= 0 " // NON-NLS
+                    + "GROUP BY bucket, sub_type, base_type, ds, known, hh, tg"); // NON-NLS
+        }
+        return statements;
+    }
+
+    /**
+     * get the part of a where clause that selects the buckets that exactly
+     * cover the given time range
+     *
+     * @param start the start of the range, in seconds since the epoch,
+     *              inclusive
+     * @param end   the end of the range, in seconds since the epoch, exclusive
+     *
+     * @return the where clause, or null if the range can not be covered by
+     *         buckets because it does not start and end on the hour
+     */
+    static String getBucketsWhere(long start, long end) {
+        if (start < 0 || start % HOUR_SECONDS != 0 || end % HOUR_SECONDS != 0 || end <= start) {
+            return null;
+        }
+        long firstDay = ((start + DAY_SECONDS - 1) / DAY_SECONDS) * DAY_SECONDS;
+        long lastDay = (end / DAY_SECONDS) * DAY_SECONDS;
+        if (firstDay >= lastDay) {
+            return bucketRangeWhere(HOUR_SECONDS, start, end);
+        }
+        List<String> ranges = new ArrayList<>();
+        if (start < firstDay) {
+            ranges.add(bucketRangeWhere(HOUR_SECONDS, start, firstDay));
+        }
+        ranges.add(bucketRangeWhere(DAY_SECONDS, firstDay, lastDay));
+        if (lastDay < end) {
+            ranges.add(bucketRangeWhere(HOUR_SECONDS, lastDay, end));
+        }
+        return "(" + String.join(" OR ", ranges) + ")"; // NON-NLS
+    }
+
+    private static String bucketRangeWhere(long bucketSize, long start, long end) {
+        return "(bucket_size = " + bucketSize + " AND bucket_start >= " + start + " AND bucket_start < " + end + ")"; // NON-NLS
+    }
+
+    private final Map<Key, Long> deltas = new HashMap<>();
+
+    /**
+     * record a change in the number of events with the given values
+     *
+     * @param time         the time of the event(s), in seconds since the epoch
+     * @param subType      the sub type of the event(s)
+     * @param baseType     the base type of the event(s)
+     * @param datasourceID the data source of the event(s)
+     * @param knownState   the known state of the event(s)
+     * @param hashHit      1 if the event(s) are hash hits, else 0
+     * @param tagged       1 if the event(s) are tagged, else 0
+     * @param delta        the change in the number of events
+     */
+    void add(long time, int subType, int baseType, long datasourceID, int knownState, int hashHit, int tagged, long delta) {
+        if (time < 0) {
+            return;
+        }
+        for (long bucketSize : BUCKET_SIZES) {
+            Key key = new Key(bucketSize, (time / bucketSize) * bucketSize, subType, baseType, datasourceID, knownState, hashHit, tagged);
+            deltas.merge(key, delta, Long::sum);
+        }
+    }
+
+    /**
+     * record all of the changes recorded in another instance
+     *
+     * @param other the other instance
+     */
+    void addAll(EventCountRollups other) {
+        other.deltas.forEach((key, delta) -> deltas.merge(key, delta, Long::sum));
+    }
+
+    /**
+     * apply the recorded changes to the event_counts table, and forget them
+     *
+     * @param insertStmt a statement prepared from INSERT_SQL
+     * @param updateStmt a statement prepared from UPDATE_SQL
+     *
+     * @throws SQLException
+     */
+    void apply(PreparedStatement insertStmt, PreparedStatement updateStmt) throws SQLException {
+        boolean hasChanges = false;
+        for (Map.Entry<Key, Long> entry : deltas.entrySet()) {
+            if (entry.getValue() == 0) {
+                continue;
+            }
+            Key key = entry.getKey();
+            key.setParameters(insertStmt, 1);
+            insertStmt.addBatch();
+            updateStmt.setLong(1, entry.getValue());
+            key.setParameters(updateStmt, 2);
+            updateStmt.addBatch();
+            hasChanges = true;
+        }
+        deltas.clear();
+        if (hasChanges) {
+            insertStmt.executeBatch();
+            updateStmt.executeBatch();
+        }
+    }
+
+    /**
+     * The values that identify one row of the event_counts table.
+     */
+    private static final class Key {
+
+        private final long bucketSize;
+        private final long bucketStart;
+        private final int subType;
+        private final int baseType;
+        private final long datasourceID;
+        private final int knownState;
+        private final int hashHit;
+        private final int tagged;
+
+        private Key(long bucketSize, long bucketStart, int subType, int baseType, long datasourceID, int knownState, int hashHit, int tagged) {
+            this.bucketSize = bucketSize;
+            this.bucketStart = bucketStart;
+            this.subType = subType;
+            this.baseType = baseType;
+            this.datasourceID = datasourceID;
+            this.knownState = knownState;
+            this.hashHit = hashHit;
+            this.tagged = tagged;
+        }
+
+        private void setParameters(PreparedStatement stmt, int firstIndex) throws SQLException {
+            int index = firstIndex;
+            stmt.setLong(index++, bucketSize);
+            stmt.setLong(index++, bucketStart);
+            stmt.setInt(index++, subType);
+            stmt.setInt(index++, baseType);
+            stmt.setLong(index++, datasourceID);
+            stmt.setInt(index++, knownState);
+            stmt.setInt(index++, hashHit);
+            stmt.setInt(index, tagged);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketSize, bucketStart, subType, baseType, datasourceID, knownState, hashHit, tagged);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return bucketSize == other.bucketSize
+                    && bucketStart == other.bucketStart
+                    && subType == other.subType
+                    && baseType == other.baseType
+                    && datasourceID == other.datasourceID
+                    && knownState == other.knownState
+                    && hashHit == other.hashHit
+                    && tagged == other.tagged;
+        }
+    }
+}
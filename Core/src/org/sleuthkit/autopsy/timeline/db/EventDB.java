@@ -26,6 +26,7 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
@@ -41,8 +42,10 @@
 import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -63,6 +66,7 @@
 import org.sleuthkit.autopsy.timeline.datamodel.eventtype.BaseTypes;
 import org.sleuthkit.autopsy.timeline.datamodel.eventtype.EventType;
 import org.sleuthkit.autopsy.timeline.datamodel.eventtype.RootEventType;
+import org.sleuthkit.autopsy.timeline.db.ReadConnectionPool.ReadConnection;
 import static org.sleuthkit.autopsy.timeline.db.SQLHelper.useHashHitTablesHelper;
 import static org.sleuthkit.autopsy.timeline.db.SQLHelper.useTagTablesHelper;
 import org.sleuthkit.autopsy.timeline.filters.RootFilter;
@@ -123,18 +127,12 @@ public static EventDB getEventDB(Case autoCase) {
 
     private final String dbPath;
 
-    private PreparedStatement getEventByIDStmt;
-    private PreparedStatement getMaxTimeStmt;
-    private PreparedStatement getMinTimeStmt;
-    private PreparedStatement getDataSourceIDsStmt;
-    private PreparedStatement getHashSetNamesStmt;
     private PreparedStatement insertRowStmt;
     private PreparedStatement insertHashSetStmt;
     private PreparedStatement insertHashHitStmt;
     private PreparedStatement insertTagStmt;
     private PreparedStatement deleteTagStmt;
     private PreparedStatement selectHashSetStmt;
-    private PreparedStatement countAllEventsStmt;
     private PreparedStatement dropEventsTableStmt;
     private PreparedStatement dropHashSetHitsTableStmt;
     private PreparedStatement dropHashSetsTableStmt;
@@ -142,14 +140,79 @@ public static EventDB getEventDB(Case autoCase) {
     private PreparedStatement dropDBInfoTableStmt;
     private PreparedStatement selectNonArtifactEventIDsByObjectIDStmt;
     private PreparedStatement selectEventIDsBYObjectAndArtifactIDStmt;
+    private PreparedStatement selectMaxEventIDStmt;
+    private PreparedStatement insertBulkRowsStmt;
+    private PreparedStatement insertEventCountStmt;
+    private PreparedStatement updateEventCountStmt;
+    private PreparedStatement dropEventCountsTableStmt;
 
     private final Set<PreparedStatement> preparedStatements = new HashSet<>();
 
-    private final Lock DBLock = new ReentrantReadWriteLock(true).writeLock(); //using exclusive lock for all db ops for now
+    /**
+     * pending changes to the event_counts table, guarded by DBLock
+     */
+    private final EventCountRollups eventCountRollups = new EventCountRollups();
+
+    /**
+     * The column lists of the indexes on the events table.
+     */
+    private static final List<List<String>> EVENTS_INDEXES = Arrays.asList(
+            Arrays.asList("datasource_id"), //NON-NLS
+            Arrays.asList("event_id", "hash_hit"), //NON-NLS
+            Arrays.asList("event_id", "tagged"), //NON-NLS
+            Arrays.asList("file_id"), //NON-NLS
+            Arrays.asList("artifact_id"), //NON-NLS
+            Arrays.asList("sub_type", "short_description", "time"), //NON-NLS
+            Arrays.asList("base_type", "short_description", "time"), //NON-NLS
+            Arrays.asList("time"), //NON-NLS
+            Arrays.asList("known_state")); //NON-NLS
+
+    /**
+     * The number of events inserted by each statement of a bulk insert. SQLite
+     * allows at most 999 parameters per statement.
+     */
+    private static final int BULK_INSERT_ROWS_PER_STATEMENT = 64;
+    private static final int BULK_INSERT_COLUMNS = 13;
+
+    /*
+     * queries that run on the read connections
+     */
+    private static final String GET_HASH_SET_NAMES_SQL = "SELECT hash_set_id, hash_set_name FROM hash_sets"; // NON-NLS
+    private static final String GET_DATASOURCE_IDS_SQL = "SELECT DISTINCT datasource_id FROM events WHERE datasource_id != 0"; // NON-NLS
+    private static final String GET_MAX_TIME_SQL = "SELECT Max(time) AS max FROM events"; // NON-NLS
+    private static final String GET_MIN_TIME_SQL = "SELECT Min(time) AS min FROM events"; // NON-NLS
+    private static final String GET_EVENT_BY_ID_SQL = "SELECT * FROM events WHERE event_id =  ?"; // NON-NLS
+    /*
+     * This SQL query is really just a select count(*), but that has
+     * performance problems on very large tables unless you include a where
+     * clause see http://stackoverflow.com/a/9338276/4004683 for more.
+     */
+    private static final String COUNT_ALL_EVENTS_SQL = "SELECT count(event_id) AS count FROM events WHERE event_id IS NOT null"; //NON-NLS
+
+    /**
+     * The number of read only connections used for queries when the db is in
+     * WAL mode.
+     */
+    private static final int READ_CONNECTIONS = 3;
+
+    private final LatencyStats readStats = new LatencyStats("Timeline db reads"); //NON-NLS
+    private final LatencyStats writeStats = new LatencyStats("Timeline db writes"); //NON-NLS
+
+    /**
+     * guards the write connection, there is a single writer at a time. Reads
+     * use the connections of the readPool, and only take this lock if the db
+     * could not be put in WAL mode.
+     */
+    private final Lock DBLock = new TimedLock(writeStats);
+    private final boolean useWAL;
+    private volatile boolean walEnabled = false;
+    private volatile ReadConnectionPool readPool;
 
     private EventDB(Case autoCase) throws SQLException, Exception {
         //should this go into module output (or even cache, we should be able to rebuild it)?
         this.dbPath = Paths.get(autoCase.getCaseDirectory(), "events.db").toString(); //NON-NLS
+        //WAL needs shared memory, which does not work for a db on a network share
+        this.useWAL = autoCase.getCaseType() == Case.CaseType.SINGLE_USER_CASE;
         initializeDB();
     }
 
@@ -163,6 +226,10 @@ public void finalize() throws Throwable {
     }
 
     void closeDBCon() {
+        if (readPool != null) {
+            // the closed pool is kept, so that reads fail with an SQLException instead of an NPE
+            readPool.close();
+        }
         if (con != null) {
             try {
                 closeStatements();
@@ -175,16 +242,14 @@ void closeDBCon() {
     }
 
     public Interval getSpanningInterval(Collection<Long> eventIDs) {
-        DBLock.lock();
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery("SELECT Min(time), Max(time) FROM events WHERE event_id IN (" + StringUtils.join(eventIDs, ", ") + ")");) { // NON-NLS
             while (rs.next()) {
                 return new Interval(rs.getLong("Min(time)") * 1000, (rs.getLong("Max(time)") + 1) * 1000, DateTimeZone.UTC); // NON-NLS
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Error executing get spanning interval query.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return null;
     }
@@ -205,15 +270,13 @@ void commitTransaction(EventTransaction tr) {
      *         error.
      */
     int countAllEvents() {
-        DBLock.lock();
-        try (ResultSet rs = countAllEventsStmt.executeQuery()) { // NON-NLS
+        try (ReadConnection reader = readPool.acquire();
+                ResultSet rs = reader.prepareStatement(COUNT_ALL_EVENTS_SQL).executeQuery()) { // NON-NLS
             while (rs.next()) {
                 return rs.getInt("count"); // NON-NLS
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Error counting all events", ex); //NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return -1;
     }
@@ -247,8 +310,8 @@ Map<EventType, Long> countEventsByType(ZoomParams params) {
      */
     Map<String, Long> getTagCountsByTagName(Set<Long> eventIDsWithTags) {
         HashMap<String, Long> counts = new HashMap<>();
-        DBLock.lock();
-        try (Statement createStatement = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement createStatement = reader.createStatement();
                 ResultSet rs = createStatement.executeQuery("SELECT tag_name_display_name, COUNT(DISTINCT tag_id) AS count FROM tags" //NON-NLS
                         + " WHERE event_id IN (" + StringUtils.join(eventIDsWithTags, ", ") + ")" //NON-NLS
                         + " GROUP BY tag_name_id" //NON-NLS
@@ -258,8 +321,6 @@ Map<String, Long> getTagCountsByTagName(Set<Long> eventIDsWithTags) {
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get tag counts by tag name.", ex); //NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return counts;
     }
@@ -276,6 +337,7 @@ void reInitializeDB() {
             dropHashSetsTableStmt.executeUpdate();
             dropTagsTableStmt.executeUpdate();
             dropDBInfoTableStmt.executeUpdate();
+            dropEventCountsTableStmt.executeUpdate();
             initializeDB();
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "could not drop old tables", ex); // NON-NLS
@@ -304,8 +366,8 @@ Interval getBoundingEventsInterval(Interval timeRange, RootFilter filter) {
         long start = timeRange.getStartMillis() / 1000;
         long end = timeRange.getEndMillis() / 1000;
         final String sqlWhere = SQLHelper.getSQLWhere(filter);
-        DBLock.lock();
-        try (Statement stmt = con.createStatement(); //can't use prepared statement because of complex where clause
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement(); //can't use prepared statement because of complex where clause
                 ResultSet rs = stmt.executeQuery(" SELECT (SELECT Max(time) FROM events " + useHashHitTablesHelper(filter) + useTagTablesHelper(filter) + " WHERE time <=" + start + " AND " + sqlWhere + ") AS start," //NON-NLS
                         + "(SELECT Min(time)  FROM events" + useHashHitTablesHelper(filter) + useTagTablesHelper(filter) + " WHERE time >= " + end + " AND " + sqlWhere + ") AS end")) { // NON-NLS
             while (rs.next()) {
@@ -320,16 +382,14 @@ Interval getBoundingEventsInterval(Interval timeRange, RootFilter filter) {
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get MIN time.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return null;
     }
 
     SingleEvent getEventById(Long eventID) {
         SingleEvent result = null;
-        DBLock.lock();
-        try {
+        try (ReadConnection reader = readPool.acquire()) {
+            PreparedStatement getEventByIDStmt = reader.prepareStatement(GET_EVENT_BY_ID_SQL);
             getEventByIDStmt.clearParameters();
             getEventByIDStmt.setLong(1, eventID);
             try (ResultSet rs = getEventByIDStmt.executeQuery()) {
@@ -340,8 +400,6 @@ SingleEvent getEventById(Long eventID) {
             }
         } catch (SQLException sqlEx) {
             LOGGER.log(Level.SEVERE, "exception while querying for event with id = " + eventID, sqlEx); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return result;
     }
@@ -366,10 +424,10 @@ List<Long> getEventIDs(Interval timeRange, RootFilter filter) {
 
         ArrayList<Long> resultIDs = new ArrayList<>();
 
-        DBLock.lock();
         final String query = "SELECT events.event_id AS event_id FROM events" + useHashHitTablesHelper(filter) + useTagTablesHelper(filter)
                 + " WHERE time >=  " + startTime + " AND time <" + endTime + " AND " + SQLHelper.getSQLWhere(filter) + " ORDER BY time ASC"; // NON-NLS
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery(query)) {
             while (rs.next()) {
                 resultIDs.add(rs.getLong("event_id")); //NON-NLS
@@ -377,8 +435,6 @@ List<Long> getEventIDs(Interval timeRange, RootFilter filter) {
 
         } catch (SQLException sqlEx) {
             LOGGER.log(Level.SEVERE, "failed to execute query for event ids in range", sqlEx); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
 
         return resultIDs;
@@ -405,12 +461,12 @@ List<CombinedEvent> getCombinedEvents(Interval timeRange, RootFilter filter) {
 
         ArrayList<CombinedEvent> results = new ArrayList<>();
 
-        DBLock.lock();
         final String query = "SELECT full_description, time, file_id, GROUP_CONCAT(events.event_id), GROUP_CONCAT(sub_type)"
                 + " FROM events " + useHashHitTablesHelper(filter) + useTagTablesHelper(filter)
                 + " WHERE time >= " + startTime + " AND time <" + endTime + " AND " + SQLHelper.getSQLWhere(filter)
                 + " GROUP BY time,full_description, file_id ORDER BY time ASC, full_description";
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery(query)) {
             while (rs.next()) {
 
@@ -426,8 +482,6 @@ List<CombinedEvent> getCombinedEvents(Interval timeRange, RootFilter filter) {
 
         } catch (SQLException sqlEx) {
             LOGGER.log(Level.SEVERE, "failed to execute query for combined events", sqlEx); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
 
         return results;
@@ -444,24 +498,22 @@ boolean hasNewColumns() {
 
     Set<Long> getDataSourceIDs() {
         HashSet<Long> hashSet = new HashSet<>();
-        DBLock.lock();
-        try (ResultSet rs = getDataSourceIDsStmt.executeQuery()) {
+        try (ReadConnection reader = readPool.acquire();
+                ResultSet rs = reader.prepareStatement(GET_DATASOURCE_IDS_SQL).executeQuery()) {
             while (rs.next()) {
                 long datasourceID = rs.getLong("datasource_id"); //NON-NLS
                 hashSet.add(datasourceID);
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get MAX time.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return hashSet;
     }
 
     Map<Long, String> getHashSetNames() {
         Map<Long, String> hashSets = new HashMap<>();
-        DBLock.lock();
-        try (ResultSet rs = getHashSetNamesStmt.executeQuery();) {
+        try (ReadConnection reader = readPool.acquire();
+                ResultSet rs = reader.prepareStatement(GET_HASH_SET_NAMES_SQL).executeQuery()) {
             while (rs.next()) {
                 long hashSetID = rs.getLong("hash_set_id"); //NON-NLS
                 String hashSetName = rs.getString("hash_set_name"); //NON-NLS
@@ -469,8 +521,6 @@ Map<Long, String> getHashSetNames() {
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get hash sets.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return Collections.unmodifiableMap(hashSets);
     }
@@ -490,15 +540,13 @@ void analyze() {
      * @return maximum time in seconds from unix epoch
      */
     Long getMaxTime() {
-        DBLock.lock();
-        try (ResultSet rs = getMaxTimeStmt.executeQuery()) {
+        try (ReadConnection reader = readPool.acquire();
+                ResultSet rs = reader.prepareStatement(GET_MAX_TIME_SQL).executeQuery()) {
             while (rs.next()) {
                 return rs.getLong("max"); // NON-NLS
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get MAX time.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return -1l;
     }
@@ -507,15 +555,13 @@ Long getMaxTime() {
      * @return maximum time in seconds from unix epoch
      */
     Long getMinTime() {
-        DBLock.lock();
-        try (ResultSet rs = getMinTimeStmt.executeQuery()) {
+        try (ReadConnection reader = readPool.acquire();
+                ResultSet rs = reader.prepareStatement(GET_MIN_TIME_SQL).executeQuery()) {
             while (rs.next()) {
                 return rs.getLong("min"); // NON-NLS
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get MIN time.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return -1l;
     }
@@ -542,6 +588,9 @@ final synchronized void initializeDB() {
             LOGGER.log(Level.SEVERE, "problem accessing  database", ex); // NON-NLS
             return;
         }
+        if (readPool == null || readPool.isClosed()) {
+            readPool = createReadPool();
+        }
 
         DBLock.lock();
         try {
@@ -621,39 +670,20 @@ final synchronized void initializeDB() {
             }
 
             initializeTagsTable();
+            initializeEventCountsTable();
 
-            createIndex("events", Arrays.asList("datasource_id")); //NON-NLS
-            createIndex("events", Arrays.asList("event_id", "hash_hit")); //NON-NLS
-            createIndex("events", Arrays.asList("event_id", "tagged")); //NON-NLS
-            createIndex("events", Arrays.asList("file_id")); //NON-NLS
-            createIndex("events", Arrays.asList("artifact_id")); //NON-NLS
-            createIndex("events", Arrays.asList("sub_type", "short_description", "time")); //NON-NLS
-            createIndex("events", Arrays.asList("base_type", "short_description", "time")); //NON-NLS
-            createIndex("events", Arrays.asList("time")); //NON-NLS
-            createIndex("events", Arrays.asList("known_state")); //NON-NLS
+            createEventsIndexes();
 
             try {
                 insertRowStmt = prepareStatement(
                         "INSERT INTO events (datasource_id,file_id ,artifact_id, time, sub_type, base_type, full_description, med_description, short_description, known_state, hash_hit, tagged) " // NON-NLS
                         + "VALUES (?,?,?,?,?,?,?,?,?,?,?,?)"); // NON-NLS
-                getHashSetNamesStmt = prepareStatement("SELECT hash_set_id, hash_set_name FROM hash_sets"); // NON-NLS
-                getDataSourceIDsStmt = prepareStatement("SELECT DISTINCT datasource_id FROM events WHERE datasource_id != 0"); // NON-NLS
-                getMaxTimeStmt = prepareStatement("SELECT Max(time) AS max FROM events"); // NON-NLS
-                getMinTimeStmt = prepareStatement("SELECT Min(time) AS min FROM events"); // NON-NLS
-                getEventByIDStmt = prepareStatement("SELECT * FROM events WHERE event_id =  ?"); // NON-NLS
                 insertHashSetStmt = prepareStatement("INSERT OR IGNORE INTO hash_sets (hash_set_name)  values (?)"); //NON-NLS
                 selectHashSetStmt = prepareStatement("SELECT hash_set_id FROM hash_sets WHERE hash_set_name = ?"); //NON-NLS
                 insertHashHitStmt = prepareStatement("INSERT OR IGNORE INTO hash_set_hits (hash_set_id, event_id) values (?,?)"); //NON-NLS
                 insertTagStmt = prepareStatement("INSERT OR IGNORE INTO tags (tag_id, tag_name_id,tag_name_display_name, event_id) values (?,?,?,?)"); //NON-NLS
                 deleteTagStmt = prepareStatement("DELETE FROM tags WHERE tag_id = ?"); //NON-NLS
 
-                /*
-                 * This SQL query is really just a select count(*), but that has
-                 * performance problems on very large tables unless you include
-                 * a where clause see http://stackoverflow.com/a/9338276/4004683
-                 * for more.
-                 */
-                countAllEventsStmt = prepareStatement("SELECT count(event_id) AS count FROM events WHERE event_id IS NOT null"); //NON-NLS
                 dropEventsTableStmt = prepareStatement("DROP TABLE IF EXISTS events"); //NON-NLS
                 dropHashSetHitsTableStmt = prepareStatement("DROP TABLE IF EXISTS hash_set_hits"); //NON-NLS
                 dropHashSetsTableStmt = prepareStatement("DROP TABLE IF EXISTS hash_sets"); //NON-NLS
@@ -661,6 +691,11 @@ final synchronized void initializeDB() {
                 dropDBInfoTableStmt = prepareStatement("DROP TABLE IF EXISTS db_ino"); //NON-NLS
                 selectNonArtifactEventIDsByObjectIDStmt = prepareStatement("SELECT event_id FROM events WHERE file_id == ? AND artifact_id IS NULL"); //NON-NLS
                 selectEventIDsBYObjectAndArtifactIDStmt = prepareStatement("SELECT event_id FROM events WHERE file_id == ? AND artifact_id = ?"); //NON-NLS
+                insertEventCountStmt = prepareStatement(EventCountRollups.INSERT_SQL);
+                updateEventCountStmt = prepareStatement(EventCountRollups.UPDATE_SQL);
+                dropEventCountsTableStmt = prepareStatement("DROP TABLE IF EXISTS event_counts"); //NON-NLS
+                selectMaxEventIDStmt = prepareStatement("SELECT Max(event_id) AS max FROM events"); //NON-NLS
+                insertBulkRowsStmt = prepareStatement(getBulkInsertSQL(BULK_INSERT_ROWS_PER_STATEMENT));
             } catch (SQLException sQLException) {
                 LOGGER.log(Level.SEVERE, "failed to prepareStatment", sQLException); // NON-NLS
             }
@@ -679,20 +714,17 @@ final synchronized void initializeDB() {
      *         given artifact.
      */
     List<Long> getEventIDsForArtifact(BlackboardArtifact artifact) {
-        DBLock.lock();
-
         String query = "SELECT event_id FROM events WHERE artifact_id == " + artifact.getArtifactID();
 
         ArrayList<Long> results = new ArrayList<>();
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery(query);) {
             while (rs.next()) {
                 results.add(rs.getLong("event_id"));
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Error executing getEventIDsForArtifact query.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return results;
     }
@@ -713,21 +745,18 @@ List<Long> getEventIDsForArtifact(BlackboardArtifact artifact) {
      *         given file.
      */
     List<Long> getEventIDsForFile(AbstractFile file, boolean includeDerivedArtifacts) {
-        DBLock.lock();
-
         String query = "SELECT event_id FROM events WHERE file_id == " + file.getId()
                 + (includeDerivedArtifacts ? "" : " AND artifact_id IS NULL");
 
         ArrayList<Long> results = new ArrayList<>();
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery(query);) {
             while (rs.next()) {
                 results.add(rs.getLong("event_id"));
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Error executing getEventIDsForFile query.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return results;
     }
@@ -750,6 +779,95 @@ private void initializeTagsTable() {
         }
     }
 
+    /**
+     * create the event_counts table if it doesn't already exist, and fill it
+     * from the events table if it is empty but there are events, ie the
+     * database was created by a version without the table.
+     */
+    private void initializeEventCountsTable() {
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute(EventCountRollups.CREATE_TABLE_SQL);
+            boolean hasEventCounts;
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM event_counts LIMIT 1")) { //NON-NLS
+                hasEventCounts = rs.next();
+            }
+            boolean hasEvents;
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM events LIMIT 1")) { //NON-NLS
+                hasEvents = rs.next();
+            }
+            if (hasEvents && hasEventCounts == false) {
+                LOGGER.log(Level.INFO, "populating event_counts table from existing events"); // NON-NLS
+                for (String sql : EventCountRollups.getPopulateFromEventsSQL()) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "problem creating event_counts table", ex); //NON-NLS
+        }
+    }
+
+    /**
+     * record the addition of an event in the given pending changes to the
+     * event_counts table
+     * <p>
+     * NOTE: does not lock the db, must be called form inside a
+     * DBLock.lock/unlock pair
+     */
+    private static void addToEventCounts(EventCountRollups eventCounts, long time, int typeNum, int superTypeNum, long datasourceID,
+            TskData.FileKnown known, boolean hashHit, boolean tagged) {
+        if (typeNum != -1) {
+            eventCounts.add(time, typeNum, superTypeNum, datasourceID,
+                    known == null ? TskData.FileKnown.UNKNOWN.getFileKnownValue() : known.getFileKnownValue(),
+                    hashHit ? 1 : 0, tagged ? 1 : 0, 1);
+        }
+    }
+
+    /**
+     * create the indexes on the events table if they don't already exist.
+     * <p>
+     * NOTE: does not lock the db, must be called form inside a
+     * DBLock.lock/unlock pair
+     */
+    private void createEventsIndexes() {
+        for (List<String> columnList : EVENTS_INDEXES) {
+            createIndex("events", columnList); //NON-NLS
+        }
+    }
+
+    /**
+     * drop the indexes on the events table, so that a bulk population does not
+     * have to update them for every inserted event. They must be recreated
+     * with restoreEventsIndexes() once the population is done.
+     */
+    void dropEventsIndexes() {
+        DBLock.lock();
+        try (Statement stmt = con.createStatement()) {
+            for (List<String> columnList : EVENTS_INDEXES) {
+                stmt.execute("DROP INDEX IF EXISTS " + getIndexName("events", columnList)); // NON-NLS
+            }
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "problem dropping events indexes", ex); // NON-NLS
+        } finally {
+            DBLock.unlock();
+        }
+    }
+
+    /**
+     * recreate the indexes on the events table after dropEventsIndexes()
+     */
+    void restoreEventsIndexes() {
+        DBLock.lock();
+        try {
+            createEventsIndexes();
+        } finally {
+            DBLock.unlock();
+        }
+    }
+
+    private static String getIndexName(final String tableName, final List<String> columnList) {
+        return tableName + "_" + StringUtils.join(columnList, "_") + "_idx"; //NON-NLS
+    }
+
     /**
      *
      * @param tableName  the value of tableName
@@ -757,7 +875,7 @@ private void initializeTagsTable() {
      */
     private void createIndex(final String tableName, final List<String> columnList) {
         String indexColumns = columnList.stream().collect(Collectors.joining(",", "(", ")"));
-        String indexName = tableName + "_" + StringUtils.join(columnList, "_") + "_idx"; //NON-NLS
+        String indexName = getIndexName(tableName, columnList);
         try (Statement stmt = con.createStatement()) {
 
             String sql = "CREATE INDEX IF NOT EXISTS " + indexName + " ON " + tableName + indexColumns; // NON-NLS
@@ -857,6 +975,9 @@ void insertEvent(long time, EventType type, long datasourceID, long objID,
 
             insertRowStmt.executeUpdate();
 
+            // the counts are applied once, when the transaction is committed
+            addToEventCounts(transaction.eventCounts, time, typeNum, superTypeNum, datasourceID, known, hashSetNames.isEmpty() == false, tags.isEmpty() == false);
+
             try (ResultSet generatedKeys = insertRowStmt.getGeneratedKeys()) {
                 while (generatedKeys.next()) {
                     long eventID = generatedKeys.getLong("last_insert_rowid()"); //NON-NLS
@@ -895,6 +1016,189 @@ void insertEvent(long time, EventType type, long datasourceID, long objID,
         }
     }
 
+    /**
+     * insert a single event, as part of the given transaction
+     *
+     * @param row         the event to insert
+     * @param transaction the transaction to use
+     */
+    void insertEvent(EventRow row, EventTransaction transaction) {
+        insertEvent(row.time, row.type, row.datasourceID, row.fileID, row.artifactID,
+                row.fullDescription, row.medDescription, row.shortDescription,
+                row.known, row.hashSetNames, row.tags, transaction);
+    }
+
+    /**
+     * insert many events at once, as part of the given transaction. The events
+     * are inserted with multi-row insert statements and are given consecutive
+     * event ids, so their hash set hits and tags can be inserted in batches
+     * without reading back the generated keys of each event. If the insert
+     * fails, whatever part of it was done is rolled back, leaving the rest of
+     * the transaction intact.
+     *
+     * @param rows        the events to insert
+     * @param transaction the transaction to use
+     *
+     * @throws SQLException if the events could not be inserted
+     */
+    void insertEvents(List<EventRow> rows, EventTransaction transaction) throws SQLException {
+        if (transaction.isClosed()) {
+            throw new IllegalArgumentException("can't update database with closed transaction"); // NON-NLS
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        DBLock.lock();
+        Savepoint savepoint = null;
+        try {
+            savepoint = con.setSavepoint();
+            long firstEventID;
+            try (ResultSet rs = selectMaxEventIDStmt.executeQuery()) {
+                firstEventID = rs.next() ? rs.getLong("max") + 1 : 1; // NON-NLS
+            }
+
+            for (int start = 0; start < rows.size(); start += BULK_INSERT_ROWS_PER_STATEMENT) {
+                List<EventRow> statementRows = rows.subList(start, Math.min(rows.size(), start + BULK_INSERT_ROWS_PER_STATEMENT));
+                if (statementRows.size() == BULK_INSERT_ROWS_PER_STATEMENT) {
+                    insertEventRows(insertBulkRowsStmt, firstEventID + start, statementRows);
+                } else {
+                    try (PreparedStatement stmt = con.prepareStatement(getBulkInsertSQL(statementRows.size()))) {
+                        insertEventRows(stmt, firstEventID + start, statementRows);
+                    }
+                }
+            }
+
+            EventCountRollups rowCounts = new EventCountRollups();
+            for (EventRow row : rows) {
+                addToEventCounts(rowCounts, row.time, RootEventType.allTypes.indexOf(row.type), row.type.getSuperType().ordinal(),
+                        row.datasourceID, row.known, row.hashSetNames.isEmpty() == false, row.tags.isEmpty() == false);
+            }
+
+            Map<String, Integer> hashSetIDs = new HashMap<>();
+            boolean hasHashHits = false;
+            boolean hasTags = false;
+            for (int i = 0; i < rows.size(); i++) {
+                EventRow row = rows.get(i);
+                long eventID = firstEventID + i;
+                for (String name : row.hashSetNames) {
+                    Integer hashSetID = hashSetIDs.get(name);
+                    if (hashSetID == null) {
+                        hashSetID = getOrInsertHashSetID(name);
+                        hashSetIDs.put(name, hashSetID);
+                    }
+                    //"insert or ignore into hash_set_hits (hash_set_id, obj_id) values (?,?)";
+                    insertHashHitStmt.setInt(1, hashSetID);
+                    insertHashHitStmt.setLong(2, eventID);
+                    insertHashHitStmt.addBatch();
+                    hasHashHits = true;
+                }
+                for (Tag tag : row.tags) {
+                    //"INSERT OR IGNORE INTO tags (tag_id, tag_name_id,tag_name_display_name, event_id) values (?,?,?,?)"
+                    insertTagStmt.setLong(1, tag.getId());
+                    insertTagStmt.setLong(2, tag.getName().getId());
+                    insertTagStmt.setString(3, tag.getName().getDisplayName());
+                    insertTagStmt.setLong(4, eventID);
+                    insertTagStmt.addBatch();
+                    hasTags = true;
+                }
+            }
+            if (hasHashHits) {
+                insertHashHitStmt.executeBatch();
+            }
+            if (hasTags) {
+                insertTagStmt.executeBatch();
+            }
+            con.releaseSavepoint(savepoint);
+            // the counts are applied once, when the transaction is committed
+            transaction.eventCounts.addAll(rowCounts);
+        } catch (SQLException ex) {
+            try {
+                insertHashHitStmt.clearBatch();
+                insertTagStmt.clearBatch();
+            } catch (SQLException ex2) {
+                LOGGER.log(Level.WARNING, "failed to clear batched statements", ex2); // NON-NLS
+            }
+            if (savepoint != null) {
+                try {
+                    con.rollback(savepoint);
+                } catch (SQLException ex2) {
+                    LOGGER.log(Level.SEVERE, "failed to roll back partial insert of " + rows.size() + " events", ex2); // NON-NLS
+                }
+            }
+            throw ex;
+        } finally {
+            DBLock.unlock();
+        }
+    }
+
+    /**
+     * bind the values of the given events to a multi-row insert statement and
+     * execute it
+     * <p>
+     * NOTE: does not lock the db, must be called form inside a
+     * DBLock.lock/unlock pair
+     */
+    private void insertEventRows(PreparedStatement stmt, long firstEventID, List<EventRow> rows) throws SQLException {
+        stmt.clearParameters();
+        int index = 1;
+        for (int i = 0; i < rows.size(); i++) {
+            EventRow row = rows.get(i);
+            int typeNum = RootEventType.allTypes.indexOf(row.type);
+
+            stmt.setLong(index++, firstEventID + i);
+            stmt.setLong(index++, row.datasourceID);
+            stmt.setLong(index++, row.fileID);
+            if (row.artifactID != null) {
+                stmt.setLong(index++, row.artifactID);
+            } else {
+                stmt.setNull(index++, Types.NULL);
+            }
+            stmt.setLong(index++, row.time);
+            if (typeNum != -1) {
+                stmt.setInt(index++, typeNum);
+            } else {
+                stmt.setNull(index++, Types.INTEGER);
+            }
+            stmt.setInt(index++, row.type.getSuperType().ordinal());
+            stmt.setString(index++, row.fullDescription);
+            stmt.setString(index++, row.medDescription);
+            stmt.setString(index++, row.shortDescription);
+            stmt.setByte(index++, row.known == null ? TskData.FileKnown.UNKNOWN.getFileKnownValue() : row.known.getFileKnownValue());
+            stmt.setInt(index++, row.hashSetNames.isEmpty() ? 0 : 1);
+            stmt.setInt(index++, row.tags.isEmpty() ? 0 : 1);
+        }
+        stmt.executeUpdate();
+    }
+
+    /**
+     * get the id of the hash set with the given name, adding it if it is not
+     * in the db yet
+     * <p>
+     * NOTE: does not lock the db, must be called form inside a
+     * DBLock.lock/unlock pair
+     */
+    private int getOrInsertHashSetID(String name) throws SQLException {
+        // "insert or ignore into hash_sets (hash_set_name)  values (?)"
+        insertHashSetStmt.setString(1, name);
+        insertHashSetStmt.executeUpdate();
+
+        //"select hash_set_id from hash_sets where hash_set_name = ?"
+        selectHashSetStmt.setString(1, name);
+        try (ResultSet rs = selectHashSetStmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt("hash_set_id"); //NON-NLS
+            }
+        }
+        throw new SQLException("Failed to get id of hash set " + name); // NON-NLS
+    }
+
+    private static String getBulkInsertSQL(int numRows) {
+        String rowParameters = Collections.nCopies(BULK_INSERT_COLUMNS, "?").stream().collect(Collectors.joining(",", "(", ")"));
+        return "INSERT INTO events (event_id, datasource_id, file_id, artifact_id, time, sub_type, base_type, full_description, med_description, short_description, known_state, hash_hit, tagged) " // NON-NLS
+                + "VALUES " + String.join(",", Collections.nCopies(numRows, rowParameters)); // NON-NLS
+    }
+
     /**
      * mark any events with the given object and artifact ids as tagged, and
      * record the tag it self.
@@ -1024,6 +1328,24 @@ private Set<Long> markEventsTagged(long objectID, @Nullable Long artifactID, boo
             }
         }
 
+        //move the events whose tagged state changes to the matching event counts
+        try (Statement selectChangingStatement = con.createStatement();
+                ResultSet rs = selectChangingStatement.executeQuery("SELECT time, sub_type, base_type, datasource_id, known_state, hash_hit FROM events" //NON-NLS
+                        + " WHERE event_id IN (" + StringUtils.join(eventIDs, ",") + ")" //NON-NLS
+                        + " AND sub_type IS NOT NULL AND IFNULL(tagged, 0) != " + (tagged ? 1 : 0))) { //NON-NLS
+            while (rs.next()) {
+                long time = rs.getLong("time"); //NON-NLS
+                int subType = rs.getInt("sub_type"); //NON-NLS
+                int baseType = rs.getInt("base_type"); //NON-NLS
+                long datasourceID = rs.getLong("datasource_id"); //NON-NLS
+                int knownState = rs.getInt("known_state"); //NON-NLS
+                int hashHit = rs.getInt("hash_hit"); //NON-NLS
+                eventCountRollups.add(time, subType, baseType, datasourceID, knownState, hashHit, tagged ? 0 : 1, -1);
+                eventCountRollups.add(time, subType, baseType, datasourceID, knownState, hashHit, tagged ? 1 : 0, 1);
+            }
+        }
+        eventCountRollups.apply(insertEventCountStmt, updateEventCountStmt);
+
         //update tagged state for all event with selected ids
         try (Statement updateStatement = con.createStatement();) {
             updateStatement.executeUpdate("UPDATE events SET tagged = " + (tagged ? 1 : 0) //NON-NLS
@@ -1043,6 +1365,23 @@ private void closeStatements() throws SQLException {
         }
     }
 
+    /**
+     * create the pool of read connections: separate read only connections if
+     * the db is in WAL mode, else the write connection, guarded by the DBLock
+     *
+     * @return the pool
+     */
+    private ReadConnectionPool createReadPool() {
+        if (walEnabled) {
+            try {
+                return new ReadConnectionPool(dbPath, READ_CONNECTIONS, readStats);
+            } catch (SQLException ex) {
+                LOGGER.log(Level.WARNING, "Failed to open read connections to events.db, sharing the write connection instead", ex); // NON-NLS
+            }
+        }
+        return new ReadConnectionPool(con, DBLock, readStats);
+    }
+
     private void configureDB() throws SQLException {
         DBLock.lock();
         //this should match Sleuthkit db setup
@@ -1060,6 +1399,15 @@ private void configureDB() throws SQLException {
             statement.execute("PRAGMA auto_vacuum = 0"); // NON-NLS
             //allow to query while in transaction - no need read locks
             statement.execute("PRAGMA read_uncommitted = True;"); // NON-NLS
+            //let the read connections query while the writer is in a transaction
+            if (useWAL) {
+                try (ResultSet rs = statement.executeQuery("PRAGMA journal_mode = WAL")) { // NON-NLS
+                    walEnabled = rs.next() && "wal".equalsIgnoreCase(rs.getString(1)); // NON-NLS
+                }
+                if (walEnabled == false) {
+                    LOGGER.log(Level.WARNING, "Could not put events.db in WAL mode, reads and writes will be serialized"); // NON-NLS
+                }
+            }
         } finally {
             DBLock.unlock();
         }
@@ -1112,13 +1460,22 @@ private Map<EventType, Long> countEventsByType(Long startTime, Long endTime, Roo
         //do we want the root or subtype column of the databse
         final boolean useSubTypes = (zoomLevel == EventTypeZoomLevel.SUB_TYPE);
 
+        //use the pre-aggregated counts if the range and the filter allow it
+        final String bucketsWhere = SQLHelper.canUseEventCounts(filter)
+                ? EventCountRollups.getBucketsWhere(startTime, endTime)
+                : null;
+
         //get some info about the range of dates requested
-        final String queryString = "SELECT count(DISTINCT events.event_id) AS count, " + typeColumnHelper(useSubTypes) //NON-NLS
+        final String queryString = bucketsWhere != null
+                ? "SELECT sum(count) AS count, " + typeColumnHelper(useSubTypes) //NON-NLS
+                + " FROM event_counts WHERE " + bucketsWhere + " AND " + SQLHelper.getSQLWhere(filter) // NON-NLS
+                + " GROUP BY " + typeColumnHelper(useSubTypes) + " HAVING sum(count) > 0" // NON-NLS
+                : "SELECT count(DISTINCT events.event_id) AS count, " + typeColumnHelper(useSubTypes) //NON-NLS
                 + " FROM events" + useHashHitTablesHelper(filter) + useTagTablesHelper(filter) + " WHERE time >= " + startTime + " AND time < " + endTime + " AND " + SQLHelper.getSQLWhere(filter) // NON-NLS
                 + " GROUP BY " + typeColumnHelper(useSubTypes); // NON-NLS
 
-        DBLock.lock();
-        try (Statement stmt = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement stmt = reader.createStatement();
                 ResultSet rs = stmt.executeQuery(queryString);) {
             while (rs.next()) {
                 EventType type = useSubTypes
@@ -1130,8 +1487,6 @@ private Map<EventType, Long> countEventsByType(Long startTime, Long endTime, Roo
 
         } catch (Exception ex) {
             LOGGER.log(Level.SEVERE, "Error getting count of events from db.", ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
         return typeMap;
     }
@@ -1192,16 +1547,14 @@ List<EventStripe> getEventStripes(ZoomParams params) {
         // perform query and map results to AggregateEvent objects
         List<EventCluster> events = new ArrayList<>();
 
-        DBLock.lock();
-        try (Statement createStatement = con.createStatement();
+        try (ReadConnection reader = readPool.acquire();
+                Statement createStatement = reader.createStatement();
                 ResultSet rs = createStatement.executeQuery(query)) {
             while (rs.next()) {
                 events.add(eventClusterHelper(rs, useSubTypes, descriptionLOD, filter.getTagsFilter()));
             }
         } catch (SQLException ex) {
             LOGGER.log(Level.SEVERE, "Failed to get events with query: " + query, ex); // NON-NLS
-        } finally {
-            DBLock.unlock();
         }
 
         return mergeClustersToStripes(rangeInfo.getPeriodSize().getPeriod(), events);
@@ -1308,6 +1661,110 @@ private PreparedStatement prepareStatement(String queryString) throws SQLExcepti
         return prepareStatement;
     }
 
+    /**
+     * A reentrant lock that records how long threads wait for it and hold it.
+     */
+    private static final class TimedLock implements Lock {
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private final LatencyStats stats;
+        private long acquiredNanos; // only accessed by the thread holding the lock
+
+        private TimedLock(LatencyStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void lock() {
+            long waitStartNanos = System.nanoTime();
+            lock.lock();
+            acquired(waitStartNanos);
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            long waitStartNanos = System.nanoTime();
+            lock.lockInterruptibly();
+            acquired(waitStartNanos);
+        }
+
+        @Override
+        public boolean tryLock() {
+            long waitStartNanos = System.nanoTime();
+            if (lock.tryLock()) {
+                acquired(waitStartNanos);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long waitStartNanos = System.nanoTime();
+            if (lock.tryLock(time, unit)) {
+                acquired(waitStartNanos);
+                return true;
+            }
+            return false;
+        }
+
+        private void acquired(long waitStartNanos) {
+            if (lock.getHoldCount() == 1) {
+                acquiredNanos = System.nanoTime();
+                stats.recordWait(acquiredNanos - waitStartNanos);
+            }
+        }
+
+        @Override
+        public void unlock() {
+            if (lock.getHoldCount() == 1) {
+                stats.recordHold(System.nanoTime() - acquiredNanos);
+            }
+            lock.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            return lock.newCondition();
+        }
+    }
+
+    /**
+     * The values of one event to be inserted into the db. Rows can be built on
+     * any thread, and are then inserted with insertEvent() or insertEvents().
+     */
+    static final class EventRow {
+
+        private final long time;
+        private final EventType type;
+        private final long datasourceID;
+        private final long fileID;
+        private final Long artifactID;
+        private final String fullDescription;
+        private final String medDescription;
+        private final String shortDescription;
+        private final TskData.FileKnown known;
+        private final Set<String> hashSetNames;
+        private final List<? extends Tag> tags;
+
+        EventRow(long time, EventType type, long datasourceID, long fileID,
+                @Nullable Long artifactID, String fullDescription, String medDescription,
+                String shortDescription, @Nullable TskData.FileKnown known, Set<String> hashSetNames,
+                List<? extends Tag> tags) {
+            this.time = time;
+            this.type = type;
+            this.datasourceID = datasourceID;
+            this.fileID = fileID;
+            this.artifactID = artifactID;
+            this.fullDescription = fullDescription;
+            this.medDescription = medDescription;
+            this.shortDescription = shortDescription;
+            this.known = known;
+            this.hashSetNames = hashSetNames;
+            this.tags = tags;
+        }
+    }
+
     /**
      * inner class that can reference access database connection
      */
@@ -1315,6 +1772,13 @@ public class EventTransaction {
 
         private boolean closed = false;
 
+        /**
+         * the changes to the event_counts table made by the events inserted in
+         * this transaction, applied all at once on commit rather than after
+         * every insert
+         */
+        private final EventCountRollups eventCounts = new EventCountRollups();
+
         /**
          * factory creation method
          *
@@ -1350,6 +1814,7 @@ private void rollback() {
         private void commit() {
             if (!closed) {
                 try {
+                    eventCounts.apply(insertEventCountStmt, updateEventCountStmt);
                     con.commit();
                     // make sure we close before we update, bc they'll need locks
                     close();
@@ -22,9 +22,12 @@
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
@@ -33,7 +36,9 @@
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
@@ -48,12 +53,14 @@
 import javafx.concurrent.Worker;
 import javax.swing.JOptionPane;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.joda.time.Interval;
 import org.netbeans.api.progress.ProgressHandle;
 import org.openide.util.NbBundle;
 import org.sleuthkit.autopsy.casemodule.Case;
 import org.sleuthkit.autopsy.casemodule.services.TagsManager;
 import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.coreutils.ModuleSettings;
 import org.sleuthkit.autopsy.coreutils.ThreadConfined;
 import org.sleuthkit.autopsy.timeline.CancellationProgressTask;
 import org.sleuthkit.autopsy.timeline.datamodel.CombinedEvent;
@@ -97,6 +104,13 @@ public class EventsRepository {
 
     private final static Logger LOGGER = Logger.getLogger(EventsRepository.class.getName());
 
+    private static final String SETTINGS_MODULE = "Timeline"; //NON-NLS
+    private static final String PARALLEL_REBUILD_KEY = "parallelRebuild.enabled"; //NON-NLS
+    private static final String PARALLEL_REBUILD_THREADS_KEY = "parallelRebuild.readerThreads"; //NON-NLS
+    private static final int PARALLEL_REBUILD_PAGE_SIZE = 1000;
+    private static final String FILES_WHERE_CLAUSE = "name != '.' AND name != '..'" //NON-NLS
+            + " AND type != " + TskData.TSK_DB_FILES_TYPE_ENUM.SLACK.ordinal(); //NON-NLS
+
     private final Executor workerExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("eventrepository-worker-%d").build()); //NON-NLS
     private DBPopulationWorker dbWorker;
     private final EventDB eventDB;
@@ -416,12 +430,62 @@ private CancellationProgressTask<Void> rebuildRepository(final DBPopulationMode
         return dbWorker;
     }
 
+    /**
+     * Is the full rebuild of the timeline db done by a pool of reader threads
+     * feeding a single bulk-inserting writer, rather than one file at a time?
+     *
+     * @return true if the parallel rebuild is enabled
+     */
+    static boolean isParallelRebuildEnabled() {
+        return Boolean.parseBoolean(ModuleSettings.getConfigSetting(SETTINGS_MODULE, PARALLEL_REBUILD_KEY));
+    }
+
+    /**
+     * @return the number of threads that read files and artifacts from the
+     *         case database during a parallel rebuild
+     */
+    static int getParallelRebuildThreads() {
+        String threadsString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, PARALLEL_REBUILD_THREADS_KEY);
+        if (StringUtils.isNotBlank(threadsString)) {
+            try {
+                int threads = Integer.parseInt(threadsString.trim());
+                if (threads > 0) {
+                    return threads;
+                }
+            } catch (NumberFormatException ex) {
+                LOGGER.log(Level.WARNING, "Invalid number of timeline rebuild threads: " + threadsString, ex); // NON-NLS
+            }
+        }
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
     private enum DBPopulationMode {
 
         FULL,
         TAGS_ONLY;
     }
 
+    /**
+     * Creates the event rows for a page of items.
+     *
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    private interface PageRowBuilder<T> {
+
+        /**
+         * create the event rows for a page of items
+         *
+         * @param page the items
+         *
+         * @return the events, or null if cancelled before all of them were
+         *         created
+         *
+         * @throws TskCoreException if the items could not be read
+         */
+        List<EventDB.EventRow> createRows(List<T> page) throws TskCoreException;
+    }
+
     /**
      *  //TODO: I don't like the coupling to ProgressHandle in this task, but
      * the alternatives I can think of seem even worse. -jm
@@ -436,6 +500,10 @@ private class DBPopulationWorker extends CancellationProgressTask<Void> {
 
         private ProgressHandle progressHandle;
 
+        // throughput of a parallel rebuild, only used by the worker thread
+        private long populationStartNanos;
+        private long eventsInserted;
+
         @Override
         public ReadOnlyBooleanProperty cancellableProperty() {
             return cancellable.getReadOnlyProperty();
@@ -510,45 +578,56 @@ void restartProgressHandle(String title, String message, Double workDone, double
         protected Void call() throws Exception {
             EventDB.EventTransaction trans = null;
 
-            if (dbPopulationMode == DBPopulationMode.FULL) {
-                //drop old db, and add back MAC and artifact events
-                LOGGER.log(Level.INFO, "Beginning population of timeline db."); // NON-NLS
-                restartProgressHandle(Bundle.progressWindow_msg_gatheringData(), "", -1D, 1, true);
-                //reset database //TODO: can we do more incremental updates? -jm
-                eventDB.reInitializeDB();
-                //grab ids of all files
-                List<Long> fileIDs = skCase.findAllFileIdsWhere("name != '.' AND name != '..'" + 
-                        " AND type != " + TskData.TSK_DB_FILES_TYPE_ENUM.SLACK.ordinal()); //NON-NLS
-                final int numFiles = fileIDs.size();
-
-                trans = eventDB.beginTransaction();
-                insertMACTimeEvents(numFiles, fileIDs, trans);
-                insertArtifactDerivedEvents(trans);
-            }
-
-            //tags
-            if (dbPopulationMode == DBPopulationMode.TAGS_ONLY) {
-                trans = eventDB.beginTransaction();
-                LOGGER.log(Level.INFO, "dropping old tags"); // NON-NLS
-                eventDB.reInitializeTags();
-            }
-
-            LOGGER.log(Level.INFO, "updating content tags"); // NON-NLS
-            List<ContentTag> contentTags = tagsManager.getAllContentTags();
-            int currentWorkTotal = contentTags.size();
-            restartProgressHandle(Bundle.progressWindow_msg_refreshingFileTags(), "", 0D, currentWorkTotal, true);
-            insertContentTags(currentWorkTotal, contentTags, trans);
+            try {
+                if (dbPopulationMode == DBPopulationMode.FULL) {
+                    //drop old db, and add back MAC and artifact events
+                    LOGGER.log(Level.INFO, "Beginning population of timeline db."); // NON-NLS
+                    restartProgressHandle(Bundle.progressWindow_msg_gatheringData(), "", -1D, 1, true);
+                    //reset database //TODO: can we do more incremental updates? -jm
+                    eventDB.reInitializeDB();
+                    //grab ids of all files
+                    List<Long> fileIDs = skCase.findAllFileIdsWhere(FILES_WHERE_CLAUSE);
+                    final int numFiles = fileIDs.size();
+
+                    trans = eventDB.beginTransaction();
+                    if (isParallelRebuildEnabled()) {
+                        insertEventsInParallel(fileIDs, trans);
+                    } else {
+                        insertMACTimeEvents(numFiles, fileIDs, trans);
+                        insertArtifactDerivedEvents(trans);
+                    }
+                }
 
-            LOGGER.log(Level.INFO, "updating artifact tags"); // NON-NLS
-            List<BlackboardArtifactTag> artifactTags = tagsManager.getAllBlackboardArtifactTags();
-            currentWorkTotal = artifactTags.size();
-            restartProgressHandle(Bundle.progressWindow_msg_refreshingResultTags(), "", 0D, currentWorkTotal, true);
-            insertArtifactTags(currentWorkTotal, artifactTags, trans);
+                //tags
+                if (dbPopulationMode == DBPopulationMode.TAGS_ONLY) {
+                    trans = eventDB.beginTransaction();
+                    LOGGER.log(Level.INFO, "dropping old tags"); // NON-NLS
+                    eventDB.reInitializeTags();
+                }
 
-            LOGGER.log(Level.INFO, "committing db"); // NON-NLS
-            Platform.runLater(() -> cancellable.set(false));
-            restartProgressHandle(Bundle.progressWindow_msg_commitingDb(), "", -1D, 1, false);
-            eventDB.commitTransaction(trans);
+                LOGGER.log(Level.INFO, "updating content tags"); // NON-NLS
+                List<ContentTag> contentTags = tagsManager.getAllContentTags();
+                int currentWorkTotal = contentTags.size();
+                restartProgressHandle(Bundle.progressWindow_msg_refreshingFileTags(), "", 0D, currentWorkTotal, true);
+                insertContentTags(currentWorkTotal, contentTags, trans);
+
+                LOGGER.log(Level.INFO, "updating artifact tags"); // NON-NLS
+                List<BlackboardArtifactTag> artifactTags = tagsManager.getAllBlackboardArtifactTags();
+                currentWorkTotal = artifactTags.size();
+                restartProgressHandle(Bundle.progressWindow_msg_refreshingResultTags(), "", 0D, currentWorkTotal, true);
+                insertArtifactTags(currentWorkTotal, artifactTags, trans);
+
+                LOGGER.log(Level.INFO, "committing db"); // NON-NLS
+                Platform.runLater(() -> cancellable.set(false));
+                restartProgressHandle(Bundle.progressWindow_msg_commitingDb(), "", -1D, 1, false);
+                eventDB.commitTransaction(trans);
+            } catch (Exception ex) {
+                // don't leave a partially populated db or the db lock behind
+                if (trans != null && trans.isClosed() == false) {
+                    eventDB.rollBackTransaction(trans);
+                }
+                throw ex;
+            }
 
             eventDB.analyze();
             populateFilterData(skCase);
@@ -621,7 +700,226 @@ private void insertMACTimeEvents(final int numFiles, List<Long> fileIDs, EventDB
             }
         }
 
+        /**
+         * Populate the MAC time and artifact events using a pool of reader
+         * threads. The readers load files and artifacts from the case database
+         * a page at a time and turn them into event rows, while this thread,
+         * which holds the transaction, inserts the rows of each page in bulk.
+         * The events table indexes are dropped for the duration and rebuilt at
+         * the end.
+         *
+         * @param fileIDs the ids of the files to populate MAC time events for
+         * @param trans   the db transaction to use
+         *
+         * @throws TskCoreException if the tags could not be read
+         */
+        @NbBundle.Messages({"progressWindow.msg.populateArtifactEvents=Populating artifact events",
+            "progressWindow.msg.creatingIndexes=Creating events database indexes"})
+        private void insertEventsInParallel(List<Long> fileIDs, EventDB.EventTransaction trans) throws TskCoreException {
+            final int numThreads = getParallelRebuildThreads();
+            LOGGER.log(Level.INFO, "Populating timeline db with {0} reader threads", numThreads); // NON-NLS
+            populationStartNanos = System.nanoTime();
+            eventsInserted = 0;
+
+            Map<Long, List<ContentTag>> contentTagsByObjID = tagsManager.getAllContentTags().stream()
+                    .collect(Collectors.groupingBy(contentTag -> contentTag.getContent().getId()));
+            Map<Long, List<BlackboardArtifactTag>> artifactTagsByArtifactID = tagsManager.getAllBlackboardArtifactTags().stream()
+                    .collect(Collectors.groupingBy(artifactTag -> artifactTag.getArtifact().getArtifactID()));
+
+            ExecutorService readerPool = Executors.newFixedThreadPool(numThreads,
+                    new ThreadFactoryBuilder().setNameFormat("eventrepository-reader-%d").build()); //NON-NLS
+            eventDB.dropEventsIndexes();
+            try {
+                // sorted ids let each page be read with a single range query
+                List<Long> sortedFileIDs = new ArrayList<>(fileIDs);
+                Collections.sort(sortedFileIDs);
+                restartProgressHandle(Bundle.progressWindow_msg_populateMacEventsFiles(), "", 0D, sortedFileIDs.size(), true);
+                insertPagesInParallel(readerPool, numThreads, sortedFileIDs,
+                        page -> createMACTimeEventRowsForFiles(page, contentTagsByObjID), trans);
+
+                List<Pair<ArtifactEventType, BlackboardArtifact>> artifacts = new ArrayList<>();
+                for (EventType type : RootEventType.allTypes) {
+                    if (isCancelRequested()) {
+                        break;
+                    }
+                    //skip file_system events, they are already handled above.
+                    if (type instanceof ArtifactEventType) {
+                        try {
+                            for (BlackboardArtifact bbart : skCase.getBlackboardArtifacts(((ArtifactEventType) type).getArtifactTypeID())) {
+                                artifacts.add(Pair.of((ArtifactEventType) type, bbart));
+                            }
+                        } catch (TskCoreException ex) {
+                            LOGGER.log(Level.SEVERE, "There was a problem getting events with sub type " + type.toString() + ".", ex); // NON-NLS
+                        }
+                    }
+                }
+                restartProgressHandle(Bundle.progressWindow_msg_populateArtifactEvents(), "", 0D, artifacts.size(), true);
+                insertPagesInParallel(readerPool, numThreads, artifacts,
+                        page -> createEventRowsForArtifacts(page, artifactTagsByArtifactID), trans);
+            } finally {
+                readerPool.shutdownNow();
+                restartProgressHandle(Bundle.progressWindow_msg_creatingIndexes(), "", -1D, 1, false);
+                eventDB.restoreEventsIndexes();
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - populationStartNanos);
+            LOGGER.log(Level.INFO, "Populated timeline db with {0} events in {1} ms ({2} events/sec)", // NON-NLS
+                    new Object[]{eventsInserted, elapsedMillis, getEventsPerSecond()});
+        }
+
+        /**
+         * Split the given items into pages, have the reader pool turn each page
+         * into event rows, and insert the rows of each page, in order, on this
+         * thread. At most two pages per reader are read ahead of the insert.
+         *
+         * If a reader fails to create the rows for a page, the page is retried
+         * on this thread, and a second failure ends the population. A page
+         * whose rows were not all created because of a cancellation is not
+         * inserted. If the bulk insert of the rows of a page fails, the rows are inserted one
+         * at a time, so that only the rows that cannot be inserted are lost.
+         *
+         * @param readerPool the threads that create the event rows
+         * @param numThreads the number of threads in the pool
+         * @param items      the items to create events for
+         * @param rowBuilder creates the event rows for a page of items
+         * @param trans      the db transaction to use
+         *
+         * @throws TskCoreException if the rows for a page could not be created
+         *                          on the retry
+         */
+        @NbBundle.Messages({"# {0} - events per second",
+            "progressWindow.msg.eventsPerSecond={0} events/sec"})
+        private <T> void insertPagesInParallel(ExecutorService readerPool, int numThreads, List<T> items,
+                PageRowBuilder<T> rowBuilder, EventDB.EventTransaction trans) throws TskCoreException {
+            final int numItems = items.size();
+            final int maxPagesInFlight = 2 * numThreads;
+            Deque<Pair<List<T>, Future<List<EventDB.EventRow>>>> pages = new ArrayDeque<>();
+            int nextPageStart = 0;
+            int itemsDone = 0;
+            try {
+                while (isCancelRequested() == false && (nextPageStart < numItems || pages.isEmpty() == false)) {
+                    while (nextPageStart < numItems && pages.size() < maxPagesInFlight) {
+                        List<T> page = items.subList(nextPageStart, Math.min(numItems, nextPageStart + PARALLEL_REBUILD_PAGE_SIZE));
+                        pages.add(Pair.of(page, readerPool.submit(() -> rowBuilder.createRows(page))));
+                        nextPageStart += page.size();
+                    }
+
+                    Pair<List<T>, Future<List<EventDB.EventRow>>> page = pages.remove();
+                    List<EventDB.EventRow> rows;
+                    try {
+                        rows = page.getRight().get();
+                    } catch (ExecutionException ex) {
+                        LOGGER.log(Level.WARNING, "Failed to create events for a page of " + page.getLeft().size() + " items on a reader thread, retrying.", ex); // NON-NLS
+                        rows = rowBuilder.createRows(page.getLeft());
+                    }
+                    if (rows == null) {
+                        // cancelled part way through the page
+                        break;
+                    }
+                    try {
+                        eventDB.insertEvents(rows, trans);
+                    } catch (SQLException ex) {
+                        LOGGER.log(Level.WARNING, "Failed to insert " + rows.size() + " events at once, inserting them one at a time.", ex); // NON-NLS
+                        for (EventDB.EventRow row : rows) {
+                            eventDB.insertEvent(row, trans);
+                        }
+                    }
+                    eventsInserted += rows.size();
+                    itemsDone = Math.min(numItems, itemsDone + page.getLeft().size());
+                    updateProgress(itemsDone, numItems);
+                    updateMessage(Bundle.progressWindow_msg_eventsPerSecond(getEventsPerSecond()));
+                }
+            } catch (InterruptedException ex) {
+                LOGGER.log(Level.WARNING, "Interrupted while populating timeline db.", ex); // NON-NLS
+                Thread.currentThread().interrupt();
+            } finally {
+                pages.forEach(page -> page.getRight().cancel(true));
+            }
+        }
+
+        private long getEventsPerSecond() {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - populationStartNanos);
+            return elapsedMillis == 0 ? 0 : eventsInserted * 1000 / elapsedMillis;
+        }
+
+        /**
+         * create the MAC time events for a page of files. Called on a reader
+         * thread.
+         *
+         * @param pageFileIDs        the sorted ids of the files in the page
+         * @param contentTagsByObjID all the content tags, by content id
+         *
+         * @return the events, or null if cancelled before all of them were
+         *         created
+         *
+         * @throws TskCoreException if the files of the page could not be read
+         */
+        private List<EventDB.EventRow> createMACTimeEventRowsForFiles(List<Long> pageFileIDs, Map<Long, List<ContentTag>> contentTagsByObjID) throws TskCoreException {
+            List<EventDB.EventRow> rows = new ArrayList<>();
+            List<AbstractFile> files = skCase.findAllFilesWhere("obj_id BETWEEN " + pageFileIDs.get(0) //NON-NLS
+                    + " AND " + pageFileIDs.get(pageFileIDs.size() - 1) + " AND " + FILES_WHERE_CLAUSE); //NON-NLS
+            for (AbstractFile f : files) {
+                if (isCancelRequested()) {
+                    return null;
+                }
+                try {
+                    rows.addAll(createMACTimeEventRows(f, contentTagsByObjID.getOrDefault(f.getId(), Collections.emptyList())));
+                } catch (TskCoreException tskCoreException) {
+                    LOGGER.log(Level.SEVERE, "Failed to insert MAC time events for file : " + f.getId(), tskCoreException); // NON-NLS
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * create the events for a page of artifacts. Called on a reader
+         * thread.
+         *
+         * @param page                     the artifacts in the page, with
+         *                                 their event types
+         * @param artifactTagsByArtifactID all the artifact tags, by artifact id
+         *
+         * @return the events, or null if cancelled before all of them were
+         *         created
+         */
+        private List<EventDB.EventRow> createEventRowsForArtifacts(List<Pair<ArtifactEventType, BlackboardArtifact>> page,
+                Map<Long, List<BlackboardArtifactTag>> artifactTagsByArtifactID) {
+            List<EventDB.EventRow> rows = new ArrayList<>(page.size());
+            for (Pair<ArtifactEventType, BlackboardArtifact> typeAndArtifact : page) {
+                if (isCancelRequested()) {
+                    return null;
+                }
+                BlackboardArtifact bbart = typeAndArtifact.getRight();
+                try {
+                    EventDB.EventRow row = createArtifactEventRow(typeAndArtifact.getLeft(), bbart,
+                            artifactTagsByArtifactID.getOrDefault(bbart.getArtifactID(), Collections.emptyList()));
+                    if (row != null) {
+                        rows.add(row);
+                    }
+                } catch (TskCoreException ex) {
+                    LOGGER.log(Level.SEVERE, "There was a problem inserting event for artifact: " + bbart.getArtifactID(), ex); // NON-NLS
+                }
+            }
+            return rows;
+        }
+
         private void insertEventsForFile(AbstractFile f, EventDB.EventTransaction trans) throws TskCoreException {
+            for (EventDB.EventRow row : createMACTimeEventRows(f, tagsManager.getContentTagsByContent(f))) {
+                eventDB.insertEvent(row, trans);
+            }
+        }
+
+        /**
+         * create the MAC time events for a file
+         *
+         * @param f    the file
+         * @param tags the content tags applied to the file
+         *
+         * @return the events, one for each legitimate time stamp
+         *
+         * @throws TskCoreException
+         */
+        private List<EventDB.EventRow> createMACTimeEventRows(AbstractFile f, List<ContentTag> tags) throws TskCoreException {
             //gather time stamps into map
             EnumMap<FileSystemTypes, Long> timeMap = new EnumMap<>(FileSystemTypes.class);
             timeMap.put(FileSystemTypes.FILE_CREATED, f.getCrtime());
@@ -635,30 +933,32 @@ private void insertEventsForFile(AbstractFile f, EventDB.EventTransaction trans)
              * this should result in dropping logical files, since they do not
              * have legitimate time stamps.
              */
-            if (Collections.max(timeMap.values()) > 0) {
-                final String uniquePath = f.getUniquePath();
-                final String parentPath = f.getParentPath();
-                long datasourceID = f.getDataSource().getId();
-                String datasourceName = StringUtils.substringBeforeLast(uniquePath, parentPath);
-
-                String rootFolder = StringUtils.substringBefore(StringUtils.substringAfter(parentPath, "/"), "/");
-                String shortDesc = datasourceName + "/" + StringUtils.defaultString(rootFolder);
-                shortDesc = shortDesc.endsWith("/") ? shortDesc : shortDesc + "/";
-                String medDesc = datasourceName + parentPath;
-
-                final TskData.FileKnown known = f.getKnown();
-                Set<String> hashSets = f.getHashSetNames();
-                List<ContentTag> tags = tagsManager.getContentTagsByContent(f);
-
-                for (Map.Entry<FileSystemTypes, Long> timeEntry : timeMap.entrySet()) {
-                    if (timeEntry.getValue() > 0) {
-                        // if the time is legitimate ( greater than zero ) insert it
-                        eventDB.insertEvent(timeEntry.getValue(), timeEntry.getKey(),
-                                datasourceID, f.getId(), null, uniquePath, medDesc,
-                                shortDesc, known, hashSets, tags, trans);
-                    }
+            if (Collections.max(timeMap.values()) <= 0) {
+                return Collections.emptyList();
+            }
+            final String uniquePath = f.getUniquePath();
+            final String parentPath = f.getParentPath();
+            long datasourceID = f.getDataSource().getId();
+            String datasourceName = StringUtils.substringBeforeLast(uniquePath, parentPath);
+
+            String rootFolder = StringUtils.substringBefore(StringUtils.substringAfter(parentPath, "/"), "/");
+            String shortDesc = datasourceName + "/" + StringUtils.defaultString(rootFolder);
+            shortDesc = shortDesc.endsWith("/") ? shortDesc : shortDesc + "/";
+            String medDesc = datasourceName + parentPath;
+
+            final TskData.FileKnown known = f.getKnown();
+            Set<String> hashSets = f.getHashSetNames();
+
+            List<EventDB.EventRow> rows = new ArrayList<>(timeMap.size());
+            for (Map.Entry<FileSystemTypes, Long> timeEntry : timeMap.entrySet()) {
+                if (timeEntry.getValue() > 0) {
+                    // if the time is legitimate ( greater than zero ) insert it
+                    rows.add(new EventDB.EventRow(timeEntry.getValue(), timeEntry.getKey(),
+                            datasourceID, f.getId(), null, uniquePath, medDesc,
+                            shortDesc, known, hashSets, tags));
                 }
             }
+            return rows;
         }
 
         @Override
@@ -705,6 +1005,25 @@ private void populateEventType(final ArtifactEventType type, EventDB.EventTransa
         }
 
         private void insertEventForArtifact(final ArtifactEventType type, BlackboardArtifact bbart, EventDB.EventTransaction trans) throws TskCoreException {
+            EventDB.EventRow row = createArtifactEventRow(type, bbart, tagsManager.getBlackboardArtifactTagsByArtifact(bbart));
+            if (row != null) {
+                eventDB.insertEvent(row, trans);
+            }
+        }
+
+        /**
+         * create the event for an artifact
+         *
+         * @param type  the event type of the artifact
+         * @param bbart the artifact
+         * @param tags  the tags applied to the artifact
+         *
+         * @return the event, or null if the artifact has no legitimate time
+         *         stamp
+         *
+         * @throws TskCoreException
+         */
+        private EventDB.EventRow createArtifactEventRow(final ArtifactEventType type, BlackboardArtifact bbart, List<BlackboardArtifactTag> tags) throws TskCoreException {
             ArtifactEventType.AttributeEventDescription eventDescription = ArtifactEventType.buildEventDescription(type, bbart);
 
             // if the time is legitimate ( greater than zero ) insert it into the db
@@ -714,12 +1033,12 @@ private void insertEventForArtifact(final ArtifactEventType type, BlackboardArti
                 long datasourceID = f.getDataSource().getId();
                 long artifactID = bbart.getArtifactID();
                 Set<String> hashSets = f.getHashSetNames();
-                List<BlackboardArtifactTag> tags = tagsManager.getBlackboardArtifactTagsByArtifact(bbart);
                 String fullDescription = eventDescription.getFullDescription();
                 String medDescription = eventDescription.getMedDescription();
                 String shortDescription = eventDescription.getShortDescription();
-                eventDB.insertEvent(eventDescription.getTime(), type, datasourceID, objectID, artifactID, fullDescription, medDescription, shortDescription, null, hashSets, tags, trans);
+                return new EventDB.EventRow(eventDescription.getTime(), type, datasourceID, objectID, artifactID, fullDescription, medDescription, shortDescription, null, hashSets, tags);
             }
+            return null;
         }
     }
 }
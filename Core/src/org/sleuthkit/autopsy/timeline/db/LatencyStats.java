@@ -0,0 +1,105 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.timeline.db;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * Thread safe counters of how long operations on the timeline db waited for a
+ * connection or lock, and how long they held it. A summary is logged once a
+ * minute while there are operations, so contention between the UI queries and
+ * the inserts made during ingest shows up in the log.
+ */
+final class LatencyStats {
+
+    private static final Logger LOGGER = Logger.getLogger(LatencyStats.class.getName());
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime());
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong totalWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxWaitNanos = new AtomicLong(0);
+    private final AtomicLong totalHoldNanos = new AtomicLong(0);
+    private final AtomicLong maxHoldNanos = new AtomicLong(0);
+
+    /**
+     * @param name the name of the kind of operation, used in the summary
+     */
+    LatencyStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * record the time an operation waited before it could start
+     *
+     * @param waitNanos the wait time, in nanoseconds
+     */
+    void recordWait(long waitNanos) {
+        count.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Long::max);
+    }
+
+    /**
+     * record the time an operation held its connection or lock
+     *
+     * @param holdNanos the hold time, in nanoseconds
+     */
+    void recordHold(long holdNanos) {
+        totalHoldNanos.addAndGet(holdNanos);
+        maxHoldNanos.accumulateAndGet(holdNanos, Long::max);
+        logIfDue();
+    }
+
+    private void logIfDue() {
+        long now = System.nanoTime();
+        long lastLog = lastLogNanos.get();
+        if (now - lastLog >= LOG_INTERVAL_NANOS && lastLogNanos.compareAndSet(lastLog, now)) {
+            String summary = getSummaryAndReset();
+            if (summary != null) {
+                LOGGER.log(Level.INFO, summary);
+            }
+        }
+    }
+
+    /**
+     * get a summary of the operations recorded since the last call, and start
+     * counting again
+     *
+     * @return the summary, or null if there were no operations
+     */
+    String getSummaryAndReset() {
+        long operations = count.getAndSet(0);
+        long waitNanos = totalWaitNanos.getAndSet(0);
+        long maxWait = maxWaitNanos.getAndSet(0);
+        long holdNanos = totalHoldNanos.getAndSet(0);
+        long maxHold = maxHoldNanos.getAndSet(0);
+        if (operations == 0) {
+            return null;
+        }
+        return String.format("%s: %d operations, wait avg %.1f ms max %d ms, held avg %.1f ms max %d ms", //NON-NLS
+                name, operations,
+                waitNanos / (double) operations / TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.NANOSECONDS.toMillis(maxWait),
+                holdNanos / (double) operations / TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.NANOSECONDS.toMillis(maxHold));
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.timeline.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * A fixed size pool of read only connections to the timeline db. With the db in
+ * WAL mode, queries on these connections run concurrently with each other and
+ * with the single writer, and see the last committed state of the db.
+ *
+ * A thread that already holds a connection gets the same connection again, so
+ * read methods can call each other without exhausting the pool.
+ *
+ * Where WAL mode is not available, a pool can instead share the write
+ * connection, in which case acquiring the connection takes the write lock and
+ * reads are serialized with all other db operations.
+ *
+ * Once the pool is closed, acquiring a connection fails with an SQLException.
+ * Connections that are in use when the pool is closed are closed when they are
+ * returned.
+ */
+final class ReadConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadConnectionPool.class.getName());
+
+    private final List<ReadConnection> connections = new ArrayList<>();
+    private final BlockingQueue<ReadConnection> idleConnections;
+    private final ThreadLocal<ReadConnection> threadConnection = new ThreadLocal<>();
+    private final LatencyStats stats;
+    private final Lock sharedLock;
+    private volatile boolean closed = false; // written under the pool's monitor
+
+    /**
+     * open the connections of the pool
+     *
+     * @param dbPath the path to the db
+     * @param size   the number of connections
+     * @param stats  records the time spent waiting for and holding connections
+     *
+     * @throws SQLException if a connection could not be opened
+     */
+    ReadConnectionPool(String dbPath, int size, LatencyStats stats) throws SQLException {
+        this.stats = stats;
+        this.sharedLock = null;
+        idleConnections = new ArrayBlockingQueue<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection con = DriverManager.getConnection("jdbc:sqlite:" + dbPath); // NON-NLS
+                ReadConnection readConnection = new ReadConnection(con, this);
+                connections.add(readConnection);
+                try (Statement statement = con.createStatement()) {
+                    statement.execute("PRAGMA query_only = true"); // NON-NLS
+                    statement.execute("PRAGMA temp_store = MEMORY"); // NON-NLS
+                    statement.execute("PRAGMA cache_size = 50000"); // NON-NLS
+                }
+                idleConnections.add(readConnection);
+            }
+        } catch (SQLException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * create a pool that shares the write connection
+     *
+     * @param writeConnection the write connection
+     * @param writeLock       the lock that guards the write connection
+     * @param stats           records the time spent waiting for and holding
+     *                        the connection
+     */
+    ReadConnectionPool(Connection writeConnection, Lock writeLock, LatencyStats stats) {
+        this.stats = stats;
+        this.sharedLock = writeLock;
+        idleConnections = new ArrayBlockingQueue<>(1);
+        connections.add(new ReadConnection(writeConnection, this));
+    }
+
+    /**
+     * get a connection, waiting for one to be free if necessary. Must be
+     * closed when done, preferably with try-with-resources.
+     *
+     * @return the connection
+     *
+     * @throws SQLException if interrupted while waiting, or if the pool is
+     *                      closed
+     */
+    ReadConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("The timeline db read connections are closed"); // NON-NLS
+        }
+        if (sharedLock != null) {
+            long waitStartNanos = System.nanoTime();
+            sharedLock.lock();
+            if (closed) {
+                sharedLock.unlock();
+                throw new SQLException("The timeline db read connections are closed"); // NON-NLS
+            }
+            ReadConnection readConnection = connections.get(0);
+            if (readConnection.depth++ == 0) {
+                readConnection.acquiredNanos = System.nanoTime();
+                stats.recordWait(readConnection.acquiredNanos - waitStartNanos);
+            }
+            return readConnection;
+        }
+        ReadConnection readConnection = threadConnection.get();
+        if (readConnection != null) {
+            readConnection.depth++;
+            return readConnection;
+        }
+        long waitStartNanos = System.nanoTime();
+        try {
+            // poll, so that a thread waiting when the pool is closed does not wait forever
+            while ((readConnection = idleConnections.poll(1, TimeUnit.SECONDS)) == null) {
+                if (closed) {
+                    throw new SQLException("The timeline db read connections are closed"); // NON-NLS
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a timeline db read connection", ex); // NON-NLS
+        }
+        synchronized (this) {
+            if (closed) {
+                closeConnection(readConnection);
+                throw new SQLException("The timeline db read connections are closed"); // NON-NLS
+            }
+        }
+        readConnection.acquiredNanos = System.nanoTime();
+        stats.recordWait(readConnection.acquiredNanos - waitStartNanos);
+        readConnection.depth = 1;
+        threadConnection.set(readConnection);
+        return readConnection;
+    }
+
+    private void release(ReadConnection readConnection) {
+        if (sharedLock != null) {
+            if (--readConnection.depth == 0) {
+                stats.recordHold(System.nanoTime() - readConnection.acquiredNanos);
+            }
+            sharedLock.unlock();
+            return;
+        }
+        if (--readConnection.depth == 0) {
+            threadConnection.remove();
+            stats.recordHold(System.nanoTime() - readConnection.acquiredNanos);
+            synchronized (this) {
+                if (closed) {
+                    closeConnection(readConnection);
+                } else {
+                    idleConnections.add(readConnection);
+                }
+            }
+        }
+    }
+
+    /**
+     * close the pool. Idle connections are closed right away, connections in
+     * use are closed when they are returned. A shared write connection is left
+     * open, only its statements are closed.
+     */
+    void close() {
+        if (sharedLock != null) {
+            sharedLock.lock();
+            try {
+                synchronized (this) {
+                    closed = true;
+                }
+                closeConnection(connections.get(0));
+            } finally {
+                sharedLock.unlock();
+            }
+            return;
+        }
+        synchronized (this) {
+            closed = true;
+            ReadConnection readConnection;
+            while ((readConnection = idleConnections.poll()) != null) {
+                closeConnection(readConnection);
+            }
+        }
+    }
+
+    /**
+     * check whether the pool is closed
+     *
+     * @return true if close() was called
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * close the statements of a connection, and the connection itself unless
+     * it is the shared write connection
+     *
+     * @param readConnection the connection
+     */
+    private void closeConnection(ReadConnection readConnection) {
+        try {
+            for (PreparedStatement stmt : readConnection.statements.values()) {
+                stmt.close();
+            }
+            readConnection.statements.clear();
+            if (sharedLock == null) {
+                readConnection.con.close();
+            }
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "Failed to close timeline db read connection", ex); // NON-NLS
+        }
+    }
+
+    /**
+     * A read only connection, with its own prepared statements, borrowed from
+     * the pool by a single thread.
+     */
+    static final class ReadConnection implements AutoCloseable {
+
+        private final Connection con;
+        private final ReadConnectionPool pool;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private int depth;
+        private long acquiredNanos;
+
+        private ReadConnection(Connection con, ReadConnectionPool pool) {
+            this.con = con;
+            this.pool = pool;
+        }
+
+        Statement createStatement() throws SQLException {
+            return con.createStatement();
+        }
+
+        /**
+         * get a statement prepared from the given query on this connection,
+         * preparing it the first time it is asked for
+         *
+         * @param query the query
+         *
+         * @return the prepared statement
+         *
+         * @throws SQLException
+         */
+        PreparedStatement prepareStatement(String query) throws SQLException {
+            PreparedStatement stmt = statements.get(query);
+            if (stmt == null) {
+                stmt = con.prepareStatement(query);
+                statements.put(query, stmt);
+            }
+            return stmt;
+        }
+
+        /**
+         * return this connection to the pool
+         */
+        @Override
+        public void close() {
+            pool.release(this);
+        }
+    }
+}
@@ -27,6 +27,7 @@
 import org.apache.commons.lang3.StringUtils;
 import org.sleuthkit.autopsy.timeline.datamodel.eventtype.RootEventType;
 import org.sleuthkit.autopsy.timeline.filters.AbstractFilter;
+import org.sleuthkit.autopsy.timeline.filters.CompoundFilter;
 import org.sleuthkit.autopsy.timeline.filters.DataSourceFilter;
 import org.sleuthkit.autopsy.timeline.filters.DataSourcesFilter;
 import org.sleuthkit.autopsy.timeline.filters.DescriptionFilter;
@@ -126,6 +127,38 @@ static String getSQLWhere(RootFilter filter) {
         return getSQLWhere((Filter) filter);
     }
 
+    /**
+     * can the events that pass the given filter be counted from the
+     * pre-aggregated event_counts table? That table only has the type, data
+     * source and known state columns of the events table, so the filter must
+     * not restrict the descriptions, tags or hash sets of the events.
+     *
+     * @param filter the filter to check
+     *
+     * @return true if the where clause of the filter can be applied to the
+     *         event_counts table
+     */
+    static boolean canUseEventCounts(RootFilter filter) {
+        return canUseEventCounts((Filter) filter);
+    }
+
+    private static boolean canUseEventCounts(Filter filter) {
+        if (filter == null) {
+            return true;
+        } else if (filter instanceof DescriptionFilter
+                || filter instanceof TextFilter
+                || filter instanceof TagsFilter
+                || filter instanceof HashHitsFilter) {
+            return getSQLWhere(filter).equals("1");
+        } else if (filter instanceof CompoundFilter) {
+            return ((CompoundFilter<?>) filter).getSubFilters().stream()
+                    .filter(Filter::isActive)
+                    .allMatch(SQLHelper::canUseEventCounts);
+        } else {
+            return true;
+        }
+    }
+
     /**
      * get the SQL where clause corresponding to the given filter
      *
@@ -21,6 +21,7 @@
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.awt.Cursor;
 import java.awt.Desktop;
+import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -43,6 +44,7 @@
 import java.util.logging.Logger;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.SwingWorker;
 import javax.swing.UIManager;
@@ -67,6 +69,7 @@
 import org.sleuthkit.autopsy.ingest.IngestManager;
 import org.sleuthkit.autopsy.ingest.IngestProgressSnapshotDialog;
 import org.sleuthkit.autopsy.experimental.autoingest.AutoIngestManager.CaseDeletionResult;
+import org.sleuthkit.autopsy.experimental.autoingest.AutoIngestManager.JobSlotStatus;
 import org.sleuthkit.autopsy.experimental.autoingest.AutoIngestManager.JobsSnapshot;
 
 /**
@@ -455,6 +458,30 @@ private void updateRunningTableButtonsBasedOnSelectedRow() {
         enableRunningTableButtons(false);
     }
 
+    /**
+     * Gets the manifest file path of the job selected in the running jobs
+     * table, if the job is running on this node. If the selected job is
+     * running on another node, the user is told that it can only be cancelled
+     * from that node.
+     *
+     * @return The manifest file path, or null if no job is selected or the
+     *         selected job is running on another node.
+     */
+    private Path getSelectedLocalRunningJobManifestPath() {
+        int row = runningTable.getSelectedRow();
+        if (row < 0 || row >= runningTableModel.getRowCount()) {
+            return null;
+        }
+        if (!(boolean) runningTableModel.getValueAt(row, JobsTableModelColumns.IS_LOCAL_JOB.ordinal())) {
+            JOptionPane.showMessageDialog(this,
+                    NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.RemoteJobSelected.message"),
+                    NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.RemoteJobSelected.title"),
+                    JOptionPane.INFORMATION_MESSAGE);
+            return null;
+        }
+        return (Path) runningTableModel.getValueAt(row, JobsTableModelColumns.MANIFEST_FILE_PATH.ordinal());
+    }
+
     /**
      * Sets up the JTable that presents a view of the system-wide competed jobs
      * list.
@@ -1115,6 +1142,7 @@ private void initComponents() {
         bnExit = new javax.swing.JButton();
         bnOptions = new javax.swing.JButton();
         bnShowProgress = new javax.swing.JButton();
+        bnJobSlots = new javax.swing.JButton();
         bnPause = new javax.swing.JButton();
         bnPrioritizeCase = new javax.swing.JButton();
         bnShowCaseLog = new javax.swing.JButton();
@@ -1246,6 +1274,14 @@ public void actionPerformed(java.awt.event.ActionEvent evt) {
             }
         });
 
+        org.openide.awt.Mnemonics.setLocalizedText(bnJobSlots, org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.bnJobSlots.text")); // NOI18N
+        bnJobSlots.setToolTipText(org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.bnJobSlots.toolTipText")); // NOI18N
+        bnJobSlots.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                bnJobSlotsActionPerformed(evt);
+            }
+        });
+
         org.openide.awt.Mnemonics.setLocalizedText(bnPause, org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.bnPause.text")); // NOI18N
         bnPause.setToolTipText(org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "AutoIngestDashboard.bnPause.toolTipText")); // NOI18N
         bnPause.addActionListener(new java.awt.event.ActionListener() {
@@ -1345,6 +1381,7 @@ public void actionPerformed(java.awt.event.ActionEvent evt) {
                                     .addComponent(bnCancelJob, javax.swing.GroupLayout.DEFAULT_SIZE, 117, Short.MAX_VALUE)
                                     .addComponent(bnShowProgress, javax.swing.GroupLayout.DEFAULT_SIZE, 116, Short.MAX_VALUE)
                                     .addComponent(bnCancelModule, javax.swing.GroupLayout.DEFAULT_SIZE, 117, Short.MAX_VALUE)
+                                    .addComponent(bnJobSlots, javax.swing.GroupLayout.DEFAULT_SIZE, 117, Short.MAX_VALUE)
                                     .addComponent(bnDeleteCase, javax.swing.GroupLayout.DEFAULT_SIZE, 117, Short.MAX_VALUE)
                                     .addComponent(bnShowCaseLog, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                                     .addComponent(bnReprocessJob, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
@@ -1362,7 +1399,7 @@ public void actionPerformed(java.awt.event.ActionEvent evt) {
                 .addContainerGap())
         );
 
-        layout.linkSize(javax.swing.SwingConstants.HORIZONTAL, new java.awt.Component[] {bnCancelJob, bnCancelModule, bnDeleteCase, bnExit, bnOpenLogDir, bnOptions, bnPause, bnRefresh, bnShowProgress});
+        layout.linkSize(javax.swing.SwingConstants.HORIZONTAL, new java.awt.Component[] {bnCancelJob, bnCancelModule, bnDeleteCase, bnExit, bnJobSlots, bnOpenLogDir, bnOptions, bnPause, bnRefresh, bnShowProgress});
 
         layout.setVerticalGroup(
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
@@ -1389,12 +1426,14 @@ public void actionPerformed(java.awt.event.ActionEvent evt) {
                 .addComponent(lbRunning)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                     .addGroup(layout.createSequentialGroup()
-                        .addGap(34, 34, 34)
+                        .addGap(10, 10, 10)
                         .addComponent(bnShowProgress)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(bnCancelJob)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(bnCancelModule))
+                        .addComponent(bnCancelModule)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(bnJobSlots))
                     .addGroup(layout.createSequentialGroup()
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(runningScrollPane, javax.swing.GroupLayout.PREFERRED_SIZE, 133, javax.swing.GroupLayout.PREFERRED_SIZE)))
@@ -1423,7 +1462,7 @@ public void actionPerformed(java.awt.event.ActionEvent evt) {
                 .addContainerGap())
         );
 
-        layout.linkSize(javax.swing.SwingConstants.VERTICAL, new java.awt.Component[] {bnCancelJob, bnCancelModule, bnDeleteCase, bnExit, bnOpenLogDir, bnOptions, bnRefresh, bnShowProgress});
+        layout.linkSize(javax.swing.SwingConstants.VERTICAL, new java.awt.Component[] {bnCancelJob, bnCancelModule, bnDeleteCase, bnExit, bnJobSlots, bnOpenLogDir, bnOptions, bnRefresh, bnShowProgress});
 
     }// </editor-fold>//GEN-END:initComponents
 
@@ -1499,6 +1538,10 @@ private void bnDeleteCaseActionPerformed(java.awt.event.ActionEvent evt) {//GEN-
      * @param evt The button click event.
      */
     private void bnCancelJobActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_bnCancelJobActionPerformed
+        Path manifestPath = getSelectedLocalRunningJobManifestPath();
+        if (null == manifestPath) {
+            return;
+        }
         Object[] options = {
             org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "ConfirmationDialog.CancelJob"),
             org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "ConfirmationDialog.DoNotCancelJob")};
@@ -1516,7 +1559,7 @@ private void bnCancelJobActionPerformed(java.awt.event.ActionEvent evt) {//GEN-F
              * see it).
              */
             this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            manager.cancelCurrentJob();
+            manager.cancelJob(manifestPath);
             refreshTables();
             this.setCursor(Cursor.getDefaultCursor());
         }
@@ -1532,6 +1575,53 @@ private void bnShowProgressActionPerformed(java.awt.event.ActionEvent evt) {//GE
         IngestProgressSnapshotDialog dialog = new IngestProgressSnapshotDialog(this.getTopLevelAncestor(), true);
     }//GEN-LAST:event_bnShowProgressActionPerformed
 
+    /**
+     * Handles a click on the job slots button. Displays the job running in
+     * each job slot of this node and the throughput of the slot.
+     *
+     * @param evt The button click event.
+     */
+    @NbBundle.Messages({
+        "AutoIngestDashboard.JobSlotsDialog.title=Job Slots",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.Slot=Slot",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.CurrentJob=Current Job",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.JobsCompleted=Jobs Completed",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.JobsPerHour=Jobs/Hour",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.MegabytesProcessed=MB Processed",
+        "AutoIngestDashboard.JobSlotsDialog.ColumnHeader.MegabytesPerSecond=MB/s",
+        "AutoIngestDashboard.JobSlotsDialog.idle=Idle"
+    })
+    private void bnJobSlotsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_bnJobSlotsActionPerformed
+        DefaultTableModel slotsTableModel = new DefaultTableModel(new Object[]{
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_Slot(),
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_CurrentJob(),
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_JobsCompleted(),
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_JobsPerHour(),
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_MegabytesProcessed(),
+            Bundle.AutoIngestDashboard_JobSlotsDialog_ColumnHeader_MegabytesPerSecond()}, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (JobSlotStatus status : manager.getJobSlotStatuses()) {
+            AutoIngestJob job = status.getCurrentJob();
+            slotsTableModel.addRow(new Object[]{
+                status.getSlotNumber(),
+                (null != job) ? job.getManifest().getCaseName() + " / " + job.getManifest().getDataSourceFileName() : Bundle.AutoIngestDashboard_JobSlotsDialog_idle(),
+                status.getJobsCompleted(),
+                String.format("%.2f", status.getJobsPerHour()),
+                status.getBytesProcessed() / (1024L * 1024L),
+                String.format("%.2f", status.getMegabytesPerSecond())});
+        }
+        JTable slotsTable = new JTable(slotsTableModel);
+        JScrollPane slotsScrollPane = new JScrollPane(slotsTable);
+        slotsScrollPane.setPreferredSize(new Dimension(700, 150));
+        JOptionPane.showMessageDialog(this, slotsScrollPane, Bundle.AutoIngestDashboard_JobSlotsDialog_title(), JOptionPane.PLAIN_MESSAGE);
+    }//GEN-LAST:event_bnJobSlotsActionPerformed
+
     /**
      * Handles a click on the pause/resume auto ingest job button. Sends a
      * pause/resume request to the auto ingest manager.
@@ -1577,6 +1667,10 @@ private void bnOptionsActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIR
      * @param evt The button click event.
      */
     private void bnCancelModuleActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_bnCancelModuleActionPerformed
+        Path manifestPath = getSelectedLocalRunningJobManifestPath();
+        if (null == manifestPath) {
+            return;
+        }
         Object[] options = {
             org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "ConfirmationDialog.CancelModule"),
             org.openide.util.NbBundle.getMessage(AutoIngestDashboard.class, "ConfirmationDialog.DoNotCancelModule")};
@@ -1594,7 +1688,7 @@ private void bnCancelModuleActionPerformed(java.awt.event.ActionEvent evt) {//GE
              * see it).
              */
             this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            manager.cancelCurrentDataSourceLevelIngestModule();
+            manager.cancelDataSourceLevelIngestModule(manifestPath);
             refreshTables();
             this.setCursor(Cursor.getDefaultCursor());
         }
@@ -1704,6 +1798,7 @@ private void bnReprocessJobActionPerformed(java.awt.event.ActionEvent evt) {//GE
     private javax.swing.JButton bnCancelModule;
     private javax.swing.JButton bnDeleteCase;
     private javax.swing.JButton bnExit;
+    private javax.swing.JButton bnJobSlots;
     private javax.swing.JButton bnOpenLogDir;
     private javax.swing.JButton bnOptions;
     private javax.swing.JButton bnPause;
@@ -23,15 +23,12 @@
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.io.IOException;
-import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
-import java.nio.file.FileVisitResult;
-import static java.nio.file.FileVisitResult.CONTINUE;
-import static java.nio.file.FileVisitResult.TERMINATE;
-import java.nio.file.FileVisitor;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.FileStore;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -40,7 +37,6 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -51,11 +47,13 @@
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
@@ -83,7 +81,6 @@
 import org.sleuthkit.autopsy.experimental.autoingest.AutoIngestAlertFile.AutoIngestAlertFileException;
 import org.sleuthkit.autopsy.experimental.autoingest.AutoIngestJobLogger.AutoIngestJobLoggerException;
 import org.sleuthkit.autopsy.experimental.autoingest.FileExporter.FileExportException;
-import org.sleuthkit.autopsy.experimental.autoingest.ManifestFileParser.ManifestFileParserException;
 import org.sleuthkit.autopsy.experimental.autoingest.ManifestNodeData.ProcessingStatus;
 import static org.sleuthkit.autopsy.experimental.autoingest.ManifestNodeData.ProcessingStatus.COMPLETED;
 import static org.sleuthkit.autopsy.experimental.autoingest.ManifestNodeData.ProcessingStatus.DELETED;
@@ -121,8 +118,13 @@ public final class AutoIngestManager extends Observable implements PropertyChang
     private static final int NUM_INPUT_SCAN_SCHEDULING_THREADS = 1;
     private static final String INPUT_SCAN_SCHEDULER_THREAD_NAME = "AIM-input-scan-scheduler-%d";
     private static final String INPUT_SCAN_THREAD_NAME = "AIM-input-scan-%d";
+    private static final int NUM_MANIFEST_NODE_DATA_READER_THREADS = 4;
+    private static final String MANIFEST_NODE_DATA_READER_THREAD_NAME = "AIM-manifest-node-data-reader-%d";
+    private static final int MANIFEST_NODE_DATA_READ_BATCH_SIZE = 64;
     private static int DEFAULT_JOB_PRIORITY = 0;
     private static final String AUTO_INGEST_THREAD_NAME = "AIM-job-processing-%d";
+    private static final long DEFERRED_JOBS_RECHECK_INTERVAL_MS = 60000;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
     private static final String LOCAL_HOST_NAME = NetworkUtils.getLocalHostName();
     private static final String EVENT_CHANNEL_NAME = "Auto-Ingest-Manager-Events";
     private static final Set<String> EVENT_LIST = new HashSet<>(Arrays.asList(new String[]{
@@ -139,22 +141,59 @@ public final class AutoIngestManager extends Observable implements PropertyChang
     private final Object scanMonitor;
     private final ScheduledThreadPoolExecutor inputScanSchedulingExecutor;
     private final ExecutorService inputScanExecutor;
-    private final ExecutorService jobProcessingExecutor;
+    private final ExecutorService manifestNodeDataReaderExecutor;
+    private final Object inputScanLock;
+    @GuardedBy("inputScanLock")
+    private InputDirectoryIndex inputDirectoryIndex;
+    @GuardedBy("inputScanLock")
+    private final Map<Path, ManifestNodeData> settledManifestNodeData;
+    @GuardedBy("inputScanLock")
+    private Instant lastFullInputScanTime;
+    private final AtomicBoolean fullInputScanRequested;
+    private ExecutorService jobProcessingExecutor;
     private final ScheduledThreadPoolExecutor jobStatusPublishingExecutor;
     private final ConcurrentHashMap<String, Instant> hostNamesToLastMsgTime;
-    private final ConcurrentHashMap<String, AutoIngestJob> hostNamesToRunningJobs;
+    private final ConcurrentHashMap<Path, AutoIngestJob> manifestPathsToRemoteJobs;
+    private final ConcurrentHashMap<Path, Instant> manifestPathsToRemoteJobLastMsgTime;
     private final Object jobsLock;
     @GuardedBy("jobsLock")
     private final Map<String, Set<Path>> casesToManifests;
     @GuardedBy("jobsLock")
     private List<AutoIngestJob> pendingJobs;
     @GuardedBy("jobsLock")
-    private AutoIngestJob currentJob;
+    private final List<AutoIngestJob> currentJobs;
     @GuardedBy("jobsLock")
     private List<AutoIngestJob> completedJobs;
+    @GuardedBy("jobsLock")
+    private final Set<Path> updatedJobManifestPaths;
     private CoordinationService coordinationService;
-    private JobProcessingTask jobProcessingTask;
-    private Future<?> jobProcessingTaskFuture;
+    @GuardedBy("jobsLock")
+    private final List<JobProcessingTask> jobProcessingTasks;
+    private final Object pauseLock;
+    @GuardedBy("pauseLock")
+    private boolean pauseRequested;
+    @GuardedBy("pauseLock")
+    private boolean pausedForSystemError;
+    @GuardedBy("pauseLock")
+    private boolean pausedByRequestNotified;
+    @GuardedBy("pauseLock")
+    private int jobSlotCount;
+    @GuardedBy("pauseLock")
+    private int idleJobSlotCount;
+    private final List<Future<?>> jobProcessingTaskFutures;
+    private volatile boolean jobProcessingCancelled;
+    private final Object sharedCaseLock;
+    @GuardedBy("sharedCaseLock")
+    private Case sharedCase;
+    @GuardedBy("sharedCaseLock")
+    private String sharedCaseName;
+    @GuardedBy("sharedCaseLock")
+    private Path sharedCaseDirectoryPath;
+    @GuardedBy("sharedCaseLock")
+    private int sharedCaseUsers;
+    @GuardedBy("sharedCaseLock")
+    private boolean sharedCaseBusy;
+    private final Object dataSourceProcessorLock;
     private Path rootInputDirectory;
     private Path rootOutputDirectory;
     private volatile State state;
@@ -186,14 +225,25 @@ private AutoIngestManager() {
         scanMonitor = new Object();
         inputScanSchedulingExecutor = new ScheduledThreadPoolExecutor(NUM_INPUT_SCAN_SCHEDULING_THREADS, new ThreadFactoryBuilder().setNameFormat(INPUT_SCAN_SCHEDULER_THREAD_NAME).build());
         inputScanExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat(INPUT_SCAN_THREAD_NAME).build());
-        jobProcessingExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat(AUTO_INGEST_THREAD_NAME).build());
+        manifestNodeDataReaderExecutor = Executors.newFixedThreadPool(NUM_MANIFEST_NODE_DATA_READER_THREADS, new ThreadFactoryBuilder().setNameFormat(MANIFEST_NODE_DATA_READER_THREAD_NAME).build());
+        inputScanLock = new Object();
+        settledManifestNodeData = new HashMap<>();
+        fullInputScanRequested = new AtomicBoolean();
         jobStatusPublishingExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat(JOB_STATUS_PUBLISHING_THREAD_NAME).build());
-        hostNamesToRunningJobs = new ConcurrentHashMap<>();
+        manifestPathsToRemoteJobs = new ConcurrentHashMap<>();
+        manifestPathsToRemoteJobLastMsgTime = new ConcurrentHashMap<>();
         hostNamesToLastMsgTime = new ConcurrentHashMap<>();
         jobsLock = new Object();
         casesToManifests = new HashMap<>();
         pendingJobs = new ArrayList<>();
+        currentJobs = new ArrayList<>();
         completedJobs = new ArrayList<>();
+        updatedJobManifestPaths = new HashSet<>();
+        jobProcessingTasks = new ArrayList<>();
+        pauseLock = new Object();
+        jobProcessingTaskFutures = new ArrayList<>();
+        sharedCaseLock = new Object();
+        dataSourceProcessorLock = new Object();
         try {
             RuntimeProperties.setRunningWithGUI(false);
             SYS_LOGGER.log(Level.INFO, "Set running with desktop GUI runtime property to false");
@@ -224,9 +274,31 @@ void startUp() throws AutoIngestManagerStartupException {
         }
         rootInputDirectory = Paths.get(AutoIngestUserPreferences.getAutoModeImageFolder());
         rootOutputDirectory = Paths.get(AutoIngestUserPreferences.getAutoModeResultsFolder());
+        synchronized (inputScanLock) {
+            inputDirectoryIndex = new InputDirectoryIndex(rootInputDirectory);
+            settledManifestNodeData.clear();
+        }
         inputScanSchedulingExecutor.scheduleAtFixedRate(new InputDirScanSchedulingTask(), 0, AutoIngestUserPreferences.getMinutesOfInputScanInterval(), TimeUnit.MINUTES);
-        jobProcessingTask = new JobProcessingTask();
-        jobProcessingTaskFuture = jobProcessingExecutor.submit(jobProcessingTask);
+        int numberOfJobSlots = Math.max(1, AutoIngestUserPreferences.getMaxConcurrentJobsPerNode());
+        jobProcessingCancelled = false;
+        synchronized (pauseLock) {
+            pauseRequested = false;
+            pausedForSystemError = false;
+            pausedByRequestNotified = false;
+            jobSlotCount = numberOfJobSlots;
+            idleJobSlotCount = 0;
+        }
+        jobProcessingExecutor = Executors.newFixedThreadPool(numberOfJobSlots, new ThreadFactoryBuilder().setNameFormat(AUTO_INGEST_THREAD_NAME).build());
+        synchronized (jobsLock) {
+            jobProcessingTasks.clear();
+            jobProcessingTaskFutures.clear();
+            for (int slotNumber = 1; slotNumber <= numberOfJobSlots; ++slotNumber) {
+                JobProcessingTask jobProcessingTask = new JobProcessingTask(slotNumber);
+                jobProcessingTasks.add(jobProcessingTask);
+                jobProcessingTaskFutures.add(jobProcessingExecutor.submit(jobProcessingTask));
+            }
+        }
+        SYS_LOGGER.log(Level.INFO, "Started {0} job processing slot(s)", numberOfJobSlots);
         jobStatusPublishingExecutor.scheduleAtFixedRate(new PeriodicJobStatusEventTask(), JOB_STATUS_EVENT_INTERVAL_SECONDS, JOB_STATUS_EVENT_INTERVAL_SECONDS, TimeUnit.SECONDS);
         eventPublisher.addSubscriber(EVENT_LIST, instance);
         state = State.RUNNING;
@@ -294,11 +366,13 @@ private void handleRemoteJobStartedEvent(AutoIngestJobStartedEvent event) {
                 AutoIngestJob pendingJob = iterator.next();
                 if (pendingJob.getManifest().getFilePath().equals(manifestFilePath)) {
                     iterator.remove();
+                    updatedJobManifestPaths.add(manifestFilePath);
                     break;
                 }
             }
         }
-        hostNamesToRunningJobs.put(event.getJob().getNodeName(), event.getJob());
+        manifestPathsToRemoteJobLastMsgTime.put(event.getJob().getManifest().getFilePath(), Instant.now());
+        manifestPathsToRemoteJobs.put(event.getJob().getManifest().getFilePath(), event.getJob());
         setChanged();
         notifyObservers(Event.JOB_STARTED);
     }
@@ -315,7 +389,8 @@ private void handleRemoteJobStartedEvent(AutoIngestJobStartedEvent event) {
     private void handleRemoteJobStatusEvent(AutoIngestJobStatusEvent event) {
         String hostName = event.getJob().getNodeName();
         hostNamesToLastMsgTime.put(hostName, Instant.now());
-        hostNamesToRunningJobs.put(hostName, event.getJob());
+        manifestPathsToRemoteJobLastMsgTime.put(event.getJob().getManifest().getFilePath(), Instant.now());
+        manifestPathsToRemoteJobs.put(event.getJob().getManifest().getFilePath(), event.getJob());
         setChanged();
         notifyObservers(Event.JOB_STATUS_UPDATED);
     }
@@ -333,10 +408,12 @@ private void handleRemoteJobStatusEvent(AutoIngestJobStatusEvent event) {
     private void handleRemoteJobCompletedEvent(AutoIngestJobCompletedEvent event) {
         String hostName = event.getJob().getNodeName();
         hostNamesToLastMsgTime.put(hostName, Instant.now());
-        hostNamesToRunningJobs.remove(hostName);
+        manifestPathsToRemoteJobs.remove(event.getJob().getManifest().getFilePath());
+        manifestPathsToRemoteJobLastMsgTime.remove(event.getJob().getManifest().getFilePath());
         if (event.shouldRetry() == false) {
             synchronized (jobsLock) {
                 completedJobs.add(event.getJob());
+                updatedJobManifestPaths.add(event.getJob().getManifest().getFilePath());
             }
         }
         //scanInputDirsNow();
@@ -360,13 +437,15 @@ private void handleRemoteCasePrioritizationEvent(AutoIngestCasePrioritizedEvent
 
     /**
      * Processes a case deletin event from another node by triggering an
-     * immediate input directory scan.
+     * immediate full input directory scan, so that the deleted status of the
+     * manifests for the case is picked up.
      *
      * @param event A case deleted event from another auto ingest node.
      */
     private void handleRemoteCaseDeletedEvent(AutoIngestCaseDeletedEvent event) {
         String hostName = event.getNodeName();
         hostNamesToLastMsgTime.put(hostName, Instant.now());
+        fullInputScanRequested.set(true);
         scanInputDirsNow();
         setChanged();
         notifyObservers(Event.CASE_DELETED);
@@ -402,23 +481,34 @@ void shutDown() {
     private void stopInputFolderScans() throws InterruptedException {
         inputScanSchedulingExecutor.shutdownNow();
         inputScanExecutor.shutdownNow();
+        manifestNodeDataReaderExecutor.shutdownNow();
         while (!inputScanSchedulingExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
             SYS_LOGGER.log(Level.WARNING, "Auto ingest waited at least thirty seconds for input scan scheduling executor to shut down, continuing to wait"); //NON-NLS
         }
         while (!inputScanExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
             SYS_LOGGER.log(Level.WARNING, "Auto ingest waited at least thirty seconds for input scan executor to shut down, continuing to wait"); //NON-NLS
         }
+        while (!manifestNodeDataReaderExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            SYS_LOGGER.log(Level.WARNING, "Auto ingest waited at least thirty seconds for manifest node data reader executor to shut down, continuing to wait"); //NON-NLS
+        }
+        synchronized (inputScanLock) {
+            inputDirectoryIndex.close();
+        }
     }
 
     /**
-     * Cancels the job processing task and shuts down its executor.
+     * Cancels the job processing tasks and shuts down their executor.
      */
     private void stopJobProcessing() throws InterruptedException {
         synchronized (jobsLock) {
-            if (null != currentJob) {
-                cancelCurrentJob();
+            jobProcessingCancelled = true;
+            for (AutoIngestJob job : currentJobs) {
+                job.cancel();
+                SYS_LOGGER.log(Level.INFO, "Cancelling automated ingest for manifest {0}", job.getManifest().getFilePath());
+            }
+            for (Future<?> jobProcessingTaskFuture : jobProcessingTaskFutures) {
+                jobProcessingTaskFuture.cancel(true);
             }
-            jobProcessingTaskFuture.cancel(true);
             jobProcessingExecutor.shutdown();
         }
         while (!jobProcessingExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
@@ -427,12 +517,12 @@ private void stopJobProcessing() throws InterruptedException {
     }
 
     /**
-     * Clears the job lists and resets the current job to null.
+     * Clears the job lists, including the current jobs list.
      */
     private void cleanupJobs() {
         synchronized (jobsLock) {
             pendingJobs.clear();
-            currentJob = null;
+            currentJobs.clear();
             completedJobs.clear();
         }
     }
@@ -457,13 +547,9 @@ void getJobs(List<AutoIngestJob> pendingJobs, List<AutoIngestJob> runningJobs, L
             }
             if (null != runningJobs) {
                 runningJobs.clear();
-                if (null != currentJob) {
-                    runningJobs.add(currentJob);
-                }
-                for (AutoIngestJob job : hostNamesToRunningJobs.values()) {
-                    runningJobs.add(job);
-                    runningJobs.sort(new AutoIngestJob.AlphabeticalComparator());
-                }
+                runningJobs.addAll(currentJobs);
+                runningJobs.addAll(manifestPathsToRemoteJobs.values());
+                runningJobs.sort(new AutoIngestJob.AlphabeticalComparator());
             }
             if (null != completedJobs) {
                 completedJobs.clear();
@@ -496,24 +582,62 @@ void scanInputDirsAndWait() {
     }
 
     /**
-     * Pauses processing of the pending jobs queue. The currently running job
-     * will continue to run to completion.
+     * Pauses processing of the pending jobs queue in every job slot of this
+     * node. The currently running jobs will continue to run to completion.
+     * Observers are notified that processing is paused when no jobs are
+     * running any more.
      */
     void pause() {
         if (State.RUNNING != state) {
             return;
         }
-        jobProcessingTask.requestPause();
+        synchronized (pauseLock) {
+            SYS_LOGGER.log(Level.INFO, "Job processing pause requested");
+            pauseRequested = true;
+            notifyIfPausedByRequest();
+        }
     }
 
     /**
-     * Resumes processing of the pending jobs queue.
+     * Resumes processing of the pending jobs queue in every job slot of this
+     * node, whether processing was paused by request or for a system error.
      */
     void resume() {
         if (State.RUNNING != state) {
             return;
         }
-        jobProcessingTask.requestResume();
+        synchronized (pauseLock) {
+            SYS_LOGGER.log(Level.INFO, "Job processing resume requested");
+            boolean wasPaused = pausedByRequestNotified || pausedForSystemError;
+            pauseRequested = false;
+            pausedByRequestNotified = false;
+            if (pausedForSystemError) {
+                pausedForSystemError = false;
+                errorState = ErrorState.NONE;
+                SYS_LOGGER.log(Level.INFO, "Job processing resumed after system error");
+            }
+            if (wasPaused) {
+                setChanged();
+                notifyObservers(Event.RESUMED);
+            }
+            pauseLock.notifyAll();
+        }
+    }
+
+    /**
+     * Notifies observers that job processing is paused by request if a pause
+     * has been requested and every job slot is either paused or waiting for an
+     * input directory scan, i.e., no jobs are running. Observers are notified
+     * only once per pause request.
+     */
+    @GuardedBy("pauseLock")
+    private void notifyIfPausedByRequest() {
+        if (pauseRequested && !pausedByRequestNotified && idleJobSlotCount >= jobSlotCount) {
+            pausedByRequestNotified = true;
+            SYS_LOGGER.log(Level.INFO, "Job processing paused by request");
+            setChanged();
+            notifyObservers(Event.PAUSED_BY_REQUEST);
+        }
     }
 
     /**
@@ -540,18 +664,27 @@ void prioritizeCase(final String caseName) {
             }
             if (!prioritizedJobs.isEmpty()) {
                 ++maxPriority;
+                Map<String, byte[]> prioritizedNodeData = new HashMap<>();
                 for (AutoIngestJob job : prioritizedJobs) {
                     String manifestNodePath = job.getManifest().getFilePath().toString();
                     try {
                         ManifestNodeData nodeData = new ManifestNodeData(coordinationService.getNodeData(CoordinationService.CategoryNode.MANIFESTS, manifestNodePath));
                         nodeData.setPriority(maxPriority);
-                        coordinationService.setNodeData(CoordinationService.CategoryNode.MANIFESTS, manifestNodePath, nodeData.toArray());
+                        prioritizedNodeData.put(manifestNodePath, nodeData.toArray());
                     } catch (CoordinationServiceException ex) {
                         SYS_LOGGER.log(Level.SEVERE, String.format("Coordination service error while prioritizing %s", manifestNodePath), ex);
                     } catch (InterruptedException ex) {
                         SYS_LOGGER.log(Level.SEVERE, "Unexpected interrupt while updating coordination service node data for {0}", manifestNodePath);
                     }
                     job.setPriority(maxPriority);
+                    updatedJobManifestPaths.add(job.getManifest().getFilePath());
+                }
+                try {
+                    coordinationService.setNodeData(CoordinationService.CategoryNode.MANIFESTS, prioritizedNodeData);
+                } catch (CoordinationServiceException ex) {
+                    SYS_LOGGER.log(Level.SEVERE, String.format("Coordination service error while prioritizing case %s", caseName), ex);
+                } catch (InterruptedException ex) {
+                    SYS_LOGGER.log(Level.SEVERE, "Unexpected interrupt while updating coordination service node data for case {0}", caseName);
                 }
             }
 
@@ -599,6 +732,7 @@ void prioritizeJob(Path manifestPath) {
                     SYS_LOGGER.log(Level.SEVERE, "Unexpected interrupt while updating coordination service node data for {0}", manifestNodePath);
                 }
                 prioritizedJob.setPriority(maxPriority);
+                updatedJobManifestPaths.add(manifestPath);
             }
 
             Collections.sort(pendingJobs, new AutoIngestJob.PriorityComparator());
@@ -626,6 +760,7 @@ void reprocessJob(Path manifestPath) {
                 if (job.getManifest().getFilePath().equals(manifestPath)) {
                     completedJob = job;
                     iterator.remove();
+                    updatedJobManifestPaths.add(manifestPath);
                     break;
                 }
             }
@@ -666,6 +801,13 @@ CaseDeletionResult deleteCase(String caseName, Path caseDirectoryPath) {
         CaseDeletionResult result = CaseDeletionResult.FULLY_DELETED;
         List<Lock> manifestFileLocks = new ArrayList<>();
         try {
+            /*
+             * Do a fresh input directory scan. This is done before taking the
+             * jobs lock, since the scan needs the lock to publish its results.
+             */
+            InputDirScanner scanner = new InputDirScanner();
+            scanner.scan();
+
             synchronized (jobsLock) {
                 /*
                  * Get the case metadata.
@@ -679,11 +821,6 @@ CaseDeletionResult deleteCase(String caseName, Path caseDirectoryPath) {
                     return CaseDeletionResult.FAILED;
                 }
 
-                /*
-                 * Do a fresh input directory scan.
-                 */
-                InputDirScanner scanner = new InputDirScanner();
-                scanner.scan();
                 Set<Path> manifestPaths = casesToManifests.get(caseName);
                 if (null == manifestPaths) {
                     SYS_LOGGER.log(Level.SEVERE, String.format("No manifest paths found for case %s at %s", caseName, caseDirectoryPath));
@@ -720,18 +857,27 @@ CaseDeletionResult deleteCase(String caseName, Path caseDirectoryPath) {
                 }
 
                 /*
-                 * Mark each job (manifest file) as deleted
+                 * Mark each job (manifest file) as deleted, writing the node
+                 * data for all of the manifests in as few coordination service
+                 * transactions as possible.
                  */
+                Map<String, byte[]> deletedNodeData = new HashMap<>();
                 for (Path manifestPath : manifestPaths) {
                     try {
                         ManifestNodeData nodeData = new ManifestNodeData(coordinationService.getNodeData(CoordinationService.CategoryNode.MANIFESTS, manifestPath.toString()));
                         nodeData.setStatus(ManifestNodeData.ProcessingStatus.DELETED);
-                        coordinationService.setNodeData(CoordinationService.CategoryNode.MANIFESTS, manifestPath.toString(), nodeData.toArray());
+                        deletedNodeData.put(manifestPath.toString(), nodeData.toArray());
                     } catch (InterruptedException | CoordinationServiceException ex) {
                         SYS_LOGGER.log(Level.SEVERE, String.format("Error attempting to set delete flag on manifest data for %s for case %s at %s", manifestPath, caseName, caseDirectoryPath), ex);
                         return CaseDeletionResult.PARTIALLY_DELETED;
                     }
                 }
+                try {
+                    coordinationService.setNodeData(CoordinationService.CategoryNode.MANIFESTS, deletedNodeData);
+                } catch (InterruptedException | CoordinationServiceException ex) {
+                    SYS_LOGGER.log(Level.SEVERE, String.format("Error attempting to set delete flags on manifest data for case %s at %s", caseName, caseDirectoryPath), ex);
+                    return CaseDeletionResult.PARTIALLY_DELETED;
+                }
 
                 /*
                  * Remove the jobs for the case from the pending jobs queue and
@@ -739,6 +885,7 @@ CaseDeletionResult deleteCase(String caseName, Path caseDirectoryPath) {
                  */
                 removeJobs(manifestPaths, pendingJobs);
                 removeJobs(manifestPaths, completedJobs);
+                updatedJobManifestPaths.addAll(manifestPaths);
                 casesToManifests.remove(caseName);
             }
 
@@ -791,47 +938,139 @@ private void removeJobs(Set<Path> manifestPaths, List<AutoIngestJob> jobs) {
     }
 
     /**
-     * Starts the process of cancelling the current job.
+     * Starts the process of cancelling a job that is running on this node.
+     *
+     * Note that the job is included in the running list for a while because
+     * it can take some time for the automated ingest process for the job to be
+     * shut down in an orderly fashion.
      *
-     * Note that the current job is included in the running list for a while
-     * because it can take some time for the automated ingest process for the
-     * job to be shut down in an orderly fashion.
+     * @param manifestPath The manifest file path for the job.
      */
-    void cancelCurrentJob() {
+    void cancelJob(Path manifestPath) {
         if (State.RUNNING != state) {
             return;
         }
         synchronized (jobsLock) {
-            if (null != currentJob) {
-                currentJob.cancel();
-                SYS_LOGGER.log(Level.INFO, "Cancelling automated ingest for manifest {0}", currentJob.getManifest().getFilePath());
+            AutoIngestJob job = getCurrentJob(manifestPath);
+            if (null != job) {
+                job.cancel();
+                SYS_LOGGER.log(Level.INFO, "Cancelling automated ingest for manifest {0}", manifestPath);
             }
         }
     }
 
     /**
-     * Cancels the currently running data-source-level ingest module for the
-     * current job.
+     * Cancels the currently running data-source-level ingest module for a job
+     * that is running on this node.
+     *
+     * @param manifestPath The manifest file path for the job.
      */
-    void cancelCurrentDataSourceLevelIngestModule() {
+    void cancelDataSourceLevelIngestModule(Path manifestPath) {
         if (State.RUNNING != state) {
             return;
         }
         synchronized (jobsLock) {
-            if (null != currentJob) {
-                IngestJob ingestJob = currentJob.getIngestJob();
+            AutoIngestJob job = getCurrentJob(manifestPath);
+            if (null != job) {
+                IngestJob ingestJob = job.getIngestJob();
                 if (null != ingestJob) {
                     IngestJob.DataSourceIngestModuleHandle moduleHandle = ingestJob.getSnapshot().runningDataSourceIngestModule();
                     if (null != moduleHandle) {
-                        currentJob.setStage(AutoIngestJob.Stage.CANCELLING_MODULE);
+                        job.setStage(AutoIngestJob.Stage.CANCELLING_MODULE);
                         moduleHandle.cancel();
-                        SYS_LOGGER.log(Level.INFO, "Cancelling {0} module for manifest {1}", new Object[]{moduleHandle.displayName(), currentJob.getManifest().getFilePath()});
+                        SYS_LOGGER.log(Level.INFO, "Cancelling {0} module for manifest {1}", new Object[]{moduleHandle.displayName(), manifestPath});
                     }
                 }
             }
         }
     }
 
+    /**
+     * Gets the job running on this node for a given manifest.
+     *
+     * @param manifestPath The manifest file path for the job.
+     *
+     * @return The job, or null if the job is not running on this node.
+     */
+    @GuardedBy("jobsLock")
+    private AutoIngestJob getCurrentJob(Path manifestPath) {
+        for (AutoIngestJob job : currentJobs) {
+            if (job.getManifest().getFilePath().equals(manifestPath)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the status of each of the job processing slots of this node.
+     *
+     * @return The job slot statuses, ordered by slot number.
+     */
+    List<JobSlotStatus> getJobSlotStatuses() {
+        List<JobSlotStatus> statuses = new ArrayList<>();
+        synchronized (jobsLock) {
+            for (JobProcessingTask jobProcessingTask : jobProcessingTasks) {
+                statuses.add(jobProcessingTask.getSlotStatus());
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Determines whether this node has enough idle processor cores, unused
+     * Java heap memory and free temporary directory space to start another
+     * job while it is already processing at least one job. The thresholds are
+     * auto ingest user preferences. Must not be called while holding the jobs
+     * lock, since it queries the file system.
+     *
+     * @return True or false.
+     */
+    private boolean hasResourcesForAdditionalJob() {
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        double freeCores = availableProcessors;
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            double systemCpuLoad = ((com.sun.management.OperatingSystemMXBean) osBean).getSystemCpuLoad();
+            if (systemCpuLoad >= 0) {
+                freeCores = availableProcessors * (1.0 - systemCpuLoad);
+            }
+        } else {
+            double systemLoadAverage = osBean.getSystemLoadAverage();
+            if (systemLoadAverage >= 0) {
+                freeCores = availableProcessors - systemLoadAverage;
+            }
+        }
+        if (freeCores < AutoIngestUserPreferences.getMinFreeCoresForAdditionalJob()) {
+            SYS_LOGGER.log(Level.INFO, "Not starting an additional job, {0} of {1} cores idle", new Object[]{String.format("%.1f", freeCores), availableProcessors}); //NON-NLS
+            return false;
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long freeMemoryMB = (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) / BYTES_PER_MEGABYTE;
+        if (freeMemoryMB < AutoIngestUserPreferences.getMinFreeMemoryForAdditionalJob()) {
+            SYS_LOGGER.log(Level.INFO, "Not starting an additional job, {0} MB of heap memory free", freeMemoryMB); //NON-NLS
+            return false;
+        }
+
+        Path tempDirectoryPath;
+        synchronized (sharedCaseLock) {
+            tempDirectoryPath = (null != sharedCase) ? Paths.get(sharedCase.getTempDirectory()) : Paths.get(System.getProperty("java.io.tmpdir")); //NON-NLS
+        }
+        try {
+            FileStore fileStore = Files.getFileStore(tempDirectoryPath);
+            long freeTempSpaceGB = fileStore.getUsableSpace() / (BYTES_PER_MEGABYTE * 1024L);
+            if (freeTempSpaceGB < AutoIngestUserPreferences.getMinFreeTempSpaceForAdditionalJob()) {
+                SYS_LOGGER.log(Level.INFO, "Not starting an additional job, {0} GB free in {1}", new Object[]{freeTempSpaceGB, tempDirectoryPath}); //NON-NLS
+                return false;
+            }
+        } catch (IOException ex) {
+            SYS_LOGGER.log(Level.WARNING, String.format("Failed to get free space for %s, not starting an additional job", tempDirectoryPath), ex); //NON-NLS
+            return false;
+        }
+        return true;
+    }
+
     /**
      * A task that submits an input directory scan task to the input directory
      * scan task executor.
@@ -885,14 +1124,26 @@ public Void call() throws Exception {
     }
 
     /**
-     * A FileVisitor that searches the input directories for manifest files. The
-     * search results are used to refresh the pending jobs queue and the
-     * completed jobs list. Crashed job recovery is performed as needed.
+     * Searches the input directories for manifest files. The search results
+     * are used to refresh the pending jobs queue and the completed jobs list.
+     * Crashed job recovery is performed as needed.
+     * <p>
+     * Most scans are incremental: the input directory index only lists the
+     * directories that have changed since the previous scan, and the
+     * coordination service nodes for manifests that are already known to be
+     * completed or deleted are not read again unless the manifest file has
+     * changed. A full scan is done when one is requested, when the configured
+     * full scan interval has elapsed, and when the previous scan did not
+     * complete. The remaining coordination service node reads are done in
+     * parallel batches. None of the file system or coordination service I/O is
+     * done while holding the jobs lock, which is only taken to publish the
+     * results.
      */
-    private final class InputDirScanner implements FileVisitor<Path> {
+    private final class InputDirScanner {
 
         private final List<AutoIngestJob> newPendingJobsList = new ArrayList<>();
         private final List<AutoIngestJob> newCompletedJobsList = new ArrayList<>();
+        private final Map<String, Path> caseDirectories = new HashMap<>();
 
         /**
          * Searches the input directories for manifest files. The search results
@@ -900,18 +1151,14 @@ private final class InputDirScanner implements FileVisitor<Path> {
          * list.
          */
         private void scan() {
-            synchronized (jobsLock) {
-                if (Thread.currentThread().isInterrupted()) {
-                    return;
-                }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            synchronized (inputScanLock) {
                 try {
-                    newPendingJobsList.clear();
-                    newCompletedJobsList.clear();
-                    Files.walkFileTree(rootInputDirectory, EnumSet.of(FOLLOW_LINKS), Integer.MAX_VALUE, this);
-                    Collections.sort(newPendingJobsList, new AutoIngestJob.PriorityComparator());
-                    AutoIngestManager.this.pendingJobs = newPendingJobsList;
-                    AutoIngestManager.this.completedJobs = newCompletedJobsList;
-
+                    doScan();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
                 } catch (Exception ex) {
                     /*
                      * NOTE: Need to catch all exceptions here. Otherwise
@@ -922,139 +1169,244 @@ private void scan() {
                 }
             }
             synchronized (scanMonitor) {
-                scanMonitor.notify();
+                scanMonitor.notifyAll();
             }
         }
 
         /**
-         * Invoked for an input directory before entries in the directory are
-         * visited. Checks if the task thread has been interrupted because auto
-         * ingest is shutting down and terminates the scan if that is the case.
+         * Brings the input directory index up to date, reads the coordination
+         * service node data for the manifests that need it, sorts the
+         * manifests into pending and completed jobs, doing crashed job recovery
+         * and creating nodes for new manifests as required, and publishes the
+         * results.
          *
-         * @param dirPath  The directory about to be visited.
-         * @param dirAttrs The basic file attributes of the directory about to
-         *                 be visited.
-         *
-         * @return TERMINATE if the task thread has been interrupted, CONTINUE
-         *         if it has not.
-         *
-         * @throws IOException if an I/O error occurs, but this implementation
-         *                     does not throw.
+         * @throws InterruptedException if the thread running the input
+         *                              directory scan is interrupted, i.e., if
+         *                              auto ingest is shutting down.
          */
-        @Override
-        public FileVisitResult preVisitDirectory(Path dirPath, BasicFileAttributes dirAttrs) throws IOException {
-            if (Thread.currentThread().isInterrupted()) {
-                return TERMINATE;
+        private void doScan() throws InterruptedException {
+            Instant scanStartTime = Instant.now();
+            synchronized (jobsLock) {
+                settledManifestNodeData.keySet().removeAll(updatedJobManifestPaths);
+                updatedJobManifestPaths.clear();
             }
-            return CONTINUE;
-        }
 
-        /**
-         * Invoked for a file in a directory. If the file is a manifest file,
-         * creates a pending pending or completed auto ingest job for the
-         * manifest, based on the data stored in the coordination service node
-         * for the manifest.
-         * <p>
-         * Note that the mapping of case names to manifest paths that is used
-         * for case deletion is updated as well.
-         *
-         * @param filePath The path of the file.
-         * @param attrs    The file system attributes of the file.
-         *
-         * @return TERMINATE if auto ingest is shutting down, CONTINUE if it has
-         *         not.
-         *
-         * @throws IOException if an I/O error occurs, but this implementation
-         *                     does not throw.
-         */
-        @Override
-        public FileVisitResult visitFile(Path filePath, BasicFileAttributes attrs) throws IOException {
-            if (Thread.currentThread().isInterrupted()) {
-                return TERMINATE;
+            InputDirectoryIndex.Update update = inputDirectoryIndex.update(isFullScanDue(scanStartTime));
+            if (update.isFullUpdate()) {
+                lastFullInputScanTime = scanStartTime;
+                settledManifestNodeData.clear();
             }
+            Instant discoveryEndTime = Instant.now();
 
-            Manifest manifest = null;
-            for (ManifestFileParser parser : Lookup.getDefault().lookupAll(ManifestFileParser.class)) {
-                if (parser.fileIsManifest(filePath)) {
-                    try {
-                        manifest = parser.parse(filePath);
-                        break;
-                    } catch (ManifestFileParserException ex) {
-                        SYS_LOGGER.log(Level.SEVERE, String.format("Error attempting to parse %s with parser %s", filePath, parser.getClass().getCanonicalName()), ex);
-                    }
-                }
-                if (Thread.currentThread().isInterrupted()) {
-                    return TERMINATE;
+            /*
+             * Completed and deleted jobs only change status when this node or
+             * another node acts on them, so the node data for their unchanged
+             * manifests is not read again. Reprocessing by this node is picked
+             * up by way of the updated jobs, case deletion by another node
+             * triggers a full scan, and anything else is picked up by the next
+             * full scan.
+             */
+            List<Manifest> manifestsToRead = new ArrayList<>();
+            for (Manifest manifest : update.getManifests()) {
+                Path manifestPath = manifest.getFilePath();
+                ManifestNodeData nodeData = settledManifestNodeData.get(manifestPath);
+                if (null == nodeData || update.getChangedManifestPaths().contains(manifestPath)) {
+                    manifestsToRead.add(manifest);
+                } else if (COMPLETED == nodeData.getStatus()) {
+                    addCompletedJob(manifest, nodeData);
                 }
             }
+            Map<Path, ManifestNodeData> nodeDataByManifestPath = readManifestNodeData(manifestsToRead);
+            Instant nodeDataReadEndTime = Instant.now();
 
-            if (Thread.currentThread().isInterrupted()) {
-                return TERMINATE;
+            /*
+             * Add a job to the pending jobs queue, the completed jobs list, or
+             * do crashed job recovery, as required.
+             */
+            for (Manifest manifest : manifestsToRead) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                Path manifestPath = manifest.getFilePath();
+                ManifestNodeData nodeData = nodeDataByManifestPath.get(manifestPath);
+                if (null == nodeData) {
+                    continue;
+                }
+                if (nodeData.coordSvcNodeDataWasSet()) {
+                    ProcessingStatus processingStatus = nodeData.getStatus();
+                    switch (processingStatus) {
+                        case PENDING:
+                            addPendingJob(manifest, nodeData);
+                            break;
+                        case PROCESSING:
+                            doRecoveryIfCrashed(manifest);
+                            break;
+                        case COMPLETED:
+                            addCompletedJob(manifest, nodeData);
+                            settledManifestNodeData.put(manifestPath, nodeData);
+                            break;
+                        case DELETED:
+                            // Do nothing - we dont'want to add it to any job list or do recovery
+                            settledManifestNodeData.put(manifestPath, nodeData);
+                            break;
+                        default:
+                            SYS_LOGGER.log(Level.SEVERE, "Unknown ManifestNodeData.ProcessingStatus");
+                            break;
+                    }
+                } else {
+                    addNewPendingJob(manifest);
+                }
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
             }
 
-            if (null != manifest) {
+            synchronized (jobsLock) {
+                if (!updatedJobManifestPaths.isEmpty()) {
+                    /*
+                     * Jobs that this node dequeued, completed, prioritized,
+                     * reprocessed or deleted while the scan was in progress
+                     * are more up to date in the current lists than in the
+                     * scan results.
+                     */
+                    removeJobs(updatedJobManifestPaths, newPendingJobsList);
+                    removeJobs(updatedJobManifestPaths, newCompletedJobsList);
+                    for (AutoIngestJob job : pendingJobs) {
+                        if (updatedJobManifestPaths.contains(job.getManifest().getFilePath())) {
+                            newPendingJobsList.add(job);
+                        }
+                    }
+                    for (AutoIngestJob job : completedJobs) {
+                        if (updatedJobManifestPaths.contains(job.getManifest().getFilePath())) {
+                            newCompletedJobsList.add(job);
+                        }
+                    }
+                    settledManifestNodeData.keySet().removeAll(updatedJobManifestPaths);
+                    updatedJobManifestPaths.clear();
+                }
+                for (AutoIngestJob currentJob : currentJobs) {
+                    removeJobs(Collections.singleton(currentJob.getManifest().getFilePath()), newPendingJobsList);
+                }
+                Collections.sort(newPendingJobsList, new AutoIngestJob.PriorityComparator());
+                AutoIngestManager.this.pendingJobs = newPendingJobsList;
+                AutoIngestManager.this.completedJobs = newCompletedJobsList;
+
                 /*
                  * Update the mapping of case names to manifest paths that is
                  * used for case deletion.
                  */
-                String caseName = manifest.getCaseName();
-                Path manifestPath = manifest.getFilePath();
-                if (casesToManifests.containsKey(caseName)) {
-                    Set<Path> manifestPaths = casesToManifests.get(caseName);
-                    manifestPaths.add(manifestPath);
-                } else {
-                    Set<Path> manifestPaths = new HashSet<>();
-                    manifestPaths.add(manifestPath);
-                    casesToManifests.put(caseName, manifestPaths);
+                casesToManifests.clear();
+                for (Manifest manifest : update.getManifests()) {
+                    casesToManifests.computeIfAbsent(manifest.getCaseName(), caseName -> new HashSet<>()).add(manifest.getFilePath());
                 }
+            }
 
-                /*
-                 * Add a job to the pending jobs queue, the completed jobs list,
-                 * or do crashed job recovery, as required.
-                 */
+            Instant scanEndTime = Instant.now();
+            SYS_LOGGER.log(Level.INFO, String.format("%s input scan of %s found %d manifests (%d new or changed) in %d directories (%d listed, %s), read %d manifest nodes, took %d ms (discovery %d ms, node data %d ms)",
+                    update.isFullUpdate() ? "Full" : "Incremental",
+                    rootInputDirectory,
+                    update.getManifests().size(),
+                    update.getChangedManifestPaths().size(),
+                    update.getDirectoriesIndexed(),
+                    update.getDirectoriesListed(),
+                    update.isWatched() ? "watched" : "not watched",
+                    manifestsToRead.size(),
+                    Duration.between(scanStartTime, scanEndTime).toMillis(),
+                    Duration.between(scanStartTime, discoveryEndTime).toMillis(),
+                    Duration.between(discoveryEndTime, nodeDataReadEndTime).toMillis()));
+            SYS_LOGGER.log(Level.INFO, "Coordination service statistics: {0}", coordinationService.getOperationStatistics()); //NON-NLS
+        }
+
+        /**
+         * Determines whether or not the next scan should walk the entire input
+         * directory tree.
+         *
+         * @param now The start time of the scan.
+         *
+         * @return True or false.
+         */
+        private boolean isFullScanDue(Instant now) {
+            boolean fullScanRequested = fullInputScanRequested.getAndSet(false);
+            int fullScanIntervalHours = AutoIngestUserPreferences.getHoursOfFullInputScanInterval();
+            return fullScanRequested
+                    || fullScanIntervalHours <= 0
+                    || null == lastFullInputScanTime
+                    || Duration.between(lastFullInputScanTime, now).toHours() >= fullScanIntervalHours;
+        }
+
+        /**
+         * Reads the coordination service node data for a list of manifests,
+         * in parallel batches.
+         *
+         * @param manifests The manifests.
+         *
+         * @return A mapping of manifest paths to node data. Manifests for which
+         *         the node data could not be read are omitted.
+         *
+         * @throws InterruptedException if the thread running the input
+         *                              directory scan is interrupted while
+         *                              blocked, i.e., if auto ingest is
+         *                              shutting down.
+         */
+        private Map<Path, ManifestNodeData> readManifestNodeData(List<Manifest> manifests) throws InterruptedException {
+            List<Callable<Map<Path, ManifestNodeData>>> batchReads = new ArrayList<>();
+            for (int start = 0; start < manifests.size(); start += MANIFEST_NODE_DATA_READ_BATCH_SIZE) {
+                List<Manifest> batch = manifests.subList(start, Math.min(start + MANIFEST_NODE_DATA_READ_BATCH_SIZE, manifests.size()));
+                batchReads.add(() -> readManifestNodeDataBatch(batch));
+            }
+            Map<Path, ManifestNodeData> nodeDataByManifestPath = new HashMap<>();
+            for (Future<Map<Path, ManifestNodeData>> batchRead : manifestNodeDataReaderExecutor.invokeAll(batchReads)) {
+                try {
+                    nodeDataByManifestPath.putAll(batchRead.get());
+                } catch (ExecutionException ex) {
+                    SYS_LOGGER.log(Level.SEVERE, "Error getting manifest node data", ex);
+                }
+            }
+            return nodeDataByManifestPath;
+        }
+
+        /**
+         * Reads the coordination service node data for a batch of manifests.
+         *
+         * @param manifests The manifests.
+         *
+         * @return A mapping of manifest paths to node data. Manifests for which
+         *         the node data could not be read are omitted.
+         *
+         * @throws InterruptedException if the reading thread is interrupted
+         *                              while blocked.
+         */
+        private Map<Path, ManifestNodeData> readManifestNodeDataBatch(List<Manifest> manifests) throws InterruptedException {
+            Map<Path, ManifestNodeData> nodeDataByManifestPath = new HashMap<>();
+            for (Manifest manifest : manifests) {
+                Path manifestPath = manifest.getFilePath();
                 try {
                     byte[] rawData = coordinationService.getNodeData(CoordinationService.CategoryNode.MANIFESTS, manifestPath.toString());
-                    if (null != rawData) {
-                        ManifestNodeData nodeData = new ManifestNodeData(rawData);
-                        if (nodeData.coordSvcNodeDataWasSet()) {
-                            ProcessingStatus processingStatus = nodeData.getStatus();
-                            switch (processingStatus) {
-                                case PENDING:
-                                    addPendingJob(manifest, nodeData);
-                                    break;
-                                case PROCESSING:
-                                    doRecoveryIfCrashed(manifest);
-                                    break;
-                                case COMPLETED:
-                                    addCompletedJob(manifest, nodeData);
-                                    break;
-                                case DELETED:
-                                    // Do nothing - we dont'want to add it to any job list or do recovery
-                                    break;
-                                default:
-                                    SYS_LOGGER.log(Level.SEVERE, "Unknown ManifestNodeData.ProcessingStatus");
-                                    break;
-                            }
-                        } else {
-                            addNewPendingJob(manifest);
-                        }
-                    } else {
-                        addNewPendingJob(manifest);
-                    }
+                    /*
+                     * A manifest without a node is handled the same way as one
+                     * whose node data has not been set.
+                     */
+                    nodeDataByManifestPath.put(manifestPath, new ManifestNodeData(null != rawData ? rawData : new byte[0]));
                 } catch (CoordinationServiceException ex) {
                     SYS_LOGGER.log(Level.SEVERE, String.format("Error getting node data for %s", manifestPath), ex);
-                    return CONTINUE;
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                    return TERMINATE;
                 }
             }
+            return nodeDataByManifestPath;
+        }
 
-            if (!Thread.currentThread().isInterrupted()) {
-                return CONTINUE;
-            } else {
-                return TERMINATE;
+        /**
+         * Finds the case directory for a case, searching the output directory
+         * at most once per case per scan.
+         *
+         * @param caseName The name of the case.
+         *
+         * @return The path of the case directory, or null if it is not found.
+         */
+        private Path findCaseDirectory(String caseName) {
+            if (!caseDirectories.containsKey(caseName)) {
+                caseDirectories.put(caseName, PathUtils.findCaseDirectory(rootOutputDirectory, caseName));
             }
+            return caseDirectories.get(caseName);
         }
 
         /**
@@ -1065,7 +1417,7 @@ public FileVisitResult visitFile(Path filePath, BasicFileAttributes attrs) throw
          *                 the manifest.
          */
         private void addPendingJob(Manifest manifest, ManifestNodeData nodeData) {
-            Path caseDirectory = PathUtils.findCaseDirectory(rootOutputDirectory, manifest.getCaseName());
+            Path caseDirectory = findCaseDirectory(manifest.getCaseName());
             newPendingJobsList.add(new AutoIngestJob(manifest, caseDirectory, nodeData.getPriority(), LOCAL_HOST_NAME, AutoIngestJob.Stage.PENDING, new Date(0), false));
         }
 
@@ -1122,7 +1474,7 @@ private void doRecoveryIfCrashed(Manifest manifest) throws InterruptedException
                             nodeData.setNumberOfCrashes(numberOfCrashes);
                             if (numberOfCrashes <= AutoIngestUserPreferences.getMaxNumTimesToProcessImage()) {
                                 nodeData.setStatus(PENDING);
-                                Path caseDirectoryPath = PathUtils.findCaseDirectory(rootOutputDirectory, manifest.getCaseName());
+                                Path caseDirectoryPath = findCaseDirectory(manifest.getCaseName());
                                 newPendingJobsList.add(new AutoIngestJob(manifest, caseDirectoryPath, nodeData.getPriority(), LOCAL_HOST_NAME, AutoIngestJob.Stage.PENDING, new Date(0), true));
                                 if (null != caseDirectoryPath) {
                                     try {
@@ -1138,7 +1490,7 @@ private void doRecoveryIfCrashed(Manifest manifest) throws InterruptedException
                                 }
                             } else {
                                 nodeData.setStatus(COMPLETED);
-                                Path caseDirectoryPath = PathUtils.findCaseDirectory(rootOutputDirectory, manifest.getCaseName());
+                                Path caseDirectoryPath = findCaseDirectory(manifest.getCaseName());
                                 newCompletedJobsList.add(new AutoIngestJob(manifest, caseDirectoryPath, nodeData.getPriority(), LOCAL_HOST_NAME, AutoIngestJob.Stage.COMPLETED, new Date(), true));
                                 if (null != caseDirectoryPath) {
                                     try {
@@ -1182,68 +1534,29 @@ private void doRecoveryIfCrashed(Manifest manifest) throws InterruptedException
          *                 the manifest.
          */
         private void addCompletedJob(Manifest manifest, ManifestNodeData nodeData) {
-            Path caseDirectoryPath = PathUtils.findCaseDirectory(rootOutputDirectory, manifest.getCaseName());
+            Path caseDirectoryPath = findCaseDirectory(manifest.getCaseName());
             if (null != caseDirectoryPath) {
                 newCompletedJobsList.add(new AutoIngestJob(manifest, caseDirectoryPath, nodeData.getPriority(), LOCAL_HOST_NAME, AutoIngestJob.Stage.COMPLETED, nodeData.getCompletedDate(), nodeData.getErrorsOccurred()));
             } else {
                 SYS_LOGGER.log(Level.WARNING, String.format("Job completed for %s, but cannot find case directory, ignoring job", manifest.getFilePath()));
             }
         }
-
-        /**
-         * Invoked for a file that could not be visited because an I/O exception
-         * was thrown when visiting a file. Logs the exceptino and checks if the
-         * task thread has been interrupted because auto ingest is shutting down
-         * and terminates the scan if that is the case.
-         *
-         * @param file The file.
-         * @param ex   The exception.
-         *
-         * @return TERMINATE if auto ingest is shutting down, CONTINUE if it has
-         *         not.
-         *
-         * @throws IOException if an I/O error occurs, but this implementation
-         *                     does not throw.
-         */
-        @Override
-        public FileVisitResult visitFileFailed(Path file, IOException ex) throws IOException {
-            SYS_LOGGER.log(Level.SEVERE, String.format("Error while visiting %s during input directories scan", file.toString()), ex);
-            if (Thread.currentThread().isInterrupted()) {
-                return TERMINATE;
-            }
-            return CONTINUE;
-        }
-
-        /**
-         * Invoked for an input directory after entries in the directory are
-         * visited. Checks if the task thread has been interrupted because auto
-         * ingest is shutting down and terminates the scan if that is the case.
-         *
-         * @param dirPath  The directory about to be visited.
-         * @param dirAttrs The basic file attributes of the directory about to
-         *                 be visited.
-         *
-         * @return TERMINATE if the task thread has been interrupted, CONTINUE
-         *         if it has not.
-         *
-         * @throws IOException if an I/O error occurs, but this implementation
-         *                     does not throw.
-         */
-        @Override
-        public FileVisitResult postVisitDirectory(Path dirPath, IOException unused) throws IOException {
-            if (Thread.currentThread().isInterrupted()) {
-                return TERMINATE;
-            }
-            return CONTINUE;
-        }
-
     }
 
     /**
-     * A single instance of this job processing task is used by the auto ingest
-     * manager to process auto ingest jobs. The task does a blocking take from a
-     * completion service for the input directory scan tasks that refresh the
-     * pending jobs queue.
+     * One instance of this job processing task per job slot is used by the
+     * auto ingest manager to process auto ingest jobs. The task does a blocking
+     * take from a completion service for the input directory scan tasks that
+     * refresh the pending jobs queue.
+     * <p>
+     * When there is more than one job slot, the slots only process jobs for
+     * the same case at the same time, since only one case can be open in the
+     * application. The case is opened by the first job and closed by the last
+     * job to finish with it. A slot only starts a job while other jobs are
+     * running if the node has enough idle processor cores, free memory and free
+     * temporary space, otherwise the job is deferred until a job finishes or
+     * the resources become available. Data source processors are not thread
+     * safe, so the slots take turns adding data sources to the case.
      * <p>
      * The job processing task can be paused between jobs (it waits on the
      * monitor of its pause lock object) and resumed (by notifying the monitor
@@ -1268,23 +1581,50 @@ public FileVisitResult postVisitDirectory(Path dirPath, IOException unused) thro
     private final class JobProcessingTask implements Runnable {
 
         private static final String AUTO_INGEST_MODULE_OUTPUT_DIR = "AutoIngest";
+        private final int slotNumber;
+        private final Instant startTime;
         private final Object ingestLock;
-        private final Object pauseLock;
-        @GuardedBy("pauseLock")
-        private boolean pauseRequested;
-        @GuardedBy("pauseLock")
-        private boolean waitingForInputScan;
+        private volatile AutoIngestJob currentJob;
+        private boolean jobsDeferred;
+        private long currentJobBytesProcessed;
+        @GuardedBy("jobsLock")
+        private Instant currentJobStartTime;
+        @GuardedBy("jobsLock")
+        private int jobsCompleted;
+        @GuardedBy("jobsLock")
+        private long bytesProcessed;
+        @GuardedBy("jobsLock")
+        private Duration busyTime;
 
         /**
          * Constructs a job processing task used by the auto ingest manager to
-         * process auto ingest jobs.
+         * process auto ingest jobs in a job slot.
+         *
+         * @param slotNumber The number of the job slot, starting at one.
          */
-        private JobProcessingTask() {
+        private JobProcessingTask(int slotNumber) {
+            this.slotNumber = slotNumber;
+            startTime = Instant.now();
             ingestLock = new Object();
-            pauseLock = new Object();
+            busyTime = Duration.ZERO;
             errorState = ErrorState.NONE;
         }
 
+        /**
+         * Gets the current status of the job slot of this task.
+         *
+         * @return The job slot status.
+         */
+        @GuardedBy("jobsLock")
+        private JobSlotStatus getSlotStatus() {
+            AutoIngestJob job = currentJob;
+            Duration slotBusyTime = busyTime;
+            if (null != job && null != currentJobStartTime) {
+                slotBusyTime = slotBusyTime.plus(Duration.between(currentJobStartTime, Instant.now()));
+            }
+            return new JobSlotStatus(slotNumber, job, jobsCompleted, bytesProcessed, slotBusyTime, Duration.between(startTime, Instant.now()));
+        }
+
         /**
          * Processes auto ingest jobs, blocking on a completion service for
          * input directory scan tasks and waiting on a pause lock object when
@@ -1297,17 +1637,17 @@ public void run() {
             SYS_LOGGER.log(Level.INFO, "Job processing task started");
             while (true) {
                 try {
-                    if (jobProcessingTaskFuture.isCancelled()) {
+                    if (jobProcessingCancelled) {
                         break;
                     }
                     waitForInputDirScan();
-                    if (jobProcessingTaskFuture.isCancelled()) {
+                    if (jobProcessingCancelled) {
                         break;
                     }
                     try {
                         processJobs();
                     } catch (Exception ex) { // Exception firewall
-                        if (jobProcessingTaskFuture.isCancelled()) {
+                        if (jobProcessingCancelled) {
                             break;
                         }
                         if (ex instanceof CoordinationServiceException) {
@@ -1348,56 +1688,9 @@ public void run() {
         }
 
         /**
-         * Makes a request to suspend job processing. The request will not be
-         * serviced immediately if the task is doing a job.
-         */
-        private void requestPause() {
-            synchronized (pauseLock) {
-                SYS_LOGGER.log(Level.INFO, "Job processing pause requested");
-                pauseRequested = true;
-                if (waitingForInputScan) {
-                    /*
-                     * If the flag is set, the job processing task is blocked
-                     * waiting for an input directory scan to complete, so
-                     * notify any observers that the task is paused. This works
-                     * because as soon as the task stops waiting for a scan to
-                     * complete, it checks the pause requested flag. If the flag
-                     * is set, the task immediately waits on the pause lock
-                     * object.
-                     */
-                    setChanged();
-                    notifyObservers(Event.PAUSED_BY_REQUEST);
-                }
-            }
-        }
-
-        /**
-         * Makes a request to resume job processing.
-         */
-        private void requestResume() {
-            synchronized (pauseLock) {
-                SYS_LOGGER.log(Level.INFO, "Job processing resume requested");
-                pauseRequested = false;
-                if (waitingForInputScan) {
-                    /*
-                     * If the flag is set, the job processing task is blocked
-                     * waiting for an input directory scan to complete, but
-                     * notify any observers that the task is resumed anyway.
-                     * This works because as soon as the task stops waiting for
-                     * a scan to complete, it checks the pause requested flag.
-                     * If the flag is not set, the task immediately begins
-                     * processing the pending jobs queue.
-                     */
-                    setChanged();
-                    notifyObservers(Event.RESUMED);
-                }
-                pauseLock.notifyAll();
-            }
-        }
-
-        /**
-         * Checks for a request to suspend jobs processing. If there is one,
-         * blocks until resumed or interrupted.
+         * Checks whether job processing is paused for this node, either by
+         * request or for a system error. If it is, blocks until resumed or
+         * interrupted.
          *
          * @throws InterruptedException if the thread running the job processing
          *                              task is interrupted while blocked, i.e.,
@@ -1405,21 +1698,26 @@ private void requestResume() {
          */
         private void pauseIfRequested() throws InterruptedException {
             synchronized (pauseLock) {
-                if (pauseRequested) {
-                    SYS_LOGGER.log(Level.INFO, "Job processing paused by request");
-                    pauseRequested = false;
-                    setChanged();
-                    notifyObservers(Event.PAUSED_BY_REQUEST);
-                    pauseLock.wait();
-                    SYS_LOGGER.log(Level.INFO, "Job processing resumed after pause request");
-                    setChanged();
-                    notifyObservers(Event.RESUMED);
+                if (pauseRequested || pausedForSystemError) {
+                    SYS_LOGGER.log(Level.INFO, "Job processing paused in job slot {0}", slotNumber);
+                    ++idleJobSlotCount;
+                    try {
+                        notifyIfPausedByRequest();
+                        while (pauseRequested || pausedForSystemError) {
+                            pauseLock.wait();
+                        }
+                    } finally {
+                        --idleJobSlotCount;
+                    }
+                    SYS_LOGGER.log(Level.INFO, "Job processing resumed in job slot {0}", slotNumber);
                 }
             }
         }
 
         /**
-         * Pauses auto ingest to allow a sys admin to address a system error.
+         * Pauses auto ingest on this node to allow a sys admin to address a
+         * system error. The jobs running in other job slots are allowed to
+         * complete, after which those slots pause as well.
          *
          * @throws InterruptedException if the thread running the job processing
          *                              task is interrupted while blocked, i.e.,
@@ -1427,50 +1725,57 @@ private void pauseIfRequested() throws InterruptedException {
          */
         private void pauseForSystemError() throws InterruptedException {
             synchronized (pauseLock) {
-                SYS_LOGGER.log(Level.SEVERE, "Job processing paused for system error");
-                setChanged();
-                notifyObservers(Event.PAUSED_FOR_SYSTEM_ERROR);
-                pauseLock.wait();
-                errorState = ErrorState.NONE;
-                SYS_LOGGER.log(Level.INFO, "Job processing resumed after system error");
-                setChanged();
-                notifyObservers(Event.RESUMED);
+                SYS_LOGGER.log(Level.SEVERE, "Job processing paused for system error in job slot {0}", slotNumber);
+                if (!pausedForSystemError) {
+                    pausedForSystemError = true;
+                    setChanged();
+                    notifyObservers(Event.PAUSED_FOR_SYSTEM_ERROR);
+                }
+                pauseIfRequested();
             }
         }
 
         /**
          * Waits until an input directory scan has completed, with pause request
-         * checks before and after the wait.
+         * checks before and after the wait. If jobs were deferred by the last
+         * check of the pending jobs queue, the wait is limited so that the
+         * queue is checked again even if there is no scan.
          *
          * @throws InterruptedException if the thread running the job processing
          *                              task is interrupted while blocked, i.e.,
          *                              if auto ingest is shutting down.
          */
         private void waitForInputDirScan() throws InterruptedException {
+            pauseIfRequested();
+            /*
+             * The job slot counts as idle while this task is blocked waiting
+             * for an input directory scan. Although the task is unable to act
+             * on a pause request until the next scan completes, when it
+             * unblocks it will check for a pause request and promptly pause
+             * if there is one. Thus, counting the slot as idle allows a pause
+             * request in a client thread to responsively notify any observers
+             * that processing is already effectively paused.
+             */
             synchronized (pauseLock) {
-                pauseIfRequested();
-                /*
-                 * The waiting for scan flag is needed for the special case of a
-                 * client making a pause request while this task is blocked on
-                 * the input directory scan task completion service. Although,
-                 * the task is unable to act on the request until the next scan
-                 * completes, when it unblocks it will check the pause requested
-                 * flag and promptly pause if the flag is set. Thus, setting the
-                 * waiting for scan flag allows a pause request in a client
-                 * thread to responsively notify any observers that processing
-                 * is already effectively paused.
-                 */
-                waitingForInputScan = true;
-            }
-            SYS_LOGGER.log(Level.INFO, "Job processing waiting for input scan completion");
-            synchronized (scanMonitor) {
-                scanMonitor.wait();
+                ++idleJobSlotCount;
+                notifyIfPausedByRequest();
             }
-            SYS_LOGGER.log(Level.INFO, "Job processing finished wait for input scan completion");
-            synchronized (pauseLock) {
-                waitingForInputScan = false;
-                pauseIfRequested();
+            try {
+                SYS_LOGGER.log(Level.INFO, "Job processing waiting for input scan completion");
+                synchronized (scanMonitor) {
+                    if (jobsDeferred) {
+                        scanMonitor.wait(DEFERRED_JOBS_RECHECK_INTERVAL_MS);
+                    } else {
+                        scanMonitor.wait();
+                    }
+                }
+                SYS_LOGGER.log(Level.INFO, "Job processing finished wait for input scan completion");
+            } finally {
+                synchronized (pauseLock) {
+                    --idleJobSlotCount;
+                }
             }
+            pauseIfRequested();
         }
 
         /**
@@ -1516,18 +1821,22 @@ private void processJobs() throws CoordinationServiceException, SharedConfigurat
             Lock manifestLock = JobProcessingTask.this.dequeueAndLockNextJob();
             while (null != manifestLock) {
                 try {
-                    if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+                    if (currentJob.isCancelled() || jobProcessingCancelled) {
+                        synchronized (jobsLock) {
+                            currentJobs.remove(currentJob);
+                            currentJob = null;
+                        }
                         return;
                     }
                     processJob();
                 } finally {
                     manifestLock.release();
                 }
-                if (jobProcessingTaskFuture.isCancelled()) {
+                if (jobProcessingCancelled) {
                     return;
                 }
                 pauseIfRequested();
-                if (jobProcessingTaskFuture.isCancelled()) {
+                if (jobProcessingCancelled) {
                     return;
                 }
                 manifestLock = JobProcessingTask.this.dequeueAndLockNextJob();
@@ -1545,6 +1854,10 @@ private void processJobs() throws CoordinationServiceException, SharedConfigurat
          * ignoring this constraint. This policy override prevents idling nodes
          * when jobs are queued.
          * <p>
+         * If other jobs are already running on this node, only jobs for the
+         * case of the running jobs are considered, and only if the node has
+         * the resources for an additional job.
+         * <p>
          * Holding the manifest lock does the following: a) signals to all auto
          * ingest nodes, including this one, that the job is in progress so it
          * does not get put in pending jobs queues or completed jobs lists by
@@ -1563,23 +1876,41 @@ private void processJobs() throws CoordinationServiceException, SharedConfigurat
          */
         private Lock dequeueAndLockNextJob() throws CoordinationServiceException, InterruptedException {
             SYS_LOGGER.log(Level.INFO, "Checking pending jobs queue for ready job, enforcing max jobs per case");
-            Lock manifestLock;
-            synchronized (jobsLock) {
-                manifestLock = dequeueAndLockNextJob(true);
-                if (null != manifestLock) {
-                    SYS_LOGGER.log(Level.INFO, "Dequeued job for {0}", currentJob.getManifest().getFilePath());
-                } else {
-                    SYS_LOGGER.log(Level.INFO, "No ready job");
-                    SYS_LOGGER.log(Level.INFO, "Checking pending jobs queue for ready job, not enforcing max jobs per case");
-                    manifestLock = dequeueAndLockNextJob(false);
-                    if (null != manifestLock) {
-                        SYS_LOGGER.log(Level.INFO, "Dequeued job for {0}", currentJob.getManifest().getFilePath());
-                    } else {
-                        SYS_LOGGER.log(Level.INFO, "No ready job");
+            /*
+             * The resources check is done without holding the jobs lock,
+             * since it queries the file system. If another slot starts a job
+             * in the meantime, the queue is checked again after the resources
+             * check.
+             */
+            boolean resourcesChecked = false;
+            boolean hasResources = true;
+            while (true) {
+                synchronized (jobsLock) {
+                    if (currentJobs.isEmpty() || resourcesChecked) {
+                        jobsDeferred = false;
+                        if (!currentJobs.isEmpty() && !hasResources) {
+                            jobsDeferred = true;
+                            return null;
+                        }
+                        Lock manifestLock = dequeueAndLockNextJob(true);
+                        if (null != manifestLock) {
+                            SYS_LOGGER.log(Level.INFO, "Dequeued job for {0}", currentJob.getManifest().getFilePath());
+                        } else {
+                            SYS_LOGGER.log(Level.INFO, "No ready job");
+                            SYS_LOGGER.log(Level.INFO, "Checking pending jobs queue for ready job, not enforcing max jobs per case");
+                            manifestLock = dequeueAndLockNextJob(false);
+                            if (null != manifestLock) {
+                                SYS_LOGGER.log(Level.INFO, "Dequeued job for {0}", currentJob.getManifest().getFilePath());
+                            } else {
+                                SYS_LOGGER.log(Level.INFO, "No ready job");
+                            }
+                        }
+                        return manifestLock;
                     }
                 }
+                hasResources = hasResourcesForAdditionalJob();
+                resourcesChecked = true;
             }
-            return manifestLock;
         }
 
         /**
@@ -1603,9 +1934,18 @@ private Lock dequeueAndLockNextJob() throws CoordinationServiceException, Interr
         private Lock dequeueAndLockNextJob(boolean enforceMaxJobsPerCase) throws CoordinationServiceException, InterruptedException {
             Lock manifestLock = null;
             synchronized (jobsLock) {
+                String localCaseName = currentJobs.isEmpty() ? null : currentJobs.get(0).getManifest().getCaseName();
                 Iterator<AutoIngestJob> iterator = pendingJobs.iterator();
                 while (iterator.hasNext()) {
                     AutoIngestJob job = iterator.next();
+                    if (null != localCaseName && !localCaseName.equals(job.getManifest().getCaseName())) {
+                        /*
+                         * Skip the job for now. The jobs running in the other
+                         * job slots of this node are for a different case.
+                         */
+                        jobsDeferred = true;
+                        continue;
+                    }
                     Path manifestPath = job.getManifest().getFilePath();
                     manifestLock = coordinationService.tryGetExclusiveLock(CoordinationService.CategoryNode.MANIFESTS, manifestPath.toString());
                     if (null == manifestLock) {
@@ -1626,12 +1966,18 @@ private Lock dequeueAndLockNextJob(boolean enforceMaxJobsPerCase) throws Coordin
                          * Skip the job and remove it from the queue.
                          */
                         iterator.remove();
+                        updatedJobManifestPaths.add(manifestPath);
                         continue;
                     }
 
                     if (enforceMaxJobsPerCase) {
                         int currentJobsForCase = 0;
-                        for (AutoIngestJob runningJob : hostNamesToRunningJobs.values()) {
+                        for (AutoIngestJob runningJob : manifestPathsToRemoteJobs.values()) {
+                            if (0 == job.getManifest().getCaseName().compareTo(runningJob.getManifest().getCaseName())) {
+                                ++currentJobsForCase;
+                            }
+                        }
+                        for (AutoIngestJob runningJob : currentJobs) {
                             if (0 == job.getManifest().getCaseName().compareTo(runningJob.getManifest().getCaseName())) {
                                 ++currentJobsForCase;
                             }
@@ -1643,7 +1989,11 @@ private Lock dequeueAndLockNextJob(boolean enforceMaxJobsPerCase) throws Coordin
                         }
                     }
                     iterator.remove();
+                    updatedJobManifestPaths.add(manifestPath);
                     currentJob = job;
+                    currentJobs.add(job);
+                    currentJobStartTime = Instant.now();
+                    currentJobBytesProcessed = 0;
                     break;
                 }
             }
@@ -1700,13 +2050,13 @@ private void processJob() throws CoordinationServiceException, SharedConfigurati
             notifyObservers(Event.JOB_STARTED);
             eventPublisher.publishRemotely(new AutoIngestJobStartedEvent(currentJob));
             try {
-                if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+                if (currentJob.isCancelled() || jobProcessingCancelled) {
                     return;
                 }
                 attemptJob();
 
             } finally {
-                if (jobProcessingTaskFuture.isCancelled()) {
+                if (jobProcessingCancelled) {
                     currentJob.cancel();
                 }
 
@@ -1736,12 +2086,25 @@ private void processJob() throws CoordinationServiceException, SharedConfigurati
                 synchronized (jobsLock) {
                     if (!retry) {
                         completedJobs.add(currentJob);
+                        ++jobsCompleted;
                     }
+                    bytesProcessed += currentJobBytesProcessed;
+                    busyTime = busyTime.plus(Duration.between(currentJobStartTime, Instant.now()));
+                    updatedJobManifestPaths.add(manifest.getFilePath());
                     eventPublisher.publishRemotely(new AutoIngestJobCompletedEvent(currentJob, retry));
+                    currentJobs.remove(currentJob);
                     currentJob = null;
                     setChanged();
                     notifyObservers(Event.JOB_COMPLETED);
                 }
+
+                /*
+                 * Let any job slots that deferred jobs while this job was
+                 * running check the pending jobs queue again.
+                 */
+                synchronized (scanMonitor) {
+                    scanMonitor.notifyAll();
+                }
             }
         }
 
@@ -1778,33 +2141,30 @@ private void processJob() throws CoordinationServiceException, SharedConfigurati
          */
         private void attemptJob() throws CoordinationServiceException, SharedConfigurationException, ServicesMonitorException, DatabaseServerDownException, KeywordSearchServerDownException, CaseManagementException, AnalysisStartupException, FileExportException, AutoIngestAlertFileException, AutoIngestJobLoggerException, InterruptedException, AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException {
             updateConfiguration();
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
             verifyRequiredSevicesAreRunning();
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
             Case caseForJob = openCase();
             try {
-                if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+                if (currentJob.isCancelled() || jobProcessingCancelled) {
                     return;
                 }
                 runIngestForJob(caseForJob);
 
             } finally {
-                try {
-                    Case.closeCurrentCase();
-                } catch (CaseActionException ex) {
-                    Manifest manifest = currentJob.getManifest();
-                    throw new CaseManagementException(String.format("Error closing case %s for %s", manifest.getCaseName(), manifest.getFilePath()), ex);
-                }
+                closeCase();
             }
         }
 
         /**
          * Updates the ingest system settings by downloading the latest version
-         * of the settings if using shared configuration.
+         * of the settings if using shared configuration. The settings are not
+         * updated while jobs in other job slots of this node have the case
+         * open, the job uses the settings those jobs are using.
          *
          * @throws SharedConfigurationException if there is an error downloading
          *                                      shared configuration.
@@ -1817,9 +2177,26 @@ private void updateConfiguration() throws SharedConfigurationException, Interrup
             if (AutoIngestUserPreferences.getSharedConfigEnabled()) {
                 Manifest manifest = currentJob.getManifest();
                 Path manifestPath = manifest.getFilePath();
-                SYS_LOGGER.log(Level.INFO, "Downloading shared configuration for {0}", manifestPath);
-                currentJob.setStage(AutoIngestJob.Stage.UPDATING_SHARED_CONFIG);
-                new SharedConfiguration().downloadConfiguration();
+                synchronized (sharedCaseLock) {
+                    while (sharedCaseBusy) {
+                        sharedCaseLock.wait();
+                    }
+                    if (null != sharedCaseName) {
+                        SYS_LOGGER.log(Level.INFO, "Using configuration of open case {0} for {1}", new Object[]{sharedCaseName, manifestPath});
+                        return;
+                    }
+                    sharedCaseBusy = true;
+                }
+                try {
+                    SYS_LOGGER.log(Level.INFO, "Downloading shared configuration for {0}", manifestPath);
+                    currentJob.setStage(AutoIngestJob.Stage.UPDATING_SHARED_CONFIG);
+                    new SharedConfiguration().downloadConfiguration();
+                } finally {
+                    synchronized (sharedCaseLock) {
+                        sharedCaseBusy = false;
+                        sharedCaseLock.notifyAll();
+                    }
+                }
             }
         }
 
@@ -1860,6 +2237,88 @@ private boolean isServiceUp(String serviceName) throws ServicesMonitorException
             return (ServicesMonitor.getInstance().getServiceStatus(serviceName).equals(ServicesMonitor.ServiceStatus.UP.toString()));
         }
 
+        /**
+         * Opens the case for the current auto ingest job. If a job in another
+         * job slot of this node already has the case open, the job shares the
+         * open case, otherwise the case is created or opened.
+         *
+         * @return The case on success, null otherwise.
+         *
+         * @throws CoordinationServiceException if there is an error acquiring
+         *                                      or releasing the case name lock.
+         * @throws CaseManagementException      if there is an error opening the
+         *                                      case.
+         * @throws InterruptedException         if the thread running the auto
+         *                                      ingest job processing task is
+         *                                      interrupted while blocked, i.e.,
+         *                                      if auto ingest is shutting down.
+         */
+        private Case openCase() throws CoordinationServiceException, CaseManagementException, InterruptedException {
+            Manifest manifest = currentJob.getManifest();
+            String caseName = manifest.getCaseName();
+            currentJob.setStage(AutoIngestJob.Stage.OPENING_CASE);
+            synchronized (sharedCaseLock) {
+                while (sharedCaseBusy || (null != sharedCaseName && !sharedCaseName.equals(caseName))) {
+                    sharedCaseLock.wait();
+                }
+                if (null != sharedCase) {
+                    ++sharedCaseUsers;
+                    currentJob.setCaseDirectoryPath(sharedCaseDirectoryPath);
+                    SYS_LOGGER.log(Level.INFO, "Sharing open case {0} for {1}", new Object[]{caseName, manifest.getFilePath()});
+                    return sharedCase;
+                }
+                sharedCaseBusy = true;
+            }
+            Case caseForJob = null;
+            try {
+                caseForJob = createOrOpenCase();
+                return caseForJob;
+            } finally {
+                synchronized (sharedCaseLock) {
+                    if (null != caseForJob) {
+                        sharedCase = caseForJob;
+                        sharedCaseName = caseName;
+                        sharedCaseDirectoryPath = currentJob.getCaseDirectoryPath();
+                        sharedCaseUsers = 1;
+                    }
+                    sharedCaseBusy = false;
+                    sharedCaseLock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Closes the case for the current auto ingest job, unless a job in
+         * another job slot of this node is still using it.
+         *
+         * @throws CaseManagementException if there is an error closing the
+         *                                 case.
+         */
+        private void closeCase() throws CaseManagementException {
+            synchronized (sharedCaseLock) {
+                --sharedCaseUsers;
+                if (sharedCaseUsers > 0) {
+                    return;
+                }
+                sharedCaseBusy = true;
+            }
+            try {
+                Case.closeCurrentCase();
+            } catch (CaseActionException ex) {
+                Manifest manifest = currentJob.getManifest();
+                throw new CaseManagementException(String.format("Error closing case %s for %s", manifest.getCaseName(), manifest.getFilePath()), ex);
+            } finally {
+                synchronized (sharedCaseLock) {
+                    sharedCase = null;
+                    sharedCaseName = null;
+                    sharedCaseDirectoryPath = null;
+                    sharedCaseUsers = 0;
+                    sharedCaseBusy = false;
+                    sharedCaseLock.notifyAll();
+                }
+            }
+        }
+
         /**
          * Creates or opens the case for the current auto ingest job, acquiring
          * an exclusive lock on the case name during the operation.
@@ -1880,11 +2339,10 @@ private boolean isServiceUp(String serviceName) throws ServicesMonitorException
          *                                      interrupted while blocked, i.e.,
          *                                      if auto ingest is shutting down.
          */
-        private Case openCase() throws CoordinationServiceException, CaseManagementException, InterruptedException {
+        private Case createOrOpenCase() throws CoordinationServiceException, CaseManagementException, InterruptedException {
             Manifest manifest = currentJob.getManifest();
             String caseName = manifest.getCaseName();
             SYS_LOGGER.log(Level.INFO, "Opening case {0} for {1}", new Object[]{caseName, manifest.getFilePath()});
-            currentJob.setStage(AutoIngestJob.Stage.OPENING_CASE);
             /*
              * Acquire and hold a case name lock so that only one node at as
              * time can scan the output directory at a time. This prevents
@@ -1956,7 +2414,7 @@ private void runIngestForJob(Case caseForJob) throws CoordinationServiceExceptio
             Manifest manifest = currentJob.getManifest();
             String manifestPath = manifest.getFilePath().toString();
             try {
-                if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+                if (currentJob.isCancelled() || jobProcessingCancelled) {
                     return;
                 }
                 ingestDataSource(caseForJob);
@@ -1993,7 +2451,7 @@ private void runIngestForJob(Case caseForJob) throws CoordinationServiceExceptio
          *                                      ingest is shutting down.
          */
         private void ingestDataSource(Case caseForJob) throws AnalysisStartupException, FileExportException, AutoIngestAlertFileException, AutoIngestJobLoggerException, InterruptedException, AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException {
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
 
@@ -2003,7 +2461,7 @@ private void ingestDataSource(Case caseForJob) throws AnalysisStartupException,
                 return;
             }
 
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
 
@@ -2012,8 +2470,11 @@ private void ingestDataSource(Case caseForJob) throws AnalysisStartupException,
                 currentJob.setStage(AutoIngestJob.Stage.COMPLETED);
                 return;
             }
+            for (Content content : dataSource.getContent()) {
+                currentJobBytesProcessed += content.getSize();
+            }
 
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
 
@@ -2027,7 +2488,7 @@ private void ingestDataSource(Case caseForJob) throws AnalysisStartupException,
                 Thread.sleep(AutoIngestUserPreferences.getSecondsToSleepBetweenCases() * 1000);
             }
 
-            if (currentJob.isCancelled() || jobProcessingTaskFuture.isCancelled()) {
+            if (currentJob.isCancelled() || jobProcessingCancelled) {
                 return;
             }
 
@@ -2132,30 +2593,36 @@ private void runDataSourceProcessor(Case caseForJob, DataSource dataSource) thro
                         .map(Map.Entry::getKey)
                         .collect(Collectors.toList());
 
-                synchronized (ingestLock) {
-                    // Try each DSP in decreasing order of confidence
-                    for (AutoIngestDataSourceProcessor selectedProcessor : validDataSourceProcessors) {
-                        jobLogger.logDataSourceProcessorSelected(selectedProcessor.getDataSourceType());
-                        SYS_LOGGER.log(Level.INFO, "Identified data source type for {0} as {1}", new Object[]{manifestPath, selectedProcessor.getDataSourceType()});
-                        try {
-                            selectedProcessor.process(dataSource.getDeviceId(), dataSource.getPath(), progressMonitor, callBack);
-                            ingestLock.wait();
-                            return;
-                        } catch (AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException ex) {
-                            // Log that the current DSP failed and set the error flag. We consider it an error
-                            // if a DSP fails even if a later one succeeds since we expected to be able to process
-                            // the data source which each DSP on the list.
-                            AutoIngestAlertFile.create(caseDirectoryPath);
-                            currentJob.setErrorsOccurred(true);
-                            jobLogger.logDataSourceProcessorError(selectedProcessor.getDataSourceType());
-                            SYS_LOGGER.log(Level.SEVERE, "Exception while processing {0} with data source processor {1}", new Object[]{dataSource.getPath(), selectedProcessor.getDataSourceType()});
+                /*
+                 * The data source processors are singletons, so only one job
+                 * slot at a time may run them.
+                 */
+                synchronized (dataSourceProcessorLock) {
+                    synchronized (ingestLock) {
+                        // Try each DSP in decreasing order of confidence
+                        for (AutoIngestDataSourceProcessor selectedProcessor : validDataSourceProcessors) {
+                            jobLogger.logDataSourceProcessorSelected(selectedProcessor.getDataSourceType());
+                            SYS_LOGGER.log(Level.INFO, "Identified data source type for {0} as {1}", new Object[]{manifestPath, selectedProcessor.getDataSourceType()});
+                            try {
+                                selectedProcessor.process(dataSource.getDeviceId(), dataSource.getPath(), progressMonitor, callBack);
+                                ingestLock.wait();
+                                return;
+                            } catch (AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException ex) {
+                                // Log that the current DSP failed and set the error flag. We consider it an error
+                                // if a DSP fails even if a later one succeeds since we expected to be able to process
+                                // the data source which each DSP on the list.
+                                AutoIngestAlertFile.create(caseDirectoryPath);
+                                currentJob.setErrorsOccurred(true);
+                                jobLogger.logDataSourceProcessorError(selectedProcessor.getDataSourceType());
+                                SYS_LOGGER.log(Level.SEVERE, "Exception while processing {0} with data source processor {1}", new Object[]{dataSource.getPath(), selectedProcessor.getDataSourceType()});
+                            }
                         }
+                        // If we get to this point, none of the processors were successful
+                        SYS_LOGGER.log(Level.SEVERE, "All data source processors failed to process {0}", dataSource.getPath());
+                        jobLogger.logFailedToAddDataSource();
+                        // Throw an exception. It will get caught & handled upstream and will result in AIM auto-pause.
+                        throw new AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException("Failed to process " + dataSource.getPath() + " with all data source processors");
                     }
-                    // If we get to this point, none of the processors were successful
-                    SYS_LOGGER.log(Level.SEVERE, "All data source processors failed to process {0}", dataSource.getPath());
-                    jobLogger.logFailedToAddDataSource();
-                    // Throw an exception. It will get caught & handled upstream and will result in AIM auto-pause.
-                    throw new AutoIngestDataSourceProcessor.AutoIngestDataSourceProcessorException("Failed to process " + dataSource.getPath() + " with all data source processors");
                 }
             } finally {
                 currentJob.setDataSourceProcessor(null);
@@ -2269,6 +2736,7 @@ private void analyze(DataSource dataSource) throws AnalysisStartupException, Aut
                         IngestJob ingestJob = ingestJobStartResult.getJob();
                         if (null != ingestJob) {
                             currentJob.setIngestJob(ingestJob);
+                            ingestJobEventListener.setIngestJobId(ingestJob.getId());
                             /*
                              * Block until notified by the ingest job event
                              * listener or until interrupted because auto ingest
@@ -2491,13 +2959,30 @@ public void setProgressText(final String text) {
          * Note that the ingest job can spawn "child" ingest jobs (e.g., if an
          * embedded virtual machine is found), so the job processing task must
          * remain blocked until ingest is no longer running.
+         * <p>
+         * Jobs in other job slots of this node run ingest jobs at the same
+         * time, so only the events for the ingest job of this task are acted
+         * on.
          */
         private class IngestJobEventListener implements PropertyChangeListener {
 
+            @GuardedBy("ingestLock")
+            private long ingestJobId = -1;
+
+            /**
+             * Sets the id of the ingest job of the job processing task. Must be
+             * called while holding the ingest lock.
+             *
+             * @param ingestJobId The ingest job id.
+             */
+            private void setIngestJobId(long ingestJobId) {
+                this.ingestJobId = ingestJobId;
+            }
+
             /**
              * Listens for local ingest job completed or cancelled events and
-             * notifies the job processing thread when such an event occurs and
-             * there are no "child" ingest jobs running.
+             * notifies the job processing thread when such an event occurs for
+             * its ingest job.
              *
              * @param event
              */
@@ -2507,7 +2992,9 @@ public void propertyChange(PropertyChangeEvent event) {
                     String eventType = event.getPropertyName();
                     if (eventType.equals(IngestManager.IngestJobEvent.COMPLETED.toString()) || eventType.equals(IngestManager.IngestJobEvent.CANCELLED.toString())) {
                         synchronized (ingestLock) {
-                            ingestLock.notify();
+                            if (event.getOldValue() instanceof Long && (Long) event.getOldValue() == ingestJobId) {
+                                ingestLock.notify();
+                            }
                         }
                     }
                 }
@@ -2588,8 +3075,8 @@ private AnalysisStartupException(String message, Throwable cause) {
     /**
      * An instance of this runnable is responsible for periodically sending auto
      * ingest job status event to remote auto ingest nodes and timing out stale
-     * remote jobs. The auto ingest job status event is sent only if auto ingest
-     * manager has a currently running auto ingest job.
+     * remote jobs. Auto ingest job status events are sent only for the auto
+     * ingest jobs currently running on this node.
      */
     private final class PeriodicJobStatusEventTask implements Runnable {
 
@@ -2604,19 +3091,25 @@ public void run() {
 
             try {
                 synchronized (jobsLock) {
-                    if (currentJob != null) {
+                    if (!currentJobs.isEmpty()) {
                         setChanged();
                         notifyObservers(Event.JOB_STATUS_UPDATED);
-                        eventPublisher.publishRemotely(new AutoIngestJobStatusEvent(currentJob));
+                        for (AutoIngestJob currentJob : currentJobs) {
+                            eventPublisher.publishRemotely(new AutoIngestJobStatusEvent(currentJob));
+                        }
                     }
 
                     if (AutoIngestUserPreferences.getStatusDatabaseLoggingEnabled()) {
                         String message;
                         boolean isError = false;
                         if (getErrorState().equals(ErrorState.NONE)) {
-                            if (currentJob != null) {
+                            if (!currentJobs.isEmpty()) {
+                                AutoIngestJob currentJob = currentJobs.get(0);
                                 message = "Processing " + currentJob.getManifest().getDataSourceFileName()
                                         + " for case " + currentJob.getManifest().getCaseName();
+                                if (currentJobs.size() > 1) {
+                                    message += " and " + (currentJobs.size() - 1) + " more data source(s)";
+                                }
                             } else {
                                 message = "Paused or waiting for next case";
                             }
@@ -2632,9 +3125,17 @@ public void run() {
                     }
                 }
 
-                // check whether any remote nodes have timed out
-                for (AutoIngestJob job : hostNamesToRunningJobs.values()) {
-                    if (isStale(hostNamesToLastMsgTime.get(job.getNodeName()))) {
+                /*
+                 * Check whether any remote jobs have timed out. Each job is
+                 * judged by the time of the last message about it, not the
+                 * last message from its node, because a node running several
+                 * jobs keeps sending messages about the others after it has
+                 * stopped sending them about a job, e.g., if the completed
+                 * event for the job was lost.
+                 */
+                for (AutoIngestJob job : manifestPathsToRemoteJobs.values()) {
+                    Instant lastMsgTime = manifestPathsToRemoteJobLastMsgTime.get(job.getManifest().getFilePath());
+                    if (null != lastMsgTime && isStale(lastMsgTime)) {
                         // remove the job from remote job running map.
                         /*
                          * NOTE: there is theoretically a check-then-act race
@@ -2643,12 +3144,13 @@ public void run() {
                          * received after we check the last message fileTime
                          * stamp (i.e. "check") but before we remove the remote
                          * job (i.e. "act") then the remote job will get added
-                         * back into hostNamesToRunningJobs as a result of
+                         * back into manifestPathsToRemoteJobs as a result of
                          * processing the job status update.
                          */
                         SYS_LOGGER.log(Level.WARNING, "Auto ingest node {0} timed out while processing folder {1}",
                                 new Object[]{job.getNodeName(), job.getManifest().getFilePath().toString()});
-                        hostNamesToRunningJobs.remove(job.getNodeName());
+                        manifestPathsToRemoteJobs.remove(job.getManifest().getFilePath());
+                        manifestPathsToRemoteJobLastMsgTime.remove(job.getManifest().getFilePath());
                         setChanged();
                         notifyObservers(Event.JOB_COMPLETED);
                     }
@@ -2781,6 +3283,85 @@ List<AutoIngestJob> getCompletedJobs() {
 
     }
 
+    /**
+     * A snapshot of the status of a job slot of this node: the job it is
+     * running, if any, and its throughput since auto ingest was started.
+     */
+    @Immutable
+    static final class JobSlotStatus {
+
+        private final int slotNumber;
+        private final AutoIngestJob currentJob;
+        private final int jobsCompleted;
+        private final long bytesProcessed;
+        private final Duration busyTime;
+        private final Duration upTime;
+
+        /**
+         * Constructs a snapshot of the status of a job slot.
+         *
+         * @param slotNumber     The number of the slot, starting at one.
+         * @param currentJob     The job running in the slot, may be null.
+         * @param jobsCompleted  The number of jobs completed by the slot.
+         * @param bytesProcessed The total size of the data sources of the
+         *                       jobs completed by the slot.
+         * @param busyTime       The time the slot has spent running jobs.
+         * @param upTime         The time since the slot was started.
+         */
+        private JobSlotStatus(int slotNumber, AutoIngestJob currentJob, int jobsCompleted, long bytesProcessed, Duration busyTime, Duration upTime) {
+            this.slotNumber = slotNumber;
+            this.currentJob = currentJob;
+            this.jobsCompleted = jobsCompleted;
+            this.bytesProcessed = bytesProcessed;
+            this.busyTime = busyTime;
+            this.upTime = upTime;
+        }
+
+        int getSlotNumber() {
+            return slotNumber;
+        }
+
+        AutoIngestJob getCurrentJob() {
+            return currentJob;
+        }
+
+        int getJobsCompleted() {
+            return jobsCompleted;
+        }
+
+        long getBytesProcessed() {
+            return bytesProcessed;
+        }
+
+        Duration getBusyTime() {
+            return busyTime;
+        }
+
+        Duration getUpTime() {
+            return upTime;
+        }
+
+        /**
+         * Gets the number of jobs completed by the slot per hour since it was
+         * started.
+         *
+         * @return The jobs per hour.
+         */
+        double getJobsPerHour() {
+            return jobsCompleted * 3600.0 / Math.max(1, upTime.getSeconds());
+        }
+
+        /**
+         * Gets the rate at which the slot has processed data source bytes
+         * while it was running jobs.
+         *
+         * @return The throughput in megabytes per second.
+         */
+        double getMegabytesPerSecond() {
+            return (double) bytesProcessed / BYTES_PER_MEGABYTE / Math.max(1, busyTime.getSeconds());
+        }
+    }
+
     enum CaseDeletionResult {
         FAILED,
         PARTIALLY_DELETED,
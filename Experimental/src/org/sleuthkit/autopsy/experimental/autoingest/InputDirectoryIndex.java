@@ -0,0 +1,664 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.experimental.autoingest;
+
+import com.sun.nio.file.ExtendedWatchEventModifier;
+import java.io.IOException;
+import static java.nio.file.FileVisitOption.FOLLOW_LINKS;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitResult;
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.TERMINATE;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.openide.util.Lookup;
+import org.sleuthkit.autopsy.coreutils.PlatformUtil;
+import org.sleuthkit.autopsy.experimental.autoingest.ManifestFileParser.ManifestFileParserException;
+
+/**
+ * An index of the manifest files in an auto ingest input directory tree that
+ * can be brought up to date without walking the whole tree.
+ * <p>
+ * A full update walks the entire tree and parses every file, the same way the
+ * input directory scans always have. An incremental update only lists the
+ * directories that have changed since the previous update and only parses the
+ * files in them that are new or have a new last modified time. Changed
+ * directories are found with a watch service on the root of the tree where the
+ * platform supports watching a whole file tree (Windows), and otherwise by
+ * comparing the last modified times of the indexed directories with the times
+ * recorded when they were last listed. Periodic full updates remain the safety
+ * net for changes that neither mechanism reports, e.g., a manifest rewritten
+ * in place on a file system that does not update modification times.
+ * <p>
+ * Updates must be serialized by the caller.
+ */
+@NotThreadSafe
+final class InputDirectoryIndex {
+
+    private static final Logger LOGGER = AutoIngestSystemLogger.getLogger();
+    private final Path rootDirectory;
+    private final Map<Path, DirectoryEntry> directories;
+    private final Map<Path, Manifest> manifests;
+    private WatchService watchService;
+    private WatchKey watchKey;
+    private boolean linkedDirectoriesFound;
+    private boolean fullUpdateRequired;
+
+    /**
+     * Constructs an empty index of the manifest files in an auto ingest input
+     * directory tree. The first update is always a full update.
+     *
+     * @param rootDirectory The root directory of the input directory tree.
+     */
+    InputDirectoryIndex(Path rootDirectory) {
+        this.rootDirectory = rootDirectory;
+        this.directories = new HashMap<>();
+        this.manifests = new HashMap<>();
+        this.fullUpdateRequired = true;
+    }
+
+    /**
+     * Brings the index up to date with the input directory tree.
+     *
+     * @param fullUpdate Whether or not to walk and parse the entire tree. A
+     *                   full update is done regardless if this is the first
+     *                   update or the previous update did not complete.
+     *
+     * @return The results of the update.
+     *
+     * @throws InterruptedException if the calling thread is interrupted during
+     *                              the update, in which case the next update
+     *                              will be a full update.
+     */
+    Update update(boolean fullUpdate) throws InterruptedException {
+        boolean doFullUpdate = fullUpdate || fullUpdateRequired;
+        fullUpdateRequired = true;
+        Set<Path> changedManifestPaths = new HashSet<>();
+        int directoriesListed;
+        if (doFullUpdate) {
+            directoriesListed = indexAll(changedManifestPaths);
+        } else {
+            directoriesListed = refresh(findChangedDirectories(), changedManifestPaths);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        fullUpdateRequired = false;
+        return new Update(doFullUpdate, isWatching(), new ArrayList<>(manifests.values()), changedManifestPaths, directories.size(), directoriesListed);
+    }
+
+    /**
+     * Releases the watch service used to detect changed directories, if there
+     * is one.
+     */
+    void close() {
+        stopWatching();
+    }
+
+    /**
+     * Discards the current contents of the index and rebuilds it by walking
+     * the entire input directory tree.
+     *
+     * @param changedManifestPaths A set to be populated with the paths of all
+     *                             of the manifest files found.
+     *
+     * @return The number of directories listed.
+     */
+    private int indexAll(Set<Path> changedManifestPaths) {
+        directories.clear();
+        manifests.clear();
+        linkedDirectoriesFound = false;
+        startWatching();
+        drainWatchEvents();
+        return indexTree(rootDirectory, changedManifestPaths);
+    }
+
+    /**
+     * Adds a directory tree that is not yet in the index to the index.
+     *
+     * @param dirPath              The root of the tree.
+     * @param changedManifestPaths A set to be populated with the paths of the
+     *                             manifest files found.
+     *
+     * @return The number of directories listed.
+     */
+    private int indexTree(Path dirPath, Set<Path> changedManifestPaths) {
+        int directoryCountBefore = directories.size();
+        try {
+            Files.walkFileTree(dirPath, EnumSet.of(FOLLOW_LINKS), Integer.MAX_VALUE, new TreeIndexer(changedManifestPaths));
+        } catch (IOException ex) {
+            LOGGER.log(Level.SEVERE, String.format("Error scanning the input directory %s", dirPath), ex);
+        }
+        return directories.size() - directoryCountBefore;
+    }
+
+    /**
+     * Finds the indexed directories whose contents may have changed since the
+     * previous update, using the watch service if all of the changes in the
+     * tree are visible to it and otherwise comparing last modified times.
+     *
+     * @return The paths of the changed directories.
+     *
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private Set<Path> findChangedDirectories() throws InterruptedException {
+        Set<Path> changedDirectories = new HashSet<>();
+        if (pollWatchEvents(changedDirectories) && !linkedDirectoriesFound) {
+            return changedDirectories;
+        }
+        changedDirectories.clear();
+        for (Map.Entry<Path, DirectoryEntry> entry : directories.entrySet()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            try {
+                if (!Files.getLastModifiedTime(entry.getKey()).equals(entry.getValue().lastModifiedTime)) {
+                    changedDirectories.add(entry.getKey());
+                }
+            } catch (IOException ex) {
+                /*
+                 * The directory has most likely been deleted, listing it will
+                 * sort it out.
+                 */
+                changedDirectories.add(entry.getKey());
+            }
+        }
+        return changedDirectories;
+    }
+
+    /**
+     * Lists each of a set of changed directories and updates the index
+     * accordingly.
+     *
+     * @param changedDirectories   The paths of the changed directories.
+     * @param changedManifestPaths A set to be populated with the paths of the
+     *                             new or modified manifest files found.
+     *
+     * @return The number of directories listed.
+     *
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    private int refresh(Set<Path> changedDirectories, Set<Path> changedManifestPaths) throws InterruptedException {
+        /*
+         * Do parents before children so that the children of deleted
+         * directories are not listed needlessly.
+         */
+        List<Path> dirPaths = new ArrayList<>(changedDirectories);
+        Collections.sort(dirPaths);
+        int directoriesListed = 0;
+        for (Path dirPath : dirPaths) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (directories.containsKey(dirPath)) {
+                directoriesListed += refreshDirectory(dirPath, changedManifestPaths);
+            }
+        }
+        return directoriesListed;
+    }
+
+    /**
+     * Lists a changed directory and updates the index accordingly. New
+     * subdirectories are indexed in their entirety, deleted subdirectories are
+     * removed from the index, and new or modified files are parsed.
+     *
+     * @param dirPath              The path of the directory.
+     * @param changedManifestPaths A set to be populated with the paths of the
+     *                             new or modified manifest files found.
+     *
+     * @return The number of directories listed.
+     */
+    private int refreshDirectory(Path dirPath, Set<Path> changedManifestPaths) {
+        DirectoryEntry dirEntry = directories.get(dirPath);
+        try {
+            BasicFileAttributes dirAttrs = Files.readAttributes(dirPath, BasicFileAttributes.class);
+            if (!dirAttrs.isDirectory()) {
+                removeDirectory(dirPath);
+                return 0;
+            }
+            /*
+             * Record the modified time before listing, so that a change made
+             * while the directory is being listed is picked up next time.
+             */
+            dirEntry.lastModifiedTime = dirAttrs.lastModifiedTime();
+        } catch (IOException ex) {
+            if (dirPath.equals(rootDirectory)) {
+                LOGGER.log(Level.SEVERE, String.format("Error scanning the input directory %s", dirPath), ex);
+                dirEntry.lastModifiedTime = null;
+            } else {
+                removeDirectory(dirPath);
+            }
+            return 0;
+        }
+
+        int directoriesListed = 1;
+        Set<Path> filePaths = new HashSet<>();
+        Set<Path> subdirPaths = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dirPath)) {
+            for (Path path : stream) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.SEVERE, String.format("Error while visiting %s during input directories scan", path), ex);
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    if (directories.containsKey(path)) {
+                        subdirPaths.add(path);
+                    } else if (!isLoop(dirPath, path)) {
+                        directoriesListed += indexTree(path, changedManifestPaths);
+                        subdirPaths.add(path);
+                    }
+                } else {
+                    filePaths.add(path);
+                    FileTime lastModifiedTime = attrs.lastModifiedTime();
+                    if (!lastModifiedTime.equals(dirEntry.files.put(path, lastModifiedTime))) {
+                        indexFile(path, changedManifestPaths);
+                    }
+                }
+            }
+        } catch (IOException | DirectoryIteratorException ex) {
+            LOGGER.log(Level.SEVERE, String.format("Error scanning the input directory %s", dirPath), ex);
+            dirEntry.lastModifiedTime = null;
+            return directoriesListed;
+        }
+
+        for (Iterator<Path> iterator = dirEntry.files.keySet().iterator(); iterator.hasNext();) {
+            Path filePath = iterator.next();
+            if (!filePaths.contains(filePath)) {
+                iterator.remove();
+                manifests.remove(filePath);
+            }
+        }
+        for (Path subdirPath : new ArrayList<>(dirEntry.subdirectories)) {
+            if (!subdirPaths.contains(subdirPath)) {
+                removeDirectory(subdirPath);
+            }
+        }
+        dirEntry.subdirectories.clear();
+        dirEntry.subdirectories.addAll(subdirPaths);
+        return directoriesListed;
+    }
+
+    /**
+     * Determines whether a newly found subdirectory is a link back to the
+     * directory it was found in or to one of its ancestors, in which case
+     * indexing it would never end.
+     *
+     * @param parentPath The directory the subdirectory was found in.
+     * @param dirPath    The subdirectory.
+     *
+     * @return True or false.
+     */
+    private boolean isLoop(Path parentPath, Path dirPath) {
+        if (!Files.isSymbolicLink(dirPath)) {
+            return false;
+        }
+        linkedDirectoriesFound = true;
+        for (Path ancestor = parentPath; null != ancestor && ancestor.startsWith(rootDirectory); ancestor = ancestor.getParent()) {
+            try {
+                if (Files.isSameFile(ancestor, dirPath)) {
+                    LOGGER.log(Level.SEVERE, String.format("Error while visiting %s during input directories scan", dirPath), new FileSystemLoopException(dirPath.toString()));
+                    return true;
+                }
+            } catch (IOException ex) {
+                LOGGER.log(Level.SEVERE, String.format("Error while visiting %s during input directories scan", dirPath), ex);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a directory and everything below it from the index.
+     *
+     * @param dirPath The path of the directory.
+     */
+    private void removeDirectory(Path dirPath) {
+        DirectoryEntry dirEntry = directories.remove(dirPath);
+        if (null == dirEntry) {
+            return;
+        }
+        for (Path filePath : dirEntry.files.keySet()) {
+            manifests.remove(filePath);
+        }
+        for (Path subdirPath : dirEntry.subdirectories) {
+            removeDirectory(subdirPath);
+        }
+    }
+
+    /**
+     * Parses a new or modified file and updates the manifests in the index
+     * accordingly.
+     *
+     * @param filePath             The path of the file.
+     * @param changedManifestPaths A set to which the path of the file is added
+     *                             if it is a manifest file.
+     */
+    private void indexFile(Path filePath, Set<Path> changedManifestPaths) {
+        Manifest manifest = null;
+        for (ManifestFileParser parser : Lookup.getDefault().lookupAll(ManifestFileParser.class)) {
+            if (parser.fileIsManifest(filePath)) {
+                try {
+                    manifest = parser.parse(filePath);
+                    break;
+                } catch (ManifestFileParserException ex) {
+                    LOGGER.log(Level.SEVERE, String.format("Error attempting to parse %s with parser %s", filePath, parser.getClass().getCanonicalName()), ex);
+                }
+            }
+        }
+        if (null != manifest) {
+            manifests.put(filePath, manifest);
+            changedManifestPaths.add(filePath);
+        } else {
+            manifests.remove(filePath);
+        }
+    }
+
+    /**
+     * Starts watching the input directory tree for changes, if the platform
+     * supports watching an entire file tree and the tree is not already being
+     * watched.
+     */
+    private void startWatching() {
+        if (null != watchService || !PlatformUtil.isWindowsOS()) {
+            return;
+        }
+        try {
+            watchService = rootDirectory.getFileSystem().newWatchService();
+            watchKey = rootDirectory.register(watchService, new WatchEvent.Kind<?>[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY}, ExtendedWatchEventModifier.FILE_TREE);
+            LOGGER.log(Level.INFO, "Watching input directory {0} for changes", rootDirectory);
+        } catch (IOException | UnsupportedOperationException ex) {
+            LOGGER.log(Level.WARNING, String.format("Unable to watch input directory %s for changes, using modified times instead", rootDirectory), ex);
+            stopWatching();
+        }
+    }
+
+    /**
+     * Stops watching the input directory tree for changes.
+     */
+    private void stopWatching() {
+        if (null != watchService) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, String.format("Error closing watch service for input directory %s", rootDirectory), ex);
+            }
+        }
+        watchService = null;
+        watchKey = null;
+    }
+
+    /**
+     * Indicates whether or not the input directory tree is being watched for
+     * changes.
+     *
+     * @return True or false.
+     */
+    private boolean isWatching() {
+        return null != watchKey && !linkedDirectoriesFound;
+    }
+
+    /**
+     * Discards any pending watch events. Called before walking the entire tree,
+     * which will see the changes anyway.
+     */
+    private void drainWatchEvents() {
+        if (null == watchService) {
+            return;
+        }
+        WatchKey key;
+        while (null != (key = watchService.poll())) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    /**
+     * Collects the directories affected by the pending watch events.
+     *
+     * @param changedDirectories A set to be populated with the paths of the
+     *                           indexed directories affected by the events.
+     *
+     * @return True if the tree is being watched and no events were lost,
+     *         false otherwise.
+     */
+    private boolean pollWatchEvents(Set<Path> changedDirectories) {
+        if (null == watchService) {
+            return false;
+        }
+        boolean eventsComplete = true;
+        WatchKey key;
+        while (null != (key = watchService.poll())) {
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (OVERFLOW == event.kind()) {
+                    eventsComplete = false;
+                    continue;
+                }
+                Path path = rootDirectory.resolve((Path) event.context());
+                if (directories.containsKey(path)) {
+                    changedDirectories.add(path);
+                }
+                Path parent = path.getParent();
+                while (null != parent && !directories.containsKey(parent)) {
+                    parent = parent.getParent();
+                }
+                if (null != parent) {
+                    changedDirectories.add(parent);
+                }
+            }
+            if (!key.reset()) {
+                eventsComplete = false;
+            }
+        }
+        if (!watchKey.isValid()) {
+            /*
+             * The root directory is gone or no longer accessible, try again on
+             * the next full update.
+             */
+            LOGGER.log(Level.WARNING, "Watch of input directory {0} was cancelled, using modified times instead", rootDirectory);
+            stopWatching();
+            return false;
+        }
+        return eventsComplete;
+    }
+
+    /**
+     * Adds the directories and files of a directory tree to the index.
+     */
+    private final class TreeIndexer extends SimpleFileVisitor<Path> {
+
+        private final Set<Path> changedManifestPaths;
+
+        /**
+         * Constructs a visitor that adds the directories and files of a
+         * directory tree to the index.
+         *
+         * @param changedManifestPaths A set to be populated with the paths of
+         *                             the manifest files found.
+         */
+        private TreeIndexer(Set<Path> changedManifestPaths) {
+            this.changedManifestPaths = changedManifestPaths;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dirPath, BasicFileAttributes dirAttrs) throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                return TERMINATE;
+            }
+            if (!linkedDirectoriesFound && Files.isSymbolicLink(dirPath)) {
+                linkedDirectoriesFound = true;
+            }
+            directories.put(dirPath, new DirectoryEntry(dirAttrs.lastModifiedTime()));
+            DirectoryEntry parentEntry = directories.get(dirPath.getParent());
+            if (null != parentEntry) {
+                parentEntry.subdirectories.add(dirPath);
+            }
+            return CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path filePath, BasicFileAttributes attrs) throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                return TERMINATE;
+            }
+            DirectoryEntry parentEntry = directories.get(filePath.getParent());
+            if (null != parentEntry) {
+                parentEntry.files.put(filePath, attrs.lastModifiedTime());
+            }
+            indexFile(filePath, changedManifestPaths);
+            return Thread.currentThread().isInterrupted() ? TERMINATE : CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path filePath, IOException ex) throws IOException {
+            LOGGER.log(Level.SEVERE, String.format("Error while visiting %s during input directories scan", filePath.toString()), ex);
+            return Thread.currentThread().isInterrupted() ? TERMINATE : CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dirPath, IOException ex) throws IOException {
+            return Thread.currentThread().isInterrupted() ? TERMINATE : CONTINUE;
+        }
+    }
+
+    /**
+     * What the index knows about an indexed directory.
+     */
+    private static final class DirectoryEntry {
+
+        /*
+         * Null if the directory could not be listed, so that it is listed again
+         * on the next update.
+         */
+        private FileTime lastModifiedTime;
+        private final Map<Path, FileTime> files;
+        private final Set<Path> subdirectories;
+
+        private DirectoryEntry(FileTime lastModifiedTime) {
+            this.lastModifiedTime = lastModifiedTime;
+            this.files = new HashMap<>();
+            this.subdirectories = new HashSet<>();
+        }
+    }
+
+    /**
+     * The results of an update of the index.
+     */
+    @Immutable
+    static final class Update {
+
+        private final boolean fullUpdate;
+        private final boolean watched;
+        private final List<Manifest> manifests;
+        private final Set<Path> changedManifestPaths;
+        private final int directoriesIndexed;
+        private final int directoriesListed;
+
+        private Update(boolean fullUpdate, boolean watched, List<Manifest> manifests, Set<Path> changedManifestPaths, int directoriesIndexed, int directoriesListed) {
+            this.fullUpdate = fullUpdate;
+            this.watched = watched;
+            this.manifests = Collections.unmodifiableList(manifests);
+            this.changedManifestPaths = Collections.unmodifiableSet(changedManifestPaths);
+            this.directoriesIndexed = directoriesIndexed;
+            this.directoriesListed = directoriesListed;
+        }
+
+        /**
+         * Indicates whether or not the entire tree was walked.
+         *
+         * @return True or false.
+         */
+        boolean isFullUpdate() {
+            return fullUpdate;
+        }
+
+        /**
+         * Indicates whether or not the tree is being watched for changes.
+         *
+         * @return True or false.
+         */
+        boolean isWatched() {
+            return watched;
+        }
+
+        /**
+         * Gets all of the manifests currently in the input directory tree.
+         *
+         * @return The manifests.
+         */
+        List<Manifest> getManifests() {
+            return manifests;
+        }
+
+        /**
+         * Gets the paths of the manifest files that are new or were modified
+         * since the previous update. For a full update, this is all of them.
+         *
+         * @return The manifest file paths.
+         */
+        Set<Path> getChangedManifestPaths() {
+            return changedManifestPaths;
+        }
+
+        /**
+         * Gets the number of directories in the index.
+         *
+         * @return The directory count.
+         */
+        int getDirectoriesIndexed() {
+            return directoriesIndexed;
+        }
+
+        /**
+         * Gets the number of directories that were listed by the update.
+         *
+         * @return The directory count.
+         */
+        int getDirectoriesListed() {
+            return directoriesListed;
+        }
+    }
+}
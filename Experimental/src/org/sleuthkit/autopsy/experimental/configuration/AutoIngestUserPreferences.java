@@ -45,6 +45,10 @@ public final class AutoIngestUserPreferences {
     private static final String SHOW_TOOLS_WARNING = "ShowToolsWarning"; // NON-NLS
     private static final String MAX_NUM_TIMES_TO_PROCESS_IMAGE = "MaxNumTimesToAttemptToProcessImage"; // NON-NLS
     private static final String MAX_CONCURRENT_NODES_FOR_ONE_CASE = "MaxConcurrentNodesForOneCase"; // NON-NLS
+    private static final String MAX_CONCURRENT_JOBS_PER_NODE = "MaxConcurrentJobsPerNode"; // NON-NLS
+    private static final String MIN_FREE_CORES_FOR_ADDITIONAL_JOB = "MinFreeCoresForAdditionalJob"; // NON-NLS
+    private static final String MIN_FREE_MEMORY_FOR_ADDITIONAL_JOB = "MinFreeMemoryForAdditionalJob"; // NON-NLS
+    private static final String MIN_FREE_TEMP_SPACE_FOR_ADDITIONAL_JOB = "MinFreeTempSpaceForAdditionalJob"; // NON-NLS
     private static final String STATUS_DATABASE_LOGGING_ENABLED = "StatusDatabaseLoggingEnabled"; // NON-NLS
     private static final String LOGGING_DB_HOSTNAME_OR_IP = "LoggingHostnameOrIP"; // NON-NLS
     private static final String LOGGING_PORT = "LoggingPort"; // NON-NLS
@@ -52,6 +56,7 @@ public final class AutoIngestUserPreferences {
     private static final String LOGGING_PASSWORD = "LoggingPassword"; // NON-NLS
     private static final String LOGGING_DATABASE_NAME = "LoggingDatabaseName"; // NON-NLS
     private static final String INPUT_SCAN_INTERVAL_TIME = "IntervalBetweenInputScan"; // NON-NLS
+    private static final String FULL_INPUT_SCAN_INTERVAL_TIME = "IntervalBetweenFullInputScans"; // NON-NLS
 
     // Prevent instantiation.
     private AutoIngestUserPreferences() {
@@ -289,6 +294,100 @@ public static void setMaxConcurrentIngestNodesForOneCase(int numberOfNodes) {
         ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MAX_CONCURRENT_NODES_FOR_ONE_CASE, Integer.toString(numberOfNodes));
     }
 
+    /**
+     * Get the maximum number of auto ingest jobs this node may process at the
+     * same time. Jobs processed at the same time are always for the same case.
+     *
+     * @return maximum number of concurrent jobs for this node. Default is 1.
+     */
+    public static int getMaxConcurrentJobsPerNode() {
+        if (ModuleSettings.settingExists(UserPreferences.SETTINGS_PROPERTIES, MAX_CONCURRENT_JOBS_PER_NODE)) {
+            return Integer.parseInt(ModuleSettings.getConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MAX_CONCURRENT_JOBS_PER_NODE));
+        }
+        return 1;
+    }
+
+    /**
+     * Set the maximum number of auto ingest jobs this node may process at the
+     * same time.
+     *
+     * @param numberOfJobs the number of concurrent jobs to allow for this node
+     */
+    public static void setMaxConcurrentJobsPerNode(int numberOfJobs) {
+        ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MAX_CONCURRENT_JOBS_PER_NODE, Integer.toString(numberOfJobs));
+    }
+
+    /**
+     * Get the number of idle processor cores required before this node starts
+     * an auto ingest job while it is already processing another one.
+     *
+     * @return number of idle cores. Default is 2.
+     */
+    public static int getMinFreeCoresForAdditionalJob() {
+        if (ModuleSettings.settingExists(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_CORES_FOR_ADDITIONAL_JOB)) {
+            return Integer.parseInt(ModuleSettings.getConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_CORES_FOR_ADDITIONAL_JOB));
+        }
+        return 2;
+    }
+
+    /**
+     * Set the number of idle processor cores required before this node starts
+     * an auto ingest job while it is already processing another one.
+     *
+     * @param cores the number of idle cores
+     */
+    public static void setMinFreeCoresForAdditionalJob(int cores) {
+        ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_CORES_FOR_ADDITIONAL_JOB, Integer.toString(cores));
+    }
+
+    /**
+     * Get the amount of unused Java heap memory required before this node
+     * starts an auto ingest job while it is already processing another one.
+     *
+     * @return the value in megabytes, default is 2048 megabytes.
+     */
+    public static int getMinFreeMemoryForAdditionalJob() {
+        if (ModuleSettings.settingExists(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_MEMORY_FOR_ADDITIONAL_JOB)) {
+            return Integer.parseInt(ModuleSettings.getConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_MEMORY_FOR_ADDITIONAL_JOB));
+        }
+        return 2048;
+    }
+
+    /**
+     * Set the amount of unused Java heap memory required before this node
+     * starts an auto ingest job while it is already processing another one.
+     *
+     * @param megabytes the number of megabytes
+     */
+    public static void setMinFreeMemoryForAdditionalJob(int megabytes) {
+        ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_MEMORY_FOR_ADDITIONAL_JOB, Integer.toString(megabytes));
+    }
+
+    /**
+     * Get the amount of free space in the temporary directory required before
+     * this node starts an auto ingest job while it is already processing
+     * another one.
+     *
+     * @return the value in gigabytes, default is 20 gigabytes.
+     */
+    public static int getMinFreeTempSpaceForAdditionalJob() {
+        if (ModuleSettings.settingExists(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_TEMP_SPACE_FOR_ADDITIONAL_JOB)) {
+            return Integer.parseInt(ModuleSettings.getConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_TEMP_SPACE_FOR_ADDITIONAL_JOB));
+        }
+        return 20;
+    }
+
+    /**
+     * Set the amount of free space in the temporary directory required before
+     * this node starts an auto ingest job while it is already processing
+     * another one.
+     *
+     * @param gigabytes the number of gigabytes
+     */
+    public static void setMinFreeTempSpaceForAdditionalJob(int gigabytes) {
+        ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, MIN_FREE_TEMP_SPACE_FOR_ADDITIONAL_JOB, Integer.toString(gigabytes));
+    }
+
     /**
      * Get status database logging checkbox state for automated ingest mode from
      * persistent storage.
@@ -443,6 +542,31 @@ public static void setMinutesOfInputScanInterval(int value) {
         ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, INPUT_SCAN_INTERVAL_TIME, Integer.toString(value));
     }
 
+    /**
+     * Get the configured time between full input scans, i.e., scans that walk
+     * the entire input directory tree instead of only the parts of it that
+     * have changed since the previous scan.
+     *
+     * @return int the value in hours, default is 6 hours. Zero or less means
+     *         that every input scan is a full scan.
+     */
+    public static int getHoursOfFullInputScanInterval() {
+        if (ModuleSettings.settingExists(UserPreferences.SETTINGS_PROPERTIES, FULL_INPUT_SCAN_INTERVAL_TIME)) {
+            return Integer.parseInt(ModuleSettings.getConfigSetting(UserPreferences.SETTINGS_PROPERTIES, FULL_INPUT_SCAN_INTERVAL_TIME));
+        }
+        return 6;
+    }
+
+    /**
+     * Set the configured time between full input scans.
+     *
+     * @param value the number of hours between full input scans, zero or less
+     *              for every input scan to be a full scan
+     */
+    public static void setHoursOfFullInputScanInterval(int value) {
+        ModuleSettings.setConfigSetting(UserPreferences.SETTINGS_PROPERTIES, FULL_INPUT_SCAN_INTERVAL_TIME, Integer.toString(value));
+    }
+
     /**
      * Copied from Autopsy UserPreferences - can be removed once everything is
      * merged together. Provides ability to convert text to hex text.
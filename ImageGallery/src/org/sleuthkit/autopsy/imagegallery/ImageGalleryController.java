@@ -23,9 +23,15 @@
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import javafx.application.Platform;
@@ -64,6 +70,7 @@
 import org.sleuthkit.autopsy.coreutils.History;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.coreutils.MessageNotifyUtil;
+import org.sleuthkit.autopsy.coreutils.ModuleSettings;
 import org.sleuthkit.autopsy.coreutils.ThreadConfined;
 import org.sleuthkit.autopsy.imagegallery.actions.UndoRedoManager;
 import org.sleuthkit.autopsy.imagegallery.datamodel.CategoryManager;
@@ -71,6 +78,7 @@
 import org.sleuthkit.autopsy.imagegallery.datamodel.DrawableFile;
 import org.sleuthkit.autopsy.imagegallery.datamodel.DrawableTagsManager;
 import org.sleuthkit.autopsy.imagegallery.datamodel.HashSetManager;
+import org.sleuthkit.autopsy.imagegallery.datamodel.PrefetchedFileAttributes;
 import org.sleuthkit.autopsy.imagegallery.datamodel.grouping.GroupManager;
 import org.sleuthkit.autopsy.imagegallery.datamodel.grouping.GroupViewState;
 import org.sleuthkit.autopsy.imagegallery.gui.NoGroupsDialog;
@@ -672,6 +680,14 @@ abstract static private class BulkTransferTask extends BackgroundTask {
                 //grab files with image or video mime-types even if we don't officially support them
                 + " OR mime_type LIKE 'video/%' OR mime_type LIKE 'image/%' )"; //NON-NLS
 
+        /**
+         * the number of files prepared and written to the db together, in one
+         * transaction
+         */
+        static private final int FILES_PER_BATCH = 1000;
+        static private final String SETTINGS_MODULE = "ImageGallery"; //NON-NLS
+        static private final String BULK_THREADS_KEY = "bulkPopulation.threads"; //NON-NLS
+
         final ImageGalleryController controller;
         final DrawableDB taskDB;
         final SleuthkitCase tskCase;
@@ -688,54 +704,119 @@ abstract static private class BulkTransferTask extends BackgroundTask {
 
         abstract List<AbstractFile> getFiles() throws TskCoreException;
 
-        abstract void processFile(final AbstractFile f, DrawableDB.DrawableTransaction tr) throws TskCoreException;
+        /**
+         * Decide what to do with a file, and prepare it for writing to the
+         * db. Called on the preparer threads, so it may do slow lookups but
+         * must not write to the db.
+         *
+         * @param f          the file
+         * @param attributes the prefetched attributes of all files, to give to
+         *                   the DrawableFiles that are created
+         * @param batch      the batch to add the file to
+         */
+        abstract void prepareFile(final AbstractFile f, PrefetchedFileAttributes attributes, FileBatch batch);
 
+        /**
+         * Gets the number of threads that prepare files for the db.
+         *
+         * @return the number of threads
+         */
+        static int getPreparerThreads() {
+            String threadsString = ModuleSettings.getConfigSetting(SETTINGS_MODULE, BULK_THREADS_KEY);
+            if (threadsString != null && !threadsString.isEmpty()) {
+                try {
+                    int threads = Integer.parseInt(threadsString);
+                    if (threads > 0) {
+                        return threads;
+                    }
+                } catch (NumberFormatException ex) {
+                    LOGGER.log(Level.WARNING, "Invalid number of image gallery bulk population threads: " + threadsString, ex); //NON-NLS
+                }
+            }
+            return Math.min(4, Runtime.getRuntime().availableProcessors());
+        }
+
+        /**
+         * Loads the hash hits, tags and EXIF make and model of all files with
+         * a few queries, then prepares batches of files on a pool of threads
+         * (making the DrawableFiles and looking up their paths) while this
+         * thread writes the prepared batches to the db in order, one
+         * transaction per batch.
+         */
         @Override
         public void run() {
             progressHandle = getInitialProgressHandle();
             progressHandle.start();
-            updateMessage(Bundle.CopyAnalyzedFiles_populatingDb_status());
 
+            final int threads = getPreparerThreads();
+            final ExecutorService preparers = Executors.newFixedThreadPool(threads,
+                    new ThreadFactoryBuilder().setNameFormat("image-gallery-bulk-prepare-%d").build()); //NON-NLS
+            final long startNanos = System.nanoTime();
+            long writeNanos = 0;
+            int workDone = 0;
             try {
                 //grab all files with supported extension or detected mime types
                 final List<AbstractFile> files = getFiles();
                 progressHandle.switchToDeterminate(files.size());
-
                 updateProgress(0.0);
 
-                //do in transaction
-                DrawableDB.DrawableTransaction tr = taskDB.beginTransaction();
-                int workDone = 0;
-                for (final AbstractFile f : files) {
+                final PrefetchedFileAttributes attributes = PrefetchedFileAttributes.load(tskCase);
+                final long prefetchNanos = System.nanoTime() - startNanos;
+
+                Deque<Future<FileBatch>> inFlight = new ArrayDeque<>();
+                int nextStart = 0;
+                while (nextStart < files.size() || inFlight.isEmpty() == false) {
                     if (isCancelled() || Thread.interrupted()) {
                         LOGGER.log(Level.WARNING, "Task cancelled: not all contents may be transfered to drawable database."); //NON-NLS
-                        progressHandle.finish();
                         break;
                     }
+                    //keep the preparers busy, but bound the number of prepared batches waiting to be written
+                    while (nextStart < files.size() && inFlight.size() < 2 * threads) {
+                        List<AbstractFile> batchFiles = files.subList(nextStart, Math.min(nextStart + FILES_PER_BATCH, files.size()));
+                        inFlight.add(preparers.submit(() -> {
+                            FileBatch batch = new FileBatch();
+                            for (AbstractFile f : batchFiles) {
+                                if (isCancelled()) {
+                                    break;
+                                }
+                                prepareFile(f, attributes, batch);
+                            }
+                            return batch;
+                        }));
+                        nextStart += batchFiles.size();
+                    }
 
-                    processFile(f, tr);
-
-                    workDone++;
-                    progressHandle.progress(f.getName(), workDone);
-                    updateProgress(workDone - 1 / (double) files.size());
-                    updateMessage(f.getName());
+                    FileBatch batch = inFlight.poll().get();
+                    progressHandle.progress(Bundle.BulkTask_committingDb_status(), workDone);
+                    long writeStartNanos = System.nanoTime();
+                    DrawableDB.DrawableTransaction tr = taskDB.beginTransaction();
+                    taskDB.removeFiles(batch.removedFileIDs, tr);
+                    taskDB.updateFiles(batch.updatedFiles, tr);
+                    taskDB.insertFiles(batch.insertedFiles, tr);
+                    taskDB.commitTransaction(tr, true);
+                    writeNanos += System.nanoTime() - writeStartNanos;
+
+                    workDone += batch.size();
+                    progressHandle.progress(workDone);
+                    updateProgress(workDone / (double) files.size());
+                    updateMessage(getThroughputMessage(workDone, startNanos));
                 }
 
-                progressHandle.finish();
-                progressHandle = ProgressHandle.createHandle(Bundle.BulkTask_committingDb_status());
-                updateMessage(Bundle.BulkTask_committingDb_status());
-                updateProgress(1.0);
-
-                progressHandle.start();
-                taskDB.commitTransaction(tr, true);
-
-            } catch (TskCoreException ex) {
+                long elapsedNanos = System.nanoTime() - startNanos;
+                LOGGER.log(Level.INFO, "Transferred {0} files to the drawable db in {1} ms ({2}), {3} ms loading attributes, {4} ms writing, on {5} preparer threads", //NON-NLS
+                        new Object[]{workDone, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getThroughputMessage(workDone, startNanos),
+                            TimeUnit.NANOSECONDS.toMillis(prefetchNanos), TimeUnit.NANOSECONDS.toMillis(writeNanos), threads});
+            } catch (TskCoreException | ExecutionException ex) {
                 progressHandle.progress(Bundle.BulkTask_stopCopy_status());
                 LOGGER.log(Level.WARNING, "Stopping copy to drawable db task.  Failed to transfer all database contents", ex); //NON-NLS
                 MessageNotifyUtil.Notify.warn(Bundle.BulkTask_errPopulating_errMsg(), ex.getMessage());
                 cleanup(false);
                 return;
+            } catch (InterruptedException ex) {
+                LOGGER.log(Level.WARNING, "Task interrupted: not all contents may be transfered to drawable database."); //NON-NLS
+                Thread.currentThread().interrupt();
             } finally {
+                preparers.shutdownNow();
                 progressHandle.finish();
                 updateMessage("");
                 updateProgress(-1.0);
@@ -743,9 +824,39 @@ public void run() {
             cleanup(true);
         }
 
+        private static String getThroughputMessage(int filesDone, long startNanos) {
+            double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+            return String.format("%d files, %.0f files/sec", filesDone, seconds > 0 ? filesDone / seconds : 0.0); //NON-NLS
+        }
+
         abstract ProgressHandle getInitialProgressHandle();
     }
 
+    /**
+     * The files of one batch of a BulkTransferTask, sorted by what is to be
+     * done with them.
+     */
+    static private final class FileBatch {
+
+        private final List<Long> removedFileIDs = new ArrayList<>();
+        private final List<DrawableFile> updatedFiles = new ArrayList<>();
+        private final List<DrawableFile> insertedFiles = new ArrayList<>();
+
+        /**
+         * give the file its prefetched attributes, and look up its path, so
+         * that the writer thread does not have to
+         */
+        private DrawableFile prepare(DrawableFile file, PrefetchedFileAttributes attributes) {
+            attributes.apply(file);
+            file.getDrawablePath();
+            return file;
+        }
+
+        private int size() {
+            return removedFileIDs.size() + updatedFiles.size() + insertedFiles.size();
+        }
+    }
+
     /**
      * Task that runs when image gallery listening is (re) enabled.
      *
@@ -773,18 +884,18 @@ List<AbstractFile> getFiles() throws TskCoreException {
         }
 
         @Override
-        void processFile(AbstractFile f, DrawableDB.DrawableTransaction tr) throws TskCoreException {
+        void prepareFile(AbstractFile f, PrefetchedFileAttributes attributes, FileBatch batch) {
             final boolean known = f.getKnown() == TskData.FileKnown.KNOWN;
 
             if (known) {
-                taskDB.removeFile(f.getId(), tr);  //remove known files
+                batch.removedFileIDs.add(f.getId());  //remove known files
             } else {
 
                 try {
                     if (FileTypeUtils.hasDrawableMIMEType(f)) {  //supported mimetype => analyzed
-                        taskDB.updateFile(DrawableFile.create(f, true, false), tr);
+                        batch.updatedFiles.add(batch.prepare(DrawableFile.create(f, true, false), attributes));
                     } else { //unsupported mimtype => analyzed but shouldn't include
-                        taskDB.removeFile(f.getId(), tr);
+                        batch.removedFileIDs.add(f.getId());
                     }
                 } catch (FileTypeDetector.FileTypeDetectorInitException ex) {
                     throw new RuntimeException(ex);
@@ -828,8 +939,8 @@ protected void cleanup(boolean success) {
         }
 
         @Override
-        void processFile(final AbstractFile f, DrawableDB.DrawableTransaction tr) {
-            taskDB.insertFile(DrawableFile.create(f, false, false), tr);
+        void prepareFile(final AbstractFile f, PrefetchedFileAttributes attributes, FileBatch batch) {
+            batch.insertedFiles.add(batch.prepare(DrawableFile.create(f, false, false), attributes));
         }
 
         @Override
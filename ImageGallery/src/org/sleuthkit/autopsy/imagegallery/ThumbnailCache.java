@@ -24,10 +24,6 @@
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.IOException;
-import java.net.MalformedURLException;
-import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -38,7 +34,6 @@
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
 import javax.annotation.Nullable;
-import javax.imageio.ImageIO;
 import org.sleuthkit.autopsy.coreutils.ImageUtils;
 import org.sleuthkit.autopsy.coreutils.Logger;
 import org.sleuthkit.autopsy.imagegallery.datamodel.DrawableFile;
@@ -132,25 +127,8 @@ private Image load(DrawableFile file) {
             return new Image(new BufferedInputStream(new ReadContentInputStream(file.getAbstractFile())), MAX_THUMBNAIL_SIZE, MAX_THUMBNAIL_SIZE, true, true);
         }
 
-        BufferedImage thumbnail = getCacheFile(file).map(cachFile -> {
-            if (cachFile.exists()) {
-                // If a thumbnail file is already saved locally, load it
-                try {
-                    BufferedImage cachedThumbnail = ImageIO.read(cachFile);
-
-                    if (cachedThumbnail.getWidth() < MAX_THUMBNAIL_SIZE) {
-                        return cachedThumbnail;
-                    }
-                } catch (MalformedURLException ex) {
-                    LOGGER.log(Level.WARNING, "Unable to parse cache file path: " + cachFile.getPath(), ex); //NON-NLS
-                } catch (IOException ex) {
-                    LOGGER.log(Level.WARNING, "Unable to read cache file " + cachFile.getPath(), ex); //NON-NLS
-                }
-            }
-            return null;
-        }).orElseGet(() -> {
-            return ImageUtils.getThumbnail(file.getAbstractFile(), MAX_THUMBNAIL_SIZE);
-        });
+        // ImageUtils reads the thumbnail from the disk cache, or makes and saves one
+        BufferedImage thumbnail = ImageUtils.getThumbnail(file.getAbstractFile(), MAX_THUMBNAIL_SIZE);
 
         WritableImage jfxthumbnail;
         if (thumbnail == ImageUtils.getDefaultThumbnail()) {
@@ -163,24 +141,6 @@ private Image load(DrawableFile file) {
         return jfxthumbnail; //return icon, or null if generation failed
     }
 
-    /**
-     * get a File to store the cached icon in.
-     *
-     * @param id the obj id of the file to get a cache file for
-     *
-     * @return a Optional containing a File to store the cached icon in or an
-     *         empty optional if there was a problem.
-     */
-    private static Optional<File> getCacheFile(DrawableFile file) {
-        try {
-            return Optional.of(ImageUtils.getCachedThumbnailFile(file.getAbstractFile(), MAX_THUMBNAIL_SIZE));
-
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Failed to create cache file.{0}", e.getLocalizedMessage()); //NON-NLS
-            return Optional.empty();
-        }
-    }
-
     public Task<Image> getThumbnailTask(DrawableFile file) {
         final Image thumbnail = cache.getIfPresent(file.getId());
         if (thumbnail != null) {
@@ -61,6 +61,7 @@
 import org.sleuthkit.datamodel.Content;
 import org.sleuthkit.datamodel.ContentTag;
 import org.sleuthkit.datamodel.SleuthkitCase;
+import org.sleuthkit.datamodel.Tag;
 import org.sleuthkit.datamodel.TagName;
 import org.sleuthkit.datamodel.TskCoreException;
 import org.sqlite.SQLiteJDBCLoader;
@@ -84,6 +85,15 @@ public final class DrawableDB {
 
     private static final String HASH_SET_NAME = "hash_set_name"; //NON-NLS
 
+    /**
+     * the number of files written by one multi-row statement in bulk inserts
+     * and updates. Each file takes 8 parameters, so this stays below SQLite's
+     * limit of 999 parameters per statement.
+     */
+    private static final int FILES_PER_STATEMENT = 100;
+
+    private static final String FILE_COLUMNS = "drawable_files (obj_id , path, name, created_time, modified_time, make, model, analyzed)"; //NON-NLS
+
     private final PreparedStatement insertHashSetStmt;
 
     private final PreparedStatement groupSeenQueryStmt;
@@ -104,6 +114,14 @@ public final class DrawableDB {
 
     private final PreparedStatement updateFileStmt;
     private final PreparedStatement insertFileStmt;
+    private final PreparedStatement bulkUpdateFileStmt;
+    private final PreparedStatement bulkInsertFileStmt;
+
+    /**
+     * map from hash set name to hash_set_id, for bulk inserts of hash set hits
+     */
+    @GuardedBy("DBLock")
+    private final Map<String, Integer> hashSetIDs = new HashMap<>();
 
     private final PreparedStatement pathGroupStmt;
 
@@ -121,6 +139,26 @@ public final class DrawableDB {
 
     private final PreparedStatement hashSetGroupStmt;
 
+    private final PreparedStatement insertGroupFileStmt;
+
+    private final PreparedStatement removeGroupFilesStmt;
+
+    private final PreparedStatement removeGroupFilesForAttrStmt;
+
+    private final PreparedStatement removeGroupFileStmt;
+
+    private final PreparedStatement groupFileIDsStmt;
+
+    private final PreparedStatement groupSummariesStmt;
+
+    private final PreparedStatement groupsSeenStmt;
+
+    /**
+     * true if the group_files table was created when this db was opened, so
+     * it has to be filled in from the files already in the db.
+     */
+    private boolean groupFilesNeedPopulating = false;
+
     /**
      * map from {@link DrawableAttribute} to the {@link PreparedStatement} thet
      * is used to select groups for that attribute
@@ -208,6 +246,9 @@ private DrawableDB(Path dbPath, ImageGalleryController controller) throws SQLExc
                     "INSERT OR IGNORE INTO drawable_files (obj_id , path, name, created_time, modified_time, make, model, analyzed) " //NON-NLS
                     + "VALUES (?,?,?,?,?,?,?,?)"); //NON-NLS
 
+            bulkUpdateFileStmt = prepareStatement(getBulkFileSQL("INSERT OR REPLACE", FILES_PER_STATEMENT)); //NON-NLS
+            bulkInsertFileStmt = prepareStatement(getBulkFileSQL("INSERT OR IGNORE", FILES_PER_STATEMENT)); //NON-NLS
+
             removeFileStmt = prepareStatement("DELETE FROM drawable_files WHERE obj_id = ?"); //NON-NLS
 
             pathGroupStmt = prepareStatement("SELECT obj_id , analyzed FROM drawable_files WHERE path  = ? ", DrawableAttribute.PATH); //NON-NLS
@@ -230,10 +271,22 @@ private DrawableDB(Path dbPath, ImageGalleryController controller) throws SQLExc
 
             insertHashHitStmt = prepareStatement("INSERT OR IGNORE INTO hash_set_hits (hash_set_id, obj_id) VALUES (?,?)"); //NON-NLS
 
+            insertGroupFileStmt = prepareStatement("INSERT OR IGNORE INTO group_files (attribute, value, obj_id) VALUES (?,?,?)"); //NON-NLS
+            removeGroupFilesStmt = prepareStatement("DELETE FROM group_files WHERE obj_id = ?"); //NON-NLS
+            removeGroupFilesForAttrStmt = prepareStatement("DELETE FROM group_files WHERE attribute = ? AND obj_id = ?"); //NON-NLS
+            removeGroupFileStmt = prepareStatement("DELETE FROM group_files WHERE attribute = ? AND value = ? AND obj_id = ?"); //NON-NLS
+            groupFileIDsStmt = prepareStatement("SELECT obj_id FROM group_files WHERE attribute = ? AND value = ?"); //NON-NLS
+            groupSummariesStmt = prepareStatement("SELECT group_files.value AS value, group_files.obj_id AS obj_id, drawable_files.analyzed AS analyzed " //NON-NLS
+                    + " FROM group_files JOIN drawable_files ON group_files.obj_id = drawable_files.obj_id WHERE group_files.attribute = ?"); //NON-NLS
+            groupsSeenStmt = prepareStatement("SELECT value, seen FROM groups WHERE attribute = ?"); //NON-NLS
+
             for (Category cat : Category.values()) {
                 insertGroup(cat.getDisplayName(), DrawableAttribute.CATEGORY);
             }
             initializeImageList();
+            if (groupFilesNeedPopulating) {
+                populateGroupFiles();
+            }
         } else {
             throw new ExceptionInInitializerError();
         }
@@ -403,6 +456,33 @@ private boolean initializeDBSchema() {
             return false;
         }
 
+        try (Statement stmt = con.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name = 'group_files'")) { //NON-NLS
+                groupFilesNeedPopulating = rs.next() == false;
+            }
+            /*
+             * the membership of every group the files are in, for each
+             * groupable attribute, kept up to date as files are written and
+             * tagged so that regrouping is a single read of this table.
+             */
+            String sql = "CREATE TABLE  if not exists group_files " //NON-NLS
+                    + "(attribute VARCHAR(255) not null, " //NON-NLS
+                    + " value VARCHAR(255) not null, " //NON-NLS
+                    + " obj_id INTEGER not null, " //NON-NLS
+                    + " PRIMARY KEY (attribute, value, obj_id))"; //NON-NLS
+            stmt.execute(sql);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.SEVERE, "problem creating group_files table", ex); //NON-NLS
+            return false;
+        }
+
+        try (Statement stmt = con.createStatement()) {
+            String sql = "CREATE  INDEX if not exists group_files_obj_id_idx ON group_files(obj_id)"; //NON-NLS
+            stmt.execute(sql);
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "problem creating group_files_obj_id_idx", ex); //NON-NLS
+        }
+
         try (Statement stmt = con.createStatement()) {
             String sql = "CREATE  INDEX if not exists path_idx ON drawable_files(path)"; //NON-NLS
             stmt.execute(sql);
@@ -610,6 +690,9 @@ private void insertOrUpdateFile(DrawableFile f, @Nonnull DrawableTransaction tr,
 
         dbWriteLock();
         try {
+            //an ignored insert leaves the file, and so its groups, as they were
+            final boolean writeGroupFiles = stmt == updateFileStmt || isInDB(f.getId()) == false;
+
             // "INSERT OR IGNORE/ INTO drawable_files (path, name, created_time, modified_time, make, model, analyzed)"
             stmt.setLong(1, f.getId());
             stmt.setString(2, f.getDrawablePath());
@@ -658,6 +741,12 @@ private void insertOrUpdateFile(DrawableFile f, @Nonnull DrawableTransaction tr,
                     }
                 }
             }
+            if (writeGroupFiles) {
+                removeGroupFilesStmt.setLong(1, f.getId());
+                removeGroupFilesStmt.executeUpdate();
+                addGroupFiles(f);
+                insertGroupFileStmt.executeBatch();
+            }
 
             tr.addUpdatedFile(f.getId());
 
@@ -675,6 +764,222 @@ private void insertOrUpdateFile(DrawableFile f, @Nonnull DrawableTransaction tr,
         }
     }
 
+    /**
+     * Insert files into the drawable db in bulk, ignoring files that are
+     * already in it. See insertOrUpdateFiles().
+     *
+     * @param files the files to insert
+     * @param tr    a transaction to use, must not be null
+     */
+    public void insertFiles(Collection<DrawableFile> files, DrawableTransaction tr) {
+        insertOrUpdateFiles(files, tr, false);
+    }
+
+    /**
+     * Insert or replace files in the drawable db in bulk. See
+     * insertOrUpdateFiles().
+     *
+     * @param files the files to insert or update
+     * @param tr    a transaction to use, must not be null
+     */
+    public void updateFiles(Collection<DrawableFile> files, DrawableTransaction tr) {
+        insertOrUpdateFiles(files, tr, true);
+    }
+
+    /**
+     * Bulk version of insertOrUpdateFile(). The files are written by multi-row
+     * statements, their hash set hits in one batch, and the groups they are in
+     * are inserted once for the whole collection rather than once per file.
+     * When the transaction is committed the group manager is given the files
+     * themselves, so it does not have to look them up again.
+     *
+     * The hash set names, tags, and make and model of the files are queried one
+     * file at a time unless they were set by PrefetchedFileAttributes.
+     *
+     * @param files   the files to insert or update
+     * @param tr      a transaction to use, must not be null
+     * @param replace true to replace files that are already in the db, false
+     *                to leave them as they are
+     */
+    private void insertOrUpdateFiles(Collection<DrawableFile> files, @Nonnull DrawableTransaction tr, boolean replace) {
+        if (tr.isClosed()) {
+            throw new IllegalArgumentException("can't update database with closed transaction");
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        List<DrawableFile> fileList = new ArrayList<>(files);
+
+        dbWriteLock();
+        try {
+            //an ignored insert leaves the file, and so its groups, as they were
+            List<DrawableFile> groupFileList = new ArrayList<>(fileList.size());
+            for (DrawableFile f : fileList) {
+                if (isInDB(f.getId()) == false) {
+                    groupFileList.add(f);
+                } else if (replace) {
+                    removeGroupFilesStmt.setLong(1, f.getId());
+                    removeGroupFilesStmt.addBatch();
+                    groupFileList.add(f);
+                }
+            }
+            removeGroupFilesStmt.executeBatch();
+
+            for (int start = 0; start < fileList.size(); start += FILES_PER_STATEMENT) {
+                List<DrawableFile> rows = fileList.subList(start, Math.min(start + FILES_PER_STATEMENT, fileList.size()));
+                if (rows.size() == FILES_PER_STATEMENT) {
+                    setBulkFileParameters(replace ? bulkUpdateFileStmt : bulkInsertFileStmt, rows);
+                } else {
+                    try (PreparedStatement stmt = con.prepareStatement(getBulkFileSQL(replace ? "INSERT OR REPLACE" : "INSERT OR IGNORE", rows.size()))) { //NON-NLS
+                        setBulkFileParameters(stmt, rows);
+                    }
+                }
+            }
+
+            //hash set hits
+            boolean hasHashHits = false;
+            for (DrawableFile f : fileList) {
+                for (String name : f.getHashSetNamesUnchecked()) {
+                    //"insert or ignore into hash_set_hits (hash_set_id, obj_id) values (?,?)";
+                    insertHashHitStmt.setInt(1, getHashSetID(name));
+                    insertHashHitStmt.setLong(2, f.getId());
+                    insertHashHitStmt.addBatch();
+                    hasHashHits = true;
+                }
+            }
+            if (hasHashHits) {
+                insertHashHitStmt.executeBatch();
+            }
+
+            //and all groups these files are in, each only once
+            Map<DrawableAttribute<?>, Set<String>> groups = new HashMap<>();
+            for (DrawableFile f : fileList) {
+                for (DrawableAttribute<?> attr : DrawableAttribute.getGroupableAttrs()) {
+                    for (Comparable<?> val : attr.getValue(f)) {
+                        if (null != val) {
+                            groups.computeIfAbsent(attr, a -> new HashSet<>()).add(val.toString());
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<DrawableAttribute<?>, Set<String>> entry : groups.entrySet()) {
+                for (String value : entry.getValue()) {
+                    //"insert or ignore into groups (value, attribute) values (?,?)"
+                    insertGroupStmt.setString(1, value);
+                    insertGroupStmt.setString(2, entry.getKey().attrName.toString());
+                    insertGroupStmt.addBatch();
+                }
+            }
+            insertGroupStmt.executeBatch();
+
+            for (DrawableFile f : groupFileList) {
+                addGroupFiles(f);
+            }
+            insertGroupFileStmt.executeBatch();
+
+            for (DrawableFile f : fileList) {
+                addImageFileToList(f.getId());
+                tr.addUpdatedFile(f);
+            }
+        } catch (SQLException | NullPointerException ex) {
+            /*
+             * This is one of the places where we get an error if the case is
+             * closed during processing, which doesn't need to be reported here.
+             */
+            if (Case.isCaseOpen()) {
+                LOGGER.log(Level.SEVERE, "failed to insert/update " + fileList.size() + " files", ex); //NON-NLS
+            }
+        } finally {
+            dbWriteUnlock();
+        }
+    }
+
+    private static String getBulkFileSQL(String insertVerb, int rowCount) {
+        StringBuilder sql = new StringBuilder(insertVerb).append(" INTO ").append(FILE_COLUMNS).append(" VALUES "); //NON-NLS
+        for (int i = 0; i < rowCount; i++) {
+            sql.append(i == 0 ? "" : ",").append("(?,?,?,?,?,?,?,?)"); //NON-NLS
+        }
+        return sql.toString();
+    }
+
+    private void setBulkFileParameters(PreparedStatement stmt, List<DrawableFile> rows) throws SQLException {
+        int index = 1;
+        for (DrawableFile f : rows) {
+            stmt.setLong(index++, f.getId());
+            stmt.setString(index++, f.getDrawablePath());
+            stmt.setString(index++, f.getName());
+            stmt.setLong(index++, f.getCrtime());
+            stmt.setLong(index++, f.getMtime());
+            stmt.setString(index++, f.getMake());
+            stmt.setString(index++, f.getModel());
+            stmt.setBoolean(index++, f.isAnalyzed());
+        }
+        stmt.executeUpdate();
+    }
+
+    /**
+     * get the id of the hash set with the given name, inserting it if it is not
+     * in the db yet. Must be called with the write lock held.
+     *
+     * @param name the name of the hash set
+     *
+     * @return the hash_set_id
+     *
+     * @throws SQLException
+     */
+    private int getHashSetID(String name) throws SQLException {
+        Integer hashSetID = hashSetIDs.get(name);
+        if (hashSetID == null) {
+            // "insert or ignore into hash_sets (hash_set_name)  values (?)"
+            insertHashSetStmt.setString(1, name);
+            insertHashSetStmt.executeUpdate();
+            //"select hash_set_id from hash_sets where hash_set_name = ?"
+            selectHashSetStmt.setString(1, name);
+            try (ResultSet rs = selectHashSetStmt.executeQuery()) {
+                if (rs.next() == false) {
+                    throw new SQLException("hash set " + name + " was not inserted"); //NON-NLS
+                }
+                hashSetID = rs.getInt("hash_set_id"); //NON-NLS
+            }
+            hashSetIDs.put(name, hashSetID);
+        }
+        return hashSetID;
+    }
+
+    /**
+     * delete the rows of the given files, in one batch.
+     *
+     * @param ids the obj_ids of the rows to be deleted
+     * @param tr  a transaction to use, must not be null
+     */
+    public void removeFiles(Collection<Long> ids, DrawableTransaction tr) {
+        if (tr.isClosed()) {
+            throw new IllegalArgumentException("can't update database with closed transaction");
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        dbWriteLock();
+        try {
+            for (Long id : ids) {
+                // Update the list of file IDs in memory
+                removeImageFileFromList(id);
+                //"delete from drawable_files where (obj_id = " + id + ")"
+                removeFileStmt.setLong(1, id);
+                removeFileStmt.addBatch();
+                removeGroupFilesStmt.setLong(1, id);
+                removeGroupFilesStmt.addBatch();
+                tr.addRemovedFile(id);
+            }
+            removeFileStmt.executeBatch();
+            removeGroupFilesStmt.executeBatch();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "failed to delete rows for " + ids.size() + " files", ex); //NON-NLS
+        } finally {
+            dbWriteUnlock();
+        }
+    }
+
     public DrawableTransaction beginTransaction() {
         return new DrawableTransaction();
     }
@@ -1010,6 +1315,25 @@ public DrawableFile getFileFromID(Long id) throws TskCoreException {
 
     public Set<Long> getFileIDsInGroup(GroupKey<?> groupKey) throws TskCoreException {
 
+        if (hasGroupFiles(groupKey.getAttribute())) {
+            Set<Long> files = new HashSet<>();
+            dbReadLock();
+            try {
+                //"SELECT obj_id FROM group_files WHERE attribute = ? AND value = ?"
+                groupFileIDsStmt.setString(1, groupKey.getAttribute().attrName.toString());
+                groupFileIDsStmt.setString(2, getGroupValueString(groupKey.getValue()));
+                try (ResultSet rs = groupFileIDsStmt.executeQuery()) {
+                    while (rs.next()) {
+                        files.add(rs.getLong(OBJ_ID));
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new TskCoreException("failed to get files for group:" + groupKey.getAttribute() + " == " + groupKey.getValue(), ex); //NON-NLS
+            } finally {
+                dbReadUnlock();
+            }
+            return files;
+        }
         if (groupKey.getAttribute().isDBColumn == false) {
             switch (groupKey.getAttribute().attrName) {
                 case MIME_TYPE:
@@ -1040,6 +1364,346 @@ public Set<Long> getFileIDsInGroup(GroupKey<?> groupKey) throws TskCoreException
         return files;
     }
 
+    /**
+     * Is the membership of the groups for the given attribute kept in the
+     * group_files table?
+     *
+     * @param attr the attribute to check
+     *
+     * @return true if getGroupSummaries() and getFileIDsInGroup() read the
+     *         groups for the attribute from the group_files table
+     */
+    public static boolean hasGroupFiles(DrawableAttribute<?> attr) {
+        return DrawableAttribute.getGroupableAttrs().contains(attr);
+    }
+
+    /**
+     * the value stored in the group_files table for a group value. Tags are
+     * stored by id, since their display names need not be unique.
+     */
+    private static String getGroupValueString(Object val) {
+        return (val instanceof TagName)
+                ? Long.toString(((TagName) val).getId())
+                : val.toString();
+    }
+
+    /**
+     * add a row to the group_files batch. Must be called with the write lock
+     * held.
+     */
+    private void addGroupFile(DrawableAttribute<?> attr, Object val, long fileID) throws SQLException {
+        //"INSERT OR IGNORE INTO group_files (attribute, value, obj_id) VALUES (?,?,?)"
+        insertGroupFileStmt.setString(1, attr.attrName.toString());
+        insertGroupFileStmt.setString(2, getGroupValueString(val));
+        insertGroupFileStmt.setLong(3, fileID);
+        insertGroupFileStmt.addBatch();
+    }
+
+    /**
+     * add the rows for all the groups the given file is in to the group_files
+     * batch. Category tags are only kept as categories, not also as tags, as
+     * the tag and category events maintain them. Must be called with the write
+     * lock held.
+     */
+    private void addGroupFiles(DrawableFile f) throws SQLException {
+        for (DrawableAttribute<?> attr : DrawableAttribute.getGroupableAttrs()) {
+            for (Comparable<?> val : attr.getValue(f)) {
+                if (null != val
+                        && (attr != DrawableAttribute.TAGS || CategoryManager.isNotCategoryTagName((TagName) val))) {
+                    addGroupFile(attr, val, f.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the membership, analyzed state and seen state of all the groups for
+     * the given attribute with one read of the group_files table, rather than
+     * querying for each group.
+     *
+     * @param groupBy an attribute for which hasGroupFiles() is true
+     *
+     * @return a map from group value to the summary of that group
+     *
+     * @throws TskCoreException if there was a problem reading the groups
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Comparable<A>> Map<A, GroupSummary> getGroupSummaries(DrawableAttribute<A> groupBy) throws TskCoreException {
+        if (hasGroupFiles(groupBy) == false) {
+            throw new IllegalArgumentException("groups for " + groupBy.attrName + " are not kept in the group_files table"); //NON-NLS
+        }
+        Map<Long, TagName> tagNames = new HashMap<>();
+        if (groupBy == DrawableAttribute.TAGS) {
+            for (TagName tagName : tskCase.getAllTagNames()) {
+                tagNames.put(tagName.getId(), tagName);
+            }
+        }
+
+        Map<A, GroupSummary> summaries = new HashMap<>();
+        dbReadLock();
+        try {
+            Map<String, Boolean> seen = new HashMap<>();
+            //"SELECT value, seen FROM groups WHERE attribute = ?"
+            groupsSeenStmt.setString(1, groupBy.attrName.toString());
+            try (ResultSet rs = groupsSeenStmt.executeQuery()) {
+                while (rs.next()) {
+                    seen.put(rs.getString("value"), rs.getBoolean("seen")); //NON-NLS
+                }
+            }
+
+            groupSummariesStmt.setString(1, groupBy.attrName.toString());
+            try (ResultSet rs = groupSummariesStmt.executeQuery()) {
+                while (rs.next()) {
+                    String valueString = rs.getString("value"); //NON-NLS
+                    final Object value;
+                    switch (groupBy.attrName) {
+                        case CATEGORY:
+                            value = Category.fromDisplayName(valueString);
+                            break;
+                        case TAGS:
+                            value = tagNames.get(Long.valueOf(valueString));
+                            break;
+                        default:
+                            value = valueString;
+                    }
+                    if (value == null) {
+                        continue; //a tag name or category that no longer exists
+                    }
+                    GroupSummary summary = summaries.computeIfAbsent((A) value, val -> new GroupSummary(
+                            seen.getOrDefault(new GroupKey<>(groupBy, val).getValueDisplayName(), false)));
+                    summary.fileIDs.add(rs.getLong(OBJ_ID));
+                    summary.analyzed &= rs.getBoolean(ANALYZED);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new TskCoreException("failed to get groups for " + groupBy.attrName, ex); //NON-NLS
+        } finally {
+            dbReadUnlock();
+        }
+        return summaries;
+    }
+
+    /**
+     * Update the tag and category groups of a file for a tag that was added
+     * to it. Files not in the drawable db are ignored.
+     *
+     * @param fileID  the obj_id of the file that was tagged
+     * @param tagName the name of the added tag
+     */
+    public void handleTagAdded(long fileID, TagName tagName) {
+        if (isInDB(fileID) == false) {
+            return;
+        }
+        if (CategoryManager.isCategoryTagName(tagName)) {
+            updateCategoryGroup(fileID);
+            return;
+        }
+        dbWriteLock();
+        try {
+            addGroupFile(DrawableAttribute.TAGS, tagName, fileID);
+            insertGroupFileStmt.executeBatch();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "failed to add tag " + tagName.getDisplayName() + " to the groups of file " + fileID, ex); //NON-NLS
+        } finally {
+            dbWriteUnlock();
+        }
+    }
+
+    /**
+     * Update the tag and category groups of a file for a tag that was deleted
+     * from it. Files not in the drawable db are ignored.
+     *
+     * @param fileID  the obj_id of the file that was untagged
+     * @param tagName the name of the deleted tag
+     */
+    public void handleTagDeleted(long fileID, TagName tagName) {
+        if (isInDB(fileID) == false) {
+            return;
+        }
+        if (CategoryManager.isCategoryTagName(tagName)) {
+            updateCategoryGroup(fileID);
+            return;
+        }
+        dbWriteLock();
+        try {
+            //"DELETE FROM group_files WHERE attribute = ? AND value = ? AND obj_id = ?"
+            removeGroupFileStmt.setString(1, DrawableAttribute.TAGS.attrName.toString());
+            removeGroupFileStmt.setString(2, getGroupValueString(tagName));
+            removeGroupFileStmt.setLong(3, fileID);
+            removeGroupFileStmt.executeUpdate();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "failed to remove tag " + tagName.getDisplayName() + " from the groups of file " + fileID, ex); //NON-NLS
+        } finally {
+            dbWriteUnlock();
+        }
+    }
+
+    /**
+     * Get the category of a file from all of its category tags: the most
+     * severe one, or Category.ZERO if it has none, as in
+     * DrawableFile.getCategory().
+     *
+     * @param fileID the obj_id of the file
+     *
+     * @return the category of the file
+     *
+     * @throws TskCoreException if the tags of the file could not be read
+     */
+    public Category getCategoryOfFile(long fileID) throws TskCoreException {
+        return tskCase.getContentTagsByContent(tskCase.getAbstractFileById(fileID)).stream()
+                .map(Tag::getName).filter(CategoryManager::isCategoryTagName)
+                .map(CategoryManager::categoryFromTagName)
+                .sorted().findFirst() //sort by severity and take the first
+                .orElse(Category.ZERO);
+    }
+
+    /**
+     * Put a file in the group of its category, as given by all of its
+     * category tags, and take it out of any other category group. Tags are
+     * added and deleted one event at a time, so the category can not be
+     * worked out from the tag of a single event.
+     *
+     * @param fileID the obj_id of the file
+     */
+    private void updateCategoryGroup(long fileID) {
+        final Category category;
+        try {
+            category = getCategoryOfFile(fileID);
+        } catch (TskCoreException ex) {
+            LOGGER.log(Level.WARNING, "failed to look up the category of file " + fileID, ex); //NON-NLS
+            return;
+        }
+        dbWriteLock();
+        try {
+            //"DELETE FROM group_files WHERE attribute = ? AND obj_id = ?"
+            removeGroupFilesForAttrStmt.setString(1, DrawableAttribute.CATEGORY.attrName.toString());
+            removeGroupFilesForAttrStmt.setLong(2, fileID);
+            removeGroupFilesForAttrStmt.executeUpdate();
+            addGroupFile(DrawableAttribute.CATEGORY, category, fileID);
+            insertGroupFileStmt.executeBatch();
+        } catch (SQLException ex) {
+            LOGGER.log(Level.WARNING, "failed to update the category group of file " + fileID, ex); //NON-NLS
+        } finally {
+            dbWriteUnlock();
+        }
+    }
+
+    /**
+     * Fill in the group_files table from the files already in a db created
+     * before the table existed. The attributes kept in the drawable db are
+     * copied with a statement each, the mime types and tags are read from the
+     * case db.
+     */
+    private void populateGroupFiles() {
+        if (getNumberOfImageFilesInList() == 0) {
+            return;
+        }
+        final long startTime = System.currentTimeMillis();
+        dbWriteLock();
+        try (Statement stmt = con.createStatement()) {
+            con.setAutoCommit(false);
+            for (DrawableAttribute<?> attr : new DrawableAttribute<?>[]{DrawableAttribute.PATH, DrawableAttribute.MAKE, DrawableAttribute.MODEL}) {
+                String column = attr.attrName.toString().toLowerCase();
+                stmt.executeUpdate("INSERT OR IGNORE INTO group_files (attribute, value, obj_id) SELECT '" + attr.attrName + "', " + column + ", obj_id " //NON-NLS
+                        + " FROM drawable_files WHERE " + column + " IS NOT NULL"); //NON-NLS
+            }
+            stmt.executeUpdate("INSERT OR IGNORE INTO group_files (attribute, value, obj_id) SELECT '" + DrawableAttribute.HASHSET.attrName + "', hash_sets.hash_set_name, hash_set_hits.obj_id " //NON-NLS
+                    + " FROM hash_set_hits JOIN hash_sets ON hash_set_hits.hash_set_id = hash_sets.hash_set_id"); //NON-NLS
+
+            try (SleuthkitCase.CaseDbQuery dbQuery = tskCase.executeQuery("SELECT obj_id, mime_type FROM tsk_files WHERE mime_type IS NOT NULL"); //NON-NLS
+                    ResultSet rs = dbQuery.getResultSet()) {
+                while (rs.next()) {
+                    long fileID = rs.getLong(OBJ_ID);
+                    if (isInDB(fileID)) {
+                        addGroupFile(DrawableAttribute.MIME_TYPE, rs.getString("mime_type"), fileID); //NON-NLS
+                    }
+                }
+            }
+            insertGroupFileStmt.executeBatch();
+
+            Map<Long, TagName> tagNames = new HashMap<>();
+            for (TagName tagName : tskCase.getAllTagNames()) {
+                tagNames.put(tagName.getId(), tagName);
+            }
+            //a file with more than one category tag is in the group of the most severe one
+            Map<Long, Category> fileCategories = new HashMap<>();
+            try (SleuthkitCase.CaseDbQuery dbQuery = tskCase.executeQuery("SELECT obj_id, tag_name_id FROM content_tags"); //NON-NLS
+                    ResultSet rs = dbQuery.getResultSet()) {
+                while (rs.next()) {
+                    long fileID = rs.getLong(OBJ_ID);
+                    TagName tagName = tagNames.get(rs.getLong("tag_name_id")); //NON-NLS
+                    if (tagName != null && isInDB(fileID)) {
+                        if (CategoryManager.isCategoryTagName(tagName)) {
+                            fileCategories.merge(fileID, CategoryManager.categoryFromTagName(tagName),
+                                    (category1, category2) -> category1.compareTo(category2) <= 0 ? category1 : category2);
+                        } else {
+                            addGroupFile(DrawableAttribute.TAGS, tagName, fileID);
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<Long, Category> fileCategory : fileCategories.entrySet()) {
+                addGroupFile(DrawableAttribute.CATEGORY, fileCategory.getValue(), fileCategory.getKey());
+            }
+            insertGroupFileStmt.executeBatch();
+            stmt.executeUpdate("INSERT OR IGNORE INTO group_files (attribute, value, obj_id) SELECT '" + DrawableAttribute.CATEGORY.attrName + "', '" + Category.ZERO.getDisplayName() + "', obj_id " //NON-NLS
+                    + " FROM drawable_files WHERE obj_id NOT IN (SELECT obj_id FROM group_files WHERE attribute = '" + DrawableAttribute.CATEGORY.attrName + "')"); //NON-NLS
+
+            con.commit();
+            LOGGER.log(Level.INFO, "Populated group_files table for {0} files in {1} ms", new Object[]{getNumberOfImageFilesInList(), System.currentTimeMillis() - startTime}); //NON-NLS
+        } catch (SQLException | TskCoreException ex) {
+            LOGGER.log(Level.SEVERE, "failed to populate group_files table", ex); //NON-NLS
+            try {
+                con.rollback();
+            } catch (SQLException ex1) {
+                LOGGER.log(Level.SEVERE, "Exception while attempting to rollback!!", ex1); //NON-NLS
+            }
+        } finally {
+            try {
+                con.setAutoCommit(true);
+            } catch (SQLException ex) {
+                LOGGER.log(Level.SEVERE, "Error setting auto-commit to true.", ex); //NON-NLS
+            }
+            dbWriteUnlock();
+        }
+    }
+
+    /**
+     * The files in a group and whether the group is analyzed and seen, as read
+     * from the group_files table by getGroupSummaries().
+     */
+    public static final class GroupSummary {
+
+        private final Set<Long> fileIDs = new HashSet<>();
+        private boolean analyzed = true;
+        private final boolean seen;
+
+        private GroupSummary(boolean seen) {
+            this.seen = seen;
+        }
+
+        /**
+         * @return the ids of the files in the group
+         */
+        public Set<Long> getFileIDs() {
+            return fileIDs;
+        }
+
+        /**
+         * @return true if all the files in the group are analyzed
+         */
+        public boolean isAnalyzed() {
+            return analyzed;
+        }
+
+        /**
+         * @return true if the group has been marked seen
+         */
+        public boolean isSeen() {
+            return seen;
+        }
+    }
+
     private void closeStatements() throws SQLException {
         for (PreparedStatement pStmt : preparedStatements) {
             pStmt.close();
@@ -1089,6 +1753,8 @@ public boolean removeFile(long id, DrawableTransaction tr) {
             //"delete from drawable_files where (obj_id = " + id + ")"
             removeFileStmt.setLong(1, id);
             removeFileStmt.executeUpdate();
+            removeGroupFilesStmt.setLong(1, id);
+            removeGroupFilesStmt.executeUpdate();
             tr.addRemovedFile(id);
 
             //TODO: delete from hash_set_hits table also...
@@ -1264,6 +1930,12 @@ public class DrawableTransaction {
 
         private final Set<Long> removedFiles;
 
+        /**
+         * files written in bulk, which the group manager can use without
+         * looking them up again
+         */
+        private final Map<Long, DrawableFile> updatedDrawableFiles;
+
         private boolean closed = false;
 
         /**
@@ -1278,6 +1950,7 @@ public class DrawableTransaction {
         private DrawableTransaction() {
             this.updatedFiles = new HashSet<>();
             this.removedFiles = new HashSet<>();
+            this.updatedDrawableFiles = new HashMap<>();
             //get the write lock, released in close()
             dbWriteLock();
             try {
@@ -1294,6 +1967,7 @@ synchronized public void rollback() {
                 try {
                     con.rollback();
                     updatedFiles.clear();
+                    updatedDrawableFiles.clear();
                 } catch (SQLException ex1) {
                     LOGGER.log(Level.SEVERE, "Exception while attempting to rollback!!", ex1); //NON-NLS
                 } finally {
@@ -1312,6 +1986,7 @@ synchronized private void commit(Boolean notify) {
                     if (notify) {
                         if (groupManager != null) {
                             groupManager.handleFileUpdate(updatedFiles);
+                            groupManager.handleDrawableFilesUpdate(updatedDrawableFiles.values());
                             groupManager.handleFileRemoved(removedFiles);
                         }
                     }
@@ -1351,6 +2026,10 @@ synchronized private void addUpdatedFile(Long f) {
             updatedFiles.add(f);
         }
 
+        synchronized private void addUpdatedFile(DrawableFile f) {
+            updatedDrawableFiles.put(f.getId(), f);
+        }
+
         synchronized private void addRemovedFile(long id) {
             removedFiles.add(id);
         }
@@ -90,6 +90,14 @@ public static DrawableFile create(Long id, boolean analyzed) throws TskCoreExcep
 
     private String model;
 
+    /**
+     * hash set names and tag names loaded in bulk by PrefetchedFileAttributes,
+     * or null to look them up for this file
+     */
+    private Set<String> prefetchedHashSetNames;
+
+    private Set<TagName> prefetchedTagNames;
+
     protected DrawableFile(AbstractFile file, Boolean analyzed) {
         this.analyzed = new SimpleBooleanProperty(analyzed);
         this.file = file;
@@ -165,7 +173,26 @@ public String getMake() {
         return make;
     }
 
+    /**
+     * Set the values that would otherwise be looked up in the case database
+     * for this file, one query at a time.
+     *
+     * @param make         the camera make, or "" if there is none
+     * @param model        the camera model, or "" if there is none
+     * @param hashSetNames the names of the hash sets the file is in
+     * @param tagNames     the names of the tags the file has
+     */
+    void setPrefetchedValues(String make, String model, Set<String> hashSetNames, Set<TagName> tagNames) {
+        this.make = WordUtils.capitalizeFully(make);
+        this.model = WordUtils.capitalizeFully(model);
+        this.prefetchedHashSetNames = hashSetNames;
+        this.prefetchedTagNames = tagNames;
+    }
+
     public Set<TagName> getTagNames() {
+        if (prefetchedTagNames != null) {
+            return prefetchedTagNames;
+        }
         try {
 
             return getContentTags().stream()
@@ -233,6 +260,16 @@ public SimpleObjectProperty<Category> categoryProperty() {
      * set the category property to the most severe one found
      */
     private void updateCategory() {
+        if (prefetchedTagNames != null) {
+            category.set(prefetchedTagNames.stream()
+                    .filter(CategoryManager::isCategoryTagName)
+                    .map(TagName::getDisplayName)
+                    .map(Category::fromDisplayName)
+                    .sorted().findFirst() //sort by severity and take the first
+                    .orElse(Category.ZERO)
+            );
+            return;
+        }
         try {
             category.set(getContentTags().stream()
                     .map(Tag::getName).filter(CategoryManager::isCategoryTagName)
@@ -331,6 +368,9 @@ public String getDrawablePath() {
     }
 
     public Set<String> getHashSetNames() throws TskCoreException {
+        if (prefetchedHashSetNames != null) {
+            return prefetchedHashSetNames;
+        }
         return file.getHashSetNames();
     }
 
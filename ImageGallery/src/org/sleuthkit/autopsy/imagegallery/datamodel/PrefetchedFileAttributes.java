@@ -0,0 +1,139 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.imagegallery.datamodel;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.sleuthkit.datamodel.BlackboardArtifact.ARTIFACT_TYPE;
+import org.sleuthkit.datamodel.BlackboardAttribute.ATTRIBUTE_TYPE;
+import org.sleuthkit.datamodel.SleuthkitCase;
+import org.sleuthkit.datamodel.TagName;
+import org.sleuthkit.datamodel.TskCoreException;
+
+/**
+ * The hash set hits, tags and camera make and model of all the files in the
+ * case, loaded with a few set based queries. Used when populating the drawable
+ * db in bulk, so that the values do not have to be queried for each file.
+ *
+ * Only files that have a hash hit, tag or EXIF artifact are in the maps, so the
+ * memory used grows with the number of results rather than the number of files.
+ * Once loaded, an instance is read only and can be shared by several threads.
+ */
+public final class PrefetchedFileAttributes {
+
+    private final Map<Long, Set<String>> hashSetNames = new HashMap<>();
+    private final Map<Long, Set<TagName>> tagNames = new HashMap<>();
+    private final Map<Long, String> makes = new HashMap<>();
+    private final Map<Long, String> models = new HashMap<>();
+
+    /**
+     * Load the attributes of all the files in the case.
+     *
+     * @param tskCase the case to load the attributes from
+     *
+     * @return the loaded attributes
+     *
+     * @throws TskCoreException if there is a problem querying the case
+     */
+    public static PrefetchedFileAttributes load(SleuthkitCase tskCase) throws TskCoreException {
+        PrefetchedFileAttributes attributes = new PrefetchedFileAttributes();
+        try {
+            attributes.loadHashSetNames(tskCase);
+            attributes.loadTagNames(tskCase);
+            attributes.loadMakesAndModels(tskCase);
+        } catch (SQLException ex) {
+            throw new TskCoreException("Error loading drawable file attributes", ex); //NON-NLS
+        }
+        return attributes;
+    }
+
+    private PrefetchedFileAttributes() {
+    }
+
+    private void loadHashSetNames(SleuthkitCase tskCase) throws TskCoreException, SQLException {
+        String query = "SELECT blackboard_artifacts.obj_id AS obj_id, blackboard_attributes.value_text AS value_text " //NON-NLS
+                + " FROM blackboard_artifacts JOIN blackboard_attributes ON blackboard_artifacts.artifact_id = blackboard_attributes.artifact_id " //NON-NLS
+                + " WHERE blackboard_artifacts.artifact_type_id = " + ARTIFACT_TYPE.TSK_HASHSET_HIT.getTypeID() //NON-NLS
+                + " AND blackboard_attributes.attribute_type_id = " + ATTRIBUTE_TYPE.TSK_SET_NAME.getTypeID(); //NON-NLS
+        try (SleuthkitCase.CaseDbQuery dbQuery = tskCase.executeQuery(query);
+                ResultSet resultSet = dbQuery.getResultSet()) {
+            while (resultSet.next()) {
+                hashSetNames.computeIfAbsent(resultSet.getLong("obj_id"), id -> new HashSet<>()).add(resultSet.getString("value_text")); //NON-NLS
+            }
+        }
+    }
+
+    private void loadTagNames(SleuthkitCase tskCase) throws TskCoreException, SQLException {
+        Map<Long, TagName> tagNamesByID = new HashMap<>();
+        for (TagName tagName : tskCase.getAllTagNames()) {
+            tagNamesByID.put(tagName.getId(), tagName);
+        }
+        try (SleuthkitCase.CaseDbQuery dbQuery = tskCase.executeQuery("SELECT obj_id, tag_name_id FROM content_tags"); //NON-NLS
+                ResultSet resultSet = dbQuery.getResultSet()) {
+            while (resultSet.next()) {
+                TagName tagName = tagNamesByID.get(resultSet.getLong("tag_name_id")); //NON-NLS
+                if (tagName != null) {
+                    tagNames.computeIfAbsent(resultSet.getLong("obj_id"), id -> new HashSet<>()).add(tagName); //NON-NLS
+                }
+            }
+        }
+    }
+
+    private void loadMakesAndModels(SleuthkitCase tskCase) throws TskCoreException, SQLException {
+        String query = "SELECT blackboard_artifacts.obj_id AS obj_id, blackboard_attributes.attribute_type_id AS attribute_type_id, blackboard_attributes.value_text AS value_text " //NON-NLS
+                + " FROM blackboard_artifacts JOIN blackboard_attributes ON blackboard_artifacts.artifact_id = blackboard_attributes.artifact_id " //NON-NLS
+                + " WHERE blackboard_artifacts.artifact_type_id = " + ARTIFACT_TYPE.TSK_METADATA_EXIF.getTypeID() //NON-NLS
+                + " AND blackboard_attributes.attribute_type_id IN (" + ATTRIBUTE_TYPE.TSK_DEVICE_MAKE.getTypeID() + ", " + ATTRIBUTE_TYPE.TSK_DEVICE_MODEL.getTypeID() + ")" //NON-NLS
+                + " ORDER BY blackboard_artifacts.artifact_id"; //NON-NLS
+        try (SleuthkitCase.CaseDbQuery dbQuery = tskCase.executeQuery(query);
+                ResultSet resultSet = dbQuery.getResultSet()) {
+            while (resultSet.next()) {
+                long objID = resultSet.getLong("obj_id"); //NON-NLS
+                String value = resultSet.getString("value_text"); //NON-NLS
+                if (value == null) {
+                    continue;
+                }
+                // like DrawableFile, use the value from the first artifact
+                if (resultSet.getInt("attribute_type_id") == ATTRIBUTE_TYPE.TSK_DEVICE_MAKE.getTypeID()) { //NON-NLS
+                    makes.putIfAbsent(objID, value);
+                } else {
+                    models.putIfAbsent(objID, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give the file its prefetched attributes, so they are not queried when
+     * the file is written to the drawable db.
+     *
+     * @param file the file
+     */
+    public void apply(DrawableFile file) {
+        long id = file.getId();
+        file.setPrefetchedValues(makes.getOrDefault(id, ""), models.getOrDefault(id, ""),
+                Collections.unmodifiableSet(hashSetNames.getOrDefault(id, Collections.emptySet())),
+                Collections.unmodifiableSet(tagNames.getOrDefault(id, Collections.emptySet())));
+    }
+}
@@ -386,6 +386,13 @@ public <A extends Comparable<A>> List<A> findValuesForAttribute(DrawableAttribut
 
     public Set<Long> getFileIDsInGroup(GroupKey<?> groupKey) throws TskCoreException {
         Set<Long> fileIDsToReturn = Collections.emptySet();
+        if (DrawableDB.hasGroupFiles(groupKey.getAttribute())) {
+            //the db keeps the membership of these groups
+            if (nonNull(db)) {
+                fileIDsToReturn = db.getFileIDsInGroup(groupKey);
+            }
+            return fileIDsToReturn;
+        }
         switch (groupKey.getAttribute().attrName) {
             //these cases get special treatment
             case CATEGORY:
@@ -558,13 +565,11 @@ public ReadOnlyDoubleProperty regroupProgress() {
     public void handleTagAdded(ContentTagAddedEvent evt) {
         GroupKey<?> newGroupKey = null;
         final long fileID = evt.getAddedTag().getContent().getId();
+        if (nonNull(db)) {
+            db.handleTagAdded(fileID, evt.getAddedTag().getName());
+        }
         if (groupBy == DrawableAttribute.CATEGORY && CategoryManager.isCategoryTagName(evt.getAddedTag().getName())) {
-            newGroupKey = new GroupKey<>(DrawableAttribute.CATEGORY, CategoryManager.categoryFromTagName(evt.getAddedTag().getName()));
-            for (GroupKey<?> oldGroupKey : groupMap.keySet()) {
-                if (oldGroupKey.equals(newGroupKey) == false) {
-                    removeFromGroup(oldGroupKey, fileID);
-                }
-            }
+            updateCategoryGroup(fileID);
         } else if (groupBy == DrawableAttribute.TAGS && CategoryManager.isNotCategoryTagName(evt.getAddedTag().getName())) {
             newGroupKey = new GroupKey<>(DrawableAttribute.TAGS, evt.getAddedTag().getName());
         }
@@ -574,6 +579,38 @@ public void handleTagAdded(ContentTagAddedEvent evt) {
         }
     }
 
+    /**
+     * Move a file to the group of its category, as given by all of its
+     * category tags, the most severe one winning. A file can have more than
+     * one category tag while the tags of a category change are being added
+     * and deleted, so the category of a single tag event is not enough.
+     *
+     * @param fileID the obj_id of the file
+     */
+    private void updateCategoryGroup(long fileID) {
+        if (Objects.isNull(db)) {
+            return;
+        }
+        final Category category;
+        try {
+            category = db.getCategoryOfFile(fileID);
+        } catch (TskCoreException ex) {
+            LOGGER.log(Level.WARNING, "failed to look up the category of file " + fileID, ex); //NON-NLS
+            return;
+        }
+        GroupKey<?> newGroupKey = new GroupKey<>(DrawableAttribute.CATEGORY, category);
+        List<GroupKey<?>> oldGroupKeys;
+        synchronized (groupMap) {
+            oldGroupKeys = new ArrayList<>(groupMap.keySet());
+        }
+        for (GroupKey<?> oldGroupKey : oldGroupKeys) {
+            if (oldGroupKey.getAttribute() == DrawableAttribute.CATEGORY && oldGroupKey.equals(newGroupKey) == false) {
+                removeFromGroup(oldGroupKey, fileID);
+            }
+        }
+        addFileToGroup(getGroupForKey(newGroupKey), newGroupKey, fileID);
+    }
+
     @SuppressWarnings("AssignmentToMethodParameter")
     private void addFileToGroup(DrawableGroup g, final GroupKey<?> groupKey, final long fileID) {
         if (g == null) {
@@ -595,8 +632,11 @@ public void handleTagDeleted(ContentTagDeletedEvent evt) {
         GroupKey<?> groupKey = null;
         final ContentTagDeletedEvent.DeletedContentTagInfo deletedTagInfo = evt.getDeletedTagInfo();
         final TagName tagName = deletedTagInfo.getName();
+        if (nonNull(db)) {
+            db.handleTagDeleted(deletedTagInfo.getContentID(), tagName);
+        }
         if (groupBy == DrawableAttribute.CATEGORY && CategoryManager.isCategoryTagName(tagName)) {
-            groupKey = new GroupKey<>(DrawableAttribute.CATEGORY, CategoryManager.categoryFromTagName(tagName));
+            updateCategoryGroup(deletedTagInfo.getContentID());
         } else if (groupBy == DrawableAttribute.TAGS && CategoryManager.isNotCategoryTagName(tagName)) {
             groupKey = new GroupKey<>(DrawableAttribute.TAGS, tagName);
         }
@@ -648,6 +688,45 @@ synchronized public void handleFileUpdate(Collection<Long> updatedFileIDs) {
         controller.getCategoryManager().fireChange(updatedFileIDs, null);
     }
 
+    /**
+     * handle files that were inserted/updated in bulk. Unlike
+     * handleFileUpdate(), the files do not have to be looked up again, and
+     * each group the files are in is looked up (and populated, if it is new)
+     * once rather than once per file.
+     *
+     * @param updatedFiles the files that were inserted or updated
+     */
+    synchronized public void handleDrawableFilesUpdate(Collection<DrawableFile> updatedFiles) {
+        if (updatedFiles.isEmpty()) {
+            return;
+        }
+        List<Long> updatedFileIDs = new ArrayList<>(updatedFiles.size());
+        Map<GroupKey<?>, List<Long>> filesByGroup = new HashMap<>();
+        for (DrawableFile file : updatedFiles) {
+            updatedFileIDs.add(file.getId());
+            controller.getHashSetManager().invalidateHashSetsForFile(file.getId());
+            for (GroupKey<?> gk : getGroupKeysForFile(file)) {
+                filesByGroup.computeIfAbsent(gk, key -> new ArrayList<>()).add(file.getId());
+            }
+        }
+
+        for (Map.Entry<GroupKey<?>, List<Long>> entry : filesByGroup.entrySet()) {
+            DrawableGroup g = getGroupForKey(entry.getKey());
+            if (g == null) {
+                //if there wasn't already a group check if there should be one now
+                g = popuplateIfAnalyzed(entry.getKey(), null);
+            }
+            DrawableGroup group = g;
+            if (group != null) {
+                List<Long> fileIDs = entry.getValue();
+                Platform.runLater(() -> fileIDs.forEach(group::addFile));
+            }
+        }
+
+        //we fire this event for all files so that the category counts get updated during initial db population
+        controller.getCategoryManager().fireChange(updatedFileIDs, null);
+    }
+
     private DrawableGroup popuplateIfAnalyzed(GroupKey<?> groupKey, ReGroupTask<?> task) {
 
         if (Objects.nonNull(task) && (task.isCancelled())) {
@@ -672,33 +751,7 @@ private DrawableGroup popuplateIfAnalyzed(GroupKey<?> groupKey, ReGroupTask<?> t
                 try {
                     Set<Long> fileIDs = getFileIDsInGroup(groupKey);
                     if (Objects.nonNull(fileIDs)) {
-                        DrawableGroup group;
-                        final boolean groupSeen = db.isGroupSeen(groupKey);
-                        synchronized (groupMap) {
-                            if (groupMap.containsKey(groupKey)) {
-                                group = groupMap.get(groupKey);
-
-                                group.setFiles(ObjectUtils.defaultIfNull(fileIDs, Collections.emptySet()));
-                            } else {
-                                group = new DrawableGroup(groupKey, fileIDs, groupSeen);
-                                controller.getCategoryManager().registerListener(group);
-                                group.seenProperty().addListener((o, oldSeen, newSeen) -> {
-                                    Platform.runLater(() -> markGroupSeen(group, newSeen));
-                                });
-                                groupMap.put(groupKey, group);
-                            }
-                        }
-                        Platform.runLater(() -> {
-                            if (analyzedGroups.contains(group) == false) {
-                                analyzedGroups.add(group);
-                                if (Objects.isNull(task)) {
-                                    FXCollections.sort(analyzedGroups, applySortOrder(sortOrder, sortBy));
-                                }
-                            }
-                            markGroupSeen(group, groupSeen);
-                        });
-                        return group;
-
+                        return populateGroup(groupKey, fileIDs, db.isGroupSeen(groupKey), task);
                     }
                 } catch (TskCoreException ex) {
                     LOGGER.log(Level.SEVERE, "failed to get files for group: " + groupKey.getAttribute().attrName.toString() + " = " + groupKey.getValue(), ex); //NON-NLS
@@ -708,6 +761,45 @@ private DrawableGroup popuplateIfAnalyzed(GroupKey<?> groupKey, ReGroupTask<?> t
         return null;
     }
 
+    /**
+     * create (or update the files of) the group for the given key, and add it
+     * to the analyzed groups.
+     *
+     * @param groupKey  the key of the group
+     * @param fileIDs   the files in the group
+     * @param groupSeen has the group been seen
+     * @param task      the ReGroupTask this is part of, or null
+     *
+     * @return the group
+     */
+    private DrawableGroup populateGroup(GroupKey<?> groupKey, Set<Long> fileIDs, boolean groupSeen, ReGroupTask<?> task) {
+        DrawableGroup group;
+        synchronized (groupMap) {
+            if (groupMap.containsKey(groupKey)) {
+                group = groupMap.get(groupKey);
+
+                group.setFiles(ObjectUtils.defaultIfNull(fileIDs, Collections.emptySet()));
+            } else {
+                group = new DrawableGroup(groupKey, fileIDs, groupSeen);
+                controller.getCategoryManager().registerListener(group);
+                group.seenProperty().addListener((o, oldSeen, newSeen) -> {
+                    Platform.runLater(() -> markGroupSeen(group, newSeen));
+                });
+                groupMap.put(groupKey, group);
+            }
+        }
+        Platform.runLater(() -> {
+            if (analyzedGroups.contains(group) == false) {
+                analyzedGroups.add(group);
+                if (Objects.isNull(task)) {
+                    FXCollections.sort(analyzedGroups, applySortOrder(sortOrder, sortBy));
+                }
+            }
+            markGroupSeen(group, groupSeen);
+        });
+        return group;
+    }
+
     public Set<Long> getFileIDsWithMimeType(String mimeType) throws TskCoreException {
 
         HashSet<Long> hashSet = new HashSet<>();
@@ -779,6 +871,13 @@ protected Void call() throws Exception {
                 unSeenGroups.clear();
             });
 
+            final long startTime = System.currentTimeMillis();
+            if (DrawableDB.hasGroupFiles(groupBy)) {
+                regroupFromSummaries();
+                LOGGER.log(Level.INFO, "Regrouped by {0} in {1} ms", new Object[]{groupBy.attrName, System.currentTimeMillis() - startTime}); //NON-NLS
+                return null;
+            }
+
             // Get the list of group keys
             final List<A> vals = findValuesForAttribute(groupBy);
 
@@ -802,6 +901,51 @@ protected Void call() throws Exception {
             return null;
         }
 
+        /**
+         * build all the groups from the group summaries the db reads in one
+         * query, rather than querying for the files, analyzed state and seen
+         * state of each group.
+         */
+        private void regroupFromSummaries() throws TskCoreException {
+            if (nonNull(db) == false) {
+                return;
+            }
+            Map<A, DrawableDB.GroupSummary> summaries = db.getGroupSummaries(groupBy);
+            List<A> vals = new ArrayList<>(summaries.keySet());
+            if (groupBy == DrawableAttribute.CATEGORY) {
+                //there is always a group for every category, even if it is empty
+                for (Category cat : Category.values()) {
+                    if (summaries.containsKey((A) cat) == false) {
+                        vals.add((A) cat);
+                    }
+                }
+            }
+            groupProgress.start(vals.size());
+
+            int p = 0;
+            for (final A val : vals) {
+                if (isCancelled()) {
+                    return;//abort
+                }
+                p++;
+                updateMessage(Bundle.ReGroupTask_progressUpdate(groupBy.attrName.toString(), val));
+                updateProgress(p, vals.size());
+                groupProgress.progress(Bundle.ReGroupTask_progressUpdate(groupBy.attrName.toString(), val), p);
+
+                GroupKey<A> groupKey = new GroupKey<>(groupBy, val);
+                DrawableDB.GroupSummary summary = summaries.get(val);
+                if (summary == null) {
+                    populateGroup(groupKey, new HashSet<>(), db.isGroupSeen(groupKey), this);
+                } else if (groupBy != DrawableAttribute.PATH || summary.isAnalyzed()) {
+                    //path groups are only shown once all their files are analyzed
+                    populateGroup(groupKey, summary.getFileIDs(), summary.isSeen(), this);
+                }
+            }
+            Platform.runLater(() -> FXCollections.sort(analyzedGroups, applySortOrder(sortOrder, sortBy)));
+
+            updateProgress(1, 1);
+        }
+
         @Override
         protected void done() {
             super.done();
@@ -0,0 +1,273 @@
+/*
+ * Autopsy Forensic Browser
+ *
+ * Copyright 2017 Basis Technology Corp.
+ * Contact: carrier <at> sleuthkit <dot> org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.sleuthkit.autopsy.keywordsearch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import org.apache.solr.common.SolrInputDocument;
+import org.sleuthkit.autopsy.coreutils.Logger;
+
+/**
+ * Sends Solr documents to Solr in batches. Ingest threads put documents on a
+ * bounded queue, blocking only when the queue is full, and a small pool of
+ * sender threads takes batches of documents off of the queue and adds them to
+ * the index, one request per batch. Failures are reported back to the keyword
+ * search ingest module so that the files whose documents were not indexed are
+ * counted as indexing errors for their ingest jobs.
+ */
+final class BatchIndexer {
+
+    private static final Logger logger = Logger.getLogger(BatchIndexer.class.getName());
+    private final Server solrServer;
+    private final int batchSize;
+    private final BlockingQueue<QueuedDocument> queue;
+    private final ExecutorService senders;
+    private final AtomicLong nextSequenceNumber = new AtomicLong(0L);
+    private final ConcurrentSkipListSet<Long> unsentSequenceNumbers = new ConcurrentSkipListSet<>();
+
+    /**
+     * Constructs an object that sends Solr documents to Solr in batches and
+     * starts its sender threads.
+     *
+     * @param solrServer    The Solr server.
+     * @param queueSize     The maximum number of documents that can be
+     *                      waiting to be sent.
+     * @param batchSize     The maximum number of documents to send in one
+     *                      request.
+     * @param senderThreads The number of sender threads.
+     */
+    BatchIndexer(Server solrServer, int queueSize, int batchSize, int senderThreads) {
+        this.solrServer = solrServer;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                new ThreadFactoryBuilder().setNameFormat("KWS-batch-indexer-%d").setDaemon(true).build()); //NON-NLS
+        for (int i = 0; i < senderThreads; ++i) {
+            senders.submit(new SendBatchesTask());
+        }
+    }
+
+    /**
+     * Queues a document to be sent to Solr, blocking if the queue is full.
+     *
+     * @param doc         The document.
+     * @param ingestJobId The id of the ingest job the document is being indexed
+     *                    for, or a negative number if it is not being indexed
+     *                    for an ingest job.
+     * @param sourceId    The id of the file or artifact the document is for.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while
+     *                              waiting for space in the queue.
+     */
+    void add(SolrInputDocument doc, long ingestJobId, long sourceId) throws InterruptedException {
+        long sequenceNumber = nextSequenceNumber.getAndIncrement();
+        unsentSequenceNumbers.add(sequenceNumber);
+        try {
+            queue.put(new QueuedDocument(doc, ingestJobId, sourceId, sequenceNumber));
+        } catch (InterruptedException ex) {
+            documentsSent(sequenceNumber);
+            throw ex;
+        }
+    }
+
+    /**
+     * Blocks until all of the documents queued before this method was called
+     * have been sent to Solr, successfully or not.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while
+     *                              waiting.
+     */
+    void flush() throws InterruptedException {
+        long lastSequenceNumber = nextSequenceNumber.get() - 1;
+        synchronized (this) {
+            while (!unsentSequenceNumbers.isEmpty() && unsentSequenceNumbers.first() <= lastSequenceNumber) {
+                wait();
+            }
+        }
+    }
+
+    /**
+     * Removes the documents queued for an ingest job that have not yet been
+     * taken by a sender thread, e.g., because the job was cancelled.
+     *
+     * @param ingestJobId The id of the ingest job.
+     *
+     * @return The number of documents discarded.
+     */
+    int discard(long ingestJobId) {
+        List<Long> discarded = new ArrayList<>();
+        Iterator<QueuedDocument> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            QueuedDocument queuedDoc = iterator.next();
+            if (queuedDoc.ingestJobId == ingestJobId) {
+                iterator.remove();
+                discarded.add(queuedDoc.sequenceNumber);
+            }
+        }
+        documentsSent(discarded.toArray(new Long[discarded.size()]));
+        return discarded.size();
+    }
+
+    /**
+     * Removes all of the documents that have not yet been taken by a sender
+     * thread and waits for the sender threads to finish with the batches they
+     * have already taken, e.g., so that no documents are sent to Solr after
+     * the current core is closed.
+     *
+     * @return The number of documents discarded.
+     *
+     * @throws InterruptedException If the calling thread is interrupted while
+     *                              waiting.
+     */
+    int discardAll() throws InterruptedException {
+        List<QueuedDocument> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        Long[] sequenceNumbers = new Long[drained.size()];
+        for (int i = 0; i < sequenceNumbers.length; ++i) {
+            sequenceNumbers[i] = drained.get(i).sequenceNumber;
+        }
+        documentsSent(sequenceNumbers);
+        flush();
+        return drained.size();
+    }
+
+    /**
+     * Marks documents as sent and wakes up any threads waiting in flush().
+     *
+     * @param sequenceNumbers The sequence numbers of the documents.
+     */
+    private void documentsSent(Long... sequenceNumbers) {
+        for (Long sequenceNumber : sequenceNumbers) {
+            unsentSequenceNumbers.remove(sequenceNumber);
+        }
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Takes batches of documents off of the queue and sends them to Solr.
+     */
+    private final class SendBatchesTask implements Runnable {
+
+        @Override
+        public void run() {
+            List<QueuedDocument> batch = new ArrayList<>(batchSize);
+            while (true) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                try {
+                    queue.drainTo(batch, batchSize - 1);
+                    send(batch);
+                } catch (Throwable ex) {
+                    /*
+                     * Exception firewall. The sender thread must survive, and
+                     * the batch must be marked as sent below, or flush() would
+                     * wait forever.
+                     */
+                    logger.log(Level.SEVERE, "Unexpected error sending batch of " + batch.size() + " documents to Solr", ex); //NON-NLS
+                } finally {
+                    Long[] sequenceNumbers = new Long[batch.size()];
+                    for (int i = 0; i < sequenceNumbers.length; ++i) {
+                        sequenceNumbers[i] = batch.get(i).sequenceNumber;
+                    }
+                    documentsSent(sequenceNumbers);
+                    batch.clear();
+                }
+            }
+        }
+
+        /**
+         * Sends a batch of documents to Solr in one request, reporting the
+         * files and artifacts with documents in the batch as indexing errors
+         * if the request fails for any reason.
+         *
+         * @param batch The batch.
+         */
+        private void send(List<QueuedDocument> batch) {
+            List<SolrInputDocument> docs = new ArrayList<>(batch.size());
+            for (QueuedDocument queuedDoc : batch) {
+                docs.add(queuedDoc.doc);
+            }
+            boolean sent = false;
+            try {
+                solrServer.addDocuments(docs);
+                sent = true;
+            } catch (KeywordSearchModuleException | NoOpenCoreException ex) {
+                logger.log(Level.SEVERE, "Error sending batch of " + docs.size() + " documents to Solr", ex); //NON-NLS
+            } finally {
+                if (!sent) {
+                    reportFailures(batch);
+                }
+            }
+        }
+
+        /**
+         * Reports the files and artifacts with documents in a batch that could
+         * not be sent as indexing errors.
+         *
+         * @param batch The batch.
+         */
+        private void reportFailures(List<QueuedDocument> batch) {
+            Set<List<Long>> reported = new HashSet<>();
+            for (QueuedDocument queuedDoc : batch) {
+                if (queuedDoc.ingestJobId >= 0) {
+                    List<Long> key = new ArrayList<>(2);
+                    key.add(queuedDoc.ingestJobId);
+                    key.add(queuedDoc.sourceId);
+                    if (reported.add(key)) {
+                        KeywordSearchIngestModule.putIndexingFailedStatus(queuedDoc.ingestJobId, queuedDoc.sourceId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A document waiting to be sent to Solr.
+     */
+    private static final class QueuedDocument {
+
+        private final SolrInputDocument doc;
+        private final long ingestJobId;
+        private final long sourceId;
+        private final long sequenceNumber;
+
+        private QueuedDocument(SolrInputDocument doc, long ingestJobId, long sourceId, long sequenceNumber) {
+            this.doc = doc;
+            this.ingestJobId = ingestJobId;
+            this.sourceId = sourceId;
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+}
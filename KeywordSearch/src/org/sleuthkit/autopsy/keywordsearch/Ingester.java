@@ -21,6 +21,8 @@
 import java.io.BufferedReader;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
@@ -53,8 +55,28 @@ class Ingester {
     private static final SolrFieldsVisitor SOLR_FIELDS_VISITOR = new SolrFieldsVisitor();
     private static Ingester instance;
     private static final int SINGLE_READ_CHARS = 512;
+    private static final long NO_INGEST_JOB_ID = -1;
+    static final long NO_INDEXING_GENERATION = -1;
+    private final BatchIndexer batchIndexer;
+    /*
+     * Every document is stamped with the current indexing generation, which is
+     * advanced by each commit. Indexing holds the read lock while stamping and
+     * sending a document, so once commit() holds the write lock every document
+     * stamped with the old generation has been sent (or queued, in batch
+     * mode).
+     */
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+    private long indexingGeneration = System.currentTimeMillis(); //guarded by generationLock
 
     private Ingester() {
+        if (KeywordSearchSettings.getBatchIndexing()) {
+            batchIndexer = new BatchIndexer(solrServer,
+                    KeywordSearchSettings.getIndexingQueueSize(),
+                    KeywordSearchSettings.getIndexingBatchSize(),
+                    KeywordSearchSettings.getIndexingSenderThreads());
+        } else {
+            batchIndexer = null;
+        }
     }
 
     public static synchronized Ingester getDefault() {
@@ -87,7 +109,24 @@ protected void finalize() throws Throwable {
      *                           file, but the Solr server is probably fine.
      */
     void indexMetaDataOnly(AbstractFile file) throws IngesterException {
-        indexChunk("", file.getName(), getContentFields(file));
+        indexMetaDataOnly(file, NO_INGEST_JOB_ID);
+    }
+
+    /**
+     * Sends the metadata (name, MAC times, image id, etc) for the given file to
+     * Solr to be added to the index for an ingest job. commit() should be
+     * called once you're done indexing.
+     *
+     * @param file        File to index.
+     * @param ingestJobId The id of the ingest job, used to report indexing
+     *                    errors that happen after this method returns when
+     *                    batch indexing is enabled.
+     *
+     * @throws IngesterException if there was an error processing a specific
+     *                           file, but the Solr server is probably fine.
+     */
+    void indexMetaDataOnly(AbstractFile file, long ingestJobId) throws IngesterException {
+        indexChunk("", file.getName(), getContentFields(file), file.getId(), ingestJobId);
     }
 
     /**
@@ -101,7 +140,7 @@ void indexMetaDataOnly(AbstractFile file) throws IngesterException {
      *                           artifact, but the Solr server is probably fine.
      */
     void indexMetaDataOnly(BlackboardArtifact artifact) throws IngesterException {
-        indexChunk("", new ArtifactTextExtractor().getName(artifact), getContentFields(artifact));
+        indexChunk("", new ArtifactTextExtractor().getName(artifact), getContentFields(artifact), artifact.getArtifactID(), NO_INGEST_JOB_ID);
     }
 
     /**
@@ -139,6 +178,7 @@ private Map<String, String> getContentFields(SleuthkitVisitableItem item) {
     < T extends SleuthkitVisitableItem> boolean indexText(TextExtractor< T> extractor, T source, IngestJobContext context) throws Ingester.IngesterException {
         final long sourceID = extractor.getID(source);
         final String sourceName = extractor.getName(source);
+        final long ingestJobId = (null != context) ? context.getJobId() : NO_INGEST_JOB_ID;
 
         int numChunks = 0; //unknown until chunking is done
 
@@ -158,7 +198,7 @@ < T extends SleuthkitVisitableItem> boolean indexText(TextExtractor< T> extracto
                 fields.put(Server.Schema.CHUNK_SIZE.toString(), String.valueOf(chunk.getBaseChunkLength()));
                 try {
                     //add the chunk text to Solr index
-                    indexChunk(chunk.toString(), sourceName, fields);
+                    indexChunk(chunk.toString(), sourceName, fields, sourceID, ingestJobId);
                     numChunks++;
                 } catch (Ingester.IngesterException ingEx) {
                     extractor.logWarning("Ingester had a problem with extracted string from file '" //NON-NLS
@@ -181,26 +221,31 @@ < T extends SleuthkitVisitableItem> boolean indexText(TextExtractor< T> extracto
             fields.put(Server.Schema.ID.toString(), Long.toString(sourceID));
             //"parent" docs don't have chunk_size
             fields.remove(Server.Schema.CHUNK_SIZE.toString());
-            indexChunk(null, sourceName, fields);
+            indexChunk(null, sourceName, fields, sourceID, ingestJobId);
         }
 
         return true;
     }
 
     /**
-     * Add one chunk as to the Solr index as a separate Solr document.
+     * Add one chunk as to the Solr index as a separate Solr document. If batch
+     * indexing is enabled, the document is queued to be sent to Solr by the
+     * batch indexer, and errors sending it are reported to the keyword search
+     * ingest module instead of being thrown.
      *
      * TODO see if can use a byte or string streaming way to add content to
      * /update handler e.g. with XMLUpdateRequestHandler (deprecated in SOlr
      * 4.0.0), see if possible to stream with UpdateRequestHandler
      *
-     * @param chunk  The chunk content as a string
+     * @param chunk       The chunk content as a string
+     * @param sourceName
      * @param fields
-     * @param size
+     * @param sourceId    The id of the file or artifact the chunk is from.
+     * @param ingestJobId The id of the ingest job, or NO_INGEST_JOB_ID.
      *
      * @throws org.sleuthkit.autopsy.keywordsearch.Ingester.IngesterException
      */
-    private void indexChunk(String chunk, String sourceName, Map<String, String> fields) throws IngesterException {
+    private void indexChunk(String chunk, String sourceName, Map<String, String> fields, long sourceId, long ingestJobId) throws IngesterException {
         if (fields.get(Server.Schema.IMAGE_ID.toString()) == null) {
             //JMTODO: actually if the we couldn't get the image id it is set to -1,
             // but does this really mean we don't want to index it?
@@ -222,29 +267,111 @@ private void indexChunk(String chunk, String sourceName, Map<String, String> fie
         //JMTODO: can we just add it to the field map before passing that in?
         updateDoc.addField(Server.Schema.CONTENT.toString(), chunk);
 
+        generationLock.readLock().lock();
         try {
-            //TODO: consider timeout thread, or vary socket timeout based on size of indexed content
-            solrServer.addDocument(updateDoc);
-            uncommitedIngests = true;
-
-        } catch (KeywordSearchModuleException | NoOpenCoreException ex) {
-            //JMTODO: does this need to be internationalized?
-            throw new IngesterException(
-                    NbBundle.getMessage(Ingester.class, "Ingester.ingest.exception.err.msg", sourceName), ex);
+            updateDoc.addField(Server.Schema.INDEXING_GENERATION.toString(), Long.toString(indexingGeneration));
+
+            if (null != batchIndexer) {
+                try {
+                    batchIndexer.add(updateDoc, ingestJobId, sourceId);
+                    uncommitedIngests = true;
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IngesterException(
+                            NbBundle.getMessage(Ingester.class, "Ingester.ingest.exception.err.msg", sourceName), ex);
+                }
+                return;
+            }
+
+            try {
+                //TODO: consider timeout thread, or vary socket timeout based on size of indexed content
+                solrServer.addDocument(updateDoc);
+                uncommitedIngests = true;
+
+            } catch (KeywordSearchModuleException | NoOpenCoreException ex) {
+                //JMTODO: does this need to be internationalized?
+                throw new IngesterException(
+                        NbBundle.getMessage(Ingester.class, "Ingester.ingest.exception.err.msg", sourceName), ex);
+            }
+        } finally {
+            generationLock.readLock().unlock();
         }
     }
 
     /**
      * Tells Solr to commit (necessary before ingested files will appear in
-     * searches)
+     * searches). If batch indexing is enabled, first waits for the documents
+     * queued so far to be sent to Solr.
+     *
+     * Each commit also closes the current indexing generation, so a search run
+     * after this commit can be followed by searches restricted to the
+     * documents indexed since.
+     *
+     * @return The closed indexing generation. Every document stamped with it
+     *         or an earlier generation by this Ingester is now searchable. If
+     *         the commit failed, NO_INDEXING_GENERATION is returned.
      */
-    void commit() {
+    long commit() {
+        long closedGeneration;
+        generationLock.writeLock().lock();
+        try {
+            closedGeneration = indexingGeneration++;
+        } finally {
+            generationLock.writeLock().unlock();
+        }
+
+        if (null != batchIndexer) {
+            try {
+                batchIndexer.flush();
+            } catch (InterruptedException ex) {
+                logger.log(Level.WARNING, "Interrupted while waiting for queued documents to be sent before commit", ex); //NON-NLS
+                Thread.currentThread().interrupt();
+                closedGeneration = NO_INDEXING_GENERATION;
+            }
+        }
         try {
             solrServer.commit();
             uncommitedIngests = false;
         } catch (NoOpenCoreException | SolrServerException ex) {
             logger.log(Level.WARNING, "Error commiting index", ex); //NON-NLS
+            closedGeneration = NO_INDEXING_GENERATION;
+        }
+        return closedGeneration;
+    }
 
+    /**
+     * Discards the documents queued for an ingest job that have not yet been
+     * sent to Solr, if batch indexing is enabled. Used when the job is
+     * cancelled.
+     *
+     * @param ingestJobId The id of the ingest job.
+     */
+    void discardQueuedDocuments(long ingestJobId) {
+        if (null != batchIndexer) {
+            int discarded = batchIndexer.discard(ingestJobId);
+            if (discarded > 0) {
+                logger.log(Level.INFO, "Discarded {0} queued documents for cancelled ingest job {1}", new Object[]{discarded, ingestJobId}); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * Discards all of the documents that have not yet been sent to Solr, if
+     * batch indexing is enabled, and waits for the documents that are being
+     * sent. Used when the case is closed, so that no documents are sent after
+     * the core is closed.
+     */
+    void discardAllQueuedDocuments() {
+        if (null != batchIndexer) {
+            try {
+                int discarded = batchIndexer.discardAll();
+                if (discarded > 0) {
+                    logger.log(Level.WARNING, "Discarded {0} queued documents that were not sent to Solr", discarded); //NON-NLS
+                }
+            } catch (InterruptedException ex) {
+                logger.log(Level.WARNING, "Interrupted while waiting for queued documents to be sent", ex); //NON-NLS
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
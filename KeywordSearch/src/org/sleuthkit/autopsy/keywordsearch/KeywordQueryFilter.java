@@ -25,13 +25,15 @@
 /**
  *
  * Filter to restrict query only specific files, chunks, images Single filter
- * supports multiple ids per file/chunk/image, that act as OR filter
+ * supports multiple ids per file/chunk/image, that act as OR filter. An
+ * INDEXING_GENERATION filter restricts the query to documents indexed in the
+ * given indexing generation or later, see Ingester.commit().
  */
 class KeywordQueryFilter {
 
     public static enum FilterType {
 
-        FILE, CHUNK, DATA_SOURCE
+        FILE, CHUNK, DATA_SOURCE, INDEXING_GENERATION
     };
     private Set<Long> idFilters;
     private FilterType filterType;
@@ -66,6 +68,13 @@ public String toString() {
                 sb.append(" "); //OR
             }
             long idVal = it.next();
+            if (filterType == FilterType.INDEXING_GENERATION) {
+                sb.append(Server.Schema.INDEXING_GENERATION.toString());
+                sb.append(":[");
+                sb.append(idVal);
+                sb.append(" TO *]");
+                continue;
+            }
             if (filterType == FilterType.DATA_SOURCE) {
                 id = Server.Schema.IMAGE_ID.toString();
             } else {
@@ -127,11 +127,30 @@ private static void putIngestStatus(long ingestJobId, long fileId, IngestStatus
                 ingestStatusForJob = new HashMap<>();
                 ingestStatus.put(ingestJobId, ingestStatusForJob);
             }
+            if (ingestStatusForJob.get(fileId) == IngestStatus.SKIPPED_ERROR_INDEXING) {
+                /*
+                 * With batch indexing, an indexing error for a file can be
+                 * reported before the file's text has finished being queued.
+                 */
+                return;
+            }
             ingestStatusForJob.put(fileId, status);
             ingestStatus.put(ingestJobId, ingestStatusForJob);
         }
     }
 
+    /**
+     * Records that indexing failed for a given file for a given ingest job.
+     * Used by the batch indexer, which sends the text of files to Solr after
+     * the ingest modules have finished with them.
+     *
+     * @param ingestJobId id of ingest job
+     * @param fileId      id of file
+     */
+    static void putIndexingFailedStatus(long ingestJobId, long fileId) {
+        putIngestStatus(ingestJobId, fileId, IngestStatus.SKIPPED_ERROR_INDEXING);
+    }
+
     KeywordSearchIngestModule(KeywordSearchJobSettings settings) {
         this.settings = settings;
         instanceNum = instanceCount.getAndIncrement();
@@ -301,6 +320,7 @@ public void shutDown() {
 
         if (context.fileIngestIsCancelled()) {
             logger.log(Level.INFO, "Keyword search ingest module instance {0} stopping search job due to ingest cancellation", instanceNum); //NON-NLS
+            ingester.discardQueuedDocuments(jobId);
             SearchRunner.getInstance().stopJob(jobId);
             cleanup();
             return;
@@ -500,7 +520,7 @@ private void indexFile(AbstractFile aFile, boolean indexContent) {
                     if (context.fileIngestIsCancelled()) {
                         return;
                     }
-                    ingester.indexMetaDataOnly(aFile);
+                    ingester.indexMetaDataOnly(aFile, jobId);
                     putIngestStatus(jobId, aFile.getId(), IngestStatus.METADATA_INGESTED);
                 } catch (IngesterException ex) {
                     putIngestStatus(jobId, aFile.getId(), IngestStatus.SKIPPED_ERROR_INDEXING);
@@ -527,7 +547,7 @@ private void indexFile(AbstractFile aFile, boolean indexContent) {
                     if (context.fileIngestIsCancelled()) {
                         return;
                     }
-                    ingester.indexMetaDataOnly(aFile);
+                    ingester.indexMetaDataOnly(aFile, jobId);
                     putIngestStatus(jobId, aFile.getId(), IngestStatus.METADATA_INGESTED);
                 } catch (IngesterException ex) {
                     putIngestStatus(jobId, aFile.getId(), IngestStatus.SKIPPED_ERROR_INDEXING);
@@ -39,6 +39,16 @@ class KeywordSearchSettings {
     static final String PROPERTIES_SCRIPTS = NbBundle.getMessage(KeywordSearchSettings.class, "KeywordSearchSettings.propertiesScripts.text", MODULE_NAME);
     static final String SHOW_SNIPPETS = "showSnippets"; //NON-NLS
     static final boolean DEFAULT_SHOW_SNIPPETS = true;
+    static final String BATCH_INDEXING = "BatchIndexing"; //NON-NLS
+    static final boolean DEFAULT_BATCH_INDEXING = false;
+    static final String INDEXING_BATCH_SIZE = "IndexingBatchSize"; //NON-NLS
+    static final int DEFAULT_INDEXING_BATCH_SIZE = 100;
+    static final String INDEXING_QUEUE_SIZE = "IndexingQueueSize"; //NON-NLS
+    static final int DEFAULT_INDEXING_QUEUE_SIZE = 1000;
+    static final String INDEXING_SENDER_THREADS = "IndexingSenderThreads"; //NON-NLS
+    static final int DEFAULT_INDEXING_SENDER_THREADS = 2;
+    static final String INCREMENTAL_SEARCH = "IncrementalSearch"; //NON-NLS
+    static final boolean DEFAULT_INCREMENTAL_SEARCH = true;
     private static boolean skipKnown = true;
     private static final Logger logger = Logger.getLogger(KeywordSearchSettings.class.getName());
     private static UpdateFrequency UpdateFreq = UpdateFrequency.DEFAULT;
@@ -140,6 +150,111 @@ static boolean getShowSnippets() {
         }
     }
 
+    /**
+     * Gets whether chunks of extracted text should be queued and sent to Solr
+     * in batches by a pool of sender threads, instead of being sent one at a
+     * time by the ingest threads. The setting takes effect on application
+     * restart.
+     *
+     * @return True if batch indexing is enabled, false otherwise.
+     */
+    static boolean getBatchIndexing() {
+        if (ModuleSettings.settingExists(PROPERTIES_OPTIONS, BATCH_INDEXING)) {
+            return ModuleSettings.getConfigSetting(PROPERTIES_OPTIONS, BATCH_INDEXING).equals("true"); //NON-NLS
+        } else {
+            return DEFAULT_BATCH_INDEXING;
+        }
+    }
+
+    static void setBatchIndexing(boolean batchIndexing) {
+        ModuleSettings.setConfigSetting(PROPERTIES_OPTIONS, BATCH_INDEXING, Boolean.toString(batchIndexing));
+    }
+
+    /**
+     * Gets the maximum number of Solr documents sent to Solr in one request
+     * when batch indexing is enabled.
+     *
+     * @return The batch size.
+     */
+    static int getIndexingBatchSize() {
+        return getPositiveIntSetting(INDEXING_BATCH_SIZE, DEFAULT_INDEXING_BATCH_SIZE);
+    }
+
+    static void setIndexingBatchSize(int batchSize) {
+        ModuleSettings.setConfigSetting(PROPERTIES_OPTIONS, INDEXING_BATCH_SIZE, Integer.toString(batchSize));
+    }
+
+    /**
+     * Gets the maximum number of Solr documents that can be waiting to be sent
+     * to Solr when batch indexing is enabled. Ingest threads block when the
+     * queue is full.
+     *
+     * @return The queue size.
+     */
+    static int getIndexingQueueSize() {
+        return getPositiveIntSetting(INDEXING_QUEUE_SIZE, DEFAULT_INDEXING_QUEUE_SIZE);
+    }
+
+    static void setIndexingQueueSize(int queueSize) {
+        ModuleSettings.setConfigSetting(PROPERTIES_OPTIONS, INDEXING_QUEUE_SIZE, Integer.toString(queueSize));
+    }
+
+    /**
+     * Gets the number of threads that send batches of Solr documents to Solr
+     * when batch indexing is enabled.
+     *
+     * @return The number of threads.
+     */
+    static int getIndexingSenderThreads() {
+        return getPositiveIntSetting(INDEXING_SENDER_THREADS, DEFAULT_INDEXING_SENDER_THREADS);
+    }
+
+    static void setIndexingSenderThreads(int threads) {
+        ModuleSettings.setConfigSetting(PROPERTIES_OPTIONS, INDEXING_SENDER_THREADS, Integer.toString(threads));
+    }
+
+    /**
+     * Gets whether the periodic and final searches done during ingest should
+     * only search the documents indexed since the previous search for the same
+     * keyword, instead of the whole index.
+     *
+     * @return True if incremental searching is enabled, false otherwise.
+     */
+    static boolean getIncrementalSearch() {
+        if (ModuleSettings.settingExists(PROPERTIES_OPTIONS, INCREMENTAL_SEARCH)) {
+            return ModuleSettings.getConfigSetting(PROPERTIES_OPTIONS, INCREMENTAL_SEARCH).equals("true"); //NON-NLS
+        } else {
+            return DEFAULT_INCREMENTAL_SEARCH;
+        }
+    }
+
+    static void setIncrementalSearch(boolean incrementalSearch) {
+        ModuleSettings.setConfigSetting(PROPERTIES_OPTIONS, INCREMENTAL_SEARCH, Boolean.toString(incrementalSearch));
+    }
+
+    /**
+     * Gets a positive integer option, falling back to a default value if the
+     * option is not set or is not a positive integer.
+     *
+     * @param key          The option name.
+     * @param defaultValue The default value.
+     *
+     * @return The option value.
+     */
+    private static int getPositiveIntSetting(String key, int defaultValue) {
+        if (ModuleSettings.settingExists(PROPERTIES_OPTIONS, key)) {
+            try {
+                int value = Integer.parseInt(ModuleSettings.getConfigSetting(PROPERTIES_OPTIONS, key));
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException ex) {
+                logger.log(Level.WARNING, "Invalid value for keyword search option " + key, ex); //NON-NLS
+            }
+        }
+        return defaultValue;
+    }
+
     /**
      * gets the currently set scripts to use
      *
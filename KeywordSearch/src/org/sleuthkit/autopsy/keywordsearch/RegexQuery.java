@@ -35,10 +35,9 @@
 import org.apache.commons.validator.routines.DomainValidator;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrQuery.SortClause;
-import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
-import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.CursorMarkParams;
 import org.openide.util.NbBundle;
 import org.sleuthkit.autopsy.coreutils.Logger;
@@ -71,6 +70,11 @@
  * expression syntax. The Lucene syntax is documented here:
  *
  * https://lucene.apache.org/core/5_0_0/core/org/apache/lucene/util/automaton/RegExp.html
+ *
+ * The hits within each matching chunk are found by running the regular
+ * expression again on the chunk's stored content. The content is streamed from
+ * Solr one chunk at a time, so only a single chunk is held in memory while its
+ * hits and snippets are extracted.
  */
 final class RegexQuery implements KeywordSearchQuery {
 
@@ -190,26 +194,33 @@ public QueryResults performQuery() throws NoOpenCoreException {
         // Setting the sort order is necessary for cursor based paging to work.
         solrQuery.setSort(SortClause.asc(Server.Schema.ID.toString()));
 
+        // The pattern is compiled once and used for every chunk returned.
+        final Pattern hitPattern = Pattern.compile(keywordString);
+        StreamingResponseCallback hitExtractor = new StreamingResponseCallback() {
+            @Override
+            public void streamSolrDocument(SolrDocument resultDoc) {
+                try {
+                    List<KeywordHit> keywordHits = createKeywordHits(resultDoc, hitPattern);
+                    for (KeywordHit hit : keywordHits) {
+                        hitsMultiMap.put(new Keyword(hit.getHit(), true, true, originalKeyword.getListName(), originalKeyword.getOriginalTerm()), hit);
+                    }
+                } catch (TskException ex) {
+                    //
+                }
+            }
+
+            @Override
+            public void streamDocListInfo(long numFound, long start, Float maxScore) {
+            }
+        };
+
         String cursorMark = CursorMarkParams.CURSOR_MARK_START;
-        SolrDocumentList resultList ;
         boolean allResultsProcessed = false;
 
         while (!allResultsProcessed) {
             try {
                 solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
-                QueryResponse response = solrServer.query(solrQuery, SolrRequest.METHOD.POST);
-                resultList = response.getResults();
-
-                for (SolrDocument resultDoc : resultList) {
-                    try {
-                        List<KeywordHit> keywordHits = createKeywordHits(resultDoc);
-                        for (KeywordHit hit : keywordHits) {
-                            hitsMultiMap.put(new Keyword(hit.getHit(), true, true, originalKeyword.getListName(), originalKeyword.getOriginalTerm()), hit);
-                        }
-                    } catch (TskException ex) { 
-                        //
-                    }
-                }
+                QueryResponse response = solrServer.queryAndStreamResponse(solrQuery, hitExtractor);
 
                 String nextCursorMark = response.getNextCursorMark();
                 if (cursorMark.equals(nextCursorMark)) {
@@ -228,7 +239,7 @@ public QueryResults performQuery() throws NoOpenCoreException {
         return results;
     }
 
-    private List<KeywordHit> createKeywordHits(SolrDocument solrDoc) throws TskException {
+    private List<KeywordHit> createKeywordHits(SolrDocument solrDoc, Pattern pattern) throws TskException {
 
         List<KeywordHit> hits = new ArrayList<>();
         final String docId = solrDoc.getFieldValue(Server.Schema.ID.toString()).toString();
@@ -236,7 +247,6 @@ private List<KeywordHit> createKeywordHits(SolrDocument solrDoc) throws TskExcep
 
         final Collection<Object> content_str = solrDoc.getFieldValues(Server.Schema.CONTENT_STR.toString());
 
-        final Pattern pattern = Pattern.compile(keywordString);
         for (Object content_obj : content_str) {
             String content = (String) content_obj;
             Matcher hitMatcher = pattern.matcher(content);
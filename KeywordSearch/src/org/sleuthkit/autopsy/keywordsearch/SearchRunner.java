@@ -18,6 +18,7 @@
  */
 package org.sleuthkit.autopsy.keywordsearch;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,6 +36,7 @@
 import java.util.logging.Level;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.netbeans.api.progress.aggregate.AggregateProgressFactory;
 import org.netbeans.api.progress.aggregate.AggregateProgressHandle;
 import org.netbeans.api.progress.aggregate.ProgressContributor;
@@ -132,8 +134,8 @@ public void endJob(long jobId) {
 
         if (readyForFinalSearch) {
             logger.log(Level.INFO, "Commiting search index before final search for search job {0}", job.getJobId()); //NON-NLS
-            commit();
-            doFinalSearch(job); //this will block until it's done
+            final long committedGeneration = commit();
+            doFinalSearch(job, committedGeneration); //this will block until it's done
         }
     }
 
@@ -181,9 +183,12 @@ public synchronized void addKeywordListsToAllJobs(List<String> keywordListNames)
 
     /**
      * Commits index and notifies listeners of index update
+     *
+     * @return The indexing generation closed by the commit, or
+     *         Ingester.NO_INDEXING_GENERATION if the commit failed.
      */
-    private void commit() {
-        ingester.commit();
+    private long commit() {
+        final long committedGeneration = ingester.commit();
 
         // Signal a potential change in number of text_ingested files
         try {
@@ -192,6 +197,7 @@ private void commit() {
         } catch (NoOpenCoreException | KeywordSearchModuleException ex) {
             logger.log(Level.SEVERE, "Error executing Solr query to check number of indexed files", ex); //NON-NLS
         }
+        return committedGeneration;
     }
 
     /**
@@ -199,8 +205,10 @@ private void commit() {
      * new one and waits until that is done.
      *
      * @param job
+     * @param committedGeneration The indexing generation closed by the commit
+     *                            done before the final search.
      */
-    private void doFinalSearch(SearchJobInfo job) {
+    private void doFinalSearch(SearchJobInfo job, long committedGeneration) {
         // Run one last search as there are probably some new files committed
         logger.log(Level.INFO, "Starting final search for search job {0}", job.getJobId());         //NON-NLS
         if (!job.getKeywordListNames().isEmpty()) {
@@ -209,7 +217,7 @@ private void doFinalSearch(SearchJobInfo job) {
                 logger.log(Level.INFO, "Checking for previous search for search job {0} before executing final search", job.getJobId()); //NON-NLS
                 job.waitForCurrentWorker();
 
-                SearchRunner.Searcher finalSearcher = new SearchRunner.Searcher(job, true);
+                SearchRunner.Searcher finalSearcher = new SearchRunner.Searcher(job, committedGeneration, true);
                 job.setCurrentSearcher(finalSearcher); //save the ref
                 logger.log(Level.INFO, "Kicking off final search for search job {0}", job.getJobId()); //NON-NLS
                 finalSearcher.execute(); //start thread
@@ -243,7 +251,7 @@ public void run() {
                 return;
             }
 
-            commit();
+            final long committedGeneration = commit();
 
             synchronized (SearchRunner.this) {
                 // Spawn a search thread for each job
@@ -252,7 +260,7 @@ public void run() {
                     // If no lists or the worker is already running then skip it
                     if (!job.getKeywordListNames().isEmpty() && !job.isWorkerRunning()) {
                         logger.log(Level.INFO, "Executing periodic search for search job {0}", job.getJobId());
-                        Searcher searcher = new Searcher(job);
+                        Searcher searcher = new Searcher(job, committedGeneration);
                         job.setCurrentSearcher(searcher); //save the ref
                         searcher.execute(); //start thread
                         job.setWorkerRunning(true);
@@ -276,6 +284,8 @@ private class SearchJobInfo {
 
         // Map of keyword to the object ids that contain a hit
         private Map<Keyword, Set<Long>> currentResults; //guarded by SearchJobInfo.this
+        // Map of keyword to the last indexing generation it has been searched through
+        private Map<Keyword, Long> searchedGenerations; //guarded by SearchJobInfo.this
         private SearchRunner.Searcher currentSearcher;
         private AtomicLong moduleReferenceCount = new AtomicLong(0);
         private final Object finalSearchLock = new Object(); //used for a condition wait
@@ -285,6 +295,7 @@ private SearchJobInfo(long jobId, long dataSourceId, List<String> keywordListNam
             this.dataSourceId = dataSourceId;
             this.keywordListNames = new ArrayList<>(keywordListNames);
             currentResults = new HashMap<>();
+            searchedGenerations = new HashMap<>();
             workerRunning = false;
             currentSearcher = null;
         }
@@ -315,6 +326,24 @@ private synchronized void addKeywordResults(Keyword k, Set<Long> resultsIDs) {
             currentResults.put(k, resultsIDs);
         }
 
+        /**
+         * Gets the last indexing generation that has been searched for a
+         * keyword. Documents of that generation and earlier ones do not need
+         * to be searched for it again.
+         *
+         * @param k The keyword.
+         *
+         * @return The generation, or null if the keyword has not been
+         *         searched yet.
+         */
+        private synchronized Long getSearchedGeneration(Keyword k) {
+            return searchedGenerations.get(k);
+        }
+
+        private synchronized void setSearchedGeneration(Keyword k, long generation) {
+            searchedGenerations.put(k, generation);
+        }
+
         private boolean isWorkerRunning() {
             return workerRunning;
         }
@@ -369,8 +398,10 @@ private void searchNotify() {
     /**
      * Searcher responsible for searching the current index and writing results
      * to blackboard and the inbox. Also, posts results to listeners as Ingest
-     * data events. Searches entire index, and keeps track of only new results
-     * to report and save. Runs as a background thread.
+     * data events. The first search for a keyword searches the entire index;
+     * later searches for it only search the documents indexed since, if
+     * incremental searching is enabled. Keeps track of only new results to
+     * report and save. Runs as a background thread.
      */
     private final class Searcher extends SwingWorker<Object, Void> {
 
@@ -385,9 +416,22 @@ private final class Searcher extends SwingWorker<Object, Void> {
         private AggregateProgressHandle progressGroup;
         private final Logger logger = Logger.getLogger(SearchRunner.Searcher.class.getName());
         private boolean finalRun = false;
+        private final long committedGeneration;
+        private final boolean incremental;
+        // number of documents in the search window, keyed by first generation searched
+        private final Map<Long, Long> windowSizes = new HashMap<>();
 
-        Searcher(SearchJobInfo job) {
+        /**
+         * @param job                 The job to search for.
+         * @param committedGeneration The indexing generation closed by the
+         *                            commit done before this search, or
+         *                            Ingester.NO_INDEXING_GENERATION if the
+         *                            commit failed.
+         */
+        Searcher(SearchJobInfo job, long committedGeneration) {
             this.job = job;
+            this.committedGeneration = committedGeneration;
+            incremental = KeywordSearchSettings.getIncrementalSearch();
             keywordListNames = job.getKeywordListNames();
             keywords = new ArrayList<>();
             keywordToList = new HashMap<>();
@@ -395,8 +439,8 @@ private final class Searcher extends SwingWorker<Object, Void> {
             //keywords are populated as searcher runs
         }
 
-        Searcher(SearchJobInfo job, boolean finalRun) {
-            this(job);
+        Searcher(SearchJobInfo job, long committedGeneration, boolean finalRun) {
+            this(job, committedGeneration);
             this.finalRun = finalRun;
         }
 
@@ -431,11 +475,12 @@ public boolean cancel() {
 
             final StopWatch stopWatch = new StopWatch();
             stopWatch.start();
+            int keywordsSearched = 0;
+            int keywordsSearchedIncrementally = 0;
+            long documentsScanned = 0;
             try {
                 progressGroup.setDisplayName(displayName);
 
-                int keywordsSearched = 0;
-
                 for (Keyword keyword : keywords) {
                     if (this.isCancelled()) {
                         logger.log(Level.INFO, "Cancel detected, bailing before new keyword processed: {0}", keyword.getSearchTerm()); //NON-NLS
@@ -458,6 +503,16 @@ public boolean cancel() {
                     final KeywordQueryFilter dataSourceFilter = new KeywordQueryFilter(KeywordQueryFilter.FilterType.DATA_SOURCE, job.getDataSourceId());
                     keywordSearchQuery.addFilter(dataSourceFilter);
 
+                    //limit search to data indexed since the last search for this keyword
+                    long firstGeneration = Ingester.NO_INDEXING_GENERATION;
+                    final Long searchedGeneration = job.getSearchedGeneration(keyword);
+                    if (incremental && searchedGeneration != null) {
+                        firstGeneration = searchedGeneration + 1;
+                        keywordSearchQuery.addFilter(new KeywordQueryFilter(KeywordQueryFilter.FilterType.INDEXING_GENERATION, firstGeneration));
+                        ++keywordsSearchedIncrementally;
+                    }
+                    documentsScanned += getWindowSize(dataSourceFilter, firstGeneration);
+
                     QueryResults queryResults;
 
                     // Do the actual search
@@ -500,6 +555,13 @@ public boolean cancel() {
 
                     } //if has results
 
+                    // Documents through the committed generation have now been
+                    // searched for this keyword. If the commit failed, the next
+                    // search starts from where this one did.
+                    if (committedGeneration != Ingester.NO_INDEXING_GENERATION) {
+                        job.setSearchedGeneration(keyword, committedGeneration);
+                    }
+
                     //reset the status text before it goes away
                     subProgresses[keywordsSearched].progress("");
 
@@ -515,6 +577,8 @@ public boolean cancel() {
                     finalizeSearcher();
                     stopWatch.stop();
                     logger.log(Level.INFO, "Searcher took {0} secs to run (final = {1})", new Object[]{stopWatch.getElapsedTimeSecs(), this.finalRun}); //NON-NLS
+                    logger.log(Level.INFO, "Search for search job {0} searched {1} keywords ({2} incrementally) over {3} documents in {4} ms (final = {5})", //NON-NLS
+                            new Object[]{job.getJobId(), keywordsSearched, keywordsSearchedIncrementally, documentsScanned, stopWatch.getElapsedTime(), this.finalRun});
                 } finally {
                     // In case a thread is waiting on this worker to be done
                     job.searchNotify();
@@ -561,6 +625,38 @@ private void updateKeywords() {
             }
         }
 
+        /**
+         * Gets the number of documents a keyword query restricted to the data
+         * source and indexing generations will search, for the search metrics.
+         * The count is only queried once per search window.
+         *
+         * @param dataSourceFilter The data source filter of the query.
+         * @param firstGeneration  The first indexing generation searched, or
+         *                         Ingester.NO_INDEXING_GENERATION if the whole
+         *                         index is searched.
+         *
+         * @return The number of documents, or 0 if it could not be determined.
+         */
+        private long getWindowSize(KeywordQueryFilter dataSourceFilter, long firstGeneration) {
+            Long windowSize = windowSizes.get(firstGeneration);
+            if (windowSize == null) {
+                SolrQuery q = new SolrQuery("*:*"); //NON-NLS
+                q.addFilterQuery(dataSourceFilter.toString());
+                if (firstGeneration != Ingester.NO_INDEXING_GENERATION) {
+                    q.addFilterQuery(new KeywordQueryFilter(KeywordQueryFilter.FilterType.INDEXING_GENERATION, firstGeneration).toString());
+                }
+                q.setRows(0);
+                try {
+                    windowSize = KeywordSearch.getServer().query(q).getResults().getNumFound();
+                } catch (KeywordSearchModuleException | NoOpenCoreException | IOException ex) {
+                    logger.log(Level.WARNING, "Error counting the documents to search", ex); //NON-NLS
+                    windowSize = 0L;
+                }
+                windowSizes.put(firstGeneration, windowSize);
+            }
+            return windowSize;
+        }
+
         /**
          * Performs the cleanup that needs to be done right AFTER
          * doInBackground() returns without relying on done() method that is not
@@ -46,9 +46,12 @@
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
+import org.apache.solr.client.solrj.impl.StreamingBinaryResponseParser;
 import org.apache.solr.client.solrj.impl.XMLResponseParser;
 import org.apache.solr.client.solrj.request.CoreAdminRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.response.CoreAdminResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.TermsResponse;
@@ -162,6 +165,14 @@ public String toString() {
             public String toString() {
                 return "chunk_size"; //NON-NLS
             }
+        },
+        // Stored in the *_l dynamic field, so it does not need a schema change.
+        // It is missing from documents indexed by earlier versions.
+        INDEXING_GENERATION {
+            @Override
+            public String toString() {
+                return "indexing_generation_l"; //NON-NLS
+            }
         }
     };
 
@@ -710,6 +721,27 @@ void addDocument(SolrInputDocument doc) throws KeywordSearchModuleException, NoO
         }
     }
 
+    /**
+     * Adds a batch of documents to the current core in one request.
+     *
+     * @param docs The documents.
+     *
+     * @throws KeywordSearchModuleException If the documents could not be
+     *                                      added.
+     * @throws NoOpenCoreException          If there is no open core.
+     */
+    void addDocuments(Collection<SolrInputDocument> docs) throws KeywordSearchModuleException, NoOpenCoreException {
+        currentCoreLock.readLock().lock();
+        try {
+            if (null == currentCore) {
+                throw new NoOpenCoreException();
+            }
+            currentCore.addDocuments(docs);
+        } finally {
+            currentCoreLock.readLock().unlock();
+        }
+    }
+
     /**
      * ** end single-case specific methods ***
      */
@@ -1041,6 +1073,36 @@ public QueryResponse query(SolrQuery sq, SolrRequest.METHOD method) throws Keywo
         }
     }
 
+    /**
+     * Execute solr query, passing each result document to a callback as soon
+     * as it is read from the response instead of collecting the documents in
+     * the returned response. Used for queries with large stored fields, so
+     * that only one result document at a time is held in memory.
+     *
+     * @param sq       the query
+     * @param callback the callback for the result documents
+     *
+     * @return query response, without the result documents
+     *
+     * @throws KeywordSearchModuleException
+     * @throws NoOpenCoreException
+     */
+    QueryResponse queryAndStreamResponse(SolrQuery sq, StreamingResponseCallback callback) throws KeywordSearchModuleException, NoOpenCoreException {
+        currentCoreLock.readLock().lock();
+        try {
+            if (null == currentCore) {
+                throw new NoOpenCoreException();
+            }
+            try {
+                return currentCore.queryAndStreamResponse(sq, callback);
+            } catch (SolrServerException ex) {
+                throw new KeywordSearchModuleException(NbBundle.getMessage(this.getClass(), "Server.query2.exception.msg", sq.getQuery()), ex);
+            }
+        } finally {
+            currentCoreLock.readLock().unlock();
+        }
+    }
+
     /**
      * Execute Solr terms query
      *
@@ -1242,8 +1304,15 @@ private Core(String name, CaseType caseType, Index index) {
             //TODO test these settings
             //solrCore.setSoTimeout(1000 * 60);  // socket read timeout, make large enough so can index larger files
             //solrCore.setConnectionTimeout(1000);
-            solrCore.setDefaultMaxConnectionsPerHost(2);
-            solrCore.setMaxTotalConnections(5);
+            if (KeywordSearchSettings.getBatchIndexing()) {
+                // leave room for the batch indexing sender threads
+                int senderThreads = KeywordSearchSettings.getIndexingSenderThreads();
+                solrCore.setDefaultMaxConnectionsPerHost(senderThreads + 2);
+                solrCore.setMaxTotalConnections(senderThreads + 5);
+            } else {
+                solrCore.setDefaultMaxConnectionsPerHost(2);
+                solrCore.setMaxTotalConnections(5);
+            }
             solrCore.setFollowRedirects(false);  // defaults to false
             // allowCompression defaults to false.
             // Server side must support gzip or deflate for this to have any effect.
@@ -1284,6 +1353,15 @@ private QueryResponse query(SolrQuery sq, SolrRequest.METHOD method) throws Solr
             return solrCore.query(sq, method);
         }
 
+        private QueryResponse queryAndStreamResponse(SolrQuery sq, StreamingResponseCallback callback) throws SolrServerException {
+            // POST, like the other large queries, and the streaming binary
+            // parser in place of the core's XML parser.
+            QueryRequest request = new QueryRequest(sq, SolrRequest.METHOD.POST);
+            request.setStreamingResponseCallback(callback);
+            request.setResponseParser(new StreamingBinaryResponseParser(callback));
+            return request.process(solrCore);
+        }
+
         private TermsResponse queryTerms(SolrQuery sq) throws SolrServerException, IOException {
             QueryResponse qres = solrCore.query(sq);
             return qres.getTermsResponse();
@@ -1313,6 +1391,19 @@ void addDocument(SolrInputDocument doc) throws KeywordSearchModuleException {
             }
         }
 
+        @NbBundle.Messages({
+            "# {0} - number of documents",
+            "Server.addDocs.exception.msg=Could not add {0} documents to index via update handler"
+        })
+        void addDocuments(Collection<SolrInputDocument> docs) throws KeywordSearchModuleException {
+            try {
+                solrCore.add(docs);
+            } catch (SolrServerException | IOException ex) {
+                logger.log(Level.SEVERE, "Could not add " + docs.size() + " documents to index via update handler", ex); //NON-NLS
+                throw new KeywordSearchModuleException(Bundle.Server_addDocs_exception_msg(docs.size()), ex);
+            }
+        }
+
         /**
          * get the text from the content field for the given file
          *
@@ -353,6 +353,7 @@ public void closeCaseResources(CaseContext context) throws AutopsyServiceExcepti
             logger.log(Level.SEVERE, "Unexpected interrupt while waiting for BlackboardResultWriters to terminate", ex);
         }
 
+        Ingester.getDefault().discardAllQueuedDocuments();
         try {
             KeywordSearch.getServer().closeCore();
         } catch (KeywordSearchModuleException ex) {
@@ -21,6 +21,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -108,20 +109,16 @@ public boolean isDisabled() {
     }
 
     @Override
-    public InputStreamReader getReader(AbstractFile sourceFile) throws TextExtractorException {
-        InputStream stringStream = getInputStream(sourceFile);
-        return new InputStreamReader(stringStream, Server.DEFAULT_INDEXED_TEXT_CHARSET);
-    }
-
-    InputStream getInputStream(AbstractFile sourceFile) {
-        //check which extract stream to use
+    public Reader getReader(AbstractFile sourceFile) throws TextExtractorException {
+        //check which extractor to use
         if (extractScripts.size() == 1 && extractScripts.get(0).equals(SCRIPT.LATIN_1)) {
-            return new EnglishOnlyStream(sourceFile);//optimal for english, english only
+            //optimal for english, english only
+            return new InputStreamReader(new EnglishOnlyStream(sourceFile), Server.DEFAULT_INDEXED_TEXT_CHARSET);
         } else {
             boolean extractUTF8 = Boolean.parseBoolean(extractOptions.get(ExtractOptions.EXTRACT_UTF8.toString()));
             boolean extractUTF16 = Boolean.parseBoolean(extractOptions.get(ExtractOptions.EXTRACT_UTF16.toString()));
 
-            return new InternationalStream(sourceFile, extractScripts, extractUTF8, extractUTF16);
+            return new InternationalReader(sourceFile, extractScripts, extractUTF8, extractUTF16);
         }
     }
 
@@ -365,15 +362,17 @@ public long skip(long n) throws IOException {
     /**
      * Wrapper over StringExtract to provide streaming API Given AbstractFile
      * object, extract international strings from the file and read output as a
-     * stream of UTF-8 strings as encoded bytes.
+     * stream of chars.
      *
+     * The strings are extracted into the reused char buffer of the
+     * StringExtract and copied from there to the caller, so no Strings are
+     * built, and the text is not encoded to bytes and decoded again, on its
+     * way to the Chunker.
      */
-    private static class InternationalStream extends InputStream {
+    private static class InternationalReader extends Reader {
 
-        private static final Logger logger = Logger.getLogger(InternationalStream.class.getName());
         private static final int FILE_BUF_SIZE = 1024 * 1024;
         private final AbstractFile content;
-        private final byte[] oneCharBuf = new byte[1];
         private final StringExtract stringExtractor;
         /**
          * true if there is nothing to do because neither extractUTF8 nor
@@ -382,17 +381,14 @@ private static class InternationalStream extends InputStream {
         private final boolean nothingToDo;
         private final byte[] fileReadBuff = new byte[FILE_BUF_SIZE];
         private long fileReadOffset = 0L;
-        private byte[] convertBuff; //stores extracted string encoded as bytes, before returned to user
-        private int convertBuffOffset = 0; //offset to start returning data to user on next read()
-        private int bytesInConvertBuff = 0; //amount of data currently in the buffer
+        private int charsInTextBuff = 0; //amount of extracted text in the text buffer of the StringExtract
+        private int textBuffOffset = 0; //offset to start returning text to user on next read()
         private boolean fileEOF = false; //if file has more bytes to read
-        private StringExtract.StringExtractResult lastExtractResult;
 
         /**
-         * Constructs new stream object that does conversion from file, to
-         * extracted strings, then to byte stream, for specified script,
-         * auto-detected encoding (UTF8, UTF16LE, UTF16BE), and specified output
-         * byte stream encoding
+         * Constructs new reader object that does conversion from file, to
+         * extracted strings, for specified script and auto-detected encoding
+         * (UTF8, UTF16LE, UTF16BE)
          *
          * @param content      input content to process and turn into a stream
          *                     to convert into strings
@@ -400,7 +396,7 @@ private static class InternationalStream extends InputStream {
          * @param extractUTF8  whether to extract utf8 encoding
          * @param extractUTF16 whether to extract utf16 encoding
          */
-        private InternationalStream(AbstractFile content, List<SCRIPT> scripts, boolean extractUTF8, boolean extractUTF16) {
+        private InternationalReader(AbstractFile content, List<SCRIPT> scripts, boolean extractUTF8, boolean extractUTF16) {
             this.content = content;
             this.stringExtractor = new StringExtract();
             this.stringExtractor.setEnabledScripts(scripts);
@@ -410,23 +406,10 @@ private InternationalStream(AbstractFile content, List<SCRIPT> scripts, boolean
         }
 
         @Override
-        public int read() throws IOException {
-            if (nothingToDo) {
-                return -1;
-            }
-            final int read = read(oneCharBuf, 0, 1);
-            if (read == 1) {
-                return oneCharBuf[0];
-            } else {
-                return -1;
-            }
-        }
-
-        @Override
-        public int read(byte[] b, int off, int len) throws IOException {
-            if (b == null) {
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (cbuf == null) {
                 throw new NullPointerException();
-            } else if (off < 0 || len < 0 || len > b.length - off) {
+            } else if (off < 0 || len < 0 || len > cbuf.length - off) {
                 throw new IndexOutOfBoundsException();
             } else if (len == 0) {
                 return 0;
@@ -434,79 +417,54 @@ public int read(byte[] b, int off, int len) throws IOException {
             if (nothingToDo) {
                 return -1;
             }
-            long fileSize = content.getSize();
-            if (fileSize == 0) {
-                return -1;
-            }
-            //read and convert until user buffer full
-            //we have data if file can be read or when byteBuff has converted strings to return
-            int bytesToUser = 0; //returned to user so far
-            int offsetUser = off;
-            while (bytesToUser < len && offsetUser < len) {
-                //check if we have enough converted strings
-                int convertBuffRemain = bytesInConvertBuff - convertBuffOffset;
-                if ((convertBuff == null || convertBuffRemain == 0) && !fileEOF && fileReadOffset < fileSize) {
-                    try {
-                        //convert more strings, store in buffer
-                        long toRead = 0;
-
-                        //fill up entire fileReadBuff fresh
-                        toRead = Math.min(FILE_BUF_SIZE, fileSize - fileReadOffset);
-                        //}
-                        int read = content.read(fileReadBuff, fileReadOffset, toRead);
-                        if (read == -1 || read == 0) {
-                            fileEOF = true;
-                        } else {
-                            fileReadOffset += read;
-                            if (fileReadOffset >= fileSize) {
-                                fileEOF = true;
-                            }
-                            //put converted string in convertBuff
-                            convert(read);
-                            convertBuffRemain = bytesInConvertBuff - convertBuffOffset;
-                        }
-                    } catch (TskCoreException ex) {
-                        //Exceptions.printStackTrace(ex);
-                        fileEOF = true;
-                    }
+            //extract strings from more of the file until there are some to return
+            while (textBuffOffset >= charsInTextBuff) {
+                if (fileEOF) {
+                    return -1;
                 }
-                //nothing more to read, and no more bytes in convertBuff
-                if (convertBuff == null || convertBuffRemain == 0) {
-                    if (fileEOF) {
-                        return bytesToUser > 0 ? bytesToUser : -1;
-                    } else {
-                        //no strings extracted, try another read
-                        continue;
-                    }
-                }
-                //return part or all of convert buff to user
-                final int toCopy = Math.min(convertBuffRemain, len - offsetUser);
-                System.arraycopy(convertBuff, convertBuffOffset, b, offsetUser, toCopy);
-
-                convertBuffOffset += toCopy;
-                offsetUser += toCopy;
-                bytesToUser += toCopy;
+                extractMore();
             }
-            //if more string data in convertBuff, will be consumed on next read()
-            return bytesToUser;
+            //return part or all of the extracted text to user,
+            //the rest will be consumed on next read()
+            final int toCopy = Math.min(charsInTextBuff - textBuffOffset, len);
+            System.arraycopy(stringExtractor.getTextBuffer(), textBuffOffset, cbuf, off, toCopy);
+            textBuffOffset += toCopy;
+            return toCopy;
         }
 
         /**
-         * convert bytes in file buffer to string, and encode string in
-         * convertBuffer
-         *
-         * @param numBytes num bytes in the fileReadBuff
+         * Read the next part of the file into the file buffer and extract the
+         * strings in it into the text buffer of the StringExtract.
          */
-        private void convert(int numBytes) {
-            lastExtractResult = stringExtractor.extract(fileReadBuff, numBytes, 0);
-            convertBuff = lastExtractResult.getText().getBytes(Server.DEFAULT_INDEXED_TEXT_CHARSET);
-            //reset tracking vars
-            if (lastExtractResult.getNumBytes() == 0) {
-                bytesInConvertBuff = 0;
-            } else {
-                bytesInConvertBuff = convertBuff.length;
+        private void extractMore() {
+            final long fileSize = content.getSize();
+            if (fileReadOffset >= fileSize) {
+                fileEOF = true;
+                return;
+            }
+            try {
+                //fill up entire fileReadBuff fresh
+                final long toRead = Math.min(FILE_BUF_SIZE, fileSize - fileReadOffset);
+                int read = content.read(fileReadBuff, fileReadOffset, toRead);
+                if (read == -1 || read == 0) {
+                    fileEOF = true;
+                } else {
+                    fileReadOffset += read;
+                    if (fileReadOffset >= fileSize) {
+                        fileEOF = true;
+                    }
+                    charsInTextBuff = stringExtractor.extractChars(fileReadBuff, read, 0);
+                    textBuffOffset = 0;
+                }
+            } catch (TskCoreException ex) {
+                logger.log(Level.WARNING, "Error reading content of " + content.getName() + " (id: " + content.getId() + ") for string extraction", ex); //NON-NLS
+                fileEOF = true;
             }
-            convertBuffOffset = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            //nothing to close, the content is read with AbstractFile.read()
         }
     }
 }
@@ -20,6 +20,7 @@
 
 import com.google.common.io.CharSource;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PushbackReader;
 import java.io.Reader;
 import java.util.List;
@@ -36,8 +37,8 @@
 import org.apache.tika.parser.ParseContext;
 import org.openide.util.NbBundle;
 import org.sleuthkit.autopsy.coreutils.Logger;
+import org.sleuthkit.autopsy.ingest.FileContentCache;
 import org.sleuthkit.datamodel.AbstractFile;
-import org.sleuthkit.datamodel.ReadContentInputStream;
 
 /**
  * Extracts text from Tika supported AbstractFile content. Protects against Tika
@@ -61,7 +62,7 @@ public void logWarning(final String msg, Exception ex) {
 
     @Override
     public Reader getReader(AbstractFile sourceFile) throws TextExtractorException {
-        ReadContentInputStream stream = new ReadContentInputStream(sourceFile);
+        InputStream stream = FileContentCache.getInputStream(sourceFile);
 
         Metadata metadata = new Metadata();
         //Parse the file in a task, a convenient way to have a timeout...